@@ -1,13 +1,19 @@
 package dao;
 
+import db.SqliteConnectionPool;
+
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
+/**
+ * Daje konekcije DAO slojevima. Konekcije dolaze iz zajedničkog
+ * {@link SqliteConnectionPool}-a (po URL-u), pa close() vraća konekciju u pool.
+ */
 public class ConnectionProvider {
     private final String url;
     public ConnectionProvider(String url) { this.url = url; }
     public Connection get() throws SQLException {
-        return DriverManager.getConnection(url);
+        return SqliteConnectionPool.get(url);
     }
-}
\ No newline at end of file
+    public String getUrl() { return url; }
+}
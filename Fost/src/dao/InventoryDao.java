@@ -23,8 +23,7 @@ public class InventoryDao {
         this.cp = cp;
     }
 
-    public void upsertQuantity(String productCode, double quantity, Double unitPrice) throws SQLException {
-        String sql = """
+    private static final String UPSERT_QTY_SQL = """
             INSERT INTO inventory_state(product_code,quantity,purchase_value,last_updated)
             VALUES(?,?,?,CURRENT_TIMESTAMP)
             ON CONFLICT(product_code) DO UPDATE SET
@@ -34,17 +33,38 @@ public class InventoryDao {
                    ELSE inventory_state.purchase_value END,
               last_updated=CURRENT_TIMESTAMP
             """;
-        Double purchaseValue = (unitPrice != null) ? quantity * unitPrice : null;
 
+    public void upsertQuantity(String productCode, double quantity, Double unitPrice) throws SQLException {
         try (Connection c = cp.get();
-             PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setString(1, productCode);
-            ps.setDouble(2, quantity);
-            if (purchaseValue != null) ps.setDouble(3, purchaseValue); else ps.setNull(3, Types.REAL);
+             PreparedStatement ps = c.prepareStatement(UPSERT_QTY_SQL)) {
+            bindQuantity(ps, productCode, quantity, unitPrice);
             ps.executeUpdate();
         }
     }
 
+    /**
+     * Batch upsert količina na konekciji pozivatelja (bez commit-a).
+     * unitPrices: product_code -> nabavna cijena (može nedostajati).
+     */
+    public void upsertQuantities(Connection c, Map<String, Double> quantities,
+                                 Map<String, Double> unitPrices) throws SQLException {
+        if (quantities.isEmpty()) return;
+        try (PreparedStatement ps = c.prepareStatement(UPSERT_QTY_SQL)) {
+            for (var e : quantities.entrySet()) {
+                bindQuantity(ps, e.getKey(), e.getValue(), unitPrices.get(e.getKey()));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private void bindQuantity(PreparedStatement ps, String productCode, double quantity, Double unitPrice) throws SQLException {
+        Double purchaseValue = (unitPrice != null) ? quantity * unitPrice : null;
+        ps.setString(1, productCode);
+        ps.setDouble(2, quantity);
+        if (purchaseValue != null) ps.setDouble(3, purchaseValue); else ps.setNull(3, Types.REAL);
+    }
+
     public Optional<InventoryRecord> find(String code) throws SQLException {
         String sql = "SELECT product_code,quantity,purchase_value,last_updated FROM inventory_state WHERE product_code=?";
         try (Connection c = cp.get();
@@ -126,13 +146,13 @@ public class InventoryDao {
         return out;
     }
 
-    // Novi pun pogled + prodaja u periodu
+    // Novi pun pogled + prodaja u periodu (iz sažetka sales_daily, održava ga SalesDaoImpl)
     public List<ProductInventoryView> fullViewWithSales(LocalDate from, LocalDate to) throws SQLException {
         String sql = """
             WITH period_sales AS (
-                SELECT product_code, SUM(quantity) AS sales_qty
-                  FROM sales
-                 WHERE date BETWEEN ? AND ?
+                SELECT product_code, SUM(qty) AS sales_qty
+                  FROM sales_daily
+                 WHERE epoch_day BETWEEN ? AND ?
                  GROUP BY product_code
             )
             SELECT p.product_code,p.name,p.main_type,p.supplier_code,p.base_unit,p.alt_unit,
@@ -151,8 +171,8 @@ public class InventoryDao {
         try (Connection c = cp.get();
              PreparedStatement ps = c.prepareStatement(sql)) {
 
-            ps.setString(1, from.toString());
-            ps.setString(2, to.toString());
+            ps.setLong(1, from.toEpochDay());
+            ps.setLong(2, to.toEpochDay());
 
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
@@ -13,8 +13,7 @@ public class ProductDao {
         this.cp = cp;
     }
 
-    public void upsert(Product p) throws SQLException {
-        String sql = """
+    private static final String UPSERT_SQL = """
             INSERT INTO products(product_code,name,main_type,supplier_code,base_unit,alt_unit,
                                  area_per_piece,pack_size,min_order_qty,purchase_unit_price,active,updated_at)
             VALUES(?,?,?,?,?,?,?,?,?,?,?,CURRENT_TIMESTAMP)
@@ -31,23 +30,52 @@ public class ProductDao {
               active=excluded.active,
               updated_at=CURRENT_TIMESTAMP
             """;
+
+    public void upsert(Product p) throws SQLException {
         try (Connection c = cp.get();
-             PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setString(1, p.getProductCode());
-            ps.setString(2, p.getName());
-            ps.setString(3, p.getMainType());
-            ps.setString(4, p.getSupplierCode());
-            ps.setString(5, p.getBaseUnit());
-            ps.setString(6, p.getAltUnit());
-            if (p.getAreaPerPiece() != null) ps.setDouble(7, p.getAreaPerPiece()); else ps.setNull(7, Types.REAL);
-            if (p.getPackSize() != null) ps.setDouble(8, p.getPackSize()); else ps.setNull(8, Types.REAL);
-            if (p.getMinOrderQty() != null) ps.setDouble(9, p.getMinOrderQty()); else ps.setNull(9, Types.REAL);
-            if (p.getPurchaseUnitPrice() != null) ps.setDouble(10, p.getPurchaseUnitPrice()); else ps.setNull(10, Types.REAL);
-            ps.setInt(11, p.isActive() ? 1 : 0);
+             PreparedStatement ps = c.prepareStatement(UPSERT_SQL)) {
+            bind(ps, p);
             ps.executeUpdate();
         }
     }
 
+    /** Batch upsert na konekciji pozivatelja (transakciju vodi pozivatelj). */
+    public void upsertAll(Connection c, Collection<Product> products) throws SQLException {
+        if (products.isEmpty()) return;
+        try (PreparedStatement ps = c.prepareStatement(UPSERT_SQL)) {
+            for (Product p : products) {
+                bind(ps, p);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private void bind(PreparedStatement ps, Product p) throws SQLException {
+        ps.setString(1, p.getProductCode());
+        ps.setString(2, p.getName());
+        ps.setString(3, p.getMainType());
+        ps.setString(4, p.getSupplierCode());
+        ps.setString(5, p.getBaseUnit());
+        ps.setString(6, p.getAltUnit());
+        if (p.getAreaPerPiece() != null) ps.setDouble(7, p.getAreaPerPiece()); else ps.setNull(7, Types.REAL);
+        if (p.getPackSize() != null) ps.setDouble(8, p.getPackSize()); else ps.setNull(8, Types.REAL);
+        if (p.getMinOrderQty() != null) ps.setDouble(9, p.getMinOrderQty()); else ps.setNull(9, Types.REAL);
+        if (p.getPurchaseUnitPrice() != null) ps.setDouble(10, p.getPurchaseUnitPrice()); else ps.setNull(10, Types.REAL);
+        ps.setInt(11, p.isActive() ? 1 : 0);
+    }
+
+    /** Sve postojeće šifre proizvoda (jedan upit). */
+    public Set<String> findAllCodes() throws SQLException {
+        Set<String> out = new HashSet<>();
+        try (Connection c = cp.get();
+             PreparedStatement ps = c.prepareStatement("SELECT product_code FROM products");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) out.add(rs.getString(1));
+        }
+        return out;
+    }
+
     public Optional<Product> find(String code) throws SQLException {
         String sql = """
             SELECT product_code,name,main_type,supplier_code,base_unit,alt_unit,
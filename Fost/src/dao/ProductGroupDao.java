@@ -52,6 +52,29 @@ public class ProductGroupDao {
         }
     }
 
+    /**
+     * Skupna zamjena dodjela grupa (product_code -> grupe) na konekciji pozivatelja (bez commit-a).
+     */
+    public void assignAll(Connection c, Map<String, ? extends Collection<String>> groupsByProduct) throws SQLException {
+        if (groupsByProduct.isEmpty()) return;
+        try (PreparedStatement del = c.prepareStatement("DELETE FROM product_group_assignment WHERE product_code=?");
+             PreparedStatement ins = c.prepareStatement(
+                     "INSERT INTO product_group_assignment(product_code,group_code) VALUES(?,?)")) {
+            for (var e : groupsByProduct.entrySet()) {
+                del.setString(1, e.getKey());
+                del.addBatch();
+                for (String g : e.getValue()) {
+                    if (g == null || g.isBlank()) continue;
+                    ins.setString(1, e.getKey());
+                    ins.setString(2, g.trim());
+                    ins.addBatch();
+                }
+            }
+            del.executeBatch();
+            ins.executeBatch();
+        }
+    }
+
     public List<String> groupsForProduct(String productCode) throws SQLException {
         String sql = """
             SELECT group_code FROM product_group_assignment WHERE product_code=? ORDER BY group_code
@@ -4,7 +4,9 @@ import model.ProductSupplier;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -86,6 +88,22 @@ public class ProductSupplierDao {
         return Optional.empty();
     }
 
+    /** Svi primarni dobavljači odjednom: product_code -> ProductSupplier. */
+    public Map<String, ProductSupplier> findAllPrimary() throws SQLException {
+        String sql = """
+            SELECT product_code,supplier_code,primary_flag,lead_time_days,min_order_qty,last_price
+              FROM product_supplier
+             WHERE primary_flag=1
+            """;
+        Map<String, ProductSupplier> out = new HashMap<>();
+        try (Connection c = cp.get();
+             PreparedStatement ps = c.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) out.putIfAbsent(rs.getString(1), map(rs));
+        }
+        return out;
+    }
+
     public void delete(String productCode, String supplierCode) throws SQLException {
         try (Connection c = cp.get();
              PreparedStatement ps = c.prepareStatement(
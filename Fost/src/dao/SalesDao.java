@@ -2,13 +2,26 @@ package dao;
 
 import model.SalesRecord;
 
+import java.sql.Connection;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
 
 public interface SalesDao {
     double getSoldQtyByRange(String productCode, LocalDate from, LocalDate to) throws Exception;
     double getCOGSByRange(String productCode, LocalDate from, LocalDate to) throws Exception;
     void upsert(SalesRecord rec) throws Exception;
 
+    // Batch upsert na konekciji pozivatelja, unutar njegove transakcije (bez commit-a)
+    void upsertInTransaction(Connection c, List<SalesRecord> records) throws Exception;
+
+    // Skupno (jedan GROUP BY upit za sve artikle): product_code -> suma u periodu
+    Map<String, Double> getSoldQtyByProduct(LocalDate from, LocalDate to) throws Exception;
+    Map<String, Double> getCOGSByProduct(LocalDate from, LocalDate to) throws Exception;
+
     // NOVO
     void deleteAll() throws Exception;
+
+    /** Ponovno puni sales_daily iz tablice sales; vraća broj (artikl, dan) redova. */
+    int rebuildDailyRollup() throws Exception;
 }
\ No newline at end of file
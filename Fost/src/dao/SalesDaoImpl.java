@@ -5,12 +5,19 @@ import model.SalesRecord;
 import java.math.BigDecimal;
 import java.sql.*;
 import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
  * SQLite implementacija SalesDao.
+ *
+ * Uz tablicu sales (jedan red po stavci dokumenta) održava se sažetak sales_daily
+ * (product_code, epoch_day, qty, net, cogs). Upsert/batchUpsert u istoj transakciji
+ * ponovno zbrajaju samo dotaknute parove (artikl, dan); svi upiti po periodu čitaju sales_daily.
  */
 public class SalesDaoImpl implements SalesDao {
 
@@ -37,14 +44,56 @@ public class SalesDaoImpl implements SalesDao {
         )
         """;
 
+    private static final String CREATE_DAILY_SQL = """
+        CREATE TABLE IF NOT EXISTS sales_daily (
+          product_code TEXT NOT NULL,
+          epoch_day    INTEGER NOT NULL,
+          qty          REAL NOT NULL DEFAULT 0,
+          net          REAL NOT NULL DEFAULT 0,
+          cogs         REAL NOT NULL DEFAULT 0,
+          PRIMARY KEY(product_code, epoch_day)
+        ) WITHOUT ROWID
+        """;
+
+    // sales.date je TEXT yyyy-MM-dd; julianday(date) - 2440587.5 = LocalDate.toEpochDay()
+    private static final String REBUILD_DAILY_SQL = """
+        INSERT INTO sales_daily(product_code, epoch_day, qty, net, cogs)
+        SELECT product_code,
+               CAST(julianday(date) - 2440587.5 AS INTEGER),
+               COALESCE(SUM(quantity),0), COALESCE(SUM(net_amount),0), COALESCE(SUM(cogs_amount),0)
+          FROM sales
+         WHERE julianday(date) IS NOT NULL
+         GROUP BY product_code, CAST(julianday(date) - 2440587.5 AS INTEGER)
+        """;
+
+    // ponovno zbrajanje jednog (artikl, dan) para - koristi idx_sales_product_date
+    private static final String REFRESH_DAILY_SQL = """
+        INSERT OR REPLACE INTO sales_daily(product_code, epoch_day, qty, net, cogs)
+        SELECT ?, ?, COALESCE(SUM(quantity),0), COALESCE(SUM(net_amount),0), COALESCE(SUM(cogs_amount),0)
+          FROM sales
+         WHERE product_code=? AND date=?
+        """;
+
     private static final String SUM_QTY_RANGE_SQL = """
-        SELECT COALESCE(SUM(quantity),0) FROM sales
-        WHERE product_code=? AND date BETWEEN ? AND ?
+        SELECT COALESCE(SUM(qty),0) FROM sales_daily
+        WHERE product_code=? AND epoch_day BETWEEN ? AND ?
         """;
 
     private static final String SUM_COGS_RANGE_SQL = """
-        SELECT COALESCE(SUM(cogs_amount),0) FROM sales
-        WHERE product_code=? AND date BETWEEN ? AND ?
+        SELECT COALESCE(SUM(cogs),0) FROM sales_daily
+        WHERE product_code=? AND epoch_day BETWEEN ? AND ?
+        """;
+
+    private static final String SUM_QTY_BY_PRODUCT_SQL = """
+        SELECT product_code, SUM(qty) FROM sales_daily
+        WHERE epoch_day BETWEEN ? AND ?
+        GROUP BY product_code
+        """;
+
+    private static final String SUM_COGS_BY_PRODUCT_SQL = """
+        SELECT product_code, SUM(cogs) FROM sales_daily
+        WHERE epoch_day BETWEEN ? AND ?
+        GROUP BY product_code
         """;
 
     private static final String UPSERT_SQL = """
@@ -86,6 +135,14 @@ public class SalesDaoImpl implements SalesDao {
                 if (columnExists(c, TABLE, "customer_code")) {
                     st.executeUpdate("CREATE INDEX IF NOT EXISTS idx_sales_customer ON sales(customer_code)");
                 }
+                boolean dailyExisted = tableExists(c, "sales_daily");
+                st.executeUpdate(CREATE_DAILY_SQL);
+                st.executeUpdate("CREATE INDEX IF NOT EXISTS idx_sales_daily_day ON sales_daily(epoch_day, product_code)");
+                if (!dailyExisted) {
+                    // prvo pokretanje s novom shemom: napuni sažetak iz postojećih prodaja
+                    int n = st.executeUpdate(REBUILD_DAILY_SQL);
+                    System.out.println("[SalesDaoImpl] sales_daily izgrađen iz postojećih prodaja: " + n + " redova");
+                }
                 schemaEnsured = true;
             } catch (SQLException e) {
                 throw new RuntimeException("Failed ensuring sales schema", e);
@@ -102,6 +159,16 @@ public class SalesDaoImpl implements SalesDao {
         return s;
     }
 
+    private boolean tableExists(Connection c, String table) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(
+                "SELECT 1 FROM sqlite_master WHERE type='table' AND name=?")) {
+            ps.setString(1, table);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
     private boolean columnExists(Connection c, String table, String column) throws SQLException {
         String lc = column.toLowerCase();
         try (Statement st = c.createStatement();
@@ -116,8 +183,8 @@ public class SalesDaoImpl implements SalesDao {
         try (Connection c = cp.get();
              PreparedStatement ps = c.prepareStatement(SUM_QTY_RANGE_SQL)) {
             ps.setString(1, productCode);
-            ps.setString(2, from.toString());
-            ps.setString(3, to.toString());
+            ps.setLong(2, from.toEpochDay());
+            ps.setLong(3, to.toEpochDay());
             try (ResultSet rs = ps.executeQuery()) {
                 return rs.next() ? rs.getDouble(1) : 0.0;
             }
@@ -129,8 +196,8 @@ public class SalesDaoImpl implements SalesDao {
         try (Connection c = cp.get();
              PreparedStatement ps = c.prepareStatement(SUM_COGS_RANGE_SQL)) {
             ps.setString(1, productCode);
-            ps.setString(2, from.toString());
-            ps.setString(3, to.toString());
+            ps.setLong(2, from.toEpochDay());
+            ps.setLong(3, to.toEpochDay());
             try (ResultSet rs = ps.executeQuery()) {
                 return rs.next() ? rs.getDouble(1) : 0.0;
             }
@@ -138,27 +205,89 @@ public class SalesDaoImpl implements SalesDao {
     }
 
     @Override
-    public void upsert(SalesRecord rec) throws Exception {
+    public Map<String, Double> getSoldQtyByProduct(LocalDate from, LocalDate to) throws Exception {
+        return sumByProduct(SUM_QTY_BY_PRODUCT_SQL, from, to);
+    }
+
+    @Override
+    public Map<String, Double> getCOGSByProduct(LocalDate from, LocalDate to) throws Exception {
+        return sumByProduct(SUM_COGS_BY_PRODUCT_SQL, from, to);
+    }
+
+    private Map<String, Double> sumByProduct(String sql, LocalDate from, LocalDate to) throws SQLException {
+        Map<String, Double> out = new HashMap<>();
         try (Connection c = cp.get();
-             PreparedStatement ps = c.prepareStatement(UPSERT_SQL)) {
-            bindRecord(ps, rec);
-            ps.executeUpdate();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setLong(1, from.toEpochDay());
+            ps.setLong(2, to.toEpochDay());
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) out.put(rs.getString(1), rs.getDouble(2));
+            }
         }
+        return out;
+    }
+
+    @Override
+    public void upsert(SalesRecord rec) throws Exception {
+        batchUpsert(List.of(rec));
     }
 
     public void batchUpsert(List<SalesRecord> records) throws Exception {
         if (records == null || records.isEmpty()) return;
-        try (Connection c = cp.get();
-             PreparedStatement ps = c.prepareStatement(UPSERT_SQL)) {
+        try (Connection c = cp.get()) {
             boolean auto = c.getAutoCommit();
             c.setAutoCommit(false);
             try {
-                for (SalesRecord r : records) {
-                    bindRecord(ps, r);
-                    ps.addBatch();
-                }
-                ps.executeBatch();
+                upsertInTransaction(c, records);
+                c.commit();
+            } catch (Exception ex) {
+                c.rollback();
+                throw ex;
+            } finally {
+                c.setAutoCommit(auto);
+            }
+        }
+    }
+
+    /**
+     * Upsert stavki + osvježavanje sales_daily za dotaknute (artikl, dan) parove,
+     * na konekciji pozivatelja (bez commit-a).
+     */
+    @Override
+    public void upsertInTransaction(Connection c, List<SalesRecord> records) throws SQLException {
+        Set<SalesKey> touched = new LinkedHashSet<>();
+        try (PreparedStatement ps = c.prepareStatement(UPSERT_SQL)) {
+            for (SalesRecord r : records) {
+                bindRecord(ps, r);
+                ps.addBatch();
+                touched.add(new SalesKey(r.getProductCode(), r.getDate()));
+            }
+            ps.executeBatch();
+        }
+        try (PreparedStatement ps = c.prepareStatement(REFRESH_DAILY_SQL)) {
+            for (SalesKey k : touched) {
+                ps.setString(1, k.productCode());
+                ps.setLong(2, k.date().toEpochDay());
+                ps.setString(3, k.productCode());
+                ps.setString(4, k.date().toString());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private record SalesKey(String productCode, LocalDate date) {}
+
+    @Override
+    public int rebuildDailyRollup() throws Exception {
+        try (Connection c = cp.get(); Statement st = c.createStatement()) {
+            boolean auto = c.getAutoCommit();
+            c.setAutoCommit(false);
+            try {
+                st.executeUpdate("DELETE FROM sales_daily");
+                int n = st.executeUpdate(REBUILD_DAILY_SQL);
                 c.commit();
+                return n;
             } catch (Exception ex) {
                 c.rollback();
                 throw ex;
@@ -192,6 +321,10 @@ public class SalesDaoImpl implements SalesDao {
     public void deleteAll() throws Exception {
         try (Connection c = cp.get(); Statement st = c.createStatement()) {
             st.executeUpdate("DELETE FROM sales");
+            st.executeUpdate("DELETE FROM sales_daily");
+            // evidencija uvoza više ne odgovara sadržaju - bez nje bi ponovni uvoz preskočio stavke
+            if (tableExists(c, "sales_import_rows")) st.executeUpdate("DELETE FROM sales_import_rows");
+            if (tableExists(c, "sales_import_files")) st.executeUpdate("DELETE FROM sales_import_files");
         }
     }
 }
\ No newline at end of file
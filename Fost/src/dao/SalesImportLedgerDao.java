@@ -0,0 +1,208 @@
+package dao;
+
+import model.SalesRecord;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Evidencija uvoza prodaje (ledger):
+ * - sales_import_files: SHA-256 svake uvezene datoteke (ista datoteka se drugi put ne uvozi),
+ * - sales_import_rows: hash sadržaja svake stavke po ključu (product_code, date, doc_type, doc_no).
+ *
+ * Ponovni uvoz preklapajućih izvoza upisuje u sales samo nove i promijenjene stavke;
+ * nepromijenjene se prepoznaju po hashu prije diranja tablice sales.
+ * Metode koje primaju Connection rade u transakciji pozivatelja (bez commit-a).
+ */
+public class SalesImportLedgerDao {
+
+    private static volatile boolean schemaEnsured = false;
+
+    private static final String CREATE_FILES_SQL = """
+        CREATE TABLE IF NOT EXISTS sales_import_files (
+          file_hash   TEXT PRIMARY KEY,
+          file_name   TEXT,
+          size        INTEGER,
+          row_count   INTEGER,
+          imported_at TEXT
+        )
+        """;
+
+    private static final String CREATE_ROWS_SQL = """
+        CREATE TABLE IF NOT EXISTS sales_import_rows (
+          product_code TEXT NOT NULL,
+          date         TEXT NOT NULL,
+          doc_type     TEXT NOT NULL DEFAULT '',
+          doc_no       TEXT NOT NULL DEFAULT '',
+          row_hash     INTEGER NOT NULL,
+          PRIMARY KEY(product_code, date, doc_type, doc_no)
+        ) WITHOUT ROWID
+        """;
+
+    private static final String FIND_ROW_HASH_SQL = """
+        SELECT row_hash FROM sales_import_rows
+        WHERE product_code=? AND date=? AND doc_type=? AND doc_no=?
+        """;
+
+    private static final String UPSERT_ROW_HASH_SQL = """
+        INSERT INTO sales_import_rows(product_code, date, doc_type, doc_no, row_hash)
+        VALUES(?,?,?,?,?)
+        ON CONFLICT(product_code, date, doc_type, doc_no) DO UPDATE SET row_hash=excluded.row_hash
+        """;
+
+    /** Rezultat razvrstavanja jednog bloka stavki. */
+    public static final class Diff {
+        public final List<SalesRecord> added = new ArrayList<>();
+        public final List<SalesRecord> changed = new ArrayList<>();
+        public int unchanged = 0;
+
+        /** Stavke koje treba upisati u sales (nove + promijenjene). */
+        public List<SalesRecord> toWrite() {
+            List<SalesRecord> out = new ArrayList<>(added.size() + changed.size());
+            out.addAll(added);
+            out.addAll(changed);
+            return out;
+        }
+    }
+
+    private final ConnectionProvider cp;
+
+    public SalesImportLedgerDao(ConnectionProvider cp) {
+        this.cp = cp;
+        ensureSchema();
+    }
+
+    private void ensureSchema() {
+        if (schemaEnsured) return;
+        synchronized (SalesImportLedgerDao.class) {
+            if (schemaEnsured) return;
+            try (Connection c = cp.get(); Statement st = c.createStatement()) {
+                st.executeUpdate(CREATE_FILES_SQL);
+                st.executeUpdate(CREATE_ROWS_SQL);
+                schemaEnsured = true;
+            } catch (SQLException e) {
+                throw new RuntimeException("Ne mogu kreirati tablice ledgera uvoza prodaje", e);
+            }
+        }
+    }
+
+    /** Je li datoteka s ovim SHA-256 već uvezena. */
+    public boolean isFileImported(String fileHash) throws SQLException {
+        try (Connection c = cp.get();
+             PreparedStatement ps = c.prepareStatement("SELECT 1 FROM sales_import_files WHERE file_hash=?")) {
+            ps.setString(1, fileHash);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    public void recordFile(Connection c, String fileHash, String fileName, long size, int rowCount) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement("""
+                INSERT OR REPLACE INTO sales_import_files(file_hash, file_name, size, row_count, imported_at)
+                VALUES(?,?,?,?,?)
+                """)) {
+            ps.setString(1, fileHash);
+            ps.setString(2, fileName);
+            ps.setLong(3, size);
+            ps.setInt(4, rowCount);
+            ps.setString(5, LocalDateTime.now().withNano(0).toString());
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Razvrstava blok stavki na nove / promijenjene / nepromijenjene prema spremljenim hashovima
+     * (jedan lookup po primarnom ključu po stavci). Ne mijenja ništa u bazi.
+     */
+    public Diff diff(Connection c, List<SalesRecord> records) throws SQLException {
+        Diff d = new Diff();
+        try (PreparedStatement ps = c.prepareStatement(FIND_ROW_HASH_SQL)) {
+            for (SalesRecord r : records) {
+                bindKey(ps, r);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next()) {
+                        d.added.add(r);
+                    } else if (rs.getLong(1) != rowHash(r)) {
+                        d.changed.add(r);
+                    } else {
+                        d.unchanged++;
+                    }
+                }
+            }
+        }
+        return d;
+    }
+
+    /** Sprema (zamjenjuje) hash sadržaja za zadane stavke. */
+    public void recordRows(Connection c, Collection<SalesRecord> records) throws SQLException {
+        if (records.isEmpty()) return;
+        try (PreparedStatement ps = c.prepareStatement(UPSERT_ROW_HASH_SQL)) {
+            for (SalesRecord r : records) {
+                bindKey(ps, r);
+                ps.setLong(5, rowHash(r));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    /** Briše cijelu evidenciju (npr. nakon brisanja tablice sales). */
+    public void clear(Connection c) throws SQLException {
+        try (Statement st = c.createStatement()) {
+            st.executeUpdate("DELETE FROM sales_import_rows");
+            st.executeUpdate("DELETE FROM sales_import_files");
+        }
+    }
+
+    private static void bindKey(PreparedStatement ps, SalesRecord r) throws SQLException {
+        ps.setString(1, r.getProductCode());
+        ps.setString(2, r.getDate().toString());
+        ps.setString(3, r.getDocType() == null ? "" : r.getDocType());
+        ps.setString(4, r.getDocNo() == null ? "" : r.getDocNo());
+    }
+
+    /**
+     * 64-bitni FNV-1a hash sadržaja stavke (sve osim ključa). Iznosi se uspoređuju bez nula na kraju,
+     * pa "10.50" i "10.5" daju isti hash.
+     */
+    public static long rowHash(SalesRecord r) {
+        long h = 0xcbf29ce484222325L;
+        h = mix(h, Double.doubleToLongBits(r.getQuantity() + 0.0));
+        h = mix(h, amount(r.getNetAmount()));
+        h = mix(h, amount(r.getGrossAmount()));
+        h = mix(h, amount(r.getVatAmount()));
+        h = mix(h, amount(r.getDiscountAmount()));
+        h = mix(h, r.getCustomerCode());
+        h = mix(h, r.getCogsAmount() == null ? null : Double.toString(r.getCogsAmount()));
+        return h;
+    }
+
+    private static String amount(BigDecimal v) {
+        return v == null ? null : v.stripTrailingZeros().toPlainString();
+    }
+
+    private static long mix(long h, long v) {
+        for (int i = 0; i < 8; i++) {
+            h ^= (v >>> (i * 8)) & 0xFF;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    private static long mix(long h, String s) {
+        if (s == null) {
+            h ^= 0xFF;
+            return h * 0x100000001b3L;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        // separator između polja
+        h ^= 0x1F;
+        return h * 0x100000001b3L;
+    }
+}
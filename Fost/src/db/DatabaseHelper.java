@@ -1,8 +1,10 @@
 package db;
 
 import javax.swing.table.DefaultTableModel;
+import logic.WorkingDayCalendar;
 import logic.WorkingTimeCalculator;
 import logic.DateUtils;
+import model.DirtyTrackingTableModel;
 import java.sql.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -19,6 +21,9 @@ import java.util.*;
 public class DatabaseHelper {
 
     private static final String DB_URL = "jdbc:sqlite:fost.db";
+    private static final String ROW_KEY_LABEL = "_rowKey";
+
+    private static volatile boolean schemaEnsured = false;
 
     // fallback parametri (ako nema dovoljno podataka)
     private static final double FALLBACK_M2_PER_HOUR = 10.0;
@@ -29,6 +34,8 @@ public class DatabaseHelper {
      * - Kreira tablicu 'narudzbe' ako ne postoji sa svim kolonama (uključujući predPlanIsporuke i trgovackiPredstavnik).
      * - Kreira tablicu 'komitenti' ako ne postoji.
      * - Ako tablica postoji, osigurava da potrebni stupci postoje (ALTER TABLE ADD COLUMN ako nedostaje).
+     * - Stare tablice bez primarnog ključa migrira na "id INTEGER PRIMARY KEY" (rowid -> id).
+     * - Kreira indekse na status, komitentOpis, endTime i datumNarudzbe.
      */
     
     // gdje ide ova metoda?
@@ -43,7 +50,7 @@ public class DatabaseHelper {
     //         // ostatak pokretanja aplikacije...
     
     public static void initializeDatabase() {
-        try (Connection conn = DriverManager.getConnection(DB_URL)) {
+        try (Connection conn = SqliteConnectionPool.get(DB_URL)) {
             conn.setAutoCommit(false);
 
             // Ensure narudzbe table exists
@@ -57,6 +64,7 @@ public class DatabaseHelper {
             if (!tableExists) {
                 try (Statement stmt = conn.createStatement()) {
                     String sql = "CREATE TABLE narudzbe (" +
+                            "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
                             "datumNarudzbe TEXT, " +
                             "predDatumIsporuke TEXT, " +
                             "komitentOpis TEXT, " +
@@ -73,7 +81,12 @@ public class DatabaseHelper {
                             "endTime TEXT, " +
                             "duration TEXT, " +
                             "predPlanIsporuke TEXT, " +          // NOVO
-                            "trgovackiPredstavnik TEXT" +
+                            "trgovackiPredstavnik TEXT, " +
+                            "orderEpoch INTEGER, " +             // tipizirani datumi (lokalni epoch, sekunde)
+                            "deliveryEpoch INTEGER, " +
+                            "planEpoch INTEGER, " +
+                            "startEpoch INTEGER, " +
+                            "endEpoch INTEGER" +
                             ")";
                     stmt.execute(sql);
                 }
@@ -87,9 +100,20 @@ public class DatabaseHelper {
                     if (!cols.contains("trgovackiPredstavnik")) {
                         stmt.execute("ALTER TABLE narudzbe ADD COLUMN trgovackiPredstavnik TEXT");
                     }
+                    for (String[] pair : EPOCH_COLUMNS) {
+                        if (!cols.contains(pair[1])) {
+                            stmt.execute("ALTER TABLE narudzbe ADD COLUMN " + pair[1] + " INTEGER");
+                        }
+                    }
+                }
+                if (!cols.contains("id")) {
+                    migrateToSurrogateKey(conn);
                 }
             }
 
+            backfillEpochColumns(conn);
+            ensureNarudzbeIndexes(conn);
+
             // Ensure komitenti table exists (used for komitent -> predstavnik mapping)
             try (PreparedStatement ps = conn.prepareStatement(
                     "SELECT name FROM sqlite_master WHERE type='table' AND name='komitenti'");
@@ -107,12 +131,93 @@ public class DatabaseHelper {
 
             conn.commit();
             conn.setAutoCommit(true);
+            schemaEnsured = true;
 
         } catch (SQLException e) {
             e.printStackTrace();
         }
     }
 
+    /** Inicijalizira shemu jednom po pokretanju (prije prvog čitanja/pisanja narudzbi). */
+    private static void ensureSchema() {
+        if (schemaEnsured) return;
+        synchronized (DatabaseHelper.class) {
+            if (!schemaEnsured) initializeDatabase();
+        }
+    }
+
+    /**
+     * Migracija stare tablice bez primarnog ključa: tablica se prepisuje u novu s
+     * "id INTEGER PRIMARY KEY AUTOINCREMENT", a postojeći rowid postaje id.
+     * Idempotentno - poziva se samo ako stupac id ne postoji.
+     */
+    private static void migrateToSurrogateKey(Connection conn) throws SQLException {
+        List<String> colDefs = new ArrayList<>();
+        List<String> colNames = new ArrayList<>();
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("PRAGMA table_info('narudzbe')")) {
+            while (rs.next()) {
+                String name = rs.getString("name");
+                String type = rs.getString("type");
+                colNames.add(name);
+                colDefs.add(name + (type == null || type.isBlank() ? "" : " " + type));
+            }
+        }
+        String cols = String.join(", ", colNames);
+        try (Statement st = conn.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS narudzbe_migr");
+            st.execute("CREATE TABLE narudzbe_migr (id INTEGER PRIMARY KEY AUTOINCREMENT, "
+                    + String.join(", ", colDefs) + ")");
+            st.execute("INSERT INTO narudzbe_migr (id, " + cols + ") SELECT rowid, " + cols
+                    + " FROM narudzbe ORDER BY rowid");
+            st.execute("DROP TABLE narudzbe");
+            st.execute("ALTER TABLE narudzbe_migr RENAME TO narudzbe");
+        }
+        System.out.println("initializeDatabase: narudzbe migrirana na INTEGER PRIMARY KEY id (" + colNames.size() + " stupaca).");
+    }
+
+    /**
+     * Popunjava epoch stupce za redove gdje tekstualni datum postoji, a epoch ne
+     * (stari zapisi ili zapisi iz starije verzije aplikacije). Idempotentno.
+     */
+    private static void backfillEpochColumns(Connection conn) throws SQLException {
+        StringJoiner missing = new StringJoiner(" OR ");
+        StringJoiner select = new StringJoiner(", ");
+        StringJoiner set = new StringJoiner(", ");
+        for (String[] pair : EPOCH_COLUMNS) {
+            missing.add("(COALESCE(" + pair[0] + ", '') <> '' AND " + pair[1] + " IS NULL)");
+            select.add(pair[0]);
+            set.add(pair[1] + " = ?");
+        }
+        String sql = "SELECT id, " + select + " FROM narudzbe WHERE " + missing;
+        int updated = 0;
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery(sql);
+             PreparedStatement ps = conn.prepareStatement("UPDATE narudzbe SET " + set + " WHERE id = ?")) {
+            while (rs.next()) {
+                for (int i = 0; i < EPOCH_COLUMNS.length; i++) {
+                    setNullableLong(ps, i + 1, toEpoch(rs.getString(i + 2)));
+                }
+                ps.setLong(EPOCH_COLUMNS.length + 1, rs.getLong(1));
+                ps.addBatch();
+                updated++;
+            }
+            if (updated > 0) ps.executeBatch();
+        }
+        if (updated > 0) System.out.println("initializeDatabase: epoch stupci popunjeni za " + updated + " redova.");
+    }
+
+    /** Indeksi za pretrage po statusu, komitentu i datumima (IF NOT EXISTS - sigurno za ponovni poziv). */
+    private static void ensureNarudzbeIndexes(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            // tekstualni datumi (dd.MM.yyyy) nisu sortabilni - rasponi idu preko epoch stupaca
+            st.execute("CREATE INDEX IF NOT EXISTS idx_narudzbe_status_end ON narudzbe(status COLLATE NOCASE, endEpoch)");
+            st.execute("CREATE INDEX IF NOT EXISTS idx_narudzbe_komitent ON narudzbe(komitentOpis)");
+            st.execute("CREATE INDEX IF NOT EXISTS idx_narudzbe_endEpoch ON narudzbe(endEpoch)");
+            st.execute("CREATE INDEX IF NOT EXISTS idx_narudzbe_orderEpoch ON narudzbe(orderEpoch)");
+        }
+    }
+
     private static Set<String> getTableColumns(Connection conn, String tableName) throws SQLException {
         Set<String> cols = new HashSet<>();
         String pragma = "PRAGMA table_info('" + tableName + "')";
@@ -125,82 +230,194 @@ public class DatabaseHelper {
         return cols;
     }
 
+    // Kolone tablice narudzbe koje se spremaju iz UI modela (redoslijed = redoslijed parametara u SQL-u)
+    private static final String[] PERSISTED_COLUMNS = {
+            "datumNarudzbe", "predDatumIsporuke", "komitentOpis", "nazivRobe",
+            "netoVrijednost", "kom", "status", "djelatnik", "mm", "m", "tisucl", "m2",
+            "startTime", "endTime", "duration", "predPlanIsporuke", "trgovackiPredstavnik"
+    };
+
+    // Tekstualni datum -> tipizirani stupac (lokalni epoch u sekundama, vidi DateUtils.toLocalEpochSecond)
+    private static final String[][] EPOCH_COLUMNS = {
+            {"datumNarudzbe", "orderEpoch"},
+            {"predDatumIsporuke", "deliveryEpoch"},
+            {"predPlanIsporuke", "planEpoch"},
+            {"startTime", "startEpoch"},
+            {"endTime", "endEpoch"}
+    };
+
+    private static final String SQL_INSERT_NARUDZBA = "INSERT INTO narudzbe (" +
+            String.join(", ", allWrittenColumns()) +
+            ") VALUES (" + placeholders(allWrittenColumns().size()) + ")";
+
+    // UPSERT po id-u (parametar 1 = id, zatim PERSISTED_COLUMNS i epoch stupci)
+    private static final String SQL_UPSERT_NARUDZBA = "INSERT INTO narudzbe (id, " +
+            String.join(", ", allWrittenColumns()) +
+            ") VALUES (" + placeholders(allWrittenColumns().size() + 1) + ") ON CONFLICT(id) DO UPDATE SET " +
+            upsertAssignments();
+
+    private static final String SQL_DELETE_NARUDZBA = "DELETE FROM narudzbe WHERE id = ?";
+
+    private static List<String> allWrittenColumns() {
+        List<String> cols = new ArrayList<>(Arrays.asList(PERSISTED_COLUMNS));
+        for (String[] pair : EPOCH_COLUMNS) cols.add(pair[1]);
+        return cols;
+    }
+
+    private static String placeholders(int n) {
+        return String.join(",", Collections.nCopies(n, "?"));
+    }
+
+    private static String upsertAssignments() {
+        StringJoiner sj = new StringJoiner(", ");
+        for (String c : allWrittenColumns()) sj.add(c + " = excluded." + c);
+        return sj.toString();
+    }
+
     /**
-     * Sprema podatke iz DefaultTableModel-a u bazu:
-     * Briše sve prethodne zapise iz 'narudzbe', upisuje nove.
-     * Radi sa fiksnim setom kolona (koje su kompatibilne s UI modelom), uključujući predPlanIsporuke.
+     * Sprema podatke iz DefaultTableModel-a u bazu.
+     *
+     * Ako je model {@link DirtyTrackingTableModel}, spremaju se samo promjene (INSERT/UPSERT/DELETE
+     * po id-u) u jednoj transakciji. Inače (stari način): briše sve zapise iz 'narudzbe' i upisuje nove.
      */
     public static void saveToDatabase(DefaultTableModel model) {
         if (model == null) return;
+        ensureSchema();
+        if (model instanceof DirtyTrackingTableModel) {
+            saveChanges((DirtyTrackingTableModel) model);
+            return;
+        }
 
-        String insert = "INSERT INTO narudzbe (" +
-                "datumNarudzbe, predDatumIsporuke, komitentOpis, nazivRobe, " +
-                "netoVrijednost, kom, status, djelatnik, mm, m, tisucl, m2, " +
-                "startTime, endTime, duration, predPlanIsporuke, trgovackiPredstavnik" +
-                ") VALUES (?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?)";
-
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = SqliteConnectionPool.get(DB_URL);
              Statement clean = conn.createStatement();
-             PreparedStatement ps = conn.prepareStatement(insert)) {
+             PreparedStatement ps = conn.prepareStatement(SQL_INSERT_NARUDZBA)) {
 
             conn.setAutoCommit(false);
             clean.execute("DELETE FROM narudzbe");
 
-            // Mapiranje indeksa (ako neki stupac ne postoji u modelu, koristimo -1)
-            int idxDatumNarudzbe     = findColumnSafe(model, "datumNarudzbe");
-            int idxPredDatumIsporuke = findColumnSafe(model, "predDatumIsporuke");
-            int idxKomitentOpis       = findColumnSafe(model, "komitentOpis");
-            int idxNazivRobe         = findColumnSafe(model, "nazivRobe");
-            int idxNetoVrijednost    = findColumnSafe(model, "netoVrijednost");
-            int idxKom               = findColumnSafe(model, "kom");
-            int idxStatus            = findColumnSafe(model, "status");
-            int idxDjelatnik         = findColumnSafe(model, "djelatnik");
-            int idxMm                = findColumnSafe(model, "mm");
-            int idxM                 = findColumnSafe(model, "m");
-            int idxTisucl            = findColumnSafe(model, "tisucl");
-            int idxM2                = findColumnSafe(model, "m2");
-            int idxStartTime         = findColumnSafe(model, "startTime");
-            int idxEndTime           = findColumnSafe(model, "endTime");
-            int idxDuration          = findColumnSafe(model, "duration");
-            int idxPredPlan          = findColumnSafe(model, "predPlanIsporuke");
-            int idxTrgovacki         = findColumnSafe(model, "trgovackiPredstavnik");
-
+            int[] idx = persistedColumnIndexes(model);
             for (int r = 0; r < model.getRowCount(); r++) {
-                setStringOrNull(ps, 1, idxDatumNarudzbe >= 0 ? asString(model.getValueAt(r, idxDatumNarudzbe)) : null);
-                setStringOrNull(ps, 2, idxPredDatumIsporuke >= 0 ? asString(model.getValueAt(r, idxPredDatumIsporuke)) : null);
-                setStringOrNull(ps, 3, idxKomitentOpis >= 0 ? asString(model.getValueAt(r, idxKomitentOpis)) : null);
-                setStringOrNull(ps, 4, idxNazivRobe >= 0 ? asString(model.getValueAt(r, idxNazivRobe)) : null);
+                bindRow(ps, 1, model, r, idx);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            conn.commit();
+            conn.setAutoCommit(true);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
 
-                setNullableDouble(ps, 5, idxNetoVrijednost >= 0 ? model.getValueAt(r, idxNetoVrijednost) : null);
-                setNullableInteger(ps, 6, idxKom >= 0 ? model.getValueAt(r, idxKom) : null);
+    /**
+     * Inkrementalno spremanje: samo obrisani, promijenjeni i novi redovi, sve u jednoj transakciji.
+     * Promijenjeni redovi idu kao UPSERT po id-u, novi redovi dobivaju id nakon INSERT-a. Ako transakcija ne uspije,
+     * evidencija promjena u modelu ostaje netaknuta pa se spremanje može ponoviti.
+     */
+    public static void saveChanges(DirtyTrackingTableModel model) {
+        if (model == null || !model.hasChanges()) return;
+        ensureSchema();
 
-                setStringOrNull(ps, 7, idxStatus >= 0 ? asString(model.getValueAt(r, idxStatus)) : null);
-                setStringOrNull(ps, 8, idxDjelatnik >= 0 ? asString(model.getValueAt(r, idxDjelatnik)) : null);
+        List<Integer> updatedRows = model.getUpdatedRows();
+        List<Integer> insertedRows = model.getInsertedRows();
+        Set<Long> deletedKeys = model.getDeletedKeys();
+        Map<Integer, Long> newKeys = new LinkedHashMap<>();
 
-                setNullableDouble(ps, 9, idxMm >= 0 ? model.getValueAt(r, idxMm) : null);
-                setNullableDouble(ps, 10, idxM >= 0 ? model.getValueAt(r, idxM) : null);
-                setNullableDouble(ps, 11, idxTisucl >= 0 ? model.getValueAt(r, idxTisucl) : null);
-                setNullableDouble(ps, 12, idxM2 >= 0 ? model.getValueAt(r, idxM2) : null);
+        try (Connection conn = SqliteConnectionPool.get(DB_URL)) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement del = conn.prepareStatement(SQL_DELETE_NARUDZBA);
+                 PreparedStatement upd = conn.prepareStatement(SQL_UPSERT_NARUDZBA);
+                 PreparedStatement ins = conn.prepareStatement(SQL_INSERT_NARUDZBA, Statement.RETURN_GENERATED_KEYS)) {
 
-                setStringOrNull(ps, 13, idxStartTime >= 0 ? asString(model.getValueAt(r, idxStartTime)) : null);
-                setStringOrNull(ps, 14, idxEndTime >= 0 ? asString(model.getValueAt(r, idxEndTime)) : null);
-                setStringOrNull(ps, 15, idxDuration >= 0 ? asString(model.getValueAt(r, idxDuration)) : null);
+                int[] idx = persistedColumnIndexes(model);
 
-                // predPlanIsporuke (novo)
-                setStringOrNull(ps, 16, idxPredPlan >= 0 ? asString(model.getValueAt(r, idxPredPlan)) : null);
+                if (!deletedKeys.isEmpty()) {
+                    for (Long key : deletedKeys) {
+                        del.setLong(1, key);
+                        del.addBatch();
+                    }
+                    del.executeBatch();
+                }
 
-                setStringOrNull(ps, 17, idxTrgovacki >= 0 ? asString(model.getValueAt(r, idxTrgovacki)) : null);
+                if (!updatedRows.isEmpty()) {
+                    for (int r : updatedRows) {
+                        upd.setLong(1, model.getRowKey(r));
+                        bindRow(upd, 2, model, r, idx);
+                        upd.addBatch();
+                    }
+                    upd.executeBatch();
+                }
 
-                ps.addBatch();
+                for (int r : insertedRows) {
+                    bindRow(ins, 1, model, r, idx);
+                    ins.executeUpdate();
+                    try (ResultSet keys = ins.getGeneratedKeys()) {
+                        if (keys.next()) newKeys.put(r, keys.getLong(1));
+                    }
+                }
+
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
-            ps.executeBatch();
-            conn.commit();
-            conn.setAutoCommit(true);
+
+            for (Map.Entry<Integer, Long> e : newKeys.entrySet()) {
+                model.assignRowKey(e.getKey(), e.getValue());
+            }
+            model.markClean();
+            System.out.println("saveChanges: obrisano=" + deletedKeys.size()
+                    + ", ažurirano=" + updatedRows.size() + ", dodano=" + insertedRows.size());
         } catch (SQLException e) {
             e.printStackTrace();
         }
     }
 
+    private static int[] persistedColumnIndexes(DefaultTableModel model) {
+        int[] idx = new int[PERSISTED_COLUMNS.length];
+        for (int i = 0; i < PERSISTED_COLUMNS.length; i++) {
+            idx[i] = findColumnSafe(model, PERSISTED_COLUMNS[i]);
+        }
+        return idx;
+    }
+
+    /**
+     * Veže vrijednosti reda r na parametre od firstParam nadalje (ako stupac ne postoji u modelu -> NULL),
+     * a zatim epoch vrijednosti izračunate iz istih tekstualnih datuma (da uvijek budu usklađene).
+     */
+    private static void bindRow(PreparedStatement ps, int firstParam, DefaultTableModel model, int r, int[] idx) throws SQLException {
+        Map<String, String> texts = new HashMap<>();
+        for (int i = 0; i < PERSISTED_COLUMNS.length; i++) {
+            Object val = idx[i] >= 0 ? model.getValueAt(r, idx[i]) : null;
+            int p = firstParam + i;
+            switch (PERSISTED_COLUMNS[i]) {
+                case "netoVrijednost", "mm", "m", "tisucl", "m2" -> setNullableDouble(ps, p, val);
+                case "kom" -> setNullableInteger(ps, p, val);
+                default -> {
+                    String str = asString(val);
+                    texts.put(PERSISTED_COLUMNS[i], str);
+                    setStringOrNull(ps, p, str);
+                }
+            }
+        }
+        int p = firstParam + PERSISTED_COLUMNS.length;
+        for (String[] pair : EPOCH_COLUMNS) {
+            setNullableLong(ps, p++, toEpoch(texts.get(pair[0])));
+        }
+    }
+
+    /** Tekstualni datum/vrijeme iz tablice -> lokalni epoch (sekunde) ili null. */
+    private static Long toEpoch(String text) {
+        LocalDateTime dt = DateUtils.parseFlexible(text);
+        return dt == null ? null : DateUtils.toLocalEpochSecond(dt);
+    }
+
+    private static void setNullableLong(PreparedStatement ps, int index, Long val) throws SQLException {
+        if (val == null) ps.setNull(index, Types.INTEGER);
+        else ps.setLong(index, val);
+    }
+
     private static int findColumnSafe(DefaultTableModel model, String name) {
         try {
             return model.findColumn(name);
@@ -226,61 +443,172 @@ public class DatabaseHelper {
      * (ako postoji u DB) i popunjava samo one kolone koje su prisutne u bazi.
      */
     public static void loadFromDatabase(DefaultTableModel model) {
-        String select = "SELECT * FROM narudzbe";
-        Map<String, String> komitentMap = loadKomitentPredstavnikMap();
-
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(select)) {
+        loadFromDatabase(model, 0);
+    }
 
-            model.setRowCount(0);
+    /**
+     * Učitava narudžbe u model. Ako je completedHistoryDays > 0, učitavaju se samo
+     * neizrađene narudžbe i izrađene u zadnjih completedHistoryDays dana (po endEpoch, inače orderEpoch);
+     * starija povijest ostaje u bazi i pregledava se kroz PagedOrdersTableModel.
+     */
+    public static void loadFromDatabase(DefaultTableModel model, int completedHistoryDays) {
+        ensureSchema();
+        String select = "SELECT id AS " + ROW_KEY_LABEL + ", * FROM narudzbe";
+        if (completedHistoryDays > 0) {
+            select += " WHERE status IS NULL OR status <> 'Izrađeno' COLLATE NOCASE"
+                    + " OR COALESCE(endEpoch, orderEpoch) IS NULL OR COALESCE(endEpoch, orderEpoch) >= ?";
+        }
+        select += " ORDER BY id";
+        Map<String, String> komitentMap = loadKomitentPredstavnikMap();
 
-            // get DB column labels for safe access
-            ResultSetMetaData md = rs.getMetaData();
-            Set<String> dbCols = new HashSet<>();
-            for (int i = 1; i <= md.getColumnCount(); i++) {
-                dbCols.add(md.getColumnLabel(i));
+        try (Connection conn = SqliteConnectionPool.get(DB_URL);
+             PreparedStatement stmt = conn.prepareStatement(select)) {
+            if (completedHistoryDays > 0) {
+                stmt.setLong(1, DateUtils.toLocalEpochSecond(LocalDate.now().minusDays(completedHistoryDays)));
             }
+            try (ResultSet rs = stmt.executeQuery()) {
+
+                DirtyTrackingTableModel tracked = model instanceof DirtyTrackingTableModel
+                        ? (DirtyTrackingTableModel) model : null;
+                if (tracked != null) tracked.clearWithoutTracking();
+                else model.setRowCount(0);
+
+                // mapiranje kolona modela na stupce rezultata (jednom, ne po redu)
+                ResultSetMetaData md = rs.getMetaData();
+                Map<String, Integer> dbCols = new HashMap<>();
+                for (int i = 1; i <= md.getColumnCount(); i++) {
+                    dbCols.putIfAbsent(md.getColumnLabel(i), i);
+                }
+                int colCount = model.getColumnCount();
+                int[] rsIndex = new int[colCount];
+                for (int c = 0; c < colCount; c++) {
+                    rsIndex[c] = dbCols.getOrDefault(model.getColumnName(c), -1);
+                }
+                int idxKomitentOpis = findColumnSafe(model, "komitentOpis");
+                int idxTrgovackiPredstavnik = findColumnSafe(model, "trgovackiPredstavnik");
+                int keyIndex = dbCols.get(ROW_KEY_LABEL);
 
-            while (rs.next()) {
-                Object[] row = new Object[model.getColumnCount()];
-                for (int c = 0; c < model.getColumnCount(); c++) {
-                    String colName = model.getColumnName(c);
-                    if (dbCols.contains(colName)) {
-                        Object val = rs.getObject(colName);
-                        row[c] = val;
-                    } else {
+                List<Object[]> rows = new ArrayList<>();
+                List<Long> keys = new ArrayList<>();
+                while (rs.next()) {
+                    Object[] row = new Object[colCount];
+                    for (int c = 0; c < colCount; c++) {
                         // column not present in DB -> keep existing model default (empty string)
-                        row[c] = "";
+                        row[c] = rsIndex[c] > 0 ? rs.getObject(rsIndex[c]) : "";
                     }
-                }
 
-                // Fill trgovackiPredstavnik if empty and mapping exists (komitenti table)
-                int idxKomitentOpis = findColumnSafe(model, "komitentOpis");
-                int idxTrgovackiPredstavnik = findColumnSafe(model, "trgovackiPredstavnik");
-                if (idxTrgovackiPredstavnik >= 0) {
-                    Object tpVal = row[idxTrgovackiPredstavnik];
-                    if (tpVal == null || tpVal.toString().isBlank()) {
-                        String komitentOpis = "";
-                        if (idxKomitentOpis >= 0 && row[idxKomitentOpis] != null) komitentOpis = row[idxKomitentOpis].toString();
-                        row[idxTrgovackiPredstavnik] = komitentMap.getOrDefault(komitentOpis, "");
+                    // Fill trgovackiPredstavnik if empty and mapping exists (komitenti table)
+                    if (idxTrgovackiPredstavnik >= 0) {
+                        Object tpVal = row[idxTrgovackiPredstavnik];
+                        if (tpVal == null || tpVal.toString().isBlank()) {
+                            String komitentOpis = "";
+                            if (idxKomitentOpis >= 0 && row[idxKomitentOpis] != null) komitentOpis = row[idxKomitentOpis].toString();
+                            row[idxTrgovackiPredstavnik] = komitentMap.getOrDefault(komitentOpis, "");
+                        }
+                    }
+
+                    if (tracked != null) {
+                        rows.add(row);
+                        keys.add(rs.getLong(keyIndex));
+                    } else {
+                        model.addRow(row);
                     }
                 }
+                // jedan događaj za cijeli blok umjesto jednog po redu
+                if (tracked != null) tracked.addPersistedRows(rows, keys);
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
 
-                model.addRow(row);
+    // ===== Straničeno čitanje (PagedOrdersTableModel) =====
+
+    // Sortiranje po tekstualnim datumima ide preko tipiziranih epoch stupaca
+    private static String sortExpression(String column) {
+        for (String[] pair : EPOCH_COLUMNS) {
+            if (pair[0].equals(column)) return pair[1];
+        }
+        return column;
+    }
+
+    private static String filterClause(String filterText) {
+        if (filterText == null || filterText.isBlank()) return "";
+        return " WHERE (komitentOpis LIKE ?1 OR nazivRobe LIKE ?1 OR status LIKE ?1"
+                + " OR trgovackiPredstavnik LIKE ?1 OR datumNarudzbe LIKE ?1 OR djelatnik LIKE ?1)";
+    }
+
+    private static void bindFilter(PreparedStatement ps, String filterText) throws SQLException {
+        if (filterText != null && !filterText.isBlank()) {
+            ps.setString(1, "%" + filterText.trim() + "%");
+        }
+    }
+
+    /** Broj narudžbi koje odgovaraju filteru (prazan filter = sve). */
+    public static int countOrders(String filterText) {
+        ensureSchema();
+        String sql = "SELECT COUNT(*) FROM narudzbe" + filterClause(filterText);
+        try (Connection conn = SqliteConnectionPool.get(DB_URL);
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            bindFilter(ps, filterText);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
             }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return 0;
+        }
+    }
 
+    /**
+     * Jedna stranica narudžbi (sortiranje i filtriranje u SQL-u).
+     * Vraća redove s vrijednostima traženih stupaca; prvi element svakog reda je id.
+     *
+     * @param columns    stupci narudzbe (samo iz PERSISTED_COLUMNS; ostali se vraćaju kao null)
+     * @param sortColumn stupac za sortiranje (null = id)
+     */
+    public static List<Object[]> loadOrdersPage(String[] columns, String filterText,
+                                                String sortColumn, boolean ascending,
+                                                int offset, int limit) {
+        ensureSchema();
+        Set<String> allowed = new HashSet<>(Arrays.asList(PERSISTED_COLUMNS));
+        StringJoiner select = new StringJoiner(", ");
+        select.add("id");
+        for (String c : columns) select.add(allowed.contains(c) ? c : "NULL");
+
+        String order = (sortColumn != null && allowed.contains(sortColumn))
+                ? sortExpression(sortColumn) + (ascending ? " ASC" : " DESC") + ", id"
+                : "id" + (ascending ? " ASC" : " DESC");
+
+        String sql = "SELECT " + select + " FROM narudzbe" + filterClause(filterText)
+                + " ORDER BY " + order + " LIMIT " + Math.max(0, limit) + " OFFSET " + Math.max(0, offset);
+
+        List<Object[]> out = new ArrayList<>();
+        try (Connection conn = SqliteConnectionPool.get(DB_URL);
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            bindFilter(ps, filterText);
+            try (ResultSet rs = ps.executeQuery()) {
+                int n = columns.length + 1;
+                while (rs.next()) {
+                    Object[] row = new Object[n];
+                    for (int i = 0; i < n; i++) row[i] = rs.getObject(i + 1);
+                    out.add(row);
+                }
+            }
         } catch (SQLException e) {
             e.printStackTrace();
         }
+        return out;
     }
 
     public static List<String> loadAllKomitenti() {
+        ensureSchema();
         List<String> lista = new java.util.ArrayList<>();
         String sql = "SELECT DISTINCT komitentOpis FROM narudzbe " +
                 "WHERE komitentOpis IS NOT NULL AND komitentOpis <> '' " +
                 "ORDER BY komitentOpis";
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = SqliteConnectionPool.get(DB_URL);
              Statement st = conn.createStatement();
              ResultSet rs = st.executeQuery(sql)) {
             while (rs.next()) {
@@ -316,11 +644,27 @@ public class DatabaseHelper {
     }
 
     /**
-     * Briše red iz baze na osnovu datumNarudzbe i nazivRobe
+     * Briše red iz baze po primarnom ključu (id).
      */
+    public static void deleteRow(long id) {
+        ensureSchema();
+        try (Connection conn = SqliteConnectionPool.get(DB_URL);
+             PreparedStatement ps = conn.prepareStatement(SQL_DELETE_NARUDZBA)) {
+            ps.setLong(1, id);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Briše red iz baze na osnovu datumNarudzbe i nazivRobe.
+     * @deprecated briše sve duplikate s istim datumom i nazivom; koristiti {@link #deleteRow(long)}.
+     */
+    @Deprecated
     public static void deleteRow(String datumNarudzbe, String nazivRobe) {
         String sql = "DELETE FROM narudzbe WHERE datumNarudzbe = ? AND nazivRobe = ?";
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = SqliteConnectionPool.get(DB_URL);
              PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, datumNarudzbe);
             ps.setString(2, nazivRobe);
@@ -365,7 +709,7 @@ public class DatabaseHelper {
     public static Map<String, String> loadKomitentPredstavnikMap() {
         Map<String, String> map = new java.util.HashMap<>();
         String sql = "SELECT komitentOpis, trgovackiPredstavnik FROM komitenti";
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = SqliteConnectionPool.get(DB_URL);
              Statement st = conn.createStatement();
              ResultSet rs = st.executeQuery(sql)) {
             while (rs.next()) {
@@ -383,161 +727,88 @@ public class DatabaseHelper {
      * Računa stvarni prosjek m2/dan iz dovršenih (status='Izrađeno') narudžbi
      * u zadnjih 'days' dana (uključivo). Izostavlja vikende i blagdane (WorkingTimeCalculator).
      *
+     * Sve tri strategije (primarna, A, B) računaju se jednim SQL agregatom nad
+     * epoch stupcima (endEpoch / orderEpoch) - bez čitanja i parsiranja cijele povijesti.
+     * Redoslijed prioriteta je isti kao prije:
+     *  1) Izrađeno, po endTime (ili datumNarudzbe ako endTime nema) / radni dani
+     *  A) sve narudžbe po datumNarudzbe / radni dani
+     *  B) sve narudžbe po endTime (ili datumNarudzbe) / kalendarski dani
+     *
      * Ako nema podataka u tom periodu vraća fallback vrijednost (FALLBACK_M2_PER_HOUR * WORK_HOURS_PER_DAY).
      */
- // Ubaci/zalijepi ovu metodu u klasu db.DatabaseHelper (zamijeni postojeću getAverageDailyM2)
- // Zamijeni postojeću getAverageDailyM2(int) u db/DatabaseHelper.java ovom metodom
-
-public static double getAverageDailyM2(int days) {
-    if (days <= 0) days = 30;
-    LocalDate today = LocalDate.now();
-    LocalDate from = today.minusDays(days - 1); // include today
-
-    double totalM2 = 0.0;
-
-    // 1) Primary: sum m2 of completed orders (status = 'Izrađeno') where endTime parses into last N days
-    try (Connection conn = DriverManager.getConnection(DB_URL);
-         PreparedStatement ps = conn.prepareStatement(
-                 "SELECT m2, endTime, datumNarudzbe, status FROM narudzbe WHERE m2 IS NOT NULL")) {
-
-        try (ResultSet rs = ps.executeQuery()) {
-            while (rs.next()) {
-                double m2 = rs.getDouble("m2");
-                if (rs.wasNull()) continue;
-
-                String endTs = rs.getString("endTime");
-                String ordDate = rs.getString("datumNarudzbe");
-                String status = rs.getString("status");
-
-                if (status == null || !status.equalsIgnoreCase("Izrađeno")) continue;
-
-                LocalDateTime parsedEnd = null;
-                LocalDate parsedOrd = null;
-
-                if (endTs != null && !endTs.isBlank()) {
-                    try {
-                        parsedEnd = DateUtils.parse(endTs);
-                    } catch (Exception ignored) {
-                        parsedEnd = null;
-                    }
-                }
-
-                if (ordDate != null && !ordDate.isBlank()) {
-                    try {
-                        LocalDateTime dt = DateUtils.parse(ordDate);
-                        if (dt != null) parsedOrd = dt.toLocalDate();
-                    } catch (Exception ignored) {
-                        parsedOrd = null;
-                    }
-                }
-
-                boolean inRange = false;
-                if (parsedEnd != null) {
-                    LocalDate ld = parsedEnd.toLocalDate();
-                    if (!ld.isBefore(from) && !ld.isAfter(today)) inRange = true;
-                } else if (parsedOrd != null) {
-                    LocalDate ld = parsedOrd;
-                    if (!ld.isBefore(from) && !ld.isAfter(today)) inRange = true;
-                }
-
-                if (inRange) {
-                    totalM2 += m2;
+    public static double getAverageDailyM2(int days) {
+        ensureSchema();
+        if (days <= 0) days = 30;
+        LocalDate today = LocalDate.now();
+        LocalDate from = today.minusDays(days - 1); // include today
+
+        long fromEpoch = DateUtils.toLocalEpochSecond(from);
+        long toEpoch = DateUtils.toLocalEpochSecond(today.plusDays(1)) - 1;
+
+        // "u rasponu" = endEpoch u rasponu, ili (nema endEpoch) orderEpoch u rasponu
+        String inRange = "((endEpoch IS NOT NULL AND endEpoch BETWEEN ?1 AND ?2) "
+                + "OR (endEpoch IS NULL AND orderEpoch BETWEEN ?1 AND ?2))";
+        String sql = "SELECT "
+                + "SUM(CASE WHEN status = 'Izrađeno' COLLATE NOCASE AND " + inRange + " THEN m2 END) AS primaryM2, "
+                + "SUM(CASE WHEN orderEpoch BETWEEN ?1 AND ?2 THEN m2 END) AS byOrderM2, "
+                + "SUM(CASE WHEN " + inRange + " THEN m2 END) AS calendarM2 "
+                + "FROM narudzbe "
+                + "WHERE m2 IS NOT NULL AND (endEpoch BETWEEN ?1 AND ?2 OR orderEpoch BETWEEN ?1 AND ?2)";
+
+        double totalM2 = 0.0;
+        double totalM2ByOrderDate = 0.0;
+        double totalM2Calendar = 0.0;
+        try (Connection conn = SqliteConnectionPool.get(DB_URL);
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setLong(1, fromEpoch);
+            ps.setLong(2, toEpoch);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    totalM2 = rs.getDouble("primaryM2");
+                    totalM2ByOrderDate = rs.getDouble("byOrderM2");
+                    totalM2Calendar = rs.getDouble("calendarM2");
                 }
             }
+        } catch (SQLException ex) {
+            ex.printStackTrace();
         }
-    } catch (SQLException ex) {
-        ex.printStackTrace();
-    }
 
-    // Count working days in interval (exclude weekends/holidays)
-    int workDays = 0;
-    for (LocalDate d = from; !d.isAfter(today); d = d.plusDays(1)) {
-        if (!WorkingTimeCalculator.isHolidayOrWeekend(d)) workDays++;
-    }
-
-    double avg = 0.0;
-    if (totalM2 > 0 && workDays > 0) {
-        avg = totalM2 / (double) workDays;
-        System.out.println("getAverageDailyM2: days=" + days
-                + ", from=" + from + ", to=" + today
-                + ", totalM2=" + totalM2
-                + ", workDays=" + workDays
-                + ", avgDailyM2=" + avg + "  (primary)");
-        return avg;
-    }
-
-    // Strategy A: sum all m2 where datumNarudzbe in range (ignore status)
-    double totalM2ByOrderDate = 0.0;
-    try (Connection conn = DriverManager.getConnection(DB_URL);
-         PreparedStatement ps = conn.prepareStatement("SELECT m2, datumNarudzbe FROM narudzbe WHERE m2 IS NOT NULL")) {
-        try (ResultSet rs = ps.executeQuery()) {
-            while (rs.next()) {
-                double m2 = rs.getDouble("m2");
-                String ordDate = rs.getString("datumNarudzbe");
-                if (ordDate == null || ordDate.isBlank()) continue;
-                try {
-                    LocalDateTime dt = DateUtils.parse(ordDate);
-                    if (dt == null) continue;
-                    LocalDate ld = dt.toLocalDate();
-                    if (!ld.isBefore(from) && !ld.isAfter(today)) totalM2ByOrderDate += m2;
-                } catch (Exception ignored) {}
-            }
+        // Count working days in interval (exclude weekends/holidays)
+        int workDays = WorkingDayCalendar.workingDaysBetween(from, today);
+
+        double avg;
+        if (totalM2 > 0 && workDays > 0) {
+            avg = totalM2 / (double) workDays;
+            System.out.println("getAverageDailyM2: days=" + days
+                    + ", from=" + from + ", to=" + today
+                    + ", totalM2=" + totalM2
+                    + ", workDays=" + workDays
+                    + ", avgDailyM2=" + avg + "  (primary)");
+            return avg;
         }
-    } catch (SQLException ex) {
-        ex.printStackTrace();
-    }
 
-    if (totalM2ByOrderDate > 0 && workDays > 0) {
-        avg = totalM2ByOrderDate / (double) workDays;
-        System.out.println("getAverageDailyM2: fallback by datumNarudzbe: totalM2=" + totalM2ByOrderDate
-                + ", workDays=" + workDays + ", avgDailyM2=" + avg);
-        return avg;
-    }
+        // Strategy A: sum all m2 where datumNarudzbe in range (ignore status)
+        if (totalM2ByOrderDate > 0 && workDays > 0) {
+            avg = totalM2ByOrderDate / (double) workDays;
+            System.out.println("getAverageDailyM2: fallback by datumNarudzbe: totalM2=" + totalM2ByOrderDate
+                    + ", workDays=" + workDays + ", avgDailyM2=" + avg);
+            return avg;
+        }
 
-    // Strategy B: sum all m2 in last N calendar days (ignore date fields) and divide by days (calendar)
-    double totalM2Calendar = 0.0;
-    try (Connection conn = DriverManager.getConnection(DB_URL);
-         PreparedStatement ps = conn.prepareStatement("SELECT m2, endTime, datumNarudzbe FROM narudzbe WHERE m2 IS NOT NULL")) {
-        try (ResultSet rs = ps.executeQuery()) {
-            while (rs.next()) {
-                double m2 = rs.getDouble("m2");
-                String endTs = rs.getString("endTime");
-                String ordDate = rs.getString("datumNarudzbe");
-                LocalDateTime parsedEnd = null;
-                LocalDate parsedOrd = null;
-                if (endTs != null && !endTs.isBlank()) {
-                    try { parsedEnd = DateUtils.parse(endTs); } catch (Exception ignored) { parsedEnd = null; }
-                }
-                if (ordDate != null && !ordDate.isBlank()) {
-                    try { LocalDateTime dt = DateUtils.parse(ordDate); if (dt != null) parsedOrd = dt.toLocalDate(); } catch (Exception ignored) { parsedOrd = null; }
-                }
-                boolean inRange = false;
-                if (parsedEnd != null) {
-                    LocalDate ld = parsedEnd.toLocalDate();
-                    if (!ld.isBefore(from) && !ld.isAfter(today)) inRange = true;
-                } else if (parsedOrd != null) {
-                    LocalDate ld = parsedOrd;
-                    if (!ld.isBefore(from) && !ld.isAfter(today)) inRange = true;
-                }
-                if (inRange) totalM2Calendar += m2;
-            }
+        // Strategy B: sum all m2 in last N calendar days and divide by days (calendar)
+        if (totalM2Calendar > 0) {
+            avg = totalM2Calendar / (double) days; // calendar days
+            System.out.println("getAverageDailyM2: fallback calendar-sum last " + days + " days: totalM2=" + totalM2Calendar
+                    + ", avgDailyCalendar=" + avg);
+            return avg;
         }
-    } catch (SQLException ex) {
-        ex.printStackTrace();
-    }
 
-    if (totalM2Calendar > 0) {
-        avg = totalM2Calendar / (double) days; // calendar days
-        System.out.println("getAverageDailyM2: fallback calendar-sum last " + days + " days: totalM2=" + totalM2Calendar
-                + ", avgDailyCalendar=" + avg);
-        return avg;
+        // Final fallback: use configured default (m2 per hour * work hours per day)
+        double fallback = FALLBACK_M2_PER_HOUR * WORK_HOURS_PER_DAY;
+        System.out.println("getAverageDailyM2: no data found for last " + days + " days, using fallback=" + fallback);
+        return fallback;
     }
 
-    // Final fallback: use configured default (m2 per hour * work hours per day)
-    double fallback = FALLBACK_M2_PER_HOUR * WORK_HOURS_PER_DAY;
-    System.out.println("getAverageDailyM2: no data found for last " + days + " days, using fallback=" + fallback);
-    return fallback;
-}
 // pokaži mi polja u bazu kako se zovu i koji su im tipovi i brojevi po redoslijedu	
 // Polja u tablici 'narudzbe':
 // datumNarudzbe TEXT 1
@@ -557,6 +828,7 @@ public static double getAverageDailyM2(int days) {
 // duration TEXT 15
 // predPlanIsporuke TEXT 16
 // trgovackiPredstavnik TEXT 17
+// + id INTEGER PRIMARY KEY, orderEpoch/deliveryEpoch/planEpoch/startEpoch/endEpoch INTEGER (lokalni epoch, sekunde)
 
 
 }
\ No newline at end of file
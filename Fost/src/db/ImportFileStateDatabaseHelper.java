@@ -0,0 +1,72 @@
+package db;
+
+import util.FileFingerprint;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+
+/**
+ * Pamti otisak (veličina, mtime, SHA-256) zadnje uvezene verzije datoteke po putanji,
+ * da se ista datoteka pri svakom pokretanju ne uvozi ponovno.
+ */
+public class ImportFileStateDatabaseHelper {
+
+    private static final String DB_URL = "jdbc:sqlite:fost.db";
+    private static final String TABLE_NAME = "import_file_state";
+
+    private static final String SQL_CREATE_TABLE =
+            "CREATE TABLE IF NOT EXISTS " + TABLE_NAME + " (" +
+                    "path TEXT PRIMARY KEY, " +
+                    "size INTEGER, " +
+                    "mtime INTEGER, " +
+                    "sha256 TEXT, " +
+                    "imported_at TEXT" +
+                    ")";
+
+    private static final String SQL_SELECT =
+            "SELECT size, mtime, sha256 FROM " + TABLE_NAME + " WHERE path = ?";
+
+    private static final String SQL_UPSERT =
+            "INSERT INTO " + TABLE_NAME + " (path, size, mtime, sha256, imported_at) VALUES (?, ?, ?, ?, ?)\n" +
+                    "ON CONFLICT(path) DO UPDATE SET size = excluded.size, mtime = excluded.mtime, " +
+                    "sha256 = excluded.sha256, imported_at = excluded.imported_at";
+
+    public static void initializeDatabase() {
+        try (Connection conn = SqliteConnectionPool.get(DB_URL);
+             Statement st = conn.createStatement()) {
+            st.execute(SQL_CREATE_TABLE);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /** Zadnji spremljeni otisak za putanju ili null ako datoteka još nije uvezena. */
+    public static FileFingerprint load(String path) {
+        try (Connection conn = SqliteConnectionPool.get(DB_URL);
+             PreparedStatement ps = conn.prepareStatement(SQL_SELECT)) {
+            ps.setString(1, path);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return FileFingerprint.of(rs.getLong("size"), rs.getLong("mtime"), rs.getString("sha256"));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    public static synchronized void save(String path, FileFingerprint fp) {
+        try (Connection conn = SqliteConnectionPool.get(DB_URL);
+             PreparedStatement ps = conn.prepareStatement(SQL_UPSERT)) {
+            ps.setString(1, path);
+            ps.setLong(2, fp.getSize());
+            ps.setLong(3, fp.getLastModified());
+            ps.setString(4, fp.getSha256());
+            ps.setString(5, LocalDateTime.now().withNano(0).toString());
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -20,7 +20,7 @@ public class InventoryStateDatabaseHelper {
 
     public void ensureSchema() throws SQLException {
         // Kreiraj ako ne postoji (sa svim stupcima)
-        try (Connection c = DriverManager.getConnection(url);
+        try (Connection c = SqliteConnectionPool.get(url);
              Statement st = c.createStatement()) {
             st.executeUpdate("""
                 CREATE TABLE IF NOT EXISTS inventory_state(
@@ -37,7 +37,7 @@ public class InventoryStateDatabaseHelper {
 
         // Provjeri postojeće kolone (ako je starija tablica)
         Set<String> cols = new HashSet<>();
-        try (Connection c = DriverManager.getConnection(url);
+        try (Connection c = SqliteConnectionPool.get(url);
              Statement st = c.createStatement();
              ResultSet rs = st.executeQuery("PRAGMA table_info(inventory_state)")) {
             while (rs.next()) {
@@ -46,7 +46,7 @@ public class InventoryStateDatabaseHelper {
         }
 
         // Dodaj nedostajuće
-        try (Connection c = DriverManager.getConnection(url);
+        try (Connection c = SqliteConnectionPool.get(url);
              Statement st = c.createStatement()) {
             if (!cols.contains("purchase_price")) {
                 st.executeUpdate("ALTER TABLE inventory_state ADD COLUMN purchase_price REAL");
@@ -76,7 +76,7 @@ public class InventoryStateDatabaseHelper {
               last_updated=CURRENT_TIMESTAMP
             """;
 
-        try (Connection c = DriverManager.getConnection(url);
+        try (Connection c = SqliteConnectionPool.get(url);
              PreparedStatement ps = c.prepareStatement(sql)) {
             c.setAutoCommit(false);
             for (StockState s : list) {
@@ -100,7 +100,7 @@ public class InventoryStateDatabaseHelper {
               FROM inventory_state
              ORDER BY product_code
             """;
-        try (Connection c = DriverManager.getConnection(url);
+        try (Connection c = SqliteConnectionPool.get(url);
              PreparedStatement ps = c.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
             while (rs.next()) {
@@ -122,7 +122,7 @@ public class InventoryStateDatabaseHelper {
               FROM inventory_state
              WHERE product_code=?
             """;
-        try (Connection c = DriverManager.getConnection(url);
+        try (Connection c = SqliteConnectionPool.get(url);
              PreparedStatement ps = c.prepareStatement(sql)) {
             ps.setString(1, code);
             try (ResultSet rs = ps.executeQuery()) {
@@ -152,7 +152,7 @@ public class InventoryStateDatabaseHelper {
                        ELSE purchase_value END,
                    last_updated=CURRENT_TIMESTAMP
              WHERE product_code=?""";
-        try (Connection c = DriverManager.getConnection(url);
+        try (Connection c = SqliteConnectionPool.get(url);
              PreparedStatement ps = c.prepareStatement(sql)) {
             ps.setDouble(1, newQty);
             ps.setDouble(2, newQty);
@@ -168,7 +168,7 @@ public class InventoryStateDatabaseHelper {
                    purchase_value=quantity * ?,
                    last_updated=CURRENT_TIMESTAMP
              WHERE product_code=?""";
-        try (Connection c = DriverManager.getConnection(url);
+        try (Connection c = SqliteConnectionPool.get(url);
              PreparedStatement ps = c.prepareStatement(sql)) {
             ps.setDouble(1, newPrice);
             ps.setDouble(2, newPrice);
@@ -178,7 +178,7 @@ public class InventoryStateDatabaseHelper {
     }
 
     public void truncateAll() throws SQLException {
-        try (Connection c = DriverManager.getConnection(url);
+        try (Connection c = SqliteConnectionPool.get(url);
              Statement st = c.createStatement()) {
             st.executeUpdate("DELETE FROM inventory_state");
         }
@@ -56,7 +56,7 @@ public class KomitentiDatabaseHelper {
 
     // ===== Initialization =====
     public static void initializeDatabase() {
-        try (Connection conn = DriverManager.getConnection(DB_URL)) {
+        try (Connection conn = SqliteConnectionPool.get(DB_URL)) {
             conn.setAutoCommit(false);
             // Ako tablica postoji, provjeri ima li PK; ako nema, migriraj podatke u novu tablicu s PK
             boolean needMigration = false;
@@ -117,7 +117,7 @@ public class KomitentiDatabaseHelper {
     // ===== Delete all records (explicit) =====
     public static synchronized void clearTable() {
         System.out.println("KomitentiDatabaseHelper.clearTable() called - will DELETE ALL rows in " + TABLE_NAME);
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = SqliteConnectionPool.get(DB_URL);
              Statement stmt = conn.createStatement()) {
             stmt.execute(SQL_DELETE_ALL);
         } catch (SQLException e) {
@@ -125,9 +125,10 @@ public class KomitentiDatabaseHelper {
         }
     }
 
-    public static synchronized void saveToDatabase(List<KomitentInfo> lista) {
-        if (lista == null) return;
-        upsertList(lista);
+    /** Vraća false ako upis u bazu nije uspio. */
+    public static synchronized boolean saveToDatabase(List<KomitentInfo> lista) {
+        if (lista == null) return true;
+        return upsertList(lista);
     }
 
     public static synchronized void saveToDatabase(DefaultTableModel model) {
@@ -149,7 +150,7 @@ public class KomitentiDatabaseHelper {
     public static synchronized void replaceAllInDatabase(List<KomitentInfo> lista) {
         System.out.println("KomitentiDatabaseHelper.replaceAllInDatabase() - replacing all rows (DELETE + INSERT)");
         if (lista == null) lista = new ArrayList<>();
-        try (Connection conn = DriverManager.getConnection(DB_URL)) {
+        try (Connection conn = SqliteConnectionPool.get(DB_URL)) {
             conn.setAutoCommit(false);
             try (Statement s = conn.createStatement()) {
                 s.execute(SQL_DELETE_ALL);
@@ -168,9 +169,10 @@ public class KomitentiDatabaseHelper {
         }
     }
 
-    public static synchronized void upsertList(List<KomitentInfo> lista) {
-        if (lista == null || lista.isEmpty()) return;
-        try (Connection conn = DriverManager.getConnection(DB_URL)) {
+    /** Upsert liste; vraća false ako nije uspio ni batch ni upis red po red. */
+    public static synchronized boolean upsertList(List<KomitentInfo> lista) {
+        if (lista == null || lista.isEmpty()) return true;
+        try (Connection conn = SqliteConnectionPool.get(DB_URL)) {
             conn.setAutoCommit(false);
             try (PreparedStatement ps = conn.prepareStatement(SQL_INSERT_UPSERT)) {
                 for (KomitentInfo k : lista) {
@@ -180,7 +182,7 @@ public class KomitentiDatabaseHelper {
                 }
                 ps.executeBatch();
                 conn.commit();
-                return;
+                return true;
             } catch (SQLException ex) {
                 System.out.println("KomitentiDatabaseHelper.upsertList: UPSERT batch failed: " + ex.getMessage());
                 try { conn.rollback(); } catch (SQLException ignored) {}
@@ -191,12 +193,12 @@ public class KomitentiDatabaseHelper {
             System.out.println("KomitentiDatabaseHelper.upsertList: connection failed: " + e.getMessage());
         }
         // fallback per-row
-        fallbackPerRowUpsert(lista);
+        return fallbackPerRowUpsert(lista);
     }
 
-    private static void fallbackPerRowUpsert(List<KomitentInfo> lista) {
-        if (lista == null || lista.isEmpty()) return;
-        try (Connection conn = DriverManager.getConnection(DB_URL)) {
+    private static boolean fallbackPerRowUpsert(List<KomitentInfo> lista) {
+        if (lista == null || lista.isEmpty()) return true;
+        try (Connection conn = SqliteConnectionPool.get(DB_URL)) {
             conn.setAutoCommit(false);
             try (PreparedStatement check = conn.prepareStatement("SELECT COUNT(*) FROM " + TABLE_NAME + " WHERE komitentOpis = ?");
                  PreparedStatement insert = conn.prepareStatement(SQL_INSERT);
@@ -222,6 +224,7 @@ public class KomitentiDatabaseHelper {
                     }
                 }
                 conn.commit();
+                return true;
             } catch (SQLException ex) {
                 conn.rollback();
                 throw ex;
@@ -230,12 +233,13 @@ public class KomitentiDatabaseHelper {
             }
         } catch (SQLException e) {
             e.printStackTrace();
+            return false;
         }
     }
 
     public static List<Object[]> loadAllRows() {
         List<Object[]> lista = new ArrayList<>();
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = SqliteConnectionPool.get(DB_URL);
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(SQL_SELECT_ALL)) {
             while (rs.next()) {
@@ -252,7 +256,7 @@ public class KomitentiDatabaseHelper {
 
     public static List<Object[]> loadAllRowsByPredstavnik(String predstavnik) {
         List<Object[]> lista = new ArrayList<>();
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = SqliteConnectionPool.get(DB_URL);
              PreparedStatement ps = conn.prepareStatement(SQL_SELECT_BY_PREDSTAVNIK)) {
             ps.setString(1, safeString(predstavnik));
             try (ResultSet rs = ps.executeQuery()) {
@@ -271,7 +275,7 @@ public class KomitentiDatabaseHelper {
 
     public static void deleteRow(String komitentOpis, String trgovackiPredstavnik) {
         if (komitentOpis == null || komitentOpis.isBlank()) return;
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = SqliteConnectionPool.get(DB_URL);
              PreparedStatement ps = conn.prepareStatement(SQL_DELETE_ROW)) {
             ps.setString(1, safeString(komitentOpis));
             ps.executeUpdate();
@@ -282,7 +286,7 @@ public class KomitentiDatabaseHelper {
 
     public static Map<String, String> loadKomitentPredstavnikMap() {
         Map<String, String> mapa = new HashMap<>();
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = SqliteConnectionPool.get(DB_URL);
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(SQL_SELECT_ALL)) {
             while (rs.next()) {
@@ -311,7 +315,7 @@ public class KomitentiDatabaseHelper {
 
     private static List<String> loadDistinctList(String sql, String colName) {
         List<String> lista = new ArrayList<>();
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = SqliteConnectionPool.get(DB_URL);
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) {
@@ -329,7 +333,7 @@ public class KomitentiDatabaseHelper {
         if (komitentOpis == null || komitentOpis.isBlank()) return false;
         if (trgovackiPredstavnik == null) trgovackiPredstavnik = "";
 
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = SqliteConnectionPool.get(DB_URL);
              PreparedStatement ps = conn.prepareStatement(SQL_INSERT_UPSERT)) {
             ps.setString(1, komitentOpis.trim());
             ps.setString(2, trgovackiPredstavnik.trim());
@@ -340,7 +344,7 @@ public class KomitentiDatabaseHelper {
         }
 
         // fallback
-        try (Connection conn = DriverManager.getConnection(DB_URL)) {
+        try (Connection conn = SqliteConnectionPool.get(DB_URL)) {
             try (PreparedStatement check = conn.prepareStatement(
                     "SELECT COUNT(*) FROM " + TABLE_NAME + " WHERE komitentOpis = ?")) {
                 check.setString(1, komitentOpis.trim());
@@ -41,7 +41,7 @@ public class PredstavniciDatabaseHelper {
 
     /** Kreira tablicu ako ne postoji */
     public static void initializeDatabase() {
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = SqliteConnectionPool.get(DB_URL);
              Statement stmt = conn.createStatement()) {
             stmt.execute(SQL_CREATE_TABLE);
         } catch (SQLException e) {
@@ -52,7 +52,7 @@ public class PredstavniciDatabaseHelper {
     /** Dohvaća sve predstavnike sortirane po nazivu (samo nazivi) */
     public static List<String> loadAllPredstavnici() {
         List<String> lista = new ArrayList<>();
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = SqliteConnectionPool.get(DB_URL);
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(SQL_SELECT_ALL_NAMES)) {
             while (rs.next()) {
@@ -67,7 +67,7 @@ public class PredstavniciDatabaseHelper {
     /** Dohvaća sve predstavnike s id-evima */
     public static List<PredstavnikInfo> loadAllWithIds() {
         List<PredstavnikInfo> lista = new ArrayList<>();
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = SqliteConnectionPool.get(DB_URL);
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(SQL_SELECT_ALL_WITH_ID)) {
             while (rs.next()) {
@@ -83,7 +83,7 @@ public class PredstavniciDatabaseHelper {
 
     /** Dodaje predstavnika ako ne postoji (ignorira duplikate) */
     public static void addPredstavnik(String naziv) {
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = SqliteConnectionPool.get(DB_URL);
              PreparedStatement ps = conn.prepareStatement(SQL_INSERT)) {
             ps.setString(1, safeString(naziv));
             ps.executeUpdate();
@@ -94,7 +94,7 @@ public class PredstavniciDatabaseHelper {
 
     /** Ažurira postojećeg predstavnika po ID-u */
     public static void updatePredstavnik(int id, String naziv) {
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = SqliteConnectionPool.get(DB_URL);
              PreparedStatement ps = conn.prepareStatement(SQL_UPDATE)) {
             ps.setString(1, safeString(naziv));
             ps.setInt(2, id);
@@ -106,7 +106,7 @@ public class PredstavniciDatabaseHelper {
 
     /** Briše predstavnika po ID-u */
     public static void deletePredstavnik(int id) {
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = SqliteConnectionPool.get(DB_URL);
              PreparedStatement ps = conn.prepareStatement(SQL_DELETE)) {
             ps.setInt(1, id);
             ps.executeUpdate();
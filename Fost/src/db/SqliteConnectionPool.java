@@ -0,0 +1,316 @@
+package db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Jedinstveni pool SQLite konekcija za cijelu aplikaciju (jedan pool po JDBC URL-u).
+ *
+ * Svaka fizička konekcija se otvara jednom i odmah dobiva PRAGMA postavke
+ * (WAL, synchronous=NORMAL, cache_size, mmap_size, busy_timeout), pa se
+ * page cache ne gubi između upita.
+ *
+ * Pozivatelji koriste uobičajeni obrazac:
+ * <pre>
+ *   try (Connection conn = SqliteConnectionPool.forUrl(DB_URL).getConnection()) { ... }
+ * </pre>
+ * close() ne zatvara fizičku konekciju nego je vraća u pool (otvorena transakcija se poništava).
+ *
+ * Metrike: broj posudbi, ukupno/maksimalno vrijeme čekanja na slobodnu konekciju, broj timeouta.
+ */
+public final class SqliteConnectionPool {
+
+    public static final String DEFAULT_URL = "jdbc:sqlite:fost.db";
+
+    private static final int DEFAULT_MAX_SIZE = 4;
+    private static final long DEFAULT_TIMEOUT_MS = 30_000;
+
+    // PRAGMA postavke koje se primjenjuju jednom po fizičkoj konekciji
+    private static final String[] PRAGMAS = {
+            "PRAGMA journal_mode=WAL",
+            "PRAGMA synchronous=NORMAL",
+            "PRAGMA cache_size=-16000",      // ~16 MB page cache
+            "PRAGMA mmap_size=268435456",    // 256 MB
+            "PRAGMA busy_timeout=5000",
+            "PRAGMA temp_store=MEMORY"
+    };
+
+    private static final Map<String, SqliteConnectionPool> POOLS = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(SqliteConnectionPool::shutdownAll, "sqlite-pool-shutdown"));
+    }
+
+    private final String url;
+    private final int maxSize;
+    private final long timeoutMs;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final ArrayDeque<Connection> idle = new ArrayDeque<>();
+    private int openCount = 0;
+    private boolean closed = false;
+
+    // metrike
+    private final AtomicLong acquireCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+
+    private SqliteConnectionPool(String url, int maxSize, long timeoutMs) {
+        this.url = url;
+        this.maxSize = maxSize;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /** Pool za zadani URL (kreira se pri prvom pozivu). */
+    public static SqliteConnectionPool forUrl(String url) {
+        return POOLS.computeIfAbsent(url, u -> new SqliteConnectionPool(u, DEFAULT_MAX_SIZE, DEFAULT_TIMEOUT_MS));
+    }
+
+    /** Pool za glavnu bazu fost.db. */
+    public static SqliteConnectionPool getDefault() {
+        return forUrl(DEFAULT_URL);
+    }
+
+    /** Kratica: posudi konekciju iz poola za zadani URL. */
+    public static Connection get(String url) throws SQLException {
+        return forUrl(url).getConnection();
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Posudi konekciju. Ako su sve zauzete i pool je pun, čeka najviše timeoutMs.
+     * Vraćeni objekt treba zatvoriti (try-with-resources) da se konekcija vrati u pool.
+     */
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        Connection physical = null;
+        boolean openNew = false;
+
+        lock.lock();
+        try {
+            long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            while (true) {
+                if (closed) throw new SQLException("Connection pool is closed: " + url);
+                if (!idle.isEmpty()) {
+                    physical = idle.pollFirst();
+                    break;
+                }
+                if (openCount < maxSize) {
+                    openCount++;
+                    openNew = true;
+                    break;
+                }
+                if (remaining <= 0) {
+                    timeoutCount.incrementAndGet();
+                    throw new SQLException("Timeout waiting for SQLite connection (" + timeoutMs + " ms): " + url);
+                }
+                try {
+                    remaining = available.awaitNanos(remaining);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted while waiting for SQLite connection", ie);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        recordWait(System.nanoTime() - start);
+
+        if (openNew) {
+            try {
+                physical = openPhysical();
+            } catch (SQLException e) {
+                release(null);
+                throw e;
+            }
+        } else if (physical.isClosed()) {
+            // fizička konekcija je u međuvremenu zatvorena - otvori novu na istom mjestu
+            try {
+                physical = openPhysical();
+            } catch (SQLException e) {
+                release(null);
+                throw e;
+            }
+        }
+        return wrap(physical);
+    }
+
+    private Connection openPhysical() throws SQLException {
+        Connection c = DriverManager.getConnection(url);
+        try (Statement st = c.createStatement()) {
+            for (String p : PRAGMAS) {
+                st.execute(p);
+            }
+        } catch (SQLException e) {
+            try { c.close(); } catch (SQLException ignored) {}
+            throw e;
+        }
+        return c;
+    }
+
+    private void recordWait(long nanos) {
+        acquireCount.incrementAndGet();
+        totalWaitNanos.addAndGet(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /** Vraća fizičku konekciju u pool (ili samo oslobađa mjesto ako je null/neispravna). */
+    private void release(Connection physical) {
+        boolean reusable = false;
+        if (physical != null) {
+            try {
+                if (!physical.isClosed()) {
+                    if (!physical.getAutoCommit()) {
+                        physical.rollback();
+                        physical.setAutoCommit(true);
+                    }
+                    reusable = true;
+                }
+            } catch (SQLException e) {
+                reusable = false;
+            }
+        }
+
+        lock.lock();
+        try {
+            if (reusable && !closed) {
+                idle.addFirst(physical);
+            } else {
+                openCount--;
+                if (physical != null) {
+                    try { physical.close(); } catch (SQLException ignored) {}
+                }
+            }
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Connection wrap(Connection physical) {
+        return (Connection) Proxy.newProxyInstance(
+                SqliteConnectionPool.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new PooledHandler(physical));
+    }
+
+    /** Zatvara sve slobodne fizičke konekcije; posuđene se zatvaraju pri povratu. */
+    public void shutdown() {
+        lock.lock();
+        try {
+            closed = true;
+            while (!idle.isEmpty()) {
+                Connection c = idle.pollFirst();
+                openCount--;
+                try { c.close(); } catch (SQLException ignored) {}
+            }
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static void shutdownAll() {
+        for (SqliteConnectionPool p : POOLS.values()) {
+            System.out.println(p.statsSummary());
+            p.shutdown();
+        }
+    }
+
+    // ===== Metrike =====
+
+    public long getAcquireCount() { return acquireCount.get(); }
+    public long getTimeoutCount() { return timeoutCount.get(); }
+    public double getTotalWaitMillis() { return totalWaitNanos.get() / 1_000_000.0; }
+    public double getMaxWaitMillis() { return maxWaitNanos.get() / 1_000_000.0; }
+
+    public double getAverageWaitMillis() {
+        long n = acquireCount.get();
+        return n == 0 ? 0.0 : getTotalWaitMillis() / n;
+    }
+
+    public int getOpenCount() {
+        lock.lock();
+        try { return openCount; } finally { lock.unlock(); }
+    }
+
+    public int getIdleCount() {
+        lock.lock();
+        try { return idle.size(); } finally { lock.unlock(); }
+    }
+
+    public void resetStats() {
+        acquireCount.set(0);
+        totalWaitNanos.set(0);
+        maxWaitNanos.set(0);
+        timeoutCount.set(0);
+    }
+
+    public String statsSummary() {
+        return String.format(java.util.Locale.ROOT,
+                "[SqlitePool %s] acquires=%d, avgWait=%.3f ms, maxWait=%.3f ms, timeouts=%d, open=%d, idle=%d",
+                url, getAcquireCount(), getAverageWaitMillis(), getMaxWaitMillis(),
+                getTimeoutCount(), getOpenCount(), getIdleCount());
+    }
+
+    /**
+     * Proxy oko fizičke konekcije: close() vraća u pool, sve ostalo se prosljeđuje.
+     */
+    private final class PooledHandler implements InvocationHandler {
+        private Connection physical;
+
+        PooledHandler(Connection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    if (physical != null) {
+                        Connection c = physical;
+                        physical = null;
+                        release(c);
+                    }
+                    return null;
+                case "isClosed":
+                    return physical == null || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + url + "]";
+                default:
+                    break;
+            }
+            if (physical == null) {
+                throw new SQLException("Connection already returned to pool");
+            }
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException ite) {
+                throw ite.getCause();
+            }
+        }
+    }
+}
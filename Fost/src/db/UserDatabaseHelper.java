@@ -59,7 +59,7 @@ public class UserDatabaseHelper {
 
     /** Inicijalizira bazu i dodaje default admina */
     public static void initializeUserTable() {
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = SqliteConnectionPool.get(DB_URL);
              Statement stmt = conn.createStatement()) {
 
             stmt.execute(SQL_CREATE_USERS);
@@ -79,7 +79,7 @@ public class UserDatabaseHelper {
 
     /** Provjera postoji li korisnik */
     public static boolean userExists(String username) {
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = SqliteConnectionPool.get(DB_URL);
              PreparedStatement ps = conn.prepareStatement(SQL_USER_EXISTS)) {
             ps.setString(1, username);
             try (ResultSet rs = ps.executeQuery()) {
@@ -93,7 +93,7 @@ public class UserDatabaseHelper {
 
     /** Autentifikacija korisnika prema hash lozinci i ulozi */
     public static boolean authenticateHashed(String username, String password, String role) {
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = SqliteConnectionPool.get(DB_URL);
              PreparedStatement ps = conn.prepareStatement(SQL_AUTHENTICATE)) {
             ps.setString(1, username);
             ps.setString(2, role);
@@ -111,7 +111,7 @@ public class UserDatabaseHelper {
     /** Dodaje novog korisnika */
     public static boolean addUser(String username, String password, String role) {
         if (userExists(username)) return false; // spriječi duplikat
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = SqliteConnectionPool.get(DB_URL);
              PreparedStatement ps = conn.prepareStatement(SQL_INSERT_USER)) {
             ps.setString(1, username);
             ps.setString(2, hashPassword(password));
@@ -125,7 +125,7 @@ public class UserDatabaseHelper {
 
     /** Ažurira lozinku */
     public static boolean updatePassword(String username, String newPassword) {
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = SqliteConnectionPool.get(DB_URL);
              PreparedStatement ps = conn.prepareStatement(SQL_UPDATE_PASSWORD)) {
             ps.setString(1, hashPassword(newPassword));
             ps.setString(2, username);
@@ -138,7 +138,7 @@ public class UserDatabaseHelper {
 
     /** Ažurira ulogu */
     public static boolean updateRole(String username, String newRole) {
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = SqliteConnectionPool.get(DB_URL);
              PreparedStatement ps = conn.prepareStatement(SQL_UPDATE_ROLE)) {
             ps.setString(1, newRole);
             ps.setString(2, username);
@@ -152,7 +152,7 @@ public class UserDatabaseHelper {
     /** Briše korisnika — nikad admina */
     public static boolean deleteUser(String username) {
         if ("admin".equalsIgnoreCase(username)) return false;
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = SqliteConnectionPool.get(DB_URL);
              PreparedStatement ps = conn.prepareStatement(SQL_DELETE_USER)) {
             ps.setString(1, username);
             return ps.executeUpdate() > 0;
@@ -165,7 +165,7 @@ public class UserDatabaseHelper {
     /** Dohvaća sve korisnike */
     public static List<String[]> getAllUsers() {
         List<String[]> users = new ArrayList<>();
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = SqliteConnectionPool.get(DB_URL);
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(SQL_SELECT_ALL_USERS)) {
             while (rs.next()) {
@@ -205,7 +205,7 @@ public class UserDatabaseHelper {
 
     /** Sprema širine stupaca */
     public static void saveUserTableSettings(String username, JTable table) {
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = SqliteConnectionPool.get(DB_URL);
              PreparedStatement ps = conn.prepareStatement(SQL_INSERT_SETTINGS)) {
             for (int viewIndex = 0; viewIndex < table.getColumnCount(); viewIndex++) {
                 int modelIndex = table.convertColumnIndexToModel(viewIndex);
@@ -223,7 +223,7 @@ public class UserDatabaseHelper {
 
     /** Učitava širine stupaca */
     public static void loadUserTableSettings(String username, JTable table) {
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = SqliteConnectionPool.get(DB_URL);
              PreparedStatement ps = conn.prepareStatement(SQL_SELECT_SETTINGS)) {
             ps.setString(1, username);
             try (ResultSet rs = ps.executeQuery()) {
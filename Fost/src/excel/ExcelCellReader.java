@@ -0,0 +1,247 @@
+package excel;
+
+import org.apache.poi.ss.usermodel.*;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Zajedničko čitanje ćelija za sve Excel readere.
+ *
+ * Jedna instanca po workbooku: FormulaEvaluator i DataFormatter se kreiraju jednom
+ * (ne po ćeliji), a pamti se rezultat evaluacije zadnje formule, pa višestruko čitanje
+ * iste ćelije zaredom (tip, broj, tekst) evaluira formulu samo jednom. Pamti se samo jedna
+ * ćelija, pa memorija ne raste s veličinom workbooka.
+ *
+ * enableCachedFormulaResults(true) čita rezultat formule koji je Excel spremio u datoteku
+ * umjesto ponovne evaluacije (najbrže; dovoljno za datoteke koje je spremio Excel).
+ *
+ * Instanca nije thread-safe (kao ni Workbook) - koristi se u niti koja čita datoteku.
+ */
+public class ExcelCellReader {
+
+    private final FormulaEvaluator evaluator;
+    private final DataFormatter formatter;
+    // zadnja evaluirana formula i njen rezultat
+    private Cell lastCell;
+    private CellValue lastValue;
+    private final SimpleDateFormat dateFmt = new SimpleDateFormat("dd.MM.yyyy");
+    private final SimpleDateFormat dateTimeFmt = new SimpleDateFormat("dd.MM.yyyy HH:mm");
+    private boolean cachedFormulaResults = false;
+
+    public ExcelCellReader(Workbook wb) {
+        this(wb, Locale.getDefault());
+    }
+
+    public ExcelCellReader(Workbook wb, Locale locale) {
+        this.evaluator = wb.getCreationHelper().createFormulaEvaluator();
+        this.formatter = new DataFormatter(locale);
+    }
+
+    /** Formule se ne evaluiraju nego se čita spremljeni (cached) rezultat iz datoteke. */
+    public ExcelCellReader enableCachedFormulaResults(boolean enable) {
+        this.cachedFormulaResults = enable;
+        return this;
+    }
+
+    /** Ćelija iz reda ili null ako ne postoji / prazna je. */
+    public static Cell cell(Row row, int col) {
+        if (row == null || col < 0) return null;
+        return row.getCell(col, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
+    }
+
+    /* ----------------- Evaluacija ----------------- */
+
+    /**
+     * Vrijednost ćelije nakon evaluacije formule (za obične ćelije vrijednost same ćelije).
+     * Vraća null za null ćeliju ili ako evaluacija ne uspije.
+     */
+    public CellValue value(Cell cell) {
+        if (cell == null) return null;
+        CellType type = cell.getCellType();
+        if (type != CellType.FORMULA) return plainValue(cell, type);
+        if (cachedFormulaResults) return plainValue(cell, cell.getCachedFormulaResultType());
+
+        if (cell == lastCell) return lastValue;
+        CellValue cv;
+        try {
+            cv = evaluator.evaluate(cell);
+        } catch (Exception ex) {
+            // formula koju POI ne zna izračunati (npr. vanjska referenca) - uzmi spremljeni rezultat
+            try {
+                cv = plainValue(cell, cell.getCachedFormulaResultType());
+            } catch (Exception ignored) {
+                cv = null;
+            }
+        }
+        lastCell = cell;
+        lastValue = cv;
+        return cv;
+    }
+
+    private static CellValue plainValue(Cell cell, CellType type) {
+        switch (type) {
+            case NUMERIC: return new CellValue(cell.getNumericCellValue());
+            case STRING:  return new CellValue(cell.getStringCellValue());
+            case BOOLEAN: return CellValue.valueOf(cell.getBooleanCellValue());
+            case ERROR:   return CellValue.getError(cell.getErrorCellValue());
+            default:      return null;
+        }
+    }
+
+    /** Tip vrijednosti (za formule tip rezultata); BLANK za null ćeliju. */
+    public CellType type(Cell cell) {
+        CellValue cv = value(cell);
+        return cv == null ? CellType.BLANK : cv.getCellType();
+    }
+
+    /** Brojčana ćelija (ili formula s brojčanim rezultatom) s datumskim formatom. */
+    public boolean isDate(Cell cell) {
+        if (type(cell) != CellType.NUMERIC) return false;
+        try {
+            return DateUtil.isCellDateFormatted(cell);
+        } catch (Exception ex) {
+            return false;
+        }
+    }
+
+    /* ----------------- Brojevi ----------------- */
+
+    /** Sirova brojčana vrijednost (uključujući datume kao Excel serijski broj) ili null. */
+    public Double numeric(Cell cell) {
+        CellValue cv = value(cell);
+        return cv != null && cv.getCellType() == CellType.NUMERIC ? cv.getNumberValue() : null;
+    }
+
+    /**
+     * Broj iz ćelije: brojčana vrijednost (ne datum) ili tekst s decimalnim zarezom/točkom.
+     * Vraća null ako ćelija nije broj.
+     */
+    public Double number(Cell cell) {
+        CellValue cv = value(cell);
+        if (cv == null) return null;
+        switch (cv.getCellType()) {
+            case NUMERIC:
+                return isDate(cell) ? null : cv.getNumberValue();
+            case STRING:
+                return parseDouble(cv.getStringValue());
+            default:
+                return null;
+        }
+    }
+
+    /** Cijeli broj (decimalni se zaokružuje) ili null. */
+    public Integer integer(Cell cell) {
+        CellValue cv = value(cell);
+        if (cv == null) return null;
+        switch (cv.getCellType()) {
+            case NUMERIC:
+                return isDate(cell) ? null : (int) Math.round(cv.getNumberValue());
+            case STRING: {
+                String s = cv.getStringValue().trim();
+                if (s.isEmpty()) return null;
+                try {
+                    return Integer.parseInt(s);
+                } catch (NumberFormatException ex) {
+                    return null;
+                }
+            }
+            default:
+                return null;
+        }
+    }
+
+    /** "12,5" / "12.5" -> 12.5; prazno ili neispravno -> null. */
+    public static Double parseDouble(String s) {
+        if (s == null) return null;
+        s = s.trim().replace(',', '.');
+        if (s.isEmpty()) return null;
+        try {
+            return Double.parseDouble(s);
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    /* ----------------- Tekst ----------------- */
+
+    /**
+     * Sadržaj ćelije kao tekst, za prikaz u tablici:
+     * datum -> dd.MM.yyyy (ili dd.MM.yyyy HH:mm ako format sadrži vrijeme),
+     * broj -> bez ".0" na kraju, tekst -> trim. Prazna/null ćelija -> "".
+     */
+    public String text(Cell cell) {
+        if (cell == null) return "";
+        try {
+            CellValue cv = value(cell);
+            if (cv == null) return cell.toString().trim();
+            switch (cv.getCellType()) {
+                case STRING:
+                    return cv.getStringValue().trim();
+                case NUMERIC:
+                    if (isDate(cell)) {
+                        Date d = DateUtil.getJavaDate(cv.getNumberValue());
+                        return (hasTimeFormat(cell) ? dateTimeFmt : dateFmt).format(d);
+                    }
+                    return stripTrailingZeros(cv.getNumberValue());
+                case BOOLEAN:
+                    return Boolean.toString(cv.getBooleanValue());
+                default:
+                    return cell.toString().trim();
+            }
+        } catch (Exception ex) {
+            return cell.toString().trim();
+        }
+    }
+
+    /**
+     * Sirovi tekst za šifre/nazive: tekst bez trima, cijeli brojevi bez decimala ("1001", ne "1001.0").
+     * Prazna/null ćelija ili ćelija bez tekstualne/brojčane vrijednosti -> null.
+     */
+    public String string(Cell cell) {
+        CellValue cv = value(cell);
+        if (cv == null) return null;
+        switch (cv.getCellType()) {
+            case STRING:
+                return cv.getStringValue();
+            case NUMERIC: {
+                double d = cv.getNumberValue();
+                return (Math.floor(d) == d && !Double.isInfinite(d)) ? String.valueOf((long) d) : String.valueOf(d);
+            }
+            default:
+                return null;
+        }
+    }
+
+    /** Tekst kako ga prikazuje Excel (DataFormatter), s evaluiranim formulama. */
+    public String formatted(Cell cell) {
+        if (cell == null) return null;
+        if (cachedFormulaResults) return formatter.formatCellValue(cell);
+        try {
+            return formatter.formatCellValue(cell, evaluator);
+        } catch (Exception ex) {
+            return formatter.formatCellValue(cell);
+        }
+    }
+
+    /** Datumska ćelija -> dd.MM.yyyy; ostalo kao cell.toString(). */
+    public String dateDots(Cell cell) {
+        if (cell == null) return "";
+        if (cell.getCellType() == CellType.NUMERIC && isDate(cell)) {
+            return dateFmt.format(cell.getDateCellValue());
+        }
+        return cell.toString().trim();
+    }
+
+    private static boolean hasTimeFormat(Cell cell) {
+        CellStyle style = cell.getCellStyle();
+        String fmt = style != null ? style.getDataFormatString() : null;
+        return fmt != null && fmt.toLowerCase().contains("h");
+    }
+
+    public static String stripTrailingZeros(double val) {
+        String str = Double.toString(val);
+        return str.endsWith(".0") ? str.substring(0, str.length() - 2) : str;
+    }
+}
@@ -1,8 +1,10 @@
 package excel;
 
+import logic.DateScanner;
 import logic.ProductionStatsCalculator;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 
 import javax.swing.*;
 import javax.swing.filechooser.FileNameExtensionFilter;
@@ -11,19 +13,25 @@ import javax.swing.table.TableModel;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.time.*;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.Date;
 import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 
 /**
  * ExcelExporter:
  * - exportTableToExcel(DefaultTableModel) and exportTableToExcel(TableModel) for backward compatibility
- * - exportTableAndStats(model, m2PoSatu) will calculate stats using ProductionStatsCalculator (converts TableModel -> DefaultTableModel)
+ * - exportTableAndStats(model, m2PoSatu) will calculate stats using ProductionStatsCalculator (directly on the TableModel)
  * - exportTableAndStats(model, stats) writes two sheets: "Podaci" and "Statistika"
+ *   (SXSSF streaming, background worker with progress/cancel)
  *
  * Statistika sheet follows exact structure requested:
  * UKUPNO: Ukupno kom, Ukupno m2, Kapacitet m2 po danu
@@ -33,20 +41,13 @@ import java.util.Map;
  */
 public class ExcelExporter {
 
-    private static final DateTimeFormatter[] DATE_FORMATTERS = new DateTimeFormatter[]{
-            DateTimeFormatter.ofPattern("dd/MM/yyyy"),
-            DateTimeFormatter.ofPattern("yyyy-MM-dd"),
-            DateTimeFormatter.ofPattern("dd.MM.yyyy"),
-            DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm"),
-            DateTimeFormatter.ofPattern("dd.MM.yyyy H:mm"),
-            DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm"),
-            DateTimeFormatter.ISO_LOCAL_DATE,
-            DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss"),
-            DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss")
-    };
-
     private static final int MIN_COLUMNS = 16;
 
+    // SXSSF: broj redova u memoriji (stariji se ispisuju u privremenu datoteku)
+    private static final int ROW_WINDOW = 200;
+    // broj redova koji se odjednom kopiraju iz TableModel-a (na EDT-u)
+    private static final int READ_BLOCK = 500;
+
     // backward-compatibility
     public static void exportTableToExcel(DefaultTableModel model) {
         exportTableAndStats((TableModel) model, (Map<String, Object>) null);
@@ -57,38 +58,12 @@ public class ExcelExporter {
     }
 
     /**
-     * Ensure DefaultTableModel for ProductionStatsCalculator, compute stats and export both sheets.
+     * Compute stats (ProductionStatsCalculator radi nad TableModel-om, bez kopiranja) and export both sheets.
      */
     public static void exportTableAndStats(TableModel model, double m2PoSatu) {
-        DefaultTableModel dtm;
-        if (model instanceof DefaultTableModel) {
-            dtm = (DefaultTableModel) model;
-        } else {
-            dtm = new DefaultTableModel();
-            int cols = model.getColumnCount();
-            for (int c = 0; c < cols; c++) {
-                try {
-                    dtm.addColumn(model.getColumnName(c));
-                } catch (Exception ex) {
-                    dtm.addColumn("Col " + c);
-                }
-            }
-            for (int r = 0; r < model.getRowCount(); r++) {
-                Object[] row = new Object[cols];
-                for (int c = 0; c < cols; c++) {
-                    try {
-                        row[c] = model.getValueAt(r, c);
-                    } catch (Exception ex) {
-                        row[c] = null;
-                    }
-                }
-                dtm.addRow(row);
-            }
-        }
-
         Map<String, Object> stats;
         try {
-            stats = ProductionStatsCalculator.calculate(dtm, m2PoSatu);
+            stats = ProductionStatsCalculator.calculate(model, m2PoSatu);
         } catch (Exception ex) {
             stats = new LinkedHashMap<>();
         }
@@ -96,7 +71,9 @@ public class ExcelExporter {
     }
 
     /**
-     * Writes two sheets: "Podaci" (TableModel) and "Statistika" (ordered map)
+     * Writes two sheets: "Podaci" (TableModel) and "Statistika" (ordered map).
+     * Pisanje ide u pozadini (SwingWorker) kroz SXSSFWorkbook s ograničenim prozorom redova,
+     * uz ProgressMonitor (napredak + odustajanje). Redovi se iz modela čitaju na EDT-u u blokovima.
      */
     public static void exportTableAndStats(TableModel model, Map<String, Object> stats) {
         JFileChooser chooser = new JFileChooser();
@@ -107,15 +84,65 @@ public class ExcelExporter {
             return; // korisnik odustao
         }
 
-        File file = chooser.getSelectedFile();
-        if (!file.getName().toLowerCase().endsWith(".xlsx")) {
-            file = new File(file.getParentFile(), file.getName() + ".xlsx");
-        }
+        File chosen = chooser.getSelectedFile();
+        final File file = chosen.getName().toLowerCase().endsWith(".xlsx")
+                ? chosen
+                : new File(chosen.getParentFile(), chosen.getName() + ".xlsx");
+        final Map<String, Object> statsSnapshot = stats == null ? new LinkedHashMap<>() : new LinkedHashMap<>(stats);
+
+        ProgressMonitor monitor = new ProgressMonitor(null, "Izvoz u Excel", file.getName(),
+                0, Math.max(1, model.getRowCount()));
+        monitor.setMillisToDecideToPopup(300);
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+
+        new SwingWorker<Boolean, Integer>() {
+            @Override
+            protected Boolean doInBackground() throws Exception {
+                return writeWorkbook(model, statsSnapshot, file, this::publish, cancelled::get);
+            }
+
+            @Override
+            protected void process(java.util.List<Integer> chunks) {
+                monitor.setProgress(chunks.get(chunks.size() - 1));
+                if (monitor.isCanceled()) cancelled.set(true);
+            }
 
-        try (Workbook wb = new XSSFWorkbook(); FileOutputStream fos = new FileOutputStream(file)) {
+            @Override
+            protected void done() {
+                monitor.close();
+                try {
+                    if (get()) {
+                        JOptionPane.showMessageDialog(null,
+                                "Excel datoteka uspješno spremljena:\n" + file.getAbsolutePath(),
+                                "Spremljeno", JOptionPane.INFORMATION_MESSAGE);
+                    } else {
+                        JOptionPane.showMessageDialog(null, "Izvoz prekinut.", "Izvoz", JOptionPane.WARNING_MESSAGE);
+                    }
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(null,
+                            "Greška pri spremanju Excela:\n" + cause.getMessage(),
+                            "Greška", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Streaming zapis (SXSSF). Vraća false ako je korisnik odustao.
+     * Piše se u privremenu datoteku u istoj mapi koja tek nakon uspješnog zapisa zamjenjuje file,
+     * pa odustajanje ili greška ne diraju postojeću datoteku. Poziva se izvan EDT-a; model se čita u blokovima od READ_BLOCK redova preko invokeAndWait.
+     */
+    static boolean writeWorkbook(TableModel model, Map<String, Object> stats, File file,
+                                 Consumer<Integer> progress, BooleanSupplier isCancelled) throws Exception {
+        SXSSFWorkbook wb = new SXSSFWorkbook(ROW_WINDOW);
+        wb.setCompressTempFiles(true);
+        boolean completed = false;
+        File tmp = null;
+        try {
             CreationHelper helper = wb.getCreationHelper();
 
-            // Styles
+            // Styles (jednom po workbooku, dijele ih sve ćelije)
             Font headerFont = wb.createFont();
             headerFont.setBold(true);
             CellStyle headerStyle = wb.createCellStyle();
@@ -135,9 +162,10 @@ public class ExcelExporter {
             integerStyle.setDataFormat(dataFormat.getFormat("#,##0"));
 
             // SHEET 1: Podaci
-            Sheet sheet = wb.createSheet("Podaci");
+            SXSSFSheet sheet = wb.createSheet("Podaci");
+            sheet.trackAllColumnsForAutoSizing(); // širine se prate dok redovi prolaze kroz prozor
 
-            int modelCols = model.getColumnCount();
+            int modelCols = onEdt(model::getColumnCount);
             int exportCols = Math.max(modelCols, MIN_COLUMNS);
 
             Row header = sheet.createRow(0);
@@ -146,7 +174,8 @@ public class ExcelExporter {
                 String colName;
                 if (c < modelCols) {
                     try {
-                        colName = model.getColumnName(c);
+                        final int col = c;
+                        colName = onEdt(() -> model.getColumnName(col));
                     } catch (Exception ex) {
                         colName = "Col " + c;
                     }
@@ -175,69 +204,78 @@ public class ExcelExporter {
                 cell.setCellStyle(headerStyle);
             }
 
-            for (int r = 0; r < model.getRowCount(); r++) {
-                Row row = sheet.createRow(r + 1);
-                for (int c = 0; c < exportCols; c++) {
-                    Cell cell = row.createCell(c);
-                    Object value = c < modelCols ? model.getValueAt(r, c) : null;
-
-                    if (c == 7) {
-                        cell.setCellValue(value != null ? value.toString() : "");
-                        continue;
-                    }
-                    if (c == 12 || c == 13) {
-                        String s = value != null ? value.toString().trim() : "";
-                        Date parsedDT = tryParseDateTime(s);
-                        if (parsedDT != null) {
-                            cell.setCellValue(parsedDT);
-                            cell.setCellStyle(dateTimeStyle);
-                        } else {
-                            cell.setCellValue(s);
-                        }
-                        continue;
-                    }
-                    if (c == 14 || c == 15) {
-                        cell.setCellValue(value != null ? value.toString() : "");
-                        continue;
-                    }
-
-                    if (value instanceof Number) {
-                        double d = ((Number) value).doubleValue();
-                        cell.setCellValue(d);
-                        if (value instanceof Integer || value instanceof Long || value instanceof Short) {
-                            cell.setCellStyle(integerStyle);
-                        } else {
-                            cell.setCellStyle(doubleStyle);
+            int written = 0;
+            while (true) {
+                if (isCancelled.getAsBoolean()) return false;
+                final int from = written;
+                Object[][] block = onEdt(() -> readBlock(model, from, modelCols));
+                if (block.length == 0) break;
+                for (Object[] values : block) {
+                    Row row = sheet.createRow(++written);
+                    for (int c = 0; c < exportCols; c++) {
+                        Cell cell = row.createCell(c);
+                        Object value = c < modelCols ? values[c] : null;
+
+                        if (c == 7) {
+                            cell.setCellValue(value != null ? value.toString() : "");
+                            continue;
                         }
-                    } else if (value instanceof Date) {
-                        cell.setCellValue((Date) value);
-                        cell.setCellStyle(dateStyle);
-                    } else if (value instanceof String) {
-                        String s = ((String) value).trim();
-                        Date parsedDT = tryParseDateTime(s);
-                        if (parsedDT != null) {
-                            cell.setCellValue(parsedDT);
-                            cell.setCellStyle(dateTimeStyle);
-                        } else {
-                            java.time.LocalDate ld = tryParseDate(s);
-                            if (ld != null) {
-                                Date utilDate = Date.from(ld.atStartOfDay(ZoneId.systemDefault()).toInstant());
-                                cell.setCellValue(utilDate);
-                                cell.setCellStyle(dateStyle);
+                        if (c == 12 || c == 13) {
+                            String s = value != null ? value.toString().trim() : "";
+                            Date parsedDT = tryParseDateTime(s);
+                            if (parsedDT != null) {
+                                cell.setCellValue(parsedDT);
+                                cell.setCellStyle(dateTimeStyle);
                             } else {
                                 cell.setCellValue(s);
                             }
+                            continue;
+                        }
+                        if (c == 14 || c == 15) {
+                            cell.setCellValue(value != null ? value.toString() : "");
+                            continue;
+                        }
+
+                        if (value instanceof Number) {
+                            double d = ((Number) value).doubleValue();
+                            cell.setCellValue(d);
+                            if (value instanceof Integer || value instanceof Long || value instanceof Short) {
+                                cell.setCellStyle(integerStyle);
+                            } else {
+                                cell.setCellStyle(doubleStyle);
+                            }
+                        } else if (value instanceof Date) {
+                            cell.setCellValue((Date) value);
+                            cell.setCellStyle(dateStyle);
+                        } else if (value instanceof String) {
+                            String s = ((String) value).trim();
+                            Date parsedDT = tryParseDateTime(s);
+                            if (parsedDT != null) {
+                                cell.setCellValue(parsedDT);
+                                cell.setCellStyle(dateTimeStyle);
+                            } else {
+                                java.time.LocalDate ld = tryParseDate(s);
+                                if (ld != null) {
+                                    Date utilDate = Date.from(ld.atStartOfDay(ZoneId.systemDefault()).toInstant());
+                                    cell.setCellValue(utilDate);
+                                    cell.setCellStyle(dateStyle);
+                                } else {
+                                    cell.setCellValue(s);
+                                }
+                            }
+                        } else {
+                            cell.setCellValue(value != null ? value.toString() : "");
                         }
-                    } else {
-                        cell.setCellValue(value != null ? value.toString() : "");
                     }
                 }
+                progress.accept(written);
             }
 
             for (int c = 0; c < exportCols; c++) sheet.autoSizeColumn(c);
 
             // SHEET 2: Statistika
-            Sheet statSheet = wb.createSheet("Statistika");
+            SXSSFSheet statSheet = wb.createSheet("Statistika");
+            statSheet.trackAllColumnsForAutoSizing();
             int statRowIdx = 0;
             if (stats == null) stats = new LinkedHashMap<>();
 
@@ -297,43 +335,72 @@ public class ExcelExporter {
             statSheet.autoSizeColumn(0);
             statSheet.autoSizeColumn(1);
 
-            // write
-            wb.write(fos);
-
-            JOptionPane.showMessageDialog(null,
-                    "Excel datoteka uspješno spremljena:\n" + file.getAbsolutePath(),
-                    "Spremljeno", JOptionPane.INFORMATION_MESSAGE);
-
-        } catch (IOException e) {
-            JOptionPane.showMessageDialog(null,
-                    "Greška pri spremanju Excela:\n" + e.getMessage(),
-                    "Greška", JOptionPane.ERROR_MESSAGE);
+            if (isCancelled.getAsBoolean()) return false;
+            tmp = File.createTempFile("fost-izvoz-", ".tmp", file.getAbsoluteFile().getParentFile());
+            try (FileOutputStream fos = new FileOutputStream(tmp)) {
+                wb.write(fos);
+            }
+            replaceWith(tmp, file);
+            completed = true;
+            return true;
+        } finally {
+            wb.dispose(); // briše privremene datoteke SXSSF-a
+            wb.close();
+            if (!completed && tmp != null && tmp.exists() && !tmp.delete()) {
+                System.err.println("Nije moguće obrisati djelomični izvoz: " + tmp.getAbsolutePath());
+            }
         }
     }
 
-    private static java.time.LocalDate tryParseDate(String text) {
-        if (text == null || text.isBlank()) return null;
-        for (DateTimeFormatter fmt : DATE_FORMATTERS) {
-            try {
-                return java.time.LocalDate.parse(text, fmt);
-            } catch (DateTimeParseException ignored) { }
+    /** Premješta tmp na mjesto target (atomarno gdje datotečni sustav to podržava). */
+    private static void replaceWith(File tmp, File target) throws IOException {
+        try {
+            Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
         }
-        return null;
     }
 
-    private static Date tryParseDateTime(String text) {
-        if (text == null || text.isBlank()) return null;
-        for (DateTimeFormatter fmt : DATE_FORMATTERS) {
-            try {
+    private static Object[][] readBlock(TableModel model, int from, int cols) {
+        int to = Math.min(model.getRowCount(), from + READ_BLOCK);
+        if (to <= from) return new Object[0][];
+        Object[][] out = new Object[to - from][cols];
+        for (int r = from; r < to; r++) {
+            for (int c = 0; c < cols; c++) {
                 try {
-                    java.time.LocalDateTime ldt = java.time.LocalDateTime.parse(text, fmt);
-                    return Date.from(ldt.atZone(ZoneId.systemDefault()).toInstant());
-                } catch (DateTimeParseException ex) {
-                    java.time.LocalDate ld = java.time.LocalDate.parse(text, fmt);
-                    return Date.from(ld.atStartOfDay(ZoneId.systemDefault()).toInstant());
+                    out[r - from][c] = model.getValueAt(r, c);
+                } catch (Exception ex) {
+                    out[r - from][c] = null;
                 }
-            } catch (DateTimeParseException ignored) { }
+            }
         }
-        return null;
+        return out;
+    }
+
+    // Swing modeli nisu thread-safe: čitanje ide na EDT
+    private static <T> T onEdt(Callable<T> call) throws Exception {
+        if (SwingUtilities.isEventDispatchThread()) return call.call();
+        Object[] result = new Object[1];
+        Exception[] error = new Exception[1];
+        SwingUtilities.invokeAndWait(() -> {
+            try {
+                result[0] = call.call();
+            } catch (Exception ex) {
+                error[0] = ex;
+            }
+        });
+        if (error[0] != null) throw error[0];
+        @SuppressWarnings("unchecked") T t = (T) result[0];
+        return t;
+    }
+
+    private static java.time.LocalDate tryParseDate(String text) {
+        return DateScanner.parseDate(text);
+    }
+
+    private static Date tryParseDateTime(String text) {
+        // datum bez vremena -> ponoć (kao i ranije)
+        java.time.LocalDateTime ldt = DateScanner.parseDateTime(text);
+        return ldt == null ? null : Date.from(ldt.atZone(ZoneId.systemDefault()).toInstant());
     }
 }
\ No newline at end of file
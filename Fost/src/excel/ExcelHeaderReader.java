@@ -0,0 +1,124 @@
+package excel;
+
+import org.apache.poi.ooxml.util.SAXHelper;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.text.Normalizer;
+import java.util.*;
+
+/**
+ * Čita samo prvi neprazni red prvog sheeta (header) - za prepoznavanje vrste datoteke
+ * prije nego što se pokrene pravi reader.
+ *
+ * .xlsx/.xlsm se čita streaming i parsiranje se prekida odmah nakon headera,
+ * pa ni velika datoteka ne košta više od nekoliko milisekundi.
+ */
+public final class ExcelHeaderReader {
+
+    private ExcelHeaderReader() {
+    }
+
+    /** Tekstovi ćelija headera redom kolona (prazne ćelije kao ""). */
+    public static List<String> readHeader(File file) throws Exception {
+        String name = file.getName().toLowerCase(Locale.ROOT);
+        return (name.endsWith(".xlsx") || name.endsWith(".xlsm")) ? readStreaming(file) : readWorkbook(file);
+    }
+
+    /** Header normaliziran za usporedbu: bez dijakritika, mala slova, samo slova i znamenke ("Tip dok." -> "tipdok"). */
+    public static Set<String> readNormalizedHeader(File file) throws Exception {
+        Set<String> out = new LinkedHashSet<>();
+        for (String h : readHeader(file)) {
+            String n = normalize(h);
+            if (!n.isEmpty()) out.add(n);
+        }
+        return out;
+    }
+
+    public static String normalize(String s) {
+        if (s == null) return "";
+        return Normalizer.normalize(s, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("[^a-z0-9]", "");
+    }
+
+    private static List<String> readWorkbook(File file) throws Exception {
+        try (FileInputStream fis = new FileInputStream(file);
+             Workbook wb = WorkbookFactory.create(fis)) {
+            if (wb.getNumberOfSheets() == 0) return List.of();
+            Sheet sheet = wb.getSheetAt(0);
+            ExcelCellReader cells = new ExcelCellReader(wb).enableCachedFormulaResults(true);
+            for (int r = sheet.getFirstRowNum(); r <= sheet.getLastRowNum(); r++) {
+                Row row = sheet.getRow(r);
+                if (row == null || row.getLastCellNum() <= 0) continue;
+                List<String> out = new ArrayList<>();
+                for (int c = 0; c < row.getLastCellNum(); c++) out.add(cells.text(row.getCell(c)));
+                return out;
+            }
+        }
+        return List.of();
+    }
+
+    private static List<String> readStreaming(File file) throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            XSSFReader xr = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = xr.getStylesTable();
+            Iterator<InputStream> sheets = xr.getSheetsData();
+            if (!sheets.hasNext()) return List.of();
+            HeaderHandler handler = new HeaderHandler();
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = SAXHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(styles, strings, handler, new DataFormatter(), false));
+                parser.parse(new InputSource(sheet));
+            } catch (HeaderDone done) {
+                // header pročitan - ostatak sheeta se ne parsira
+            }
+            return handler.cells;
+        }
+    }
+
+    /** Prekida SAX parsiranje nakon prvog nepraznog reda. */
+    private static final class HeaderDone extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        HeaderDone() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final class HeaderHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+        final List<String> cells = new ArrayList<>();
+
+        @Override
+        public void startRow(int rowNum) {
+            cells.clear();
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            if (cellReference == null) return;
+            int col = new CellReference(cellReference).getCol();
+            while (cells.size() <= col) cells.add("");
+            cells.set(col, formattedValue == null ? "" : formattedValue);
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (!cells.isEmpty()) throw new HeaderDone();
+        }
+    }
+}
@@ -3,13 +3,15 @@ package excel;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
+import logic.CapacityEstimator;
 import logic.DateUtils;
+import logic.WorkingDayCalendar;
 import logic.WorkingTimeCalculator;
+import model.DirtyTrackingTableModel;
 
 import javax.swing.*;
 import javax.swing.filechooser.FileNameExtensionFilter;
 import javax.swing.table.DefaultTableModel;
-import javax.swing.table.AbstractTableModel;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -24,10 +26,13 @@ import java.util.*;
 /**
  * ExcelImporter koji:
  * - radi u pozadini (SwingWorker) da ne blokira UI,
- * - publish/process dodaje retke odmah u model dok se čita (redovi se pojavljuju odmah),
+ * - redove objavljuje u blokovima (PUBLISH_CHUNK) koje process() dodaje u model odjednom
+ *   (jedan tableRowsInserted po bloku, ne po redu),
+ * - za vrijeme uvoza isključuje sortiranje zadanog RowSorter-a (vraća ga na kraju - jedno sortiranje),
  * - podržava Excel sa headerom (mapira kolone) ili bez headera (fiksni indeksi),
  * - izračunava mm/m/tisucl/m2/duration/predPlan i upisuje finalni red u model,
- * - opcionalni callback onComplete poziva se na EDT nakon dovršetka (npr. recomputeAllRows).
+ * - opcionalni callback onComplete poziva se na EDT nakon dovršetka (npr. recomputeAllRows);
+ *   ako je zadan, predPlan se ne računa po redu nego ga računa onComplete za sve redove odjednom.
  */
 public class ExcelImporter {
 
@@ -38,6 +43,9 @@ public class ExcelImporter {
     private static final double DEFAULT_M2_PER_HOUR = 10.0;
     //novo polje za uvesti kolonu iz excela predPlanIsporuke u formatu dd/MM/yyyy u model iako se racuna uvozom 
     private static final DateTimeFormatter IN_DATE_FMT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    // broj redova po bloku koji se odjednom dodaje u model
+    private static final int PUBLISH_CHUNK = 500;
+
     public static void importFromExcel(DefaultTableModel model) {
         importFromExcel(model, null);
     }
@@ -48,6 +56,14 @@ public class ExcelImporter {
      * ili sličnu metodu u UI (pozvat će se na EDT).
      */
     public static void importFromExcel(DefaultTableModel model, Runnable onComplete) {
+        importFromExcel(model, null, onComplete);
+    }
+
+    /**
+     * Kao importFromExcel(model, onComplete), uz sorter tablice čije se sortiranje za vrijeme
+     * uvoza isključuje (inače bi se tablica presortirala nakon svakog bloka).
+     */
+    public static void importFromExcel(DefaultTableModel model, RowSorter<?> sorter, Runnable onComplete) {
         if (model == null) return;
 
         JFileChooser chooser = new JFileChooser();
@@ -60,7 +76,18 @@ public class ExcelImporter {
             return;
         }
 
-        SwingWorker<Void, Object[]> worker = new SwingWorker<>() {
+        // predPlan po redu samo ako ga nakon uvoza ne računa onComplete
+        final boolean perRowPlan = onComplete == null;
+        // m2/h za predPlan iz zajedničkog procjenitelja kapaciteta (fallback DEFAULT_M2_PER_HOUR)
+        final double m2PerHour = perRowPlan
+                ? CapacityEstimator.shared().estimate(model).bestM2PerHour(DEFAULT_M2_PER_HOUR)
+                : DEFAULT_M2_PER_HOUR;
+
+        // sortiranje se isključuje dok traje uvoz i vraća u done()
+        final List<? extends RowSorter.SortKey> savedSortKeys = sorter != null ? sorter.getSortKeys() : null;
+        if (sorter != null && !savedSortKeys.isEmpty()) sorter.setSortKeys(null);
+
+        SwingWorker<Void, List<Object[]>> worker = new SwingWorker<>() {
             int imported = 0;
             int skipped = 0;
             String errorMessage = null;
@@ -72,6 +99,7 @@ public class ExcelImporter {
 
                     Sheet sheet = wb.getSheetAt(0);
                     if (sheet == null) return null;
+                    ExcelCellReader cells = new ExcelCellReader(wb);
 
                     // Decide if first row is header (heuristic: any string cell -> header)
                     Row first = sheet.getRow(0);
@@ -86,6 +114,7 @@ public class ExcelImporter {
 
                     int startRow = 1; // as in your examples data start from second row
                     int lastRow = sheet.getLastRowNum();
+                    List<Object[]> buffer = new ArrayList<>(PUBLISH_CHUNK);
 
                     for (int r = startRow; r <= lastRow; r++) {
                         if (isCancelled()) break;
@@ -94,8 +123,8 @@ public class ExcelImporter {
 
                         try {
                             // read core fields (header or fixed indices)
-                            String komitentOpis = hasHeader ? getByHeader(row, headerMap, "komitentopis", 2) : getCellString(row, 2);
-                            String nazivRobe = hasHeader ? getByHeader(row, headerMap, "nazivrobe", 3) : getCellString(row, 3);
+                            String komitentOpis = hasHeader ? getByHeader(row, cells, headerMap, "komitentopis", 2) : getCellString(row, cells, 2);
+                            String nazivRobe = hasHeader ? getByHeader(row, cells, headerMap, "nazivrobe", 3) : getCellString(row, cells, 3);
 
                             komitentOpis = komitentOpis == null ? "" : komitentOpis.trim();
                             nazivRobe = nazivRobe == null ? "" : nazivRobe.trim();
@@ -106,31 +135,31 @@ public class ExcelImporter {
                             Object[] data = new Object[17];
 
                             // datumNarudzbe
-                            String datumNar = hasHeader ? getByHeader(row, headerMap, "datumnarudzbe", 0) : getCellDateDots(row, 0);
+                            String datumNar = hasHeader ? getByHeader(row, cells, headerMap, "datumnarudzbe", 0) : getCellDateDots(row, cells, 0);
                             if (datumNar == null || datumNar.isBlank()) datumNar = DATE_FMT_DOTS.format(new Date());
                             data[0] = datumNar;
 
                             // predDatumIsporuke
-                            String predDatum = hasHeader ? getByHeader(row, headerMap, "preddatumisporuke", 1) : getCellDateDots(row, 1);
+                            String predDatum = hasHeader ? getByHeader(row, cells, headerMap, "preddatumisporuke", 1) : getCellDateDots(row, cells, 1);
                             data[1] = predDatum == null ? "" : predDatum;
 
                             data[2] = komitentOpis;
                             data[3] = nazivRobe;
 
                             // neto / kom
-                            Double neto = hasHeader ? safeDoubleFromRowByHeader(row, headerMap, "netovrijednost", 4) : safeDoubleFromCell(row.getCell(4));
-                            Integer komInt = hasHeader ? safeIntegerFromRowByHeader(row, headerMap, "kom", 5) : safeIntegerFromCell(row.getCell(5));
+                            Double neto = hasHeader ? safeDoubleFromRowByHeader(row, cells, headerMap, "netovrijednost", 4) : safeDoubleFromCell(cells, row.getCell(4));
+                            Integer komInt = hasHeader ? safeIntegerFromRowByHeader(row, cells, headerMap, "kom", 5) : safeIntegerFromCell(cells, row.getCell(5));
                             data[4] = neto;
                             data[5] = komInt;
 
-                            data[6] = hasHeader ? getByHeader(row, headerMap, "status", 6) : getCellString(row, 6);
-                            data[8] = hasHeader ? getByHeader(row, headerMap, "djelatnik", 8) : getCellString(row, 7);
+                            data[6] = hasHeader ? getByHeader(row, cells, headerMap, "status", 6) : getCellString(row, cells, 6);
+                            data[8] = hasHeader ? getByHeader(row, cells, headerMap, "djelatnik", 8) : getCellString(row, cells, 7);
 
                             // mm/m/tisucl/m2
-                            Double mm = hasHeader ? safeDoubleFromRowByHeader(row, headerMap, "mm", 9) : null;
-                            Double mVal = hasHeader ? safeDoubleFromRowByHeader(row, headerMap, "m", 10) : null;
-                            Double tisucl = hasHeader ? safeDoubleFromRowByHeader(row, headerMap, "tisucl", 11) : null;
-                            Double m2 = hasHeader ? safeDoubleFromRowByHeader(row, headerMap, "m2", 12) : null;
+                            Double mm = hasHeader ? safeDoubleFromRowByHeader(row, cells, headerMap, "mm", 9) : null;
+                            Double mVal = hasHeader ? safeDoubleFromRowByHeader(row, cells, headerMap, "m", 10) : null;
+                            Double tisucl = hasHeader ? safeDoubleFromRowByHeader(row, cells, headerMap, "tisucl", 11) : null;
+                            Double m2 = hasHeader ? safeDoubleFromRowByHeader(row, cells, headerMap, "m2", 12) : null;
 
                             // fallback parse from nazivRobe if needed
                             if ((mm == null || mVal == null) && nazivRobe != null) {
@@ -148,8 +177,8 @@ public class ExcelImporter {
                             data[11] = m2;
 
                             // start / end / duration
-                            String startStr = hasHeader ? getByHeader(row, headerMap, "starttime", 12) : getCellString(row, 12);
-                            String endStr = hasHeader ? getByHeader(row, headerMap, "endtime", 13) : getCellString(row, 13);
+                            String startStr = hasHeader ? getByHeader(row, cells, headerMap, "starttime", 12) : getCellString(row, cells, 12);
+                            String endStr = hasHeader ? getByHeader(row, cells, headerMap, "endtime", 13) : getCellString(row, cells, 13);
                             data[12] = startStr == null ? "" : startStr;
                             data[13] = endStr == null ? "" : endStr;
                             if (startStr != null && !startStr.isBlank() && endStr != null && !endStr.isBlank()) {
@@ -165,8 +194,8 @@ public class ExcelImporter {
 
                             // predPlan (simple per-row calculation)
                             String predPlan = "";
-                            if (m2 != null && m2 > 0.0) {
-                                long minutesNeeded = (long) Math.ceil((m2 / DEFAULT_M2_PER_HOUR) * 60.0);
+                            if (perRowPlan && m2 != null && m2 > 0.0) {
+                                long minutesNeeded = (long) Math.ceil((m2 / m2PerHour) * 60.0);
                                 LocalDateTime cursor = null;
                                 if (startStr != null && !startStr.isBlank()) {
                                     try { cursor = DateUtils.parse(startStr); } catch (Exception ignored) { cursor = null; }
@@ -174,35 +203,18 @@ public class ExcelImporter {
                                 if (cursor == null) cursor = LocalDateTime.of(LocalDate.now(), PLAN_WORK_START);
                                 if (!cursor.toLocalTime().isBefore(PLAN_WORK_END)) cursor = LocalDateTime.of(cursor.toLocalDate().plusDays(1), PLAN_WORK_START);
 
-                                long remaining = minutesNeeded;
-                                LocalDateTime segCursor = cursor;
-                                while (remaining > 0) {
-                                    LocalDate d = segCursor.toLocalDate();
-                                    if (WorkingTimeCalculator.isHolidayOrWeekend(d)) {
-                                        segCursor = LocalDateTime.of(d.plusDays(1), PLAN_WORK_START);
-                                        continue;
-                                    }
-                                    LocalDateTime dayStart = LocalDateTime.of(d, PLAN_WORK_START);
-                                    LocalDateTime dayEnd = LocalDateTime.of(d, PLAN_WORK_END);
-                                    LocalDateTime segStart = segCursor.isAfter(dayStart) ? segCursor : dayStart;
-                                    LocalDateTime segEnd = dayEnd;
-                                    long avail = segEnd.isAfter(segStart) ? java.time.temporal.ChronoUnit.MINUTES.between(segStart, segEnd) : 0;
-                                    if (avail <= 0) { segCursor = LocalDateTime.of(d.plusDays(1), PLAN_WORK_START); continue; }
-                                    if (remaining <= avail) {
-                                        LocalDateTime finish = segStart.plusMinutes(remaining);
-                                        predPlan = finish.toLocalDate().format(OUT_DATE_FMT);
-                                        break;
-                                    } else { remaining -= avail; segCursor = LocalDateTime.of(d.plusDays(1), PLAN_WORK_START); }
-                                }
+                                // kraj rada u radnom vremenu (07-15, bez vikenda/blagdana) - O(1) preko indeksa radnih dana
+                                LocalDateTime finish = WorkingDayCalendar.addWorkingMinutes(cursor, minutesNeeded);
+                                predPlan = finish.toLocalDate().format(OUT_DATE_FMT);
                             }
                             data[15] = predPlan;
 
                             // trgovacki predstavnik
-                            String tp = hasHeader ? getByHeader(row, headerMap, "trgovackipredstavnik", 16) : getCellString(row, 15);
+                            String tp = hasHeader ? getByHeader(row, cells, headerMap, "trgovackipredstavnik", 16) : getCellString(row, cells, 15);
                             data[16] = tp == null ? "" : tp;
                             // novo polje predPlanIsporuke iz excela ako postoji
 							if (hasHeader && headerMap.containsKey("predplanisporuke")) {
-								String pp = getByHeader(row, headerMap, "predplanisporuke", -1);
+								String pp = getByHeader(row, cells, headerMap, "predplanisporuke", -1);
 								if (pp != null && !pp.isBlank()) {
 									try {
 										LocalDate ld = LocalDate.parse(pp, IN_DATE_FMT);
@@ -212,13 +224,18 @@ public class ExcelImporter {
 									}
 								}
 							}
-                            // publish the completed row so it appears immediately in JTable via process()
-                            publish(data);
+                            // redovi se objavljuju u blokovima - process() ih dodaje jednim događajem
+                            buffer.add(data);
                             imported++;
+                            if (buffer.size() >= PUBLISH_CHUNK) {
+                                publish(buffer);
+                                buffer = new ArrayList<>(PUBLISH_CHUNK);
+                            }
                         } catch (Exception rowEx) {
                             skipped++;
                         }
                     }
+                    if (!buffer.isEmpty()) publish(buffer);
 
                 } catch (IOException ex) {
                     errorMessage = ex.getMessage();
@@ -229,17 +246,18 @@ public class ExcelImporter {
             }
 
             @Override
-            protected void process(List<Object[]> chunks) {
-                // runs on EDT: add rows immediately
-                for (Object[] arr : chunks) {
-                    model.addRow(arr);
-                }
-                // fire one update
-                ((AbstractTableModel) model).fireTableDataChanged();
+            protected void process(List<List<Object[]>> chunks) {
+                // EDT: svi blokovi pristigli od zadnjeg poziva idu u model kao jedan blok
+                List<Object[]> rows = new ArrayList<>();
+                for (List<Object[]> chunk : chunks) rows.addAll(chunk);
+                appendRows(model, rows);
             }
 
             @Override
             protected void done() {
+                if (sorter != null && !savedSortKeys.isEmpty()) {
+                    try { sorter.setSortKeys(savedSortKeys); } catch (Exception ignored) {}
+                }
                 if (errorMessage != null) {
                     JOptionPane.showMessageDialog(null, "Greška pri uvozu:\n" + errorMessage, "Greška", JOptionPane.ERROR_MESSAGE);
                 } else {
@@ -257,6 +275,25 @@ public class ExcelImporter {
 
     // ---- helper methods ----
 
+    /** Dodaje blok redova u model jednim fireTableRowsInserted. */
+    @SuppressWarnings("unchecked")
+    private static void appendRows(DefaultTableModel model, List<Object[]> rows) {
+        if (rows.isEmpty()) return;
+        if (model instanceof DirtyTrackingTableModel) {
+            ((DirtyTrackingTableModel) model).addRows(rows);
+            return;
+        }
+        Vector<Vector<Object>> data = (Vector<Vector<Object>>) (Vector<?>) model.getDataVector();
+        int first = data.size();
+        int cols = model.getColumnCount();
+        for (Object[] src : rows) {
+            Vector<Object> v = new Vector<>(cols);
+            for (int c = 0; c < cols; c++) v.add(c < src.length ? src[c] : null);
+            data.add(v);
+        }
+        model.fireTableRowsInserted(first, data.size() - 1);
+    }
+
     private static Map<String,Integer> buildHeaderMap(Row header) {
         Map<String,Integer> map = new HashMap<>();
         if (header == null) return map;
@@ -269,149 +306,48 @@ public class ExcelImporter {
         return map;
     }
 
-    private static String getByHeader(Row row, Map<String,Integer> headerMap, String canonicalName, int fallbackIndex) {
+    private static String getByHeader(Row row, ExcelCellReader cells, Map<String,Integer> headerMap, String canonicalName, int fallbackIndex) {
         if (headerMap != null && !headerMap.isEmpty()) {
             String[] synonyms = new String[] { canonicalName, canonicalName.replaceAll("[^a-z0-9]","") };
             for (String s : synonyms) {
                 if (s == null) continue;
                 Integer idx = headerMap.get(s);
-                if (idx != null) return getCellString(row, idx);
+                if (idx != null) return getCellString(row, cells, idx);
             }
         }
-        return getCellString(row, fallbackIndex);
+        return getCellString(row, cells, fallbackIndex);
     }
 
-    private static Double safeDoubleFromRowByHeader(Row row, Map<String,Integer> headerMap, String canonicalName, int fallbackIndex) {
+    private static Double safeDoubleFromRowByHeader(Row row, ExcelCellReader cells, Map<String,Integer> headerMap, String canonicalName, int fallbackIndex) {
         if (headerMap != null && headerMap.containsKey(canonicalName)) {
-            Cell c = row.getCell(headerMap.get(canonicalName));
-            return safeDoubleFromCell(c);
+            return safeDoubleFromCell(cells, row.getCell(headerMap.get(canonicalName)));
         }
-        Cell fallback = row.getCell(fallbackIndex);
-        return safeDoubleFromCell(fallback);
+        return safeDoubleFromCell(cells, row.getCell(fallbackIndex));
     }
 
-    private static Integer safeIntegerFromRowByHeader(Row row, Map<String,Integer> headerMap, String canonicalName, int fallbackIndex) {
+    private static Integer safeIntegerFromRowByHeader(Row row, ExcelCellReader cells, Map<String,Integer> headerMap, String canonicalName, int fallbackIndex) {
         if (headerMap != null && headerMap.containsKey(canonicalName)) {
-            Cell c = row.getCell(headerMap.get(canonicalName));
-            return safeIntegerFromCell(c);
+            return safeIntegerFromCell(cells, row.getCell(headerMap.get(canonicalName)));
         }
-        Cell fallback = row.getCell(fallbackIndex);
-        return safeIntegerFromCell(fallback);
+        return safeIntegerFromCell(cells, row.getCell(fallbackIndex));
     }
 
-    private static String getCellString(Row row, int c) {
-        Cell cell = row.getCell(c);
-        if (cell == null) return "";
-        try {
-            switch (cell.getCellType()) {
-                case STRING: return cell.getStringCellValue().trim();
-                case NUMERIC:
-                    if (DateUtil.isCellDateFormatted(cell)) {
-                        Date d = cell.getDateCellValue();
-                        String fmt = cell.getCellStyle() != null ? cell.getCellStyle().getDataFormatString() : null;
-                        boolean hasTime = fmt != null && fmt.toLowerCase().contains("h");
-                        String pattern = hasTime ? "dd.MM.yyyy HH:mm" : "dd.MM.yyyy";
-                        return new SimpleDateFormat(pattern).format(d);
-                    }
-                    return stripTrailingZeros(cell.getNumericCellValue());
-                case BOOLEAN: return Boolean.toString(cell.getBooleanCellValue());
-                case FORMULA:
-                    try {
-                        FormulaEvaluator ev = row.getSheet().getWorkbook().getCreationHelper().createFormulaEvaluator();
-                        CellValue cv = ev.evaluate(cell);
-                        if (cv == null) return "";
-                        switch (cv.getCellType()) {
-                            case STRING: return cv.getStringValue().trim();
-                            case NUMERIC:
-                                if (DateUtil.isCellDateFormatted(cell)) {
-                                    Date d = DateUtil.getJavaDate(cv.getNumberValue());
-                                    String fmt2 = cell.getCellStyle() != null ? cell.getCellStyle().getDataFormatString() : null;
-                                    boolean hasTime2 = fmt2 != null && fmt2.toLowerCase().contains("h");
-                                    String pattern2 = hasTime2 ? "dd.MM.yyyy HH:mm" : "dd.MM.yyyy";
-                                    return new SimpleDateFormat(pattern2).format(d);
-                                }
-                                return stripTrailingZeros(cv.getNumberValue());
-                            case BOOLEAN: return Boolean.toString(cv.getBooleanValue());
-                            default: return cell.toString().trim();
-                        }
-                    } catch (Exception ex) {
-                        return cell.toString().trim();
-                    }
-                default: return cell.toString().trim();
-            }
-        } catch (Exception ex) {
-            return cell.toString().trim();
-        }
+    // čitanje ćelija ide kroz ExcelCellReader (jedan FormulaEvaluator po workbooku)
+    private static String getCellString(Row row, ExcelCellReader cells, int c) {
+        if (c < 0) return "";
+        return cells.text(row.getCell(c));
     }
 
-    private static String getCellDateDots(Row row, int c) {
-        Cell cell = row.getCell(c);
-        if (cell != null && cell.getCellType() == CellType.NUMERIC && DateUtil.isCellDateFormatted(cell)) {
-            return DATE_FMT_DOTS.format(cell.getDateCellValue());
-        }
-        return cell == null ? "" : cell.toString().trim();
+    private static String getCellDateDots(Row row, ExcelCellReader cells, int c) {
+        return cells.dateDots(row.getCell(c));
     }
 
-    private static Double safeDoubleFromCell(Cell cell) {
-        if (cell == null) return null;
-        try {
-            switch (cell.getCellType()) {
-                case NUMERIC:
-                    if (!DateUtil.isCellDateFormatted(cell)) return cell.getNumericCellValue();
-                    return null;
-                case STRING: {
-                    String s = cell.getStringCellValue().trim().replace(',', '.');
-                    if (s.isEmpty()) return null;
-                    return Double.parseDouble(s);
-                }
-                case FORMULA: {
-                    FormulaEvaluator ev = cell.getSheet().getWorkbook().getCreationHelper().createFormulaEvaluator();
-                    CellValue cv = ev.evaluate(cell);
-                    if (cv == null) return null;
-                    if (cv.getCellType() == CellType.NUMERIC) return cv.getNumberValue();
-                    if (cv.getCellType() == CellType.STRING) {
-                        String s = cv.getStringValue().trim().replace(',', '.');
-                        if (s.isEmpty()) return null;
-                        return Double.parseDouble(s);
-                    }
-                    return null;
-                }
-                default: return null;
-            }
-        } catch (Exception ex) {
-            return null;
-        }
+    private static Double safeDoubleFromCell(ExcelCellReader cells, Cell cell) {
+        return cells.number(cell);
     }
 
-    private static Integer safeIntegerFromCell(Cell cell) {
-        if (cell == null) return null;
-        try {
-            switch (cell.getCellType()) {
-                case NUMERIC:
-                    if (!DateUtil.isCellDateFormatted(cell)) return (int) Math.round(cell.getNumericCellValue());
-                    return null;
-                case STRING: {
-                    String s = cell.getStringCellValue().trim();
-                    if (s.isEmpty()) return null;
-                    return Integer.parseInt(s);
-                }
-                case FORMULA: {
-                    FormulaEvaluator ev = cell.getSheet().getWorkbook().getCreationHelper().createFormulaEvaluator();
-                    CellValue cv = ev.evaluate(cell);
-                    if (cv == null) return null;
-                    if (cv.getCellType() == CellType.NUMERIC) return (int) Math.round(cv.getNumberValue());
-                    if (cv.getCellType() == CellType.STRING) {
-                        String s = cv.getStringValue().trim();
-                        if (s.isEmpty()) return null;
-                        return Integer.parseInt(s);
-                    }
-                    return null;
-                }
-                default: return null;
-            }
-        } catch (Exception ex) {
-            return null;
-        }
+    private static Integer safeIntegerFromCell(ExcelCellReader cells, Cell cell) {
+        return cells.integer(cell);
     }
 
     private static double[] parseDoublePair(String s) {
@@ -428,11 +364,6 @@ public class ExcelImporter {
         try { return Double.parseDouble(s); } catch (Exception e) { return 0.0; }
     }
 
-    private static String stripTrailingZeros(double val) {
-        String str = Double.toString(val);
-        return str.endsWith(".0") ? str.substring(0, str.length() - 2) : str;
-    }
-
     private static Double round(double v, int p) {
         return BigDecimal.valueOf(v).setScale(p, java.math.RoundingMode.HALF_UP).doubleValue();
     }
@@ -76,7 +76,23 @@ public class ExcelInventoryStateReader {
         return this;
     }
 
+    /** Nova instanca s istom konfiguracijom (autodetekcija mijenja indekse - za paralelno čitanje svaka dretva svoju). */
+    public ExcelInventoryStateReader copy() {
+        return new ExcelInventoryStateReader()
+                .withColumns(colCode, colName, colUnit, colQuantity, colPurchaseUnitPrice, colPurchaseTotalValue)
+                .withHeader(hasHeader)
+                .enableAutoDetect(autoDetect)
+                .enableDebug(debug)
+                .forceRecalculateTotal(forceRecalculateTotal)
+                .debugRows(debugRows);
+    }
+
     public List<StockState> parse(File file) throws IOException {
+        return parse(file, 0);
+    }
+
+    /** Čita zadani sheet (0 = prvi, redom kao ExcelSheets.names). */
+    public List<StockState> parse(File file, int sheetIndex) throws IOException {
         if (!file.exists()) {
             throw new IOException("Excel ne postoji: " + file.getAbsolutePath());
         }
@@ -84,8 +100,11 @@ public class ExcelInventoryStateReader {
         try (FileInputStream fis = new FileInputStream(file);
              Workbook wb = WorkbookFactory.create(fis)) {
 
-            Sheet sheet = wb.getSheetAt(0);
+            if (sheetIndex >= wb.getNumberOfSheets()) return list;
+            Sheet sheet = wb.getSheetAt(sheetIndex);
             if (sheet == null) return list;
+            // spremljeni rezultati formula - bez evaluacije (kao i do sada)
+            ExcelCellReader cells = new ExcelCellReader(wb).enableCachedFormulaResults(true);
 
             if (hasHeader && autoDetect) {
                 Row header = sheet.getRow(0);
@@ -104,15 +123,15 @@ public class ExcelInventoryStateReader {
                 Row row = sheet.getRow(r);
                 if (row == null) continue;
 
-                String code = readString(row, colCode);
+                String code = readString(cells, row, colCode);
                 if (code == null || code.isBlank()) continue;
 
-                String name = readString(row, colName);
-                String unit = readString(row, colUnit);
-                Double qty = readNumeric(row, colQuantity);
+                String name = readString(cells, row, colName);
+                String unit = readString(cells, row, colUnit);
+                Double qty = readNumeric(cells, row, colQuantity);
                 if (qty == null) qty = 0.0;
-                Double unitPrice = readNumeric(row, colPurchaseUnitPrice);
-                Double totalValue = readNumeric(row, colPurchaseTotalValue);
+                Double unitPrice = readNumeric(cells, row, colPurchaseUnitPrice);
+                Double totalValue = readNumeric(cells, row, colPurchaseTotalValue);
 
                 if (forceRecalculateTotal) {
                     // zanemari total iz Excela i računaj ponovno (ako postoji cijena)
@@ -187,50 +206,13 @@ public class ExcelInventoryStateReader {
                 .replaceAll("\\s+","");
     }
 
-    private String readString(Row row, int col) {
-        if (col < 0) return null;
-        Cell c = row.getCell(col, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
-        if (c == null) return null;
-        return switch (c.getCellType()) {
-            case STRING -> c.getStringCellValue();
-            case NUMERIC -> {
-                double d = c.getNumericCellValue();
-                if (Math.floor(d)==d) yield String.valueOf((long)d);
-                else yield String.valueOf(d);
-            }
-            case FORMULA -> {
-                try { yield c.getStringCellValue(); }
-                catch (Exception e) {
-                    if (c.getCachedFormulaResultType()==CellType.NUMERIC)
-                        yield String.valueOf(c.getNumericCellValue());
-                    if (c.getCachedFormulaResultType()==CellType.STRING)
-                        yield c.getStringCellValue();
-                    yield null;
-                }
-            }
-            default -> null;
-        };
+    private String readString(ExcelCellReader cells, Row row, int col) {
+        return cells.string(ExcelCellReader.cell(row, col));
     }
 
-    private Double readNumeric(Row row, int col) {
-        if (col < 0) return null;
-        Cell c = row.getCell(col, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
-        if (c == null) return null;
-        return switch (c.getCellType()) {
-            case NUMERIC -> c.getNumericCellValue();
-            case STRING -> {
-                String txt = c.getStringCellValue();
-                if (txt == null) yield null;
-                txt = txt.trim().replace(',', '.');
-                try { yield Double.parseDouble(txt); }
-                catch (NumberFormatException e) { yield null; }
-            }
-            case FORMULA -> {
-                if (c.getCachedFormulaResultType()==CellType.NUMERIC)
-                    yield c.getNumericCellValue();
-                yield null;
-            }
-            default -> null;
-        };
+    private Double readNumeric(ExcelCellReader cells, Row row, int col) {
+        Cell c = ExcelCellReader.cell(row, col);
+        Double n = cells.numeric(c);   // i ćelije s datumskim formatom, kao i do sada
+        return n != null ? n : cells.number(c);
     }
 }
\ No newline at end of file
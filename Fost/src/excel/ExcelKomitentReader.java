@@ -7,7 +7,6 @@ import model.KomitentInfo;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.text.SimpleDateFormat;
 import java.util.*;
 
 /**
@@ -26,7 +25,6 @@ import java.util.*;
 
 public class ExcelKomitentReader {
 
-    private static final SimpleDateFormat DATE_FMT_DOTS = new SimpleDateFormat("dd.MM.yyyy");
     private final String excelFilePath;
 
 	/**
@@ -47,6 +45,7 @@ public class ExcelKomitentReader {
              Workbook workbook = new XSSFWorkbook(fis)) {
 
             Sheet sheet = workbook.getSheetAt(0);
+            ExcelCellReader cells = new ExcelCellReader(workbook);
             Iterator<Row> rowIterator = sheet.iterator();
 
             if (!rowIterator.hasNext()) {
@@ -58,7 +57,7 @@ public class ExcelKomitentReader {
             Map<String, Integer> colIndexMap = new HashMap<>();
 
             for (Cell cell : headerRow) {
-                String colName = getCellString(cell).trim().toLowerCase();
+                String colName = getCellString(cells, cell).trim().toLowerCase();
                 if (!colName.isEmpty()) {
                     colIndexMap.put(colName, cell.getColumnIndex());
                 }
@@ -76,8 +75,8 @@ public class ExcelKomitentReader {
             // --- 2) Čitaj redove - uvjet: komitent popunjen ---
             while (rowIterator.hasNext()) {
                 Row row = rowIterator.next();
-                String komitentOpis = getCellString(row.getCell(idxKomitent));
-                String trgovackiPredstavnik = getCellString(row.getCell(idxPredstavnik));
+                String komitentOpis = getCellString(cells, row.getCell(idxKomitent));
+                String trgovackiPredstavnik = getCellString(cells, row.getCell(idxPredstavnik));
 
                 if (komitentOpis != null && !komitentOpis.isBlank()) {
                     String key = (komitentOpis + "|" +
@@ -98,42 +97,11 @@ public class ExcelKomitentReader {
     }
 
     // ===== Pomoćna metoda =====
-// Dohvaća sadržaj ćelije kao String, bez obzira na tip ćelije.
+// Dohvaća sadržaj ćelije kao String, bez obzira na tip ćelije (vidi ExcelCellReader.text).
  // Ako je ćelija null ili dođe do greške, vraća prazan String.
-    // Podržava tipove: STRING, NUMERIC (broj ili datum), BOOLEAN, FORMULA.
-    // Za NUMERIC tip uklanja decimalni dio ako je nula (npr. 123.0 → "123").
-    // Za datume koristi format dd.MM.yyyy.
-    // Za FORMULA evaluira formulu i vraća rezultat kao String.
-    // Ostale tipove tretira kao prazan String.
-    // U slučaju greške vraća prazan String.
-    private static String getCellString(Cell cell) {
-        if (cell == null) return "";
+    private static String getCellString(ExcelCellReader cells, Cell cell) {
         try {
-            switch (cell.getCellType()) {
-                case STRING:
-                    return cell.getStringCellValue().trim();
-                case NUMERIC:
-                    if (DateUtil.isCellDateFormatted(cell)) {
-                        return DATE_FMT_DOTS.format(cell.getDateCellValue());
-                    } else {
-                        return Double.toString(cell.getNumericCellValue()).replaceAll("\\.0$", "");
-                    }
-                case BOOLEAN:
-                    return Boolean.toString(cell.getBooleanCellValue());
-                case FORMULA:
-                    FormulaEvaluator ev = cell.getSheet().getWorkbook()
-                            .getCreationHelper().createFormulaEvaluator();
-                    CellValue cv = ev.evaluate(cell);
-                    if (cv == null) return "";
-                    switch (cv.getCellType()) {
-                        case STRING:  return cv.getStringValue().trim();
-                        case NUMERIC: return Double.toString(cv.getNumberValue()).replaceAll("\\.0$", "");
-                        case BOOLEAN: return Boolean.toString(cv.getBooleanValue());
-                        default: return "";
-                    }
-                default:
-                    return cell.toString().trim();
-            }
+            return cells.text(cell);
         } catch (Exception e) {
             return "";
         }
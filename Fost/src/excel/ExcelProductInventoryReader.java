@@ -91,6 +91,8 @@ public class ExcelProductInventoryReader implements ProductInventoryReader {
              Workbook wb = WorkbookFactory.create(fis)) {
             Sheet sheet = wb.getSheetAt(0);
             if (sheet == null) return emptyResult();
+            // spremljeni rezultati formula - bez evaluacije (kao i do sada)
+            ExcelCellReader cells = new ExcelCellReader(wb).enableCachedFormulaResults(true);
 
             int startRow = hasHeader ? 1 : 0;
 
@@ -98,20 +100,20 @@ public class ExcelProductInventoryReader implements ProductInventoryReader {
                 Row row = sheet.getRow(r);
                 if (row == null) continue;
 
-                String code = readString(row, colCode);
+                String code = readString(cells, row, colCode);
                 if (code == null || code.isBlank()) continue;
-                String name = readString(row, colName);
-                String supplier = readString(row, colSupplier);
-                String mainType = readString(row, colMainType);
-                String baseUnit = readString(row, colBaseUnit);
-                String altUnit = readString(row, colAltUnit);
-                Double areaPerPiece = readNumeric(row, colAreaPerPiece);
-                Double packSize = readNumeric(row, colPackSize);
-                Double minOrder = readNumeric(row, colMinOrder);
-                Double unitPrice = readNumeric(row, colUnitPrice);
-                Double qty = readNumeric(row, colOpeningQty);
+                String name = readString(cells, row, colName);
+                String supplier = readString(cells, row, colSupplier);
+                String mainType = readString(cells, row, colMainType);
+                String baseUnit = readString(cells, row, colBaseUnit);
+                String altUnit = readString(cells, row, colAltUnit);
+                Double areaPerPiece = readNumeric(cells, row, colAreaPerPiece);
+                Double packSize = readNumeric(cells, row, colPackSize);
+                Double minOrder = readNumeric(cells, row, colMinOrder);
+                Double unitPrice = readNumeric(cells, row, colUnitPrice);
+                Double qty = readNumeric(cells, row, colOpeningQty);
                 if (qty == null) qty = 0.0;
-                String groupsRaw = readString(row, colGroups);
+                String groupsRaw = readString(cells, row, colGroups);
 
                 Product p = new Product(
                         code.trim(),
@@ -187,48 +189,13 @@ public class ExcelProductInventoryReader implements ProductInventoryReader {
         return s.isEmpty() ? null : s;
     }
 
-    private String readString(Row row, int col) {
-        if (col < 0) return null;
-        Cell c = row.getCell(col, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
-        if (c == null) return null;
-        return switch (c.getCellType()) {
-            case STRING -> c.getStringCellValue();
-            case NUMERIC -> {
-                double d = c.getNumericCellValue();
-                yield (Math.floor(d) == d) ? String.valueOf((long)d) : String.valueOf(d);
-            }
-            case FORMULA -> {
-                try { yield c.getStringCellValue(); }
-                catch (Exception e) {
-                    if (c.getCachedFormulaResultType()==CellType.NUMERIC)
-                        yield String.valueOf(c.getNumericCellValue());
-                    else if (c.getCachedFormulaResultType()==CellType.STRING)
-                        yield c.getStringCellValue();
-                    else yield null;
-                }
-            }
-            default -> null;
-        };
+    private String readString(ExcelCellReader cells, Row row, int col) {
+        return cells.string(ExcelCellReader.cell(row, col));
     }
 
-    private Double readNumeric(Row row, int col) {
-        if (col < 0) return null;
-        Cell c = row.getCell(col, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
-        if (c == null) return null;
-        return switch (c.getCellType()) {
-            case NUMERIC -> c.getNumericCellValue();
-            case STRING -> {
-                String txt = c.getStringCellValue();
-                if (txt == null) yield null;
-                txt = txt.trim().replace(',', '.');
-                try { yield Double.parseDouble(txt); } catch (NumberFormatException e) { yield null; }
-            }
-            case FORMULA -> {
-                if (c.getCachedFormulaResultType()==CellType.NUMERIC)
-                    yield c.getNumericCellValue();
-                yield null;
-            }
-            default -> null;
-        };
+    private Double readNumeric(ExcelCellReader cells, Row row, int col) {
+        Cell c = ExcelCellReader.cell(row, col);
+        Double n = cells.numeric(c);   // i ćelije s datumskim formatom, kao i do sada
+        return n != null ? n : cells.number(c);
     }
 }
\ No newline at end of file
@@ -1,15 +1,28 @@
 package excel;
 
 import model.SalesRecord;
+import org.apache.poi.ooxml.util.SAXHelper;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 
 /**
@@ -28,6 +41,8 @@ import java.util.regex.Pattern;
  *      customer_code, cogs_amount
  *  - COGS = “Nabavna vrijednost” (ukupna) – ako želiš drugačije, promijeni u kodu.
  *  - Debug ispis (enableDebug).
+ *  - .xlsx se čita streaming (XSSF event API); parse(file, fallback, consumer) predaje zapise
+ *    jedan po jedan pa memorija ne raste s brojem redova.
  */
 public class ExcelSalesReader {
 
@@ -110,184 +125,399 @@ public class ExcelSalesReader {
         return this;
     }
 
+    /**
+     * Nova instanca s istom konfiguracijom i datumskim formatima. Reader drži carry-forward stanje
+     * (zadnji datum / dokument), pa za paralelno čitanje svaka dretva treba svoju kopiju.
+     */
+    public ExcelSalesReader copy() {
+        ExcelSalesReader c = new ExcelSalesReader()
+                .withHeader(hasHeader)
+                .enableDebug(debug)
+                .debugRows(debugRows)
+                .withStrictDate(strictDate);
+        c.dateFormats.clear();
+        c.dateFormats.addAll(dateFormats);
+        return c;
+    }
+
     /* Glavna metoda */
     public List<SalesRecord> parse(File file, LocalDate fallbackDate) throws Exception {
-        if (!file.exists()) throw new IllegalArgumentException("Excel ne postoji: " + file.getAbsolutePath());
         List<SalesRecord> out = new ArrayList<>();
+        parse(file, fallbackDate, out::add);
+        if (debug) System.out.println("Parsed sales rows: " + out.size());
+        return out;
+    }
+
+    /**
+     * Parsira i svaki SalesRecord odmah predaje consumer-u (ništa se ne skuplja u listu).
+     * .xlsx/.xlsm se čita streaming (XSSF event API, memorija ne ovisi o veličini datoteke),
+     * ostalo (.xls) preko WorkbookFactory.
+     *
+     * @return broj predanih zapisa
+     */
+    public int parse(File file, LocalDate fallbackDate, Consumer<SalesRecord> sink) throws Exception {
+        return parse(file, 0, fallbackDate, sink);
+    }
+
+    /** Kao parse(file, fallbackDate, sink), ali za zadani sheet (0 = prvi, redom kao ExcelSheets.names). */
+    public int parse(File file, int sheetIndex, LocalDate fallbackDate, Consumer<SalesRecord> sink) throws Exception {
+        if (!file.exists()) throw new IllegalArgumentException("Excel ne postoji: " + file.getAbsolutePath());
+        // carry-forward vrijedi samo unutar jednog sheeta
+        lastDate = null;
+        lastDocType = "";
+        lastDocNo = "";
+
+        String name = file.getName().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".xlsx") || name.endsWith(".xlsm")) {
+            return parseStreaming(file, sheetIndex, fallbackDate, sink);
+        }
+        return parseWorkbook(file, sheetIndex, fallbackDate, sink);
+    }
 
+    private int parseWorkbook(File file, int sheetIndex, LocalDate fallbackDate, Consumer<SalesRecord> sink) throws Exception {
+        int emitted = 0;
         try (FileInputStream fis = new FileInputStream(file);
              Workbook wb = WorkbookFactory.create(fis)) {
 
-            Sheet sheet = wb.getSheetAt(0);
+            Sheet sheet = sheetIndex < wb.getNumberOfSheets() ? wb.getSheetAt(sheetIndex) : null;
             if (sheet == null) {
                 if (debug) System.out.println("SalesReader: sheet=null");
-                return out;
+                return 0;
             }
 
             int lastRow = sheet.getLastRowNum();
             if (debug) System.out.println("SalesReader: lastRowIndex=" + lastRow);
 
+            // spremljeni rezultati formula (bez evaluacije); jedan DataFormatter za cijeli sheet
+            ExcelCellReader cells = new ExcelCellReader(wb).enableCachedFormulaResults(true);
+
             // Mapiranje headera
             Map<String, Integer> colMap = new HashMap<>();
             int startRow = 0;
             if (hasHeader) {
                 Row header = sheet.getRow(0);
-                if (header == null) return out;
+                if (header == null) return 0;
                 for (int c = 0; c < header.getLastCellNum(); c++) {
                     Cell cell = header.getCell(c, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
                     if (cell == null) continue;
-                    String raw = getCellString(cell);
-                    if (raw == null) continue;
-                    String norm = normalize(raw);
-                    String canon = HEADER_CANON.get(norm);
-                    if (canon != null) {
-                        colMap.put(canon, c);
-                        if (debug) System.out.println("Header map: '" + raw + "' -> " + canon + " (col " + c + ")");
-                    }
+                    String name = cells.formatted(cell);
+                    mapHeader(colMap, name == null ? null : name.trim(), c);
                 }
                 startRow = 1;
             }
 
-            DataFormatter formatter = new DataFormatter(Locale.getDefault());
-
             for (int r = startRow; r <= lastRow; r++) {
                 Row row = sheet.getRow(r);
                 if (row == null) continue;
-
-                // DATUM
-                LocalDate date = readDate(row, colMap.get("DATE"), formatter, fallbackDate);
-                if (date == null) {
-                    if (strictDate) {
-                        if (debug) System.out.println("SKIP r=" + r + " (nema valjanog datuma, strict)");
-                        continue;
-                    } else {
-                        date = (fallbackDate != null) ? fallbackDate : LocalDate.now();
-                    }
-                } else {
-                    lastDate = date;
-                }
-                if (date == null) date = lastDate; // carry
-                if (date == null) {
-                    if (debug) System.out.println("SKIP r=" + r + " (date i nakon carry = null)");
-                    continue;
+                SalesRecord rec = buildRecord(new WorkbookRow(row, cells), r, colMap, fallbackDate, emitted);
+                if (rec != null) {
+                    sink.accept(rec);
+                    emitted++;
                 }
+            }
+        }
+        return emitted;
+    }
+
+    /* ----------------- Streaming (XSSF event API) ----------------- */
+
+    private int parseStreaming(File file, int sheetIndex, LocalDate fallbackDate, Consumer<SalesRecord> sink) throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            XSSFReader xr = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = xr.getStylesTable();
+            Iterator<InputStream> sheets = xr.getSheetsData();
+            for (int i = 0; i < sheetIndex && sheets.hasNext(); i++) {
+                sheets.next().close(); // preskoči sheetove prije traženog (bez parsiranja)
+            }
+            if (!sheets.hasNext()) {
+                if (debug) System.out.println("SalesReader: nema sheeta " + sheetIndex);
+                return 0;
+            }
+            StreamingSheetHandler handler = new StreamingSheetHandler(fallbackDate, sink);
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = SAXHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(styles, strings, handler, handler.formatter, false));
+                parser.parse(new InputSource(sheet));
+            }
+            if (debug) System.out.println("SalesReader (streaming): zadnji red=" + handler.lastRowNum);
+            return handler.emitted;
+        }
+    }
+
+    /**
+     * DataFormatter koji uz formatirani tekst pamti i sirovu brojčanu vrijednost zadnje ćelije,
+     * da streaming put čita brojeve/datume jednako kao Cell.getNumericCellValue().
+     */
+    private static final class CapturingFormatter extends DataFormatter {
+        Double lastNumber;
+        boolean lastIsDate;
 
-                // DOC TYPE
-                String docType = readString(row, colMap.get("DOC_TYPE"), formatter);
-                if (docType != null && !docType.isBlank()) lastDocType = docType;
-                docType = (docType == null || docType.isBlank()) ? lastDocType : docType;
+        CapturingFormatter() {
+            super(Locale.getDefault());
+        }
 
-                // DOC NO
-                String docNo = readString(row, colMap.get("DOC_NO"), formatter);
-                if (docNo != null && !docNo.isBlank()) lastDocNo = docNo;
-                docNo = (docNo == null || docNo.isBlank()) ? lastDocNo : docNo;
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString) {
+            lastNumber = value;
+            lastIsDate = DateUtil.isADateFormat(formatIndex, formatString);
+            return super.formatRawCellContents(value, formatIndex, formatString);
+        }
+    }
 
-                // CUSTOMER
-                String customer = readString(row, colMap.get("CUSTOMER"), formatter);
+    private final class StreamingSheetHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+        final CapturingFormatter formatter = new CapturingFormatter();
+        final LocalDate fallbackDate;
+        final Consumer<SalesRecord> sink;
+        final Map<String, Integer> colMap = new HashMap<>();
+        final StreamingRow current = new StreamingRow();
+        int emitted = 0;
+        int lastRowNum = -1;
+
+        StreamingSheetHandler(LocalDate fallbackDate, Consumer<SalesRecord> sink) {
+            this.fallbackDate = fallbackDate;
+            this.sink = sink;
+        }
 
-                // PRODUCT CODE (obvezno)
-                String productCode = readString(row, colMap.get("CODE"), formatter);
-                if (productCode == null || productCode.isBlank()) {
-                    if (debug) System.out.println("SKIP r=" + r + " (nema Šifra)");
-                    continue;
-                }
-                productCode = productCode.trim();
-                // Često se dogodi da “Šifra” izgleda “: 32050035” u nekom scenariju
-                if (productCode.startsWith(":")) productCode = productCode.substring(1).trim();
-
-                // QUANTITY
-                Double qty = readNumber(row, colMap.get("QTY"), formatter);
-                if (qty == null || Math.abs(qty) < 1e-12) {
-                    if (debug) System.out.println("SKIP r=" + r + " (qty null/0)");
-                    continue;
+        @Override
+        public void startRow(int rowNum) {
+            current.clear();
+            lastRowNum = rowNum;
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            Double raw = formatter.lastNumber;
+            boolean isDate = formatter.lastIsDate;
+            formatter.lastNumber = null;
+            formatter.lastIsDate = false;
+            if (cellReference == null) return;
+            int col = new CellReference(cellReference).getCol();
+            current.put(col, formattedValue, raw, isDate);
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (hasHeader && rowNum == 0) {
+                for (int c = 0; c < current.text.length; c++) {
+                    if (current.text[c] != null) mapHeader(colMap, current.text[c].trim(), c);
                 }
+                return;
+            }
+            SalesRecord rec = buildRecord(current, rowNum, colMap, fallbackDate, emitted);
+            if (rec != null) {
+                sink.accept(rec);
+                emitted++;
+            }
+        }
+    }
 
-                // COST (nabavna vrijednost) – uzet ćemo kao cogs_amount (ukupno)
-                Double costValue = readNumber(row, colMap.get("COST_VALUE"), formatter);
+    /* ----------------- Pristup ćelijama (zajednički za oba načina) ----------------- */
 
-                // GROSS
-                Double grossValue = readNumber(row, colMap.get("GROSS_VALUE"), formatter);
+    private interface RowCells {
+        /** Ćelija postoji i nije prazna. */
+        boolean present(int col);
+        /** Brojčana vrijednost (i cached rezultat formule) ili null ako ćelija nije broj. */
+        Double number(int col);
+        boolean dateFormatted(int col);
+        /** Formatirani tekst (kao DataFormatter.formatCellValue). */
+        String text(int col);
+    }
 
-                // DISCOUNT VAL
-                Double discountVal = readNumber(row, colMap.get("DISCOUNT_VALUE"), formatter);
+    private static final class WorkbookRow implements RowCells {
+        private final Row row;
+        private final ExcelCellReader cells;
 
-                // NET
-                Double netValue = readNumber(row, colMap.get("NET_VALUE"), formatter);
+        WorkbookRow(Row row, ExcelCellReader cells) {
+            this.row = row;
+            this.cells = cells;
+        }
 
-                // VAT
-                Double vatValue = readNumber(row, colMap.get("VAT"), formatter);
+        @Override public boolean present(int col) { return ExcelCellReader.cell(row, col) != null; }
 
-                // Sastavi SalesRecord
-                SalesRecord rec = new SalesRecord();
-                rec.setProductCode(productCode);
-                rec.setDate(date);
-                rec.setQuantity(qty);
+        @Override
+        public Double number(int col) {
+            return cells.numeric(ExcelCellReader.cell(row, col));
+        }
 
-                // Doc meta
-                rec.setDocType(docType == null ? "" : docType);
-                rec.setDocNo(docNo == null ? "" : docNo);
+        @Override
+        public boolean dateFormatted(int col) {
+            return cells.isDate(ExcelCellReader.cell(row, col));
+        }
 
-                if (customer != null && !customer.isBlank()) {
-                    // customer_code – ako želiš skratiti, može regex; ostavljam raw
-                    rec.setCustomerCode(customer.trim());
-                }
+        @Override
+        public String text(int col) {
+            return cells.formatted(ExcelCellReader.cell(row, col));
+        }
+    }
 
-                if (netValue != null)    rec.setNetAmount(BigDecimal.valueOf(netValue));
-                if (grossValue != null)  rec.setGrossAmount(BigDecimal.valueOf(grossValue));
-                if (vatValue != null)    rec.setVatAmount(BigDecimal.valueOf(vatValue));
-                if (discountVal != null) rec.setDiscountAmount(BigDecimal.valueOf(discountVal));
-                if (costValue != null)   rec.setCogsAmount(costValue); // total cost
-
-                out.add(rec);
-
-                if (debug && out.size() <= debugRows) {
-                    System.out.println("READ r=" + r +
-                            " code=" + productCode +
-                            " qty=" + qty +
-                            " net=" + netValue +
-                            " cost=" + costValue +
-                            " gross=" + grossValue +
-                            " date=" + date +
-                            " doc=" + docType + "/" + docNo);
-                }
+    private static final class StreamingRow implements RowCells {
+        String[] text = new String[32];
+        Double[] number = new Double[32];
+        boolean[] date = new boolean[32];
+
+        void clear() {
+            Arrays.fill(text, null);
+            Arrays.fill(number, null);
+            Arrays.fill(date, false);
+        }
+
+        void put(int col, String formatted, Double raw, boolean isDate) {
+            if (col >= text.length) {
+                int n = Math.max(col + 1, text.length * 2);
+                text = Arrays.copyOf(text, n);
+                number = Arrays.copyOf(number, n);
+                date = Arrays.copyOf(date, n);
             }
+            text[col] = formatted;
+            number[col] = raw;
+            date[col] = isDate;
         }
 
-        if (debug) System.out.println("Parsed sales rows: " + out.size());
-        return out;
+        @Override
+        public boolean present(int col) {
+            return col < text.length && text[col] != null && !text[col].isEmpty();
+        }
+
+        @Override public Double number(int col) { return col < number.length ? number[col] : null; }
+        @Override public boolean dateFormatted(int col) { return col < date.length && date[col]; }
+        @Override public String text(int col) { return col < text.length ? text[col] : null; }
+    }
+
+    /* ----------------- Obrada jednog reda ----------------- */
+
+    private void mapHeader(Map<String, Integer> colMap, String raw, int c) {
+        if (raw == null) return;
+        String norm = normalize(raw);
+        String canon = HEADER_CANON.get(norm);
+        if (canon != null) {
+            colMap.put(canon, c);
+            if (debug) System.out.println("Header map: '" + raw + "' -> " + canon + " (col " + c + ")");
+        }
+    }
+
+    /** Jedan red izvještaja -> SalesRecord (ili null ako se red preskače). */
+    private SalesRecord buildRecord(RowCells row, int r, Map<String, Integer> colMap,
+                                    LocalDate fallbackDate, int emittedSoFar) {
+        // DATUM
+        LocalDate date = readDate(row, colMap.get("DATE"), fallbackDate);
+        if (date == null) {
+            if (strictDate) {
+                if (debug) System.out.println("SKIP r=" + r + " (nema valjanog datuma, strict)");
+                return null;
+            } else {
+                date = (fallbackDate != null) ? fallbackDate : LocalDate.now();
+            }
+        } else {
+            lastDate = date;
+        }
+        if (date == null) date = lastDate; // carry
+        if (date == null) {
+            if (debug) System.out.println("SKIP r=" + r + " (date i nakon carry = null)");
+            return null;
+        }
+
+        // DOC TYPE
+        String docType = readString(row, colMap.get("DOC_TYPE"));
+        if (docType != null && !docType.isBlank()) lastDocType = docType;
+        docType = (docType == null || docType.isBlank()) ? lastDocType : docType;
+
+        // DOC NO
+        String docNo = readString(row, colMap.get("DOC_NO"));
+        if (docNo != null && !docNo.isBlank()) lastDocNo = docNo;
+        docNo = (docNo == null || docNo.isBlank()) ? lastDocNo : docNo;
+
+        // CUSTOMER
+        String customer = readString(row, colMap.get("CUSTOMER"));
+
+        // PRODUCT CODE (obvezno)
+        String productCode = readString(row, colMap.get("CODE"));
+        if (productCode == null || productCode.isBlank()) {
+            if (debug) System.out.println("SKIP r=" + r + " (nema Šifra)");
+            return null;
+        }
+        productCode = productCode.trim();
+        // Često se dogodi da “Šifra” izgleda “: 32050035” u nekom scenariju
+        if (productCode.startsWith(":")) productCode = productCode.substring(1).trim();
+
+        // QUANTITY
+        Double qty = readNumber(row, colMap.get("QTY"));
+        if (qty == null || Math.abs(qty) < 1e-12) {
+            if (debug) System.out.println("SKIP r=" + r + " (qty null/0)");
+            return null;
+        }
+
+        // COST (nabavna vrijednost) – uzet ćemo kao cogs_amount (ukupno)
+        Double costValue = readNumber(row, colMap.get("COST_VALUE"));
+
+        // GROSS
+        Double grossValue = readNumber(row, colMap.get("GROSS_VALUE"));
+
+        // DISCOUNT VAL
+        Double discountVal = readNumber(row, colMap.get("DISCOUNT_VALUE"));
+
+        // NET
+        Double netValue = readNumber(row, colMap.get("NET_VALUE"));
+
+        // VAT
+        Double vatValue = readNumber(row, colMap.get("VAT"));
+
+        // Sastavi SalesRecord
+        SalesRecord rec = new SalesRecord();
+        rec.setProductCode(productCode);
+        rec.setDate(date);
+        rec.setQuantity(qty);
+
+        // Doc meta
+        rec.setDocType(docType == null ? "" : docType);
+        rec.setDocNo(docNo == null ? "" : docNo);
+
+        if (customer != null && !customer.isBlank()) {
+            // customer_code – ako želiš skratiti, može regex; ostavljam raw
+            rec.setCustomerCode(customer.trim());
+        }
+
+        if (netValue != null)    rec.setNetAmount(BigDecimal.valueOf(netValue));
+        if (grossValue != null)  rec.setGrossAmount(BigDecimal.valueOf(grossValue));
+        if (vatValue != null)    rec.setVatAmount(BigDecimal.valueOf(vatValue));
+        if (discountVal != null) rec.setDiscountAmount(BigDecimal.valueOf(discountVal));
+        if (costValue != null)   rec.setCogsAmount(costValue); // total cost
+
+        if (debug && emittedSoFar < debugRows) {
+            System.out.println("READ r=" + r +
+                    " code=" + productCode +
+                    " qty=" + qty +
+                    " net=" + netValue +
+                    " cost=" + costValue +
+                    " gross=" + grossValue +
+                    " date=" + date +
+                    " doc=" + docType + "/" + docNo);
+        }
+        return rec;
     }
 
     /* ----------------- Helpers ----------------- */
 
-    private LocalDate readDate(Row row, Integer colIdx, DataFormatter fmt, LocalDate fallback) {
-        Cell cell = (colIdx == null) ? null : row.getCell(colIdx, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
-        if (cell == null) {
+    private LocalDate readDate(RowCells row, Integer colIdx, LocalDate fallback) {
+        if (colIdx == null || !row.present(colIdx)) {
             // carry-forward
             if (lastDate != null) return lastDate;
             return strictDate ? null : (fallback != null ? fallback : LocalDate.now());
         }
         try {
-            CellType ct = cell.getCellType();
-            if (ct == CellType.FORMULA) ct = cell.getCachedFormulaResultType();
-
-            if (ct == CellType.NUMERIC) {
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    Date d = cell.getDateCellValue();
-                    return toLocalDate(d);
+            Double v = row.number(colIdx);
+            if (v != null) {
+                if (row.dateFormatted(colIdx)) {
+                    return toLocalDate(DateUtil.getJavaDate(v));
                 } else {
-                    double v = cell.getNumericCellValue();
                     if (v > 20000 && v < 90000) {
                         Date d = DateUtil.getJavaDate(v);
                         return toLocalDate(d);
                     }
-                    String asText = fmt.formatCellValue(cell);
-                    return parseDateString(asText, fallback);
+                    return parseDateString(row.text(colIdx), fallback);
                 }
-            } else if (ct == CellType.STRING) {
-                String s = fmt.formatCellValue(cell);
-                return parseDateString(s, fallback);
             }
-            return strictDate ? null : (fallback != null ? fallback : LocalDate.now());
+            return parseDateString(row.text(colIdx), fallback);
         } catch (Exception e) {
             return strictDate ? null : (fallback != null ? fallback : LocalDate.now());
         }
@@ -320,23 +550,18 @@ public class ExcelSalesReader {
                 .toLocalDate();
     }
 
-    private String readString(Row row, Integer colIdx, DataFormatter fmt) {
-        if (colIdx == null) return null;
-        Cell c = row.getCell(colIdx, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
-        if (c == null) return null;
-        String v = fmt.formatCellValue(c);
+    private String readString(RowCells row, Integer colIdx) {
+        if (colIdx == null || !row.present(colIdx)) return null;
+        String v = row.text(colIdx);
         return (v == null || v.trim().isEmpty()) ? null : v.trim();
     }
 
-    private Double readNumber(Row row, Integer colIdx, DataFormatter fmt) {
-        if (colIdx == null) return null;
-        Cell c = row.getCell(colIdx, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
-        if (c == null) return null;
+    private Double readNumber(RowCells row, Integer colIdx) {
+        if (colIdx == null || !row.present(colIdx)) return null;
         try {
-            CellType ct = c.getCellType();
-            if (ct == CellType.FORMULA) ct = c.getCachedFormulaResultType();
-            if (ct == CellType.NUMERIC) return c.getNumericCellValue();
-            String s = fmt.formatCellValue(c);
+            Double n = row.number(colIdx);
+            if (n != null) return n;
+            String s = row.text(colIdx);
             if (s == null) return null;
             s = s.trim().replace('.', '#'); // ako ima tisućice s točkama -> privremeno
             s = s.replace(',', '.');
@@ -349,16 +574,6 @@ public class ExcelSalesReader {
         }
     }
 
-    private String getCellString(Cell cell) {
-        if (cell == null) return null;
-        try {
-            cell.setCellType(CellType.STRING);
-            return cell.getStringCellValue().trim();
-        } catch (Exception e) {
-            return null;
-        }
-    }
-
     private static String normalize(String s) {
         if (s == null) return "";
         String lower = s.toLowerCase(Locale.ROOT).trim();
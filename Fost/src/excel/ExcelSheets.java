@@ -0,0 +1,45 @@
+package excel;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Popis sheetova u datoteci (redom kao u workbooku, indeks = parametar sheetIndex readera).
+ * Za .xlsx/.xlsm se čita samo workbook.xml (sheetovi se ne parsiraju).
+ */
+public final class ExcelSheets {
+
+    private ExcelSheets() {
+    }
+
+    public static List<String> names(File file) throws Exception {
+        List<String> out = new ArrayList<>();
+        String name = file.getName().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".xlsx") || name.endsWith(".xlsm")) {
+            try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+                XSSFReader.SheetIterator it = (XSSFReader.SheetIterator) new XSSFReader(pkg).getSheetsData();
+                while (it.hasNext()) {
+                    try (InputStream ignored = it.next()) {
+                        out.add(it.getSheetName());
+                    }
+                }
+            }
+            return out;
+        }
+        try (FileInputStream fis = new FileInputStream(file);
+             Workbook wb = WorkbookFactory.create(fis)) {
+            for (int i = 0; i < wb.getNumberOfSheets(); i++) out.add(wb.getSheetName(i));
+        }
+        return out;
+    }
+}
@@ -56,15 +56,33 @@ public class ExcelStockStateReader {
         return this;
     }
 
+    /** Nova instanca s istom konfiguracijom (autodetekcija mijenja indekse - za paralelno čitanje svaka dretva svoju). */
+    public ExcelStockStateReader copy() {
+        return new ExcelStockStateReader()
+                .withColumns(colCode, colName, colQuantity, colUnit)
+                .withHeader(hasHeader)
+                .enableAutoDetectColumns(autoDetect)
+                .enableDebug(debug)
+                .debugRows(debugRows);
+    }
+
     public List<StockState> parse(File file) throws IOException {
+        return parse(file, 0);
+    }
+
+    /** Čita zadani sheet (0 = prvi, redom kao ExcelSheets.names). */
+    public List<StockState> parse(File file, int sheetIndex) throws IOException {
         if (!file.exists()) throw new IOException("Excel ne postoji: " + file.getAbsolutePath());
 
         List<StockState> out = new ArrayList<>();
         try (FileInputStream fis = new FileInputStream(file);
              Workbook wb = WorkbookFactory.create(fis)) {
 
-            Sheet sheet = wb.getSheetAt(0);
+            if (sheetIndex >= wb.getNumberOfSheets()) return out;
+            Sheet sheet = wb.getSheetAt(sheetIndex);
             if (sheet == null) return out;
+            // spremljeni rezultati formula - bez evaluacije (kao i do sada)
+            ExcelCellReader cells = new ExcelCellReader(wb).enableCachedFormulaResults(true);
 
             if (hasHeader && autoDetect) {
                 Row header = sheet.getRow(0);
@@ -83,13 +101,13 @@ public class ExcelStockStateReader {
                 Row row = sheet.getRow(r);
                 if (row == null) continue;
 
-                String code = readString(row, colCode);
+                String code = readString(cells, row, colCode);
                 if (code == null || code.isBlank()) continue;
 
-                String name = readString(row, colName);
-                Double qtyObj = readNumeric(row, colQuantity);
+                String name = readString(cells, row, colName);
+                Double qtyObj = readNumeric(cells, row, colQuantity);
                 double qty = qtyObj != null ? qtyObj : 0.0;
-                String unit = readString(row, colUnit);
+                String unit = readString(cells, row, colUnit);
 
                 StockState ss = new StockState(
                         code.trim(),
@@ -150,49 +168,13 @@ public class ExcelStockStateReader {
                 .replaceAll("\\s+","");
     }
 
-    private String readString(Row row, int col) {
-        if (col < 0) return null;
-        Cell c = row.getCell(col, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
-        if (c == null) return null;
-        return switch (c.getCellType()) {
-            case STRING -> c.getStringCellValue();
-            case NUMERIC -> {
-                double d = c.getNumericCellValue();
-                yield (Math.floor(d)==d) ? String.valueOf((long)d) : String.valueOf(d);
-            }
-            case FORMULA -> {
-                try { yield c.getStringCellValue(); }
-                catch (Exception e) {
-                    if (c.getCachedFormulaResultType()==CellType.NUMERIC)
-                        yield String.valueOf(c.getNumericCellValue());
-                    if (c.getCachedFormulaResultType()==CellType.STRING)
-                        yield c.getStringCellValue();
-                    yield null;
-                }
-            }
-            default -> null;
-        };
+    private String readString(ExcelCellReader cells, Row row, int col) {
+        return cells.string(ExcelCellReader.cell(row, col));
     }
 
-    private Double readNumeric(Row row, int col) {
-        if (col < 0) return null;
-        Cell c = row.getCell(col, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
-        if (c == null) return null;
-        return switch (c.getCellType()) {
-            case NUMERIC -> c.getNumericCellValue();
-            case STRING -> {
-                String t = c.getStringCellValue();
-                if (t == null) yield null;
-                t = t.trim().replace(',', '.');
-                try { yield Double.parseDouble(t); }
-                catch (NumberFormatException e) { yield null; }
-            }
-            case FORMULA -> {
-                if (c.getCachedFormulaResultType()==CellType.NUMERIC)
-                    yield c.getNumericCellValue();
-                yield null;
-            }
-            default -> null;
-        };
+    private Double readNumeric(ExcelCellReader cells, Row row, int col) {
+        Cell c = ExcelCellReader.cell(row, col);
+        Double n = cells.numeric(c);   // i ćelije s datumskim formatom, kao i do sada
+        return n != null ? n : cells.number(c);
     }
 }
\ No newline at end of file
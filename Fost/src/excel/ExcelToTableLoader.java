@@ -10,8 +10,6 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
-import java.text.SimpleDateFormat;
-import java.util.Date;
 
 /**
  * Klasa za uvoz Excel (.xlsx) datoteka u DefaultTableModel.
@@ -19,8 +17,6 @@ import java.util.Date;
  */
 // * - Podržava različite formate ćelija (string, broj, datum, formula).
 public class ExcelToTableLoader {
-// Stil za datume "dd.MM.yyyy"
-    private static final SimpleDateFormat DATE_FMT_DOTS = new SimpleDateFormat("dd.MM.yyyy");
 
     /**
      * Učitava podatke iz Excel datoteke u zadani DefaultTableModel.
@@ -41,6 +37,7 @@ public class ExcelToTableLoader {
              Workbook wb = new XSSFWorkbook(fis)) {
 
             Sheet sheet = wb.getSheetAt(0);
+            ExcelCellReader cells = new ExcelCellReader(wb);
             model.setRowCount(0);
 
             for (int r = 1; r <= sheet.getLastRowNum(); r++) {
@@ -48,23 +45,23 @@ public class ExcelToTableLoader {
                 if (row == null) continue;
 
                 Object[] data = new Object[15];
-                data[0]  = getCellDateDots(row, 0);
-                data[1]  = getCellDateDots(row, 1);
-                data[2]  = getCellString(row, 2);
-                data[3]  = getCellString(row, 3);
-                data[4]  = safeDoubleFromCell(row.getCell(4));
-                data[5]  = safeIntegerFromCell(row.getCell(5));
-                data[6]  = getCellString(row, 6);
-                data[7]  = getCellString(row, 7);
+                data[0]  = getCellDateDots(row, cells, 0);
+                data[1]  = getCellDateDots(row, cells, 1);
+                data[2]  = getCellString(row, cells, 2);
+                data[3]  = getCellString(row, cells, 3);
+                data[4]  = cells.number(row.getCell(4));
+                data[5]  = cells.integer(row.getCell(5));
+                data[6]  = getCellString(row, cells, 6);
+                data[7]  = getCellString(row, cells, 7);
 
                 data[8]  = null;
                 data[9]  = null;
                 data[10] = null;
                 data[11] = null;
 
-                data[12] = getCellString(row, 12);
-                data[13] = getCellString(row, 13);
-                data[14] = getCellString(row, 14);
+                data[12] = getCellString(row, cells, 12);
+                data[13] = getCellString(row, cells, 13);
+                data[14] = getCellString(row, cells, 14);
 
                 model.addRow(data);
             }
@@ -106,112 +103,14 @@ public class ExcelToTableLoader {
     }
 
     // ====== POMOĆNE METODE ZA ČITANJE ĆELIJA ======
+    // Tipovi ćelija, formule i datumi rješavaju se u ExcelCellReader (jedan evaluator po workbooku).
 //* Dohvaća sadržaj ćelije kao String, bez obzira na tip ćelije.
-    private static String getCellString(Row row, int c) {
-        Cell cell = row.getCell(c);
-        if (cell == null) return "";
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue().trim();
-            case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    Date d = cell.getDateCellValue();
-                    String fmt = cell.getCellStyle().getDataFormatString();
-                    boolean hasTime = fmt != null && fmt.toLowerCase().contains("h");
-                    String pattern = hasTime ? "dd.MM.yyyy HH:mm" : "dd.MM.yyyy";
-                    return new SimpleDateFormat(pattern).format(d);
-                }
-                return stripTrailingZeros(cell.getNumericCellValue());
-            case BOOLEAN:
-                return Boolean.toString(cell.getBooleanCellValue());
-            case FORMULA:
-                try {
-                    FormulaEvaluator ev = row.getSheet().getWorkbook()
-                            .getCreationHelper().createFormulaEvaluator();
-                    CellValue cv = ev.evaluate(cell);
-                    if (cv == null) return "";
-                    switch (cv.getCellType()) {
-                        case STRING:  return cv.getStringValue().trim();
-                        case NUMERIC:
-                            if (DateUtil.isCellDateFormatted(cell)) {
-                                Date d = DateUtil.getJavaDate(cv.getNumberValue());
-                                String fmt2 = cell.getCellStyle().getDataFormatString();
-                                boolean hasTime2 = fmt2 != null && fmt2.toLowerCase().contains("h");
-                                String pattern2 = hasTime2 ? "dd.MM.yyyy HH:mm" : "dd.MM.yyyy";
-                                return new SimpleDateFormat(pattern2).format(d);
-                            }
-                            return stripTrailingZeros(cv.getNumberValue());
-                        case BOOLEAN: return Boolean.toString(cv.getBooleanValue());
-                    }
-                } catch (Exception e) {
-                    return cell.toString().trim();
-                }
-            default:
-                return cell.toString().trim();
-        }
+    private static String getCellString(Row row, ExcelCellReader cells, int c) {
+        return cells.text(row.getCell(c));
     }
 //* Dohvaća sadržaj ćelije kao String, ako je datum formatira kao "dd.MM.yyyy".
-    private static String getCellDateDots(Row row, int c) {
-        Cell cell = row.getCell(c);
-        if (cell != null && cell.getCellType() == CellType.NUMERIC
-                && DateUtil.isCellDateFormatted(cell)) {
-            return DATE_FMT_DOTS.format(cell.getDateCellValue());
-        }
-        return cell == null ? "" : cell.toString().trim();
-    }
-//* Sigurno dohvaća Double vrijednost iz ćelije.
-    private static Double safeDoubleFromCell(Cell cell) {
-        if (cell == null) return null;
-        try {
-            if (cell.getCellType() == CellType.NUMERIC && !DateUtil.isCellDateFormatted(cell)) {
-                return cell.getNumericCellValue();
-            }
-            if (cell.getCellType() == CellType.STRING) {
-                String txt = cell.getStringCellValue().trim().replace(',', '.');
-                return txt.isEmpty() ? null : Double.parseDouble(txt);
-            }
-            if (cell.getCellType() == CellType.FORMULA) {
-                FormulaEvaluator ev = cell.getSheet().getWorkbook()
-                        .getCreationHelper().createFormulaEvaluator();
-                CellValue cv = ev.evaluate(cell);
-                if (cv.getCellType() == CellType.NUMERIC) return cv.getNumberValue();
-                if (cv.getCellType() == CellType.STRING) {
-                    String txt = cv.getStringValue().trim().replace(',', '.');
-                    return txt.isEmpty() ? null : Double.parseDouble(txt);
-                }
-            }
-        } catch (Exception ignored) {}
-        return null;
-    }
-    /**
-     * Sigurno dohvaća Integer vrijednost iz ćelije.
-     */
-    // Ako je ćelija decimalni broj, zaokružuje na najbliži cijeli.
-    private static Integer safeIntegerFromCell(Cell cell) {
-        if (cell == null) return null;
-        try {
-            if (cell.getCellType() == CellType.NUMERIC
-                    && !DateUtil.isCellDateFormatted(cell)) {
-                return (int) Math.round(cell.getNumericCellValue());
-            }
-            if (cell.getCellType() == CellType.STRING) {
-                String txt = cell.getStringCellValue().trim();
-                if (txt.isEmpty()) return null;
-                return Integer.parseInt(txt);
-            }
-            if (cell.getCellType() == CellType.FORMULA) {
-                FormulaEvaluator ev = cell.getSheet().getWorkbook()
-                        .getCreationHelper().createFormulaEvaluator();
-                CellValue cv = ev.evaluate(cell);
-                if (cv.getCellType() == CellType.NUMERIC) return (int) Math.round(cv.getNumberValue());
-                if (cv.getCellType() == CellType.STRING) {
-                    String txt = cv.getStringValue().trim();
-                    if (txt.isEmpty()) return null;
-                    return Integer.parseInt(txt);
-                }
-            }
-        } catch (Exception ignored) {}
-        return null;
+    private static String getCellDateDots(Row row, ExcelCellReader cells, int c) {
+        return cells.dateDots(row.getCell(c));
     }
 
     /**
@@ -240,14 +139,6 @@ public class ExcelToTableLoader {
         }
     }
 
-    /**
-     * Uklanja ".0" s kraja ako broj nema decimale.
-     */
-    private static String stripTrailingZeros(double val) {
-        String s = Double.toString(val);
-        return s.endsWith(".0") ? s.substring(0, s.length() - 2) : s;
-    }
-
     /**
      * Zaokružuje broj na zadani broj decimala.
      */
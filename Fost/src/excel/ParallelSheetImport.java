@@ -0,0 +1,153 @@
+package excel;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Paralelno čitanje više datoteka / sheetova s jednim pisačem.
+ *
+ * - Izvori (datoteka + sheet) se parsiraju na ograničenom poolu (zadano: broj jezgri),
+ *   najviše threads * 2 izvora unaprijed, pa memorija ne raste s brojem datoteka.
+ * - Pisač (WriteStep) je pozivajuća dretva i dobiva izvore strogo redom kojim su zadani,
+ *   neovisno o tome koji je parser prvi gotov - rezultat je isti kao kod slijednog uvoza.
+ * - withKey(...): stavka s istim ključem i istim hashom sadržaja kao već predana stavka iz
+ *   ranijeg izvora se izbacuje (preklapajući mjesečni izvozi); promijenjena se predaje
+ *   i kasniji izvor "pobjeđuje".
+ *
+ * Greška u parsiranju ili pisanju prekida cijeli batch (preostali poslovi se otkazuju).
+ */
+public class ParallelSheetImport<T> {
+
+    /** Jedan sheet jedne datoteke. */
+    public static final class Source {
+        public final File file;
+        public final int sheetIndex;
+        public final String sheetName;
+        /** Zadnji sheet svoje datoteke (pisač tada može zaključiti datoteku). */
+        public final boolean lastOfFile;
+
+        Source(File file, int sheetIndex, String sheetName, boolean lastOfFile) {
+            this.file = file;
+            this.sheetIndex = sheetIndex;
+            this.sheetName = sheetName;
+            this.lastOfFile = lastOfFile;
+        }
+
+        @Override
+        public String toString() {
+            return file.getName() + (sheetName != null ? " [" + sheetName + "]" : "");
+        }
+    }
+
+    @FunctionalInterface
+    public interface SheetParser<T> {
+        void parse(File file, int sheetIndex, Consumer<T> sink) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface WriteStep<T> {
+        void write(Source source, List<T> records) throws Exception;
+    }
+
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private boolean allSheets = false;
+    private Function<T, ?> keyFn;
+    private ToLongFunction<T> hashFn;
+    private int duplicates = 0;
+
+    public ParallelSheetImport<T> withThreads(int threads) {
+        this.threads = Math.max(1, threads);
+        return this;
+    }
+
+    /** true = svaki sheet svake datoteke je zaseban izvor; false = samo prvi sheet (kao do sada). */
+    public ParallelSheetImport<T> enableAllSheets(boolean enable) {
+        this.allSheets = enable;
+        return this;
+    }
+
+    public ParallelSheetImport<T> withKey(Function<T, ?> key, ToLongFunction<T> contentHash) {
+        this.keyFn = key;
+        this.hashFn = contentHash;
+        return this;
+    }
+
+    /** Broj izbačenih duplikata u zadnjem run(). */
+    public int getDuplicates() {
+        return duplicates;
+    }
+
+    /** Izvori za zadane datoteke (redom datoteka, pa redom sheetova). */
+    public List<Source> sources(List<File> files) throws Exception {
+        List<Source> out = new ArrayList<>();
+        for (File f : files) {
+            if (!allSheets) {
+                out.add(new Source(f, 0, null, true));
+                continue;
+            }
+            List<String> names = ExcelSheets.names(f);
+            for (int i = 0; i < names.size(); i++) {
+                out.add(new Source(f, i, names.get(i), i == names.size() - 1));
+            }
+        }
+        return out;
+    }
+
+    public void run(List<Source> sources, SheetParser<T> parser, WriteStep<T> writer) throws Exception {
+        duplicates = 0;
+        if (sources.isEmpty()) return;
+        int poolSize = Math.min(threads, sources.size());
+        int window = poolSize * 2;
+        ExecutorService pool = Executors.newFixedThreadPool(poolSize, r -> {
+            Thread t = new Thread(r, "sheet-parse");
+            t.setDaemon(true);
+            return t;
+        });
+        Map<Object, Long> seen = keyFn != null ? new HashMap<>() : null;
+        ArrayDeque<Future<List<T>>> inFlight = new ArrayDeque<>();
+        int next = 0;
+        try {
+            for (int i = 0; i < sources.size(); i++) {
+                while (next < sources.size() && inFlight.size() < window) {
+                    Source src = sources.get(next++);
+                    inFlight.add(pool.submit(() -> {
+                        List<T> out = new ArrayList<>();
+                        parser.parse(src.file, src.sheetIndex, out::add);
+                        return out;
+                    }));
+                }
+                List<T> records;
+                try {
+                    records = inFlight.poll().get();
+                } catch (ExecutionException ex) {
+                    Throwable cause = ex.getCause();
+                    if (cause instanceof Exception e) throw e;
+                    throw ex;
+                }
+                if (seen != null) records = dropDuplicates(records, seen);
+                writer.write(sources.get(i), records);
+            }
+        } finally {
+            for (Future<List<T>> f : inFlight) f.cancel(true);
+            pool.shutdownNow();
+        }
+    }
+
+    private List<T> dropDuplicates(List<T> records, Map<Object, Long> seen) {
+        List<T> out = new ArrayList<>(records.size());
+        for (T r : records) {
+            long h = hashFn.applyAsLong(r);
+            Long prev = seen.put(keyFn.apply(r), h);
+            if (prev != null && prev == h) {
+                duplicates++;
+                continue;
+            }
+            out.add(r);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,200 @@
+package excel;
+
+import org.apache.poi.ooxml.util.SAXHelper;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.text.Normalizer;
+import java.util.*;
+
+/**
+ * Čita Excel "proizvedena roba" u hash indeks po ključu (komitentOpis, nazivRobe).
+ *
+ * - Kolone se traže po headeru (komitentOpis / komitent, nazivRobe / naziv ...);
+ *   bez headera vrijedi raspored kao u tablici narudžbi (2 = komitent, 3 = naziv robe).
+ * - .xlsx/.xlsm se čita streaming (XSSF event API), ostalo preko WorkbookFactory.
+ * - Rezultat: ključ -> broj redova u Excelu s tim ključem. Ključ se gradi s key(...),
+ *   pa ga pozivatelj računa na isti način za redove tablice (podudaranje u O(n+m)).
+ */
+public class ProducedGoodsReader {
+
+    private static final int DEFAULT_COL_KOMITENT = 2;
+    private static final int DEFAULT_COL_NAZIV = 3;
+
+    private static final List<String> KOMITENT_HEADERS = List.of("komitentopis", "komitent", "kupac");
+    private static final List<String> NAZIV_HEADERS = List.of("nazivrobe", "nazivrobeopis", "naziv", "nazivartikla", "artikl");
+
+    private boolean debug = false;
+
+    public ProducedGoodsReader enableDebug(boolean enable) {
+        this.debug = enable;
+        return this;
+    }
+
+    /** Normalizirani ključ za podudaranje: trim, mala slova, jedan razmak između riječi. */
+    public static String key(Object komitent, Object nazivRobe) {
+        return normalizeValue(komitent) + '\u0001' + normalizeValue(nazivRobe);
+    }
+
+    public Map<String, Integer> read(File file) throws Exception {
+        if (!file.exists()) throw new IllegalArgumentException("Excel ne postoji: " + file.getAbsolutePath());
+        String name = file.getName().toLowerCase(Locale.ROOT);
+        Map<String, Integer> index = (name.endsWith(".xlsx") || name.endsWith(".xlsm"))
+                ? readStreaming(file)
+                : readWorkbook(file);
+        if (debug) System.out.println("ProducedGoodsReader: ključeva=" + index.size());
+        return index;
+    }
+
+    /* ----------------- .xls (i ostalo) ----------------- */
+
+    private Map<String, Integer> readWorkbook(File file) throws Exception {
+        Map<String, Integer> index = new HashMap<>();
+        try (FileInputStream fis = new FileInputStream(file);
+             Workbook wb = WorkbookFactory.create(fis)) {
+            Sheet sheet = wb.getSheetAt(0);
+            if (sheet == null) return index;
+            ExcelCellReader cells = new ExcelCellReader(wb);
+
+            Row header = sheet.getRow(sheet.getFirstRowNum());
+            List<String> headerTexts = new ArrayList<>();
+            if (header != null) {
+                for (int c = 0; c < header.getLastCellNum(); c++) headerTexts.add(cells.text(header.getCell(c)));
+            }
+            int[] cols = resolveColumns(headerTexts);
+            int first = cols[2] == 1 ? sheet.getFirstRowNum() + 1 : sheet.getFirstRowNum();
+
+            for (int r = first; r <= sheet.getLastRowNum(); r++) {
+                Row row = sheet.getRow(r);
+                if (row == null) continue;
+                add(index, cells.text(row.getCell(cols[0])), cells.text(row.getCell(cols[1])));
+            }
+        }
+        return index;
+    }
+
+    /* ----------------- .xlsx streaming ----------------- */
+
+    private Map<String, Integer> readStreaming(File file) throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            XSSFReader xr = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = xr.getStylesTable();
+            Iterator<InputStream> sheets = xr.getSheetsData();
+            StreamingHandler handler = new StreamingHandler();
+            if (!sheets.hasNext()) return handler.index;
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = SAXHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(styles, strings, handler, new DataFormatter(), false));
+                parser.parse(new InputSource(sheet));
+            }
+            return handler.index;
+        }
+    }
+
+    private final class StreamingHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+        final Map<String, Integer> index = new HashMap<>();
+        final List<String> headerTexts = new ArrayList<>();
+        int[] cols;
+        boolean firstRow = true;
+        String komitent;
+        String naziv;
+
+        @Override
+        public void startRow(int rowNum) {
+            komitent = null;
+            naziv = null;
+            if (firstRow) headerTexts.clear();
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            if (cellReference == null) return;
+            int col = new CellReference(cellReference).getCol();
+            if (firstRow) {
+                while (headerTexts.size() <= col) headerTexts.add(null);
+                headerTexts.set(col, formattedValue);
+                return;
+            }
+            if (col == cols[0]) komitent = formattedValue;
+            else if (col == cols[1]) naziv = formattedValue;
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (firstRow) {
+                firstRow = false;
+                cols = resolveColumns(headerTexts);
+                if (cols[2] == 1) return;
+                // nema headera - prvi red su podaci
+                String k = cols[0] < headerTexts.size() ? headerTexts.get(cols[0]) : null;
+                String n = cols[1] < headerTexts.size() ? headerTexts.get(cols[1]) : null;
+                add(index, k, n);
+                return;
+            }
+            add(index, komitent, naziv);
+        }
+    }
+
+    /* ----------------- Zajedničko ----------------- */
+
+    /** {kolona komitenta, kolona naziva, 1 ako je prvi red header}. */
+    private int[] resolveColumns(List<String> headerTexts) {
+        Map<String, Integer> byName = new HashMap<>();
+        for (int c = 0; c < headerTexts.size(); c++) {
+            String h = headerTexts.get(c);
+            if (h == null) continue;
+            String norm = normalizeHeader(h);
+            if (!norm.isEmpty()) byName.putIfAbsent(norm, c);
+        }
+        Integer k = pick(byName, KOMITENT_HEADERS);
+        Integer n = pick(byName, NAZIV_HEADERS);
+        boolean hasHeader = k != null || n != null;
+        int[] cols = {
+                k != null ? k : DEFAULT_COL_KOMITENT,
+                n != null ? n : DEFAULT_COL_NAZIV,
+                hasHeader ? 1 : 0
+        };
+        if (debug) {
+            System.out.println("ProducedGoodsReader: komitent=" + cols[0] + " naziv=" + cols[1] + " header=" + hasHeader);
+        }
+        return cols;
+    }
+
+    private static Integer pick(Map<String, Integer> byName, List<String> keys) {
+        for (String k : keys) {
+            Integer idx = byName.get(k);
+            if (idx != null) return idx;
+        }
+        return null;
+    }
+
+    private static void add(Map<String, Integer> index, String komitent, String naziv) {
+        if (naziv == null || naziv.isBlank()) return;
+        index.merge(key(komitent, naziv), 1, Integer::sum);
+    }
+
+    private static String normalizeValue(Object o) {
+        if (o == null) return "";
+        return o.toString().trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static String normalizeHeader(String s) {
+        return Normalizer.normalize(s, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("[^a-z0-9]", "");
+    }
+}
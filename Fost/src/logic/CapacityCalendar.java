@@ -0,0 +1,18 @@
+package logic;
+
+import java.time.LocalDate;
+
+/**
+ * Kapacitet proizvodnje po danu (m2) za planer. Dan je epoch dan (LocalDate.toEpochDay()),
+ * 0 znači neradni dan.
+ */
+@FunctionalInterface
+public interface CapacityCalendar {
+
+    double capacityM2(long epochDay);
+
+    /** Isti kapacitet svaki radni dan (vikendi i blagdani = 0). */
+    static CapacityCalendar workingDays(double dailyM2) {
+        return day -> WorkingDayCalendar.isWorkingDay(LocalDate.ofEpochDay(day)) ? dailyM2 : 0.0;
+    }
+}
@@ -0,0 +1,367 @@
+package logic;
+
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableModel;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Jedinstveni procjenitelj kapaciteta (m2 po danu) za planer, statistiku i uvoz.
+ *
+ * Jednim prolazom kroz narudžbe skuplja m2 po danima:
+ *  - izrađeno po danu završetka (endTime → predDatumIsporuke → datumNarudzbe)
+ *  - sve narudžbe po datumu narudžbe
+ *  - sve narudžbe po endTime (ili datumu narudžbe)
+ * i iz tih dnevnih zbrojeva računa sve varijante prosjeka (vidi {@link Estimate}).
+ *
+ * Rezultat se čuva za tekući dan. Kad je procjenitelj spojen na model (attach),
+ * promjena statusa/m2/datuma jednog reda ažurira samo doprinos tog reda – bez ponovnog skeniranja.
+ */
+public final class CapacityEstimator {
+
+    public static final int DEFAULT_WINDOW_DAYS = 30;
+    private static final double WORK_HOURS_PER_DAY = 8.0;
+
+    private static final CapacityEstimator SHARED = new CapacityEstimator();
+
+    /** Zajednička instanca (glavna tablica narudžbi). */
+    public static CapacityEstimator shared() {
+        return SHARED;
+    }
+
+    // doprinos pojedinog reda (ključ = identitet reda u modelu)
+    private static final class Contribution {
+        double m2;
+        boolean done;
+        LocalDate doneDay;   // end → pred → order (samo za izrađeno)
+        boolean finished;    // statistika: izrađeno/izradeno/završeno/finished
+        LocalDate finishedDay; // end → pred (samo za finished)
+        LocalDate orderDay;
+        LocalDate anyDay;    // end → order
+    }
+
+    private final Map<Object, Contribution> contributions = new HashMap<>();
+    private final Map<LocalDate, Double> doneByDay = new HashMap<>();
+    private final Map<LocalDate, Double> orderByDay = new HashMap<>();
+    private final Map<LocalDate, Double> anyByDay = new HashMap<>();
+    private final Map<LocalDate, Double> finishedByDay = new HashMap<>();
+    private double finishedTotal = 0.0;
+
+    private TableModel attachedModel;
+    private TableModelListener listener;
+    private boolean valid = false;
+    private LocalDate cachedDay;
+    private final Map<Integer, Estimate> estimateCache = new HashMap<>();
+
+    /**
+     * Spaja procjenitelja na model: INSERT/UPDATE događaji ažuriraju doprinos redova,
+     * brisanje ili potpuna zamjena podataka poništava cache (ponovno skeniranje pri idućem upitu).
+     */
+    public synchronized void attach(TableModel model) {
+        if (attachedModel != null && listener != null) attachedModel.removeTableModelListener(listener);
+        attachedModel = model;
+        listener = this::onTableChanged;
+        model.addTableModelListener(listener);
+        invalidate();
+    }
+
+    public synchronized void invalidate() {
+        valid = false;
+        estimateCache.clear();
+    }
+
+    /** Procjena za zadani model uz podrazumijevani prozor (30 dana). */
+    public Estimate estimate(TableModel model) {
+        return estimate(model, DEFAULT_WINDOW_DAYS);
+    }
+
+    /**
+     * Procjena za zadani model i prozor od windowDays dana.
+     * Za spojeni model koristi cache; za ostale modele (npr. kopije za izvoz) računa jednokratno.
+     */
+    public synchronized Estimate estimate(TableModel model, int windowDays) {
+        if (windowDays <= 0) windowDays = DEFAULT_WINDOW_DAYS;
+        if (model != attachedModel) {
+            CapacityEstimator oneOff = new CapacityEstimator();
+            oneOff.rebuild(model);
+            return oneOff.compute(windowDays, LocalDate.now());
+        }
+        LocalDate today = LocalDate.now();
+        if (!valid) {
+            rebuild(model);
+        }
+        if (!today.equals(cachedDay)) {
+            estimateCache.clear();
+            cachedDay = today;
+        }
+        return estimateCache.computeIfAbsent(windowDays, w -> compute(w, today));
+    }
+
+    // ===== Skeniranje / inkrementalno ažuriranje =====
+
+    private void rebuild(TableModel model) {
+        contributions.clear();
+        doneByDay.clear();
+        orderByDay.clear();
+        anyByDay.clear();
+        finishedByDay.clear();
+        finishedTotal = 0.0;
+        estimateCache.clear();
+        if (model != null) {
+            Columns cols = new Columns(model);
+            for (int r = 0; r < model.getRowCount(); r++) {
+                updateRow(model, cols, r);
+            }
+        }
+        valid = true;
+    }
+
+    private void onTableChanged(TableModelEvent e) {
+        synchronized (this) {
+            if (!valid) return;
+            TableModel model = (TableModel) e.getSource();
+            int first = e.getFirstRow();
+            int last = e.getLastRow();
+            if (e.getType() == TableModelEvent.DELETE
+                    || (e.getType() == TableModelEvent.INSERT && !(model instanceof DefaultTableModel))
+                    || first == TableModelEvent.HEADER_ROW
+                    || last == Integer.MAX_VALUE
+                    || last >= model.getRowCount()) {
+                invalidate();
+                return;
+            }
+            Columns cols = new Columns(model);
+            if (e.getType() == TableModelEvent.UPDATE && e.getColumn() != TableModelEvent.ALL_COLUMNS
+                    && !cols.isRelevant(e.getColumn())) {
+                return;
+            }
+            for (int r = first; r <= last; r++) {
+                updateRow(model, cols, r);
+            }
+            estimateCache.clear();
+        }
+    }
+
+    private void updateRow(TableModel model, Columns cols, int row) {
+        Object key = rowKey(model, row);
+        Contribution old = contributions.remove(key);
+        if (old != null) apply(old, -1.0);
+
+        Contribution c = new Contribution();
+        c.m2 = toDouble(cols.value(model, row, cols.m2));
+        if (c.m2 <= 0.0) return;
+
+        c.done = isDone(cols.value(model, row, cols.status));
+        LocalDate end = toDate(cols.value(model, row, cols.end));
+        LocalDate pred = toDate(cols.value(model, row, cols.pred));
+        c.orderDay = toDate(cols.value(model, row, cols.order));
+        c.anyDay = end != null ? end : c.orderDay;
+        if (c.done) c.doneDay = end != null ? end : (pred != null ? pred : c.orderDay);
+        c.finished = isFinished(cols.value(model, row, cols.status));
+        if (c.finished) c.finishedDay = end != null ? end : pred;
+
+        contributions.put(key, c);
+        apply(c, +1.0);
+    }
+
+    private void apply(Contribution c, double sign) {
+        double v = sign * c.m2;
+        if (c.finished) finishedTotal += v;
+        if (c.finished && c.finishedDay != null) finishedByDay.merge(c.finishedDay, v, Double::sum);
+        if (c.done && c.doneDay != null) doneByDay.merge(c.doneDay, v, Double::sum);
+        if (c.orderDay != null) orderByDay.merge(c.orderDay, v, Double::sum);
+        if (c.anyDay != null) anyByDay.merge(c.anyDay, v, Double::sum);
+    }
+
+    /** DefaultTableModel: identitet reda (Vector) - otporno na umetanje/sortiranje; inače indeks reda. */
+    private static Object rowKey(TableModel model, int row) {
+        if (model instanceof DefaultTableModel) {
+            return new IdentityKey(((DefaultTableModel) model).getDataVector().get(row));
+        }
+        return Integer.valueOf(row);
+    }
+
+    private static final class IdentityKey {
+        private final Object ref;
+        IdentityKey(Object ref) { this.ref = ref; }
+        @Override public boolean equals(Object o) { return o instanceof IdentityKey && ((IdentityKey) o).ref == ref; }
+        @Override public int hashCode() { return System.identityHashCode(ref); }
+    }
+
+    // ===== Izračun svih varijanti iz dnevnih zbrojeva =====
+
+    private Estimate compute(int windowDays, LocalDate today) {
+        LocalDate calFrom = today.minusDays(windowDays - 1);
+
+        // radni dani i prozori preko indeksa WorkingDayCalendar-a (bez provjere blagdana po danu)
+        int workDays = WorkingDayCalendar.workingDaysBetween(calFrom, today);
+        double doneCal = sumDays(doneByDay, calFrom, today);
+        double orderCal = sumDays(orderByDay, calFrom, today);
+        double anyCal = sumDays(anyByDay, calFrom, today);
+
+        // rolling prozor: zadnjih windowDays RADNIH dana zaključno s danas (i neradni dani između)
+        LocalDate rollingFrom = WorkingDayCalendar.minusWorkingDays(today.plusDays(1), windowDays);
+        double doneRolling = sumDays(doneByDay, rollingFrom, today);
+
+        int productionDays = 0;
+        for (double v : finishedByDay.values()) if (v > 1e-9) productionDays++;
+
+        return new Estimate(
+                windowDays,
+                workDays > 0 ? doneCal / workDays : 0.0,
+                workDays > 0 ? orderCal / workDays : 0.0,
+                anyCal / windowDays,
+                doneRolling / windowDays,
+                doneCal / windowDays,
+                productionDays > 0 ? finishedTotal / productionDays : 0.0);
+    }
+
+    /** Zbroj dnevnih vrijednosti u [from, to]. */
+    private static double sumDays(Map<LocalDate, Double> byDay, LocalDate from, LocalDate to) {
+        double sum = 0.0;
+        for (Map.Entry<LocalDate, Double> e : byDay.entrySet()) {
+            LocalDate d = e.getKey();
+            if (!d.isBefore(from) && !d.isAfter(to)) sum += e.getValue();
+        }
+        return sum;
+    }
+
+    /**
+     * Sve varijante prosjeka m2/dan za jedan prozor.
+     */
+    public static final class Estimate {
+        private final int windowDays;
+        private final double completedPerWorkingDay;
+        private final double byOrderDatePerWorkingDay;
+        private final double calendarPerDay;
+        private final double rollingWorkingDayAvg;
+        private final double completedPerCalendarDay;
+        private final double perProductionDay;
+
+        Estimate(int windowDays, double completedPerWorkingDay, double byOrderDatePerWorkingDay,
+                 double calendarPerDay, double rollingWorkingDayAvg, double completedPerCalendarDay,
+                 double perProductionDay) {
+            this.windowDays = windowDays;
+            this.completedPerWorkingDay = completedPerWorkingDay;
+            this.byOrderDatePerWorkingDay = byOrderDatePerWorkingDay;
+            this.calendarPerDay = calendarPerDay;
+            this.rollingWorkingDayAvg = rollingWorkingDayAvg;
+            this.completedPerCalendarDay = completedPerCalendarDay;
+            this.perProductionDay = perProductionDay;
+        }
+
+        public int getWindowDays() { return windowDays; }
+        /** Izrađeno (po danu završetka) u zadnjih N kalendarskih dana / radni dani u tom rasponu. */
+        public double getCompletedPerWorkingDay() { return completedPerWorkingDay; }
+        /** Sve narudžbe po datumu narudžbe u zadnjih N dana / radni dani. */
+        public double getByOrderDatePerWorkingDay() { return byOrderDatePerWorkingDay; }
+        /** Sve narudžbe po endTime (ili datumu narudžbe) u zadnjih N dana / N kalendarskih dana. */
+        public double getCalendarPerDay() { return calendarPerDay; }
+        /** Izrađeno u zadnjih N RADNIH dana / N. */
+        public double getRollingWorkingDayAvg() { return rollingWorkingDayAvg; }
+        /** Izrađeno u zadnjih N kalendarskih dana / N. */
+        public double getCompletedPerCalendarDay() { return completedPerCalendarDay; }
+        /**
+         * Ukupno završeno / broj dana u kojima je nešto završeno (cijela povijest), kao dosadašnji
+         * prosjek u ProductionStatsCalculator-u: status izrađeno/izradeno/završeno/finished, dan = endTime → predDatumIsporuke.
+         */
+        public double getPerProductionDay() { return perProductionDay; }
+
+        /** Prvi pozitivni prosjek redom: izrađeno → po datumu narudžbe → kalendarski → fallback. */
+        public double bestDailyM2(double fallback) {
+            if (completedPerWorkingDay > 0) return completedPerWorkingDay;
+            if (byOrderDatePerWorkingDay > 0) return byOrderDatePerWorkingDay;
+            if (calendarPerDay > 0) return calendarPerDay;
+            return fallback;
+        }
+
+        /** m2 po satu iz najboljeg dnevnog prosjeka (8 radnih sati), ili fallback. */
+        public double bestM2PerHour(double fallbackPerHour) {
+            double daily = bestDailyM2(0.0);
+            return daily > 0 ? daily / WORK_HOURS_PER_DAY : fallbackPerHour;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "Estimate[N=%d, completed/wd=%.2f, byOrder/wd=%.2f, calendar=%.2f, rollingWd=%.2f, completed/cal=%.2f, perProdDay=%.2f]",
+                    windowDays, completedPerWorkingDay, byOrderDatePerWorkingDay, calendarPerDay,
+                    rollingWorkingDayAvg, completedPerCalendarDay, perProductionDay);
+        }
+    }
+
+    // ===== Pomoćne =====
+
+    private static final class Columns {
+        final int status, m2, end, pred, order;
+
+        Columns(TableModel model) {
+            status = find(model, "status");
+            m2 = find(model, "m2");
+            end = find(model, "endTime");
+            pred = find(model, "predDatumIsporuke");
+            order = find(model, "datumNarudzbe");
+        }
+
+        boolean isRelevant(int col) {
+            return col == status || col == m2 || col == end || col == pred || col == order;
+        }
+
+        Object value(TableModel model, int row, int col) {
+            return col >= 0 ? model.getValueAt(row, col) : null;
+        }
+
+        private static int find(TableModel model, String name) {
+            for (int c = 0; c < model.getColumnCount(); c++) {
+                if (name.equalsIgnoreCase(model.getColumnName(c))) return c;
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Izrađeno za planer i prosjeke: izrađeno/izradjeno. Jedini predikat za to - koriste ga UI (planer),
+     * CapacityScenarios i LineScheduler, pa svi isto odabiru otvorene odnosno izrađene narudžbe.
+     */
+    public static boolean isDone(Object status) {
+        if (status == null) return false;
+        String s = status.toString().trim();
+        return "izrađeno".equalsIgnoreCase(s) || "izradjeno".equalsIgnoreCase(s);
+    }
+
+    /** Završeno za statistiku (ProductionStatsCalculator): izrađeno/izradeno/završeno/finished. */
+    static boolean isFinished(Object status) {
+        if (status == null) return false;
+        String s = status.toString().trim().toLowerCase(Locale.ROOT);
+        return s.equals("izrađeno") || s.equals("izradeno") || s.equals("završeno") || s.equals("finished");
+    }
+
+    private static double toDouble(Object o) {
+        if (o == null) return 0.0;
+        if (o instanceof Number) return ((Number) o).doubleValue();
+        String s = o.toString().trim();
+        if (s.isEmpty()) return 0.0;
+        try {
+            return Double.parseDouble(s.replace(',', '.'));
+        } catch (NumberFormatException ex) {
+            return 0.0;
+        }
+    }
+
+    private static LocalDate toDate(Object o) {
+        if (o == null) return null;
+        if (o instanceof LocalDate) return (LocalDate) o;
+        if (o instanceof LocalDateTime) return ((LocalDateTime) o).toLocalDate();
+        if (o instanceof java.sql.Date) return ((java.sql.Date) o).toLocalDate();
+        if (o instanceof java.util.Date) {
+            return ((java.util.Date) o).toInstant().atZone(java.time.ZoneId.systemDefault()).toLocalDate();
+        }
+        LocalDateTime dt = DateUtils.parseFlexible(o.toString());
+        return dt == null ? null : dt.toLocalDate();
+    }
+}
@@ -0,0 +1,263 @@
+package logic;
+
+import javax.swing.table.TableModel;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * "Što ako" simulacija kapaciteta: isti snapshot otvorenih narudžbi planira se kroz LineScheduler
+ * za više scenarija (trenutni prosjek, +1 smjena, linija ne radi, ...) paralelno na ForkJoinPool-u.
+ *
+ * Snapshot je nepromjenjiv (kopija brojeva iz modela), pa ga svi scenariji dijele bez zaključavanja;
+ * svaki scenarij ima svoj LineScheduler.Result. Rezultat je za svaki scenarij kraj plana i kašnjenje
+ * po narudžbi (kalendarski dani završetka nakon obećanog datuma), u redoslijedu zadanih scenarija.
+ */
+public final class CapacityScenarios {
+
+    /** Kašnjenje za narudžbu koja nije raspoređena. */
+    public static final int NOT_SCHEDULED = Integer.MIN_VALUE;
+    /** Duljina dodatne smjene (min) u scenariju "+1 smjena". */
+    public static final int EXTRA_SHIFT_MINUTES = WorkingDayCalendar.DAY_MINUTES;
+
+    private final ForkJoinPool pool;
+
+    public CapacityScenarios() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public CapacityScenarios(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    // ===== snapshot =====
+
+    /** Nepromjenjiv snapshot otvorenih narudžbi: narudžbe za planer + obećani dan isporuke. */
+    public static final class Snapshot {
+        private final ProductionPlanner.Orders orders;
+        private final long[] dueDay;
+
+        /** Kopira narudžbe; dueDay[i] je obećani dan (epoch) narudžbe i. */
+        public Snapshot(ProductionPlanner.Orders source, long[] dueDay) {
+            if (dueDay.length < source.size()) throw new IllegalArgumentException("Nedostaje obećani datum za narudžbe");
+            orders = new ProductionPlanner.Orders(source.size());
+            for (int i = 0; i < source.size(); i++) {
+                orders.add(source.id(i), source.m2(i), source.earliestDay(i), source.priority(i));
+            }
+            this.dueDay = Arrays.copyOf(dueDay, source.size());
+        }
+
+        public int size() { return orders.size(); }
+        /** Id narudžbe (kod fromModel: indeks reda u modelu). */
+        public int id(int i) { return orders.id(i); }
+        public double m2(int i) { return orders.m2(i); }
+        public long dueDay(int i) { return dueDay[i]; }
+
+        /**
+         * Otvorene narudžbe iz modela (isti odabir kao planer u UI-u: izrađene po CapacityEstimator.isDone
+         * se preskaču): najraniji dan = datum narudžbe +
+         * ProductionPlanner.DEFAULT_LEAD_DAYS, obećani dan = predDatumIsporuke ili najraniji dan.
+         * Redovi bez datuma narudžbe se preskaču. Čitati na EDT-u.
+         */
+        public static Snapshot fromModel(TableModel model) {
+            int status = find(model, "status");
+            int m2Col = find(model, "m2");
+            int orderCol = find(model, "datumNarudzbe");
+            int dueCol = find(model, "predDatumIsporuke");
+            int rows = model.getRowCount();
+            ProductionPlanner.Orders orders = new ProductionPlanner.Orders(rows);
+            long[] due = new long[Math.max(16, rows)];
+            if (m2Col < 0 || orderCol < 0) return new Snapshot(orders, due);
+            for (int r = 0; r < rows; r++) {
+                if (status >= 0 && CapacityEstimator.isDone(model.getValueAt(r, status))) continue;
+                long orderDay = toEpochDay(model.getValueAt(r, orderCol));
+                if (orderDay == DateScanner.NO_MATCH) continue;
+                long earliest = orderDay + ProductionPlanner.DEFAULT_LEAD_DAYS;
+                long dueDay = dueCol >= 0 ? toEpochDay(model.getValueAt(r, dueCol)) : DateScanner.NO_MATCH;
+                int i = orders.add(r, toDouble(model.getValueAt(r, m2Col)), earliest, 0);
+                due[i] = dueDay == DateScanner.NO_MATCH ? earliest : dueDay;
+            }
+            return new Snapshot(orders, due);
+        }
+    }
+
+    // ===== scenariji =====
+
+    /** Scenarij: naziv i linije s kojima se planira. */
+    public static final class Scenario {
+        private final String name;
+        private final List<LineScheduler.Line> lines;
+
+        public Scenario(String name, List<LineScheduler.Line> lines) {
+            this.name = name;
+            this.lines = Collections.unmodifiableList(new ArrayList<>(lines));
+        }
+
+        public String getName() { return name; }
+        public List<LineScheduler.Line> getLines() { return lines; }
+
+        /** Linije kakve jesu. */
+        public static Scenario current(List<LineScheduler.Line> lines) {
+            return new Scenario("Trenutni prosjek", lines);
+        }
+
+        /** Svaka linija dobiva dodatnu smjenu od EXTRA_SHIFT_MINUTES odmah nakon zadnje (najkasnije do ponoći). */
+        public static Scenario plusShift(List<LineScheduler.Line> lines) {
+            List<LineScheduler.Line> out = new ArrayList<>(lines.size());
+            for (LineScheduler.Line line : lines) out.add(withExtraShift(line));
+            return new Scenario("+1 smjena", out);
+        }
+
+        /** Linija s indeksom index ne radi. */
+        public static Scenario lineDown(List<LineScheduler.Line> lines, int index) {
+            List<LineScheduler.Line> out = new ArrayList<>(lines);
+            LineScheduler.Line removed = out.remove(index);
+            return new Scenario("Ne radi: " + removed.getName(), out);
+        }
+
+        /** Svim linijama učinak pomnožen s factor (npr. 0.8 = 20% sporije). */
+        public static Scenario scaled(List<LineScheduler.Line> lines, double factor) {
+            List<LineScheduler.Line> out = new ArrayList<>(lines.size());
+            for (LineScheduler.Line line : lines) out.add(line.withRate(line.getM2PerHour() * factor));
+            return new Scenario(String.format(Locale.ROOT, "Učinak x%.2f", factor), out);
+        }
+
+        @Override
+        public String toString() {
+            return name + " " + lines;
+        }
+    }
+
+    /**
+     * Uobičajeni scenariji za linije iz povijesti: trenutni prosjek, +1 smjena i (ako ima više linija)
+     * ne radi linija s najvećim učinkom.
+     */
+    public static List<Scenario> defaultScenarios(List<LineScheduler.Line> lines) {
+        List<Scenario> out = new ArrayList<>();
+        out.add(Scenario.current(lines));
+        out.add(Scenario.plusShift(lines));
+        if (lines.size() > 1) {
+            int fastest = 0;
+            for (int l = 1; l < lines.size(); l++) {
+                if (lines.get(l).getM2PerHour() > lines.get(fastest).getM2PerHour()) fastest = l;
+            }
+            out.add(Scenario.lineDown(lines, fastest));
+        }
+        return out;
+    }
+
+    static LineScheduler.Line withExtraShift(LineScheduler.Line line) {
+        LocalTime[] shifts = line.getShifts();
+        int lastEnd = shifts[shifts.length - 1].toSecondOfDay() / 60;
+        if (lastEnd == 0) return line; // već radi do ponoći
+        int end = Math.min(24 * 60, lastEnd + EXTRA_SHIFT_MINUTES);
+        LocalTime[] more = Arrays.copyOf(shifts, shifts.length + 2);
+        more[shifts.length] = shifts[shifts.length - 1];
+        more[shifts.length + 1] = end == 24 * 60 ? LocalTime.MIDNIGHT : LocalTime.ofSecondOfDay(end * 60L);
+        return line.withShifts(more);
+    }
+
+    // ===== rezultat =====
+
+    /** Ishod jednog scenarija. */
+    public static final class Outcome {
+        private final Scenario scenario;
+        private final LineScheduler.Result result;
+        private final int[] lateDays;
+        private final int lateOrders;
+        private final int maxLateDays;
+        private final long totalLateDays;
+
+        Outcome(Scenario scenario, LineScheduler.Result result, int[] lateDays) {
+            this.scenario = scenario;
+            this.result = result;
+            this.lateDays = lateDays;
+            int late = 0, max = 0;
+            long total = 0;
+            for (int d : lateDays) {
+                if (d == NOT_SCHEDULED || d <= 0) continue;
+                late++;
+                max = Math.max(max, d);
+                total += d;
+            }
+            lateOrders = late;
+            maxLateDays = max;
+            totalLateDays = total;
+        }
+
+        public Scenario getScenario() { return scenario; }
+        public LineScheduler.Result getResult() { return result; }
+        public LocalDateTime getPlanEnd() { return result.getPlanEnd(); }
+        /** Kašnjenje narudžbe i u kalendarskim danima (<= 0 = na vrijeme) ili NOT_SCHEDULED. */
+        public int lateDays(int i) { return lateDays[i]; }
+        public int getLateOrders() { return lateOrders; }
+        public int getMaxLateDays() { return maxLateDays; }
+        public long getTotalLateDays() { return totalLateDays; }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s: kraj %s, kasni %d (najviše %d d, ukupno %d d)",
+                    scenario.getName(), getPlanEnd(), lateOrders, maxLateDays, totalLateDays);
+        }
+    }
+
+    /**
+     * Planira snapshot za sve scenarije paralelno (jedan zadatak po scenariju na pool-u) i vraća
+     * ishode redom kao scenarios.
+     */
+    public List<Outcome> simulate(Snapshot snapshot, List<Scenario> scenarios, LocalDateTime from) {
+        List<ForkJoinTask<Outcome>> tasks = new ArrayList<>(scenarios.size());
+        for (Scenario s : scenarios) tasks.add(pool.submit(() -> evaluate(snapshot, s, from)));
+        List<Outcome> out = new ArrayList<>(tasks.size());
+        for (ForkJoinTask<Outcome> t : tasks) out.add(t.join());
+        return out;
+    }
+
+    /** Jedan scenarij (u pozivajućoj niti). */
+    public static Outcome evaluate(Snapshot snapshot, Scenario scenario, LocalDateTime from) {
+        LineScheduler.Result res = new LineScheduler().schedule(snapshot.orders, scenario.getLines(), from);
+        int[] late = new int[snapshot.size()];
+        for (int i = 0; i < late.length; i++) {
+            long end = res.endMinute(i);
+            late[i] = end == LineScheduler.NO_TIME
+                    ? NOT_SCHEDULED
+                    : (int) (Math.floorDiv(end, 24 * 60) - snapshot.dueDay[i]);
+        }
+        return new Outcome(scenario, res, late);
+    }
+
+    // ===== pomoćne =====
+
+    private static long toEpochDay(Object o) {
+        if (o == null) return DateScanner.NO_MATCH;
+        if (o instanceof LocalDate) return ((LocalDate) o).toEpochDay();
+        if (o instanceof LocalDateTime) return ((LocalDateTime) o).toLocalDate().toEpochDay();
+        return DateScanner.scanEpochDay(o.toString());
+    }
+
+    private static double toDouble(Object o) {
+        if (o == null) return 0.0;
+        if (o instanceof Number) return ((Number) o).doubleValue();
+        String s = o.toString().trim();
+        if (s.isEmpty()) return 0.0;
+        try {
+            return Double.parseDouble(s.replace(',', '.'));
+        } catch (NumberFormatException ex) {
+            return 0.0;
+        }
+    }
+
+    private static int find(TableModel model, String name) {
+        for (int c = 0; c < model.getColumnCount(); c++) {
+            if (name.equalsIgnoreCase(model.getColumnName(c))) return c;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,192 @@
+package logic;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Brzi parser datuma/vremena bez iznimki i bez alokacija (ručno skeniranje znakova).
+ *
+ * Zamjenjuje petlje "pokušaj DateTimeFormatter po DateTimeFormatter, hvataj DateTimeParseException"
+ * koje su za svaki neprepoznati zapis bacale po nekoliko iznimki.
+ *
+ * Podržani zapisi (dan/mjesec s jednom ili dvije znamenke, godina s dvije ili četiri):
+ *  - d.M.yyyy, d.M.yyyy., d/M/yyyy, d.M.yy, dd/MM/yy
+ *  - yyyy-MM-dd
+ *  - svaki od gornjih uz vrijeme H:mm ili H:mm:ss (odvojeno razmakom, 'T' ili točkom,
+ *    npr. "05.03.2024 7:30", "05.03.2024. 07:30", "05.03.2024.07:30", "2024-03-05T07:30:15.250")
+ * Dvoznamenkasta godina znači 20yy (kao DateTimeFormatter "yy").
+ *
+ * Rezultat je "lokalni" epoch u sekundama (vidi DateUtils.toLocalEpochSecond) ili NO_MATCH.
+ */
+public final class DateScanner {
+
+    /** Vraća se kad zapis nije prepoznat (ili datum ne postoji, npr. 31.02.). */
+    public static final long NO_MATCH = Long.MIN_VALUE;
+
+    private DateScanner() {
+    }
+
+    /** Datum i vrijeme (datum bez vremena -> 00:00) ili null. */
+    public static LocalDateTime parseDateTime(CharSequence s) {
+        long sec = scan(s, false);
+        return sec == NO_MATCH ? null : LocalDateTime.ofEpochSecond(sec, 0, ZoneOffset.UTC);
+    }
+
+    /** Kao parseDateTime, ali zapis mora sadržavati vrijeme. */
+    public static LocalDateTime parseDateTimeStrict(CharSequence s) {
+        long sec = scan(s, true);
+        return sec == NO_MATCH ? null : LocalDateTime.ofEpochSecond(sec, 0, ZoneOffset.UTC);
+    }
+
+    /** Datum (eventualno vrijeme se zanemaruje) ili null. */
+    public static LocalDate parseDate(CharSequence s) {
+        long sec = scan(s, false);
+        return sec == NO_MATCH ? null : LocalDate.ofEpochDay(Math.floorDiv(sec, 86_400L));
+    }
+
+    /** Lokalni epoch dan ili NO_MATCH (bez alokacije). */
+    public static long scanEpochDay(CharSequence s) {
+        long sec = scan(s, false);
+        return sec == NO_MATCH ? NO_MATCH : Math.floorDiv(sec, 86_400L);
+    }
+
+    /**
+     * Lokalni epoch u sekundama ili NO_MATCH.
+     * @param timeRequired ako je true, zapis bez vremena nije prepoznat
+     */
+    public static long scan(CharSequence s, boolean timeRequired) {
+        if (s == null) return NO_MATCH;
+        int i = 0;
+        int end = s.length();
+        while (i < end && s.charAt(i) <= ' ') i++;
+        while (end > i && s.charAt(end - 1) <= ' ') end--;
+        if (i >= end || !isDigit(s.charAt(i))) return NO_MATCH;
+
+        int year, month, day;
+
+        // prvi broj: dan (1-2 znamenke) ili godina (4 znamenke, ISO)
+        int start = i;
+        int first = 0;
+        while (i < end && isDigit(s.charAt(i)) && i - start < 4) first = first * 10 + (s.charAt(i++) - '0');
+        int firstLen = i - start;
+        if (i >= end) return NO_MATCH;
+        char sep = s.charAt(i);
+
+        if (firstLen == 4) {
+            if (sep != '-') return NO_MATCH;
+            year = first;
+            i++;
+            start = i;
+            month = 0;
+            while (i < end && isDigit(s.charAt(i)) && i - start < 2) month = month * 10 + (s.charAt(i++) - '0');
+            if (i == start || i >= end || s.charAt(i) != '-') return NO_MATCH;
+            i++;
+            start = i;
+            day = 0;
+            while (i < end && isDigit(s.charAt(i)) && i - start < 2) day = day * 10 + (s.charAt(i++) - '0');
+            if (i == start) return NO_MATCH;
+        } else if (firstLen <= 2) {
+            if (sep != '.' && sep != '/') return NO_MATCH;
+            day = first;
+            i++;
+            start = i;
+            month = 0;
+            while (i < end && isDigit(s.charAt(i)) && i - start < 2) month = month * 10 + (s.charAt(i++) - '0');
+            if (i == start || i >= end || s.charAt(i) != sep) return NO_MATCH;
+            i++;
+            start = i;
+            year = 0;
+            while (i < end && isDigit(s.charAt(i)) && i - start < 4) year = year * 10 + (s.charAt(i++) - '0');
+            int yearLen = i - start;
+            if (yearLen == 2) year += 2000;
+            else if (yearLen != 4) return NO_MATCH;
+        } else {
+            return NO_MATCH;
+        }
+
+        if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) return NO_MATCH;
+        long epochDay = epochDay(year, month, day);
+
+        // opcionalna točka iza godine ("05.03.2024.")
+        boolean separated = false;
+        if (i < end && s.charAt(i) == '.') {
+            i++;
+            separated = true;
+        }
+        if (i >= end) return timeRequired ? NO_MATCH : epochDay * 86_400L;
+
+        // razmak(ci) ili 'T' između datuma i vremena
+        if (s.charAt(i) == 'T') {
+            i++;
+            separated = true;
+        }
+        while (i < end && s.charAt(i) == ' ') {
+            i++;
+            separated = true;
+        }
+        if (!separated || i >= end) return NO_MATCH;
+
+        start = i;
+        int hour = 0;
+        while (i < end && isDigit(s.charAt(i)) && i - start < 2) hour = hour * 10 + (s.charAt(i++) - '0');
+        if (i == start || i >= end || s.charAt(i) != ':') return NO_MATCH;
+        i++;
+        start = i;
+        int minute = 0;
+        while (i < end && isDigit(s.charAt(i)) && i - start < 2) minute = minute * 10 + (s.charAt(i++) - '0');
+        if (i - start != 2) return NO_MATCH;
+        int second = 0;
+        if (i < end && s.charAt(i) == ':') {
+            i++;
+            start = i;
+            while (i < end && isDigit(s.charAt(i)) && i - start < 2) second = second * 10 + (s.charAt(i++) - '0');
+            if (i - start != 2) return NO_MATCH;
+            // dijelovi sekunde (ISO) se zanemaruju
+            if (i < end && s.charAt(i) == '.') {
+                i++;
+                start = i;
+                while (i < end && isDigit(s.charAt(i))) i++;
+                if (i == start) return NO_MATCH;
+            }
+        }
+        if (i != end) return NO_MATCH;
+        if (hour > 23 || minute > 59 || second > 59) return NO_MATCH;
+
+        return epochDay * 86_400L + hour * 3_600L + minute * 60L + second;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLeap(int y) {
+        return (y & 3) == 0 && (y % 100 != 0 || y % 400 == 0);
+    }
+
+    private static int lengthOfMonth(int y, int m) {
+        switch (m) {
+            case 2: return isLeap(y) ? 29 : 28;
+            case 4: case 6: case 9: case 11: return 30;
+            default: return 31;
+        }
+    }
+
+    /** Isti izračun kao LocalDate.toEpochDay(), bez kreiranja objekta. */
+    private static long epochDay(int year, int month, int day) {
+        long y = year;
+        long total = 365 * y;
+        if (y >= 0) {
+            total += (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+        } else {
+            total -= y / -4 - y / -100 + y / -400;
+        }
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeap(year)) total--;
+        }
+        return total - 719_528L; // dana od 0000-01-01 do 1970-01-01
+    }
+}
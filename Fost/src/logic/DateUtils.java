@@ -1,8 +1,9 @@
 package logic;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 
 /**
  * 🕒 Pomoćna klasa za rad s datumima i vremenom.
@@ -16,13 +17,6 @@ public class DateUtils {
     private static final DateTimeFormatter FORMAT =
             DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
 
-    // 📅 Alternativni (fallback) formati — podrška za slične zapise
-    private static final DateTimeFormatter[] FALLBACK_FORMATS = new DateTimeFormatter[] {
-            DateTimeFormatter.ofPattern("dd.MM.yyyy. HH:mm"), // s točkom nakon godine
-            DateTimeFormatter.ofPattern("dd.MM.yy HH:mm"),    // skraćena godina bez točke
-            DateTimeFormatter.ofPattern("dd.MM.yy. HH:mm")    // skraćena godina s točkom
-    };
-
     /**
      * 📤 Formatira LocalDateTime objekt u string koristeći osnovni FORMAT.
      * @param dateTime datum/vrijeme za formatiranje
@@ -42,24 +36,36 @@ public class DateUtils {
     }
 
     /**
-     * 📥 Pokušava parsirati string u LocalDateTime objekt.
-     *    Najprije koristi osnovni FORMAT, a ako ne uspije — prolazi kroz fallback formate.
+     * 📥 Pokušava parsirati string u LocalDateTime objekt (datum + vrijeme, npr. dd.MM.yyyy HH:mm,
+     *    dd.MM.yyyy. HH:mm, dd.MM.yy HH:mm). Parsira DateScanner - bez iznimki za neprepoznate zapise.
      * @param dateTimeStr ulazni string datuma/vremena
      * @return LocalDateTime objekt ili null ako parsiranje nije uspjelo
      */
-    
     public static LocalDateTime parse(String dateTimeStr) {
-        if (dateTimeStr == null || dateTimeStr.isBlank()) return null;
-        String s = dateTimeStr.trim();
-        try {
-            return LocalDateTime.parse(s, FORMAT);
-        } catch (DateTimeParseException ignored) {}
-        for (DateTimeFormatter f : FALLBACK_FORMATS) {
-            try {
-                return LocalDateTime.parse(s, f);
-            } catch (DateTimeParseException ignored) {}
-        }
-        return null;
+        return DateScanner.parseDateTimeStrict(dateTimeStr);
+    }
+
+    /**
+     * 📥 Širi parser: sve što prihvaća parse(), plus zapisi samo s datumom
+     *    (dd.MM.yyyy, dd/MM/yyyy, yyyy-MM-dd → 00:00) i ISO datum-vrijeme.
+     * @param s ulazni string
+     * @return LocalDateTime ili null ako nije prepoznat
+     */
+    public static LocalDateTime parseFlexible(String s) {
+        return DateScanner.parseDateTime(s);
+    }
+
+    /**
+     * 🔢 Lokalni epoch (sekunde): LocalDateTime se tumači kao "zidno" vrijeme bez zone (UTC offset 0),
+     *    pa vrijednost ne ovisi o ljetnom/zimskom vremenu i može se uspoređivati u SQL-u.
+     */
+    public static long toLocalEpochSecond(LocalDateTime dt) {
+        return dt.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /** 🔢 Lokalni epoch za početak dana. */
+    public static long toLocalEpochSecond(LocalDate d) {
+        return d.atStartOfDay().toEpochSecond(ZoneOffset.UTC);
     }
 
     /**
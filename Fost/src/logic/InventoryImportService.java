@@ -1,10 +1,14 @@
 package logic;
 
 import db.InventoryStateDatabaseHelper;
+import excel.ParallelSheetImport;
 import model.StockState;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class InventoryImportService {
 
@@ -22,10 +26,58 @@ public class InventoryImportService {
         this.helper = helper;
     }
 
-    public void importCurrentState(File excelFile) throws Exception {
+    /** Upsert stanja iz Excela; vraća uvezene stavke (npr. za šifre koje treba osvježiti u prikazu). */
+    public List<StockState> importCurrentState(File excelFile) throws Exception {
         helper.ensureSchema();
         List<StockState> list = reader.parse(excelFile);
         helper.bulkUpsert(list);
+        return list;
+    }
+
+    /**
+     * Stanje iz više datoteka / sheetova (npr. jedan sheet po skladištu), parsirano paralelno.
+     *
+     * Izvor je skladište: naziv sheeta (allSheets) odnosno naziv datoteke. Isto skladište zadano
+     * više puta se ne zbraja - vrijedi kasniji izvor. Na kraju se količine i nabavne vrijednosti
+     * istog artikla zbrajaju preko skladišta i upisuju jednim bulkUpsert-om.
+     *
+     * @param parser čitanje jednog sheeta; mora biti thread-safe (npr. reader.copy().parse(file, sheet))
+     * @return spojene stavke koje su upisane
+     */
+    public List<StockState> importCurrentStateBatch(List<File> files, boolean allSheets, int threads,
+                                                    ParallelSheetImport.SheetParser<StockState> parser) throws Exception {
+        helper.ensureSchema();
+        ParallelSheetImport<StockState> batch = new ParallelSheetImport<StockState>()
+                .withThreads(threads)
+                .enableAllSheets(allSheets);
+        Map<String, Map<String, StockState>> byWarehouse = new LinkedHashMap<>();
+        batch.run(batch.sources(files), parser, (src, records) -> {
+            String warehouse = src.sheetName != null ? src.sheetName.trim() : src.file.getName();
+            Map<String, StockState> stock = new LinkedHashMap<>();
+            for (StockState ss : records) stock.put(ss.getProductCode(), ss);
+            byWarehouse.put(warehouse, stock);
+        });
+
+        Map<String, StockState> merged = new LinkedHashMap<>();
+        for (Map<String, StockState> stock : byWarehouse.values()) {
+            for (StockState ss : stock.values()) merged.merge(ss.getProductCode(), ss, InventoryImportService::sum);
+        }
+        List<StockState> list = new ArrayList<>(merged.values());
+        helper.bulkUpsert(list);
+        return list;
+    }
+
+    private static StockState sum(StockState a, StockState b) {
+        double qty = a.getQuantity() + b.getQuantity();
+        Double total = a.getPurchaseTotalValue() == null ? b.getPurchaseTotalValue()
+                : b.getPurchaseTotalValue() == null ? a.getPurchaseTotalValue()
+                : a.getPurchaseTotalValue() + b.getPurchaseTotalValue();
+        Double unitPrice = total != null && qty != 0 ? total / qty
+                : a.getPurchaseUnitPrice() != null ? a.getPurchaseUnitPrice() : b.getPurchaseUnitPrice();
+        return new StockState(a.getProductCode(),
+                a.getName() != null ? a.getName() : b.getName(),
+                a.getUnit() != null ? a.getUnit() : b.getUnit(),
+                qty, unitPrice, total);
     }
 
     public void safeReplaceAll(File excelFile) throws Exception {
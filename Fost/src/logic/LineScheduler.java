@@ -0,0 +1,371 @@
+package logic;
+
+import javax.swing.table.TableModel;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Raspoređivanje otvorenih narudžbi na više linija s konačnim kapacitetom.
+ *
+ * Svaka linija ima svoje smjene (isti raspored svakog radnog dana iz WorkingDayCalendar-a) i svoj
+ * učinak u m2/h. Narudžbe se uzimaju redom kao u ProductionPlanner-u (prioritet, najraniji dan, redni
+ * broj) i svaka ide na liniju na kojoj bi najranije završila (earliest finish time); linije su u
+ * PriorityQueue po trenutku kad se oslobađaju, pa se za narudžbu gledaju samo linije koje se
+ * oslobađaju prije dosad najboljeg završetka.
+ *
+ * Vrijeme linije vodi se u "radnim minutama" (redni broj radnog dana * minute smjena po danu +
+ * minute smjena tog dana), pa je kraj posla start + trajanje, a pretvorba u datum/vrijeme je O(1)
+ * preko WorkingDayCalendar.ordinal/workingDayAt. Vremena u rezultatu su epoch minute (lokalno vrijeme).
+ */
+public final class LineScheduler {
+
+    /** Učinak linije kad nema dovoljno povijesti (m2/h). */
+    public static final double DEFAULT_M2_PER_HOUR = 10.0;
+    /** Najmanje sati rada u povijesti da bi se učinak djelatnika uzeo kao učinak linije. */
+    public static final double MIN_HISTORY_HOURS = 2.0;
+    /** Oznaka za narudžbu koja nije raspoređena (m2 <= 0 ili nema upotrebljive linije). */
+    public static final long NO_TIME = Long.MIN_VALUE;
+
+    private static final int DAY = 24 * 60;
+
+    /** Linija: naziv, učinak (m2/h) i smjene unutar dana (parovi početak-kraj). */
+    public static final class Line {
+        private final String name;
+        private final double m2PerHour;
+        private final LocalTime[] shifts;
+        final int[] shiftStart;
+        final int[] shiftEnd;
+        /** Minute smjena prije k-te smjene u danu. */
+        final int[] shiftBefore;
+        final int minutesPerDay;
+
+        /**
+         * @param shifts parovi početak, kraj (npr. 07:00, 15:00, 15:00, 23:00); kraj 00:00 znači kraj dana.
+         *               Bez smjena vrijedi radno vrijeme 07:00-15:00.
+         */
+        public Line(String name, double m2PerHour, LocalTime... shifts) {
+            if (shifts == null || shifts.length == 0) {
+                shifts = new LocalTime[]{WorkingDayCalendar.WORK_START, WorkingDayCalendar.WORK_END};
+            }
+            if (shifts.length % 2 != 0) throw new IllegalArgumentException("Smjene se zadaju u parovima početak-kraj: " + name);
+            this.name = name;
+            this.m2PerHour = m2PerHour;
+            this.shifts = shifts.clone();
+            int n = shifts.length / 2;
+            shiftStart = new int[n];
+            shiftEnd = new int[n];
+            shiftBefore = new int[n];
+            int total = 0, prevEnd = 0;
+            for (int k = 0; k < n; k++) {
+                int s = shifts[2 * k].toSecondOfDay() / 60;
+                int e = shifts[2 * k + 1].toSecondOfDay() / 60;
+                if (e == 0) e = DAY;
+                if (e <= s || s < prevEnd) {
+                    throw new IllegalArgumentException("Smjene moraju biti redom, bez preklapanja i unutar dana: " + name);
+                }
+                shiftStart[k] = s;
+                shiftEnd[k] = e;
+                shiftBefore[k] = total;
+                total += e - s;
+                prevEnd = e;
+            }
+            minutesPerDay = total;
+        }
+
+        public String getName() { return name; }
+        public double getM2PerHour() { return m2PerHour; }
+        public int getMinutesPerDay() { return minutesPerDay; }
+        public LocalTime[] getShifts() { return shifts.clone(); }
+
+        /** Ista linija s drugim smjenama. */
+        public Line withShifts(LocalTime... newShifts) {
+            return new Line(name, m2PerHour, newShifts);
+        }
+
+        /** Ista linija s drugim učinkom. */
+        public Line withRate(double newM2PerHour) {
+            return new Line(name, newM2PerHour, shifts);
+        }
+
+        boolean isUsable() {
+            return m2PerHour > 0.0 && minutesPerDay > 0;
+        }
+
+        /** Prva radna minuta linije u trenutku abs ili nakon njega. */
+        long toStartW(long abs) {
+            long epochDay = Math.floorDiv(abs, DAY);
+            int minute = Math.floorMod(abs, DAY);
+            LocalDate day = LocalDate.ofEpochDay(epochDay);
+            long base = (long) WorkingDayCalendar.ordinal(day) * minutesPerDay;
+            if (!WorkingDayCalendar.isWorkingDay(day)) return base;
+            for (int k = 0; k < shiftStart.length; k++) {
+                if (minute < shiftEnd[k]) return base + shiftBefore[k] + Math.max(0, minute - shiftStart[k]);
+            }
+            return base + minutesPerDay;
+        }
+
+        /** Trenutak početka radne minute w. */
+        long toStartAbs(long w) {
+            int ord = (int) (w / minutesPerDay);
+            int off = (int) (w % minutesPerDay);
+            int k = shiftStart.length - 1;
+            while (off < shiftBefore[k]) k--;
+            return WorkingDayCalendar.workingDayAt(ord).toEpochDay() * DAY + shiftStart[k] + off - shiftBefore[k];
+        }
+
+        /** Trenutak kraja radne minute w - 1 (posao koji završi na kraju smjene završava u kraju smjene). */
+        long toEndAbs(long w) {
+            int ord = (int) ((w - 1) / minutesPerDay);
+            int off = (int) (w - (long) ord * minutesPerDay);
+            int k = 0;
+            while (off > shiftBefore[k] + shiftEnd[k] - shiftStart[k]) k++;
+            return WorkingDayCalendar.workingDayAt(ord).toEpochDay() * DAY + shiftStart[k] + off - shiftBefore[k];
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s (%.2f m2/h, %d min/dan)", name, m2PerHour, minutesPerDay);
+        }
+    }
+
+    /** Rezultat: po narudžbi (indeks u Orders) početak, kraj i linija; po liniji opterećenje. */
+    public static final class Result {
+        private final List<Line> lines;
+        private final long[] start;
+        private final long[] end;
+        private final int[] line;
+        private final long[] lineMinutes;
+        private final double[] lineM2;
+        private final int[] lineOrders;
+        private final long[] lineLastEnd;
+        private int scheduled;
+
+        Result(List<Line> lines, int orders) {
+            this.lines = lines;
+            start = new long[orders];
+            end = new long[orders];
+            line = new int[orders];
+            Arrays.fill(start, NO_TIME);
+            Arrays.fill(end, NO_TIME);
+            Arrays.fill(line, -1);
+            lineMinutes = new long[lines.size()];
+            lineM2 = new double[lines.size()];
+            lineOrders = new int[lines.size()];
+            lineLastEnd = new long[lines.size()];
+            Arrays.fill(lineLastEnd, NO_TIME);
+        }
+
+        public int size() { return start.length; }
+        public int getScheduled() { return scheduled; }
+        public List<Line> getLines() { return lines; }
+
+        /** Epoch minuta početka ili NO_TIME. */
+        public long startMinute(int i) { return start[i]; }
+        /** Epoch minuta završetka ili NO_TIME. */
+        public long endMinute(int i) { return end[i]; }
+        /** Indeks linije ili -1. */
+        public int line(int i) { return line[i]; }
+
+        public LocalDateTime start(int i) { return toDateTime(start[i]); }
+        public LocalDateTime end(int i) { return toDateTime(end[i]); }
+        public String lineName(int i) { return line[i] < 0 ? null : lines.get(line[i]).getName(); }
+
+        public long getLineMinutes(int l) { return lineMinutes[l]; }
+        public double getLineHours(int l) { return lineMinutes[l] / 60.0; }
+        public double getLineM2(int l) { return lineM2[l]; }
+        public int getLineOrders(int l) { return lineOrders[l]; }
+        public LocalDateTime getLineEnd(int l) { return toDateTime(lineLastEnd[l]); }
+
+        /** Završetak zadnje narudžbe na svim linijama ili null. */
+        public LocalDateTime getPlanEnd() {
+            long max = NO_TIME;
+            for (long e : lineLastEnd) max = Math.max(max, e);
+            return toDateTime(max);
+        }
+    }
+
+    private static final class LineState {
+        final int index;
+        long freeW;
+        long freeAbs;
+
+        LineState(int index, long freeW, long freeAbs) {
+            this.index = index;
+            this.freeW = freeW;
+            this.freeAbs = freeAbs;
+        }
+    }
+
+    /**
+     * Raspoređuje narudžbe (m2 > 0) od trenutka from. Najraniji dan narudžbe određuje samo
+     * redoslijed (kao u ProductionPlanner-u), ne i najraniji početak.
+     */
+    public Result schedule(ProductionPlanner.Orders orders, List<Line> lines, LocalDateTime from) {
+        List<Line> lineList = Collections.unmodifiableList(new ArrayList<>(lines));
+        Result res = new Result(lineList, orders.size());
+        long fromAbs = toEpochMinute(from);
+
+        PriorityQueue<LineState> free = new PriorityQueue<>((a, b) -> {
+            int c = Long.compare(a.freeAbs, b.freeAbs);
+            return c != 0 ? c : Integer.compare(a.index, b.index);
+        });
+        for (int l = 0; l < lineList.size(); l++) {
+            Line line = lineList.get(l);
+            if (line.isUsable()) free.add(new LineState(l, line.toStartW(fromAbs), fromAbs));
+        }
+        if (free.isEmpty()) return res;
+
+        LineState[] polled = new LineState[free.size()];
+        long[] candidateEnd = new long[lineList.size()];
+        int[] order = ProductionPlanner.queueOrder(orders, from.toLocalDate().toEpochDay());
+        for (int i : order) {
+            double m2 = orders.m2(i);
+            int n = 0;
+            LineState best = null;
+            long bestEnd = Long.MAX_VALUE;
+            // linija koja se oslobađa u bestEnd ili kasnije ne može završiti ranije
+            while (!free.isEmpty() && free.peek().freeAbs < bestEnd) {
+                LineState s = free.poll();
+                polled[n++] = s;
+                Line line = lineList.get(s.index);
+                long endAbs = line.toEndAbs(s.freeW + minutesFor(m2, line));
+                candidateEnd[s.index] = endAbs;
+                if (endAbs < bestEnd || (endAbs == bestEnd && s.index < best.index)) {
+                    best = s;
+                    bestEnd = endAbs;
+                }
+            }
+
+            Line line = lineList.get(best.index);
+            long minutes = minutesFor(m2, line);
+            res.start[i] = line.toStartAbs(best.freeW);
+            res.end[i] = candidateEnd[best.index];
+            res.line[i] = best.index;
+            res.lineMinutes[best.index] += minutes;
+            res.lineM2[best.index] += m2;
+            res.lineOrders[best.index]++;
+            res.lineLastEnd[best.index] = res.end[i];
+            res.scheduled++;
+            best.freeW += minutes;
+            best.freeAbs = res.end[i];
+            for (int k = 0; k < n; k++) free.add(polled[k]);
+        }
+        return res;
+    }
+
+    /** Trajanje u radnim minutama (zaokruženo nagore, barem 1). */
+    static long minutesFor(double m2, Line line) {
+        return Math.max(1L, (long) Math.ceil(m2 / line.getM2PerHour() * 60.0 - 1e-9));
+    }
+
+    // ===== linije iz povijesti =====
+
+    /**
+     * Linije iz povijesti izrađenih narudžbi: jedan djelatnik = jedna linija, učinak = ukupno m2 /
+     * ukupno sati rada (kolona duration HH:mm, inače radne minute između startTime i endTime).
+     * Djelatnik s manje od MIN_HISTORY_HOURS sati se izostavlja (premalo povijesti za liniju). Ako
+     * nijedan djelatnik nema dovoljno sati, vraća jednu liniju s učinkom iz CapacityEstimator-a.
+     */
+    public static List<Line> linesFromHistory(TableModel model, double fallbackM2PerHour) {
+        int status = find(model, "status");
+        int worker = find(model, "djelatnik");
+        int m2Col = find(model, "m2");
+        int duration = find(model, "duration");
+        int startCol = find(model, "startTime");
+        int endCol = find(model, "endTime");
+
+        Map<String, double[]> byWorker = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if (status >= 0 && worker >= 0 && m2Col >= 0) {
+            for (int r = 0; r < model.getRowCount(); r++) {
+                if (!CapacityEstimator.isDone(model.getValueAt(r, status))) continue;
+                Object w = model.getValueAt(r, worker);
+                String name = w == null ? "" : w.toString().trim();
+                if (name.isEmpty()) continue;
+                double m2 = toDouble(model.getValueAt(r, m2Col));
+                long minutes = duration >= 0 ? parseHoursMinutes(model.getValueAt(r, duration)) : -1;
+                if (minutes < 0 && startCol >= 0 && endCol >= 0) {
+                    LocalDateTime s = toDateTime(model.getValueAt(r, startCol));
+                    LocalDateTime e = toDateTime(model.getValueAt(r, endCol));
+                    if (s != null && e != null) minutes = WorkingDayCalendar.workingMinutesBetween(s, e);
+                }
+                double[] acc = byWorker.computeIfAbsent(name, k -> new double[2]);
+                if (m2 > 0 && minutes > 0) {
+                    acc[0] += m2;
+                    acc[1] += minutes;
+                }
+            }
+        }
+
+        List<Line> out = new ArrayList<>();
+        for (Map.Entry<String, double[]> e : byWorker.entrySet()) {
+            double hours = e.getValue()[1] / 60.0;
+            if (hours < MIN_HISTORY_HOURS) continue;
+            out.add(new Line(e.getKey(), e.getValue()[0] / hours));
+        }
+        if (out.isEmpty()) {
+            out.add(new Line("Linija 1", CapacityEstimator.shared().estimate(model).bestM2PerHour(fallbackM2PerHour)));
+        }
+        return out;
+    }
+
+    // ===== pomoćne =====
+
+    static long toEpochMinute(LocalDateTime t) {
+        return t.toLocalDate().toEpochDay() * DAY + t.getHour() * 60L + t.getMinute();
+    }
+
+    static LocalDateTime toDateTime(long epochMinute) {
+        if (epochMinute == NO_TIME) return null;
+        return LocalDateTime.of(LocalDate.ofEpochDay(Math.floorDiv(epochMinute, DAY)),
+                LocalTime.ofSecondOfDay(Math.floorMod(epochMinute, DAY) * 60L));
+    }
+
+    /** "HH:mm" (sati mogu biti > 24) u minute; -1 ako nije zadano. */
+    private static long parseHoursMinutes(Object o) {
+        if (o == null) return -1;
+        String s = o.toString().trim();
+        int colon = s.indexOf(':');
+        if (colon <= 0) return -1;
+        try {
+            long h = Long.parseLong(s.substring(0, colon).trim());
+            long m = Long.parseLong(s.substring(colon + 1).trim());
+            return h * 60 + m;
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    private static LocalDateTime toDateTime(Object o) {
+        if (o == null) return null;
+        if (o instanceof LocalDateTime) return (LocalDateTime) o;
+        return DateScanner.parseDateTime(o.toString());
+    }
+
+    private static double toDouble(Object o) {
+        if (o == null) return 0.0;
+        if (o instanceof Number) return ((Number) o).doubleValue();
+        String s = o.toString().trim();
+        if (s.isEmpty()) return 0.0;
+        try {
+            return Double.parseDouble(s.replace(',', '.'));
+        } catch (NumberFormatException ex) {
+            return 0.0;
+        }
+    }
+
+    private static int find(TableModel model, String name) {
+        for (int c = 0; c < model.getColumnCount(); c++) {
+            if (name.equalsIgnoreCase(model.getColumnName(c))) return c;
+        }
+        return -1;
+    }
+}
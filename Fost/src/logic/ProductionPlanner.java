@@ -0,0 +1,470 @@
+package logic;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Planer datuma isporuke (bez Swinga): red otvorenih narudžbi se puni danima do dnevnog kapaciteta.
+ *
+ * Ulaz je Orders - paralelni primitivni nizovi (m2, najraniji epoch dan, prioritet) koje UI složi
+ * jednim prolazom kroz model; rezultat je niz plan dana (epoch dan) po narudžbi, pa se model
+ * ažurira jednim potezom. Nema parsiranja datuma ni pristupa tablici, pa se smije zvati izvan EDT-a.
+ *
+ * Pravila (ista kao dosadašnji UI.computePlanDatumIsporukeForAllRows):
+ *  - redoslijed: prioritet (manji = prije), najraniji dan, redni broj,
+ *  - svaki radni dan (kapacitet > 0) se puni redom reda; jedna narudžba dobiva najviše
+ *    perOrderDailyCap m2 po danu, ostatak dana ide sljedećim narudžbama,
+ *  - narudžba je gotova (plan) onog dana kad joj je dodijeljen zadnji m2,
+ *  - narudžba bez m2 i ono što ne stane u horizont -> prvi radni dan >= max(najraniji, danas).
+ */
+public class ProductionPlanner {
+
+    public static final double DEFAULT_DAILY_CAPACITY_M2 = 4424.01;
+    public static final double DEFAULT_PER_ORDER_DAILY_CAP_M2 = 2800.0;
+    /** Dani od narudžbe do najranije isporuke kad nije zadano drugačije. */
+    public static final int DEFAULT_LEAD_DAYS = 7;
+    /** Narudžba nema plan. */
+    public static final long NO_PLAN = Long.MIN_VALUE;
+
+    private static final double EPS = 1e-6;
+    /** Najviše radnih dana punjenja (zaštita kao u dosadašnjem UI planiranju). */
+    private static final int HORIZON_WORKING_DAYS = 365 * 5;
+    private static final int MAX_DAYS_SEARCH = 366 * 10;
+
+    private double perOrderDailyCap = DEFAULT_PER_ORDER_DAILY_CAP_M2;
+
+    public ProductionPlanner withPerOrderDailyCap(double m2) {
+        this.perOrderDailyCap = m2 > 0 ? m2 : Double.MAX_VALUE;
+        return this;
+    }
+
+    /**
+     * Otvorene narudžbe kao paralelni nizovi. id je proizvoljan broj pozivatelja
+     * (npr. indeks reda u modelu) i vraća se uz plan.
+     */
+    public static final class Orders {
+        private int size;
+        private int[] id;
+        private double[] m2;
+        private long[] earliestDay;
+        private int[] priority;
+
+        public Orders(int expected) {
+            int cap = Math.max(16, expected);
+            id = new int[cap];
+            m2 = new double[cap];
+            earliestDay = new long[cap];
+            priority = new int[cap];
+        }
+
+        /** @return indeks narudžbe u snapshotu */
+        public int add(int orderId, double m2Value, long earliestEpochDay, int prio) {
+            if (size == id.length) {
+                int cap = size * 2;
+                id = Arrays.copyOf(id, cap);
+                m2 = Arrays.copyOf(m2, cap);
+                earliestDay = Arrays.copyOf(earliestDay, cap);
+                priority = Arrays.copyOf(priority, cap);
+            }
+            id[size] = orderId;
+            m2[size] = m2Value;
+            earliestDay[size] = earliestEpochDay;
+            priority[size] = prio;
+            return size++;
+        }
+
+        public int size() { return size; }
+        public int id(int i) { return id[i]; }
+        public double m2(int i) { return m2[i]; }
+        public long earliestDay(int i) { return earliestDay[i]; }
+        public int priority(int i) { return priority[i]; }
+    }
+
+    /** Rezultat planiranja; indeksi su isti kao u Orders. */
+    public static final class Plan {
+        final long[] planDay;
+        int scheduled;
+        int fallbackAssigned;
+        int daysUsed;
+        long lastDay = NO_PLAN;
+
+        Plan(int n) {
+            planDay = new long[n];
+            Arrays.fill(planDay, NO_PLAN);
+        }
+
+        /** Plan (epoch dan) ili NO_PLAN. */
+        public long planDay(int i) { return planDay[i]; }
+
+        public LocalDate planDate(int i) {
+            return planDay[i] == NO_PLAN ? null : LocalDate.ofEpochDay(planDay[i]);
+        }
+
+        public int size() { return planDay.length; }
+        /** Broj narudžbi koje su dobile plan punjenjem kapaciteta. */
+        public int getScheduled() { return scheduled; }
+        /** Broj narudžbi s planom "prvi radni dan" (bez m2 ili izvan horizonta). */
+        public int getFallbackAssigned() { return fallbackAssigned; }
+        public int getDaysUsed() { return daysUsed; }
+        public LocalDate getLastDate() { return lastDay == NO_PLAN ? null : LocalDate.ofEpochDay(lastDay); }
+    }
+
+    public Plan plan(Orders orders, CapacityCalendar calendar, LocalDate today) {
+        int n = orders.size();
+        Schedule schedule = newSchedule(calendar, today);
+        for (int i = 0; i < n; i++) {
+            schedule.put(i, orders.m2[i], orders.earliestDay[i], orders.priority[i]);
+        }
+        schedule.replan();
+
+        Plan plan = new Plan(n);
+        for (int i = 0; i < n; i++) {
+            setPlan(plan, i, schedule.planDay(i));
+            if (schedule.isFallback(i)) plan.fallbackAssigned++;
+            else plan.scheduled++;
+        }
+        plan.daysUsed = schedule.getDaysUsed();
+        return plan;
+    }
+
+    public Schedule newSchedule(CapacityCalendar calendar, LocalDate today) {
+        return new Schedule(calendar, today, perOrderDailyCap);
+    }
+
+    /**
+     * Plan koji se drži u memoriji i ažurira inkrementalno.
+     *
+     * Punjenje je ekvivalentno punjenju "dan po dan": narudžbe se obrađuju redom reda i svaka uzima
+     * min(ostatak, perOrderDailyCap, preostali kapacitet dana) od prvog dana koji nije pun. Zato
+     * promjena narudžbe na poziciji k ne dira narudžbe prije k. Za svaki dan se pamte dodjele
+     * (ključ reda, m2) redom kojim su nastale; replan() odreže dodjele od prvog promijenjenog
+     * ključa nadalje, preostale ponovi istim redom (isti rezultat kao potpuni izračun, bez
+     * nakupljanja grešaka zaokruživanja) i ponovno planira samo taj sufiks.
+     *
+     * put/remove samo evidentiraju promjenu; replan() je jedan prolaz za sve promjene od zadnjeg
+     * poziva i vraća id-eve narudžbi kojima se plan promijenio. Id je broj pozivatelja (0..2^24).
+     * Nije thread-safe.
+     */
+    public static final class Schedule {
+        private static final int ID_BITS = 24;
+        private static final long ID_MASK = (1L << ID_BITS) - 1;
+
+        private final CapacityCalendar calendar;
+        private final long todayDay;
+        private final double perOrderCap;
+
+        // kalendar horizonta (indeks = dan - danas)
+        private final double[] capacity;
+        private final int horizon;
+        private final double[] residual;
+        private final int[] dayCount;
+        private final long[][] dayKeys;
+        private final double[][] dayAmount;
+        private int frontier = 0;
+
+        // po id-u
+        private boolean[] present = new boolean[0];
+        private double[] m2 = new double[0];
+        private long[] earliest = new long[0];
+        private int[] priority = new int[0];
+        private long[] key = new long[0];
+        private long[] planDay = new long[0];
+        private int[] allocStart = new int[0];
+        private boolean[] fallback = new boolean[0];
+        private boolean[] changedMark = new boolean[0];
+
+        // red (sortirani ključevi) i promjene od zadnjeg replan()
+        private long[] queue = new long[0];
+        private int queueSize = 0;
+        private long[] pending = new long[16];
+        private int pendingSize = 0;
+        private long dirtyKey = Long.MAX_VALUE;
+        private int[] changed = new int[16];
+        private int changedSize = 0;
+
+        Schedule(CapacityCalendar calendar, LocalDate today, double perOrderCap) {
+            this.calendar = calendar;
+            this.todayDay = today.toEpochDay();
+            this.perOrderCap = perOrderCap;
+
+            double[] cap = new double[HORIZON_WORKING_DAYS * 2];
+            int d = 0, working = 0, idle = 0;
+            while (working < HORIZON_WORKING_DAYS && idle < MAX_DAYS_SEARCH) {
+                if (d == cap.length) cap = Arrays.copyOf(cap, d * 2);
+                double c = calendar.capacityM2(todayDay + d);
+                cap[d++] = c;
+                if (c > EPS) { working++; idle = 0; } else { idle++; }
+            }
+            this.horizon = d;
+            this.capacity = Arrays.copyOf(cap, d);
+            this.residual = Arrays.copyOf(cap, d);
+            this.dayCount = new int[d];
+            this.dayKeys = new long[d][];
+            this.dayAmount = new double[d][];
+        }
+
+        public LocalDate getToday() {
+            return LocalDate.ofEpochDay(todayDay);
+        }
+
+        /** Dodaje ili mijenja narudžbu (bez promjene vrijednosti ne radi ništa). */
+        public void put(int id, double m2Value, long earliestEpochDay, int prio) {
+            if (id < 0 || id > ID_MASK) throw new IllegalArgumentException("Neispravan id narudžbe: " + id);
+            ensureId(id);
+            if (present[id] && m2[id] == m2Value && earliest[id] == earliestEpochDay && priority[id] == prio) return;
+            detach(id);
+            present[id] = true;
+            m2[id] = m2Value;
+            earliest[id] = earliestEpochDay;
+            priority[id] = prio;
+            if (m2Value <= 0.0) {
+                // bez m2 ne ulazi u red
+                fallback[id] = true;
+                setPlanDay(id, firstWorkingDayFrom(Math.max(earliestEpochDay, todayDay)));
+                return;
+            }
+            long k = makeKey(id);
+            key[id] = k;
+            if (pendingSize == pending.length) pending = Arrays.copyOf(pending, pendingSize * 2);
+            pending[pendingSize++] = k;
+            dirtyKey = Math.min(dirtyKey, k);
+        }
+
+        public void remove(int id) {
+            if (id < 0 || id >= present.length || !present[id]) return;
+            detach(id);
+            present[id] = false;
+            planDay[id] = NO_PLAN;
+            fallback[id] = false;
+        }
+
+        public boolean contains(int id) {
+            return id >= 0 && id < present.length && present[id];
+        }
+
+        /** Plan (epoch dan) ili NO_PLAN; vrijedi nakon replan(). */
+        public long planDay(int id) {
+            return id >= 0 && id < planDay.length ? planDay[id] : NO_PLAN;
+        }
+
+        /** true = plan je "prvi radni dan" (bez m2 ili ne stane u horizont). */
+        public boolean isFallback(int id) {
+            return id >= 0 && id < fallback.length && fallback[id];
+        }
+
+        public int getQueueSize() {
+            return queueSize + pendingSize;
+        }
+
+        /** Broj dana na kojima je dodijeljen kapacitet. */
+        public int getDaysUsed() {
+            int used = 0;
+            for (int d = 0; d < horizon; d++) if (dayCount[d] > 0) used++;
+            return used;
+        }
+
+        /**
+         * Preračunava sufiks reda od prve promjene i vraća id-eve kojima se plan promijenio
+         * (uključujući narudžbe bez m2 promijenjene kroz put).
+         */
+        public int[] replan() {
+            if (dirtyKey != Long.MAX_VALUE) {
+                int pos = lowerBound(queue, queueSize, dirtyKey);
+                int fromDay;
+                if (pos < queueSize) {
+                    // prvi stari element sufiksa je počeo na frontieru nakon prefiksa
+                    fromDay = allocStart[(int) (queue[pos] & ID_MASK)];
+                    truncateDays(fromDay, dirtyKey);
+                } else {
+                    fromDay = frontier;
+                }
+                rebuildQueueTail(pos);
+
+                int f = fromDay;
+                while (f < horizon && residual[f] <= EPS) f++;
+                for (int p = pos; p < queueSize; p++) {
+                    f = allocate((int) (queue[p] & ID_MASK), queue[p], f);
+                }
+                frontier = f;
+                dirtyKey = Long.MAX_VALUE;
+            }
+            int[] out = Arrays.copyOf(changed, changedSize);
+            for (int i = 0; i < changedSize; i++) changedMark[changed[i]] = false;
+            changedSize = 0;
+            return out;
+        }
+
+        /** Narudžba (ako je u redu) se izbacuje; njezin stari ključ postaje zastario. */
+        private void detach(int id) {
+            if (key[id] >= 0) {
+                dirtyKey = Math.min(dirtyKey, key[id]);
+                key[id] = -1;
+            }
+        }
+
+        private boolean isLive(long k) {
+            return key[(int) (k & ID_MASK)] == k;
+        }
+
+        /** Red od pos: živi stari ključevi + novi (pending), sortirano; prefiks ostaje netaknut. */
+        private void rebuildQueueTail(int pos) {
+            int tail = 0;
+            long[] buf = new long[queueSize - pos + pendingSize];
+            for (int p = pos; p < queueSize; p++) if (isLive(queue[p])) buf[tail++] = queue[p];
+            for (int i = 0; i < pendingSize; i++) if (isLive(pending[i])) buf[tail++] = pending[i];
+            pendingSize = 0;
+            Arrays.sort(buf, 0, tail);
+            // izmjena bez promjene ključa ostavlja stari i novi (isti) ključ - zadržava se jedan
+            int unique = 0;
+            for (int i = 0; i < tail; i++) {
+                if (unique == 0 || buf[unique - 1] != buf[i]) buf[unique++] = buf[i];
+            }
+            tail = unique;
+            if (queue.length < pos + tail) queue = Arrays.copyOf(queue, Math.max(pos + tail, queue.length * 2));
+            System.arraycopy(buf, 0, queue, pos, tail);
+            queueSize = pos + tail;
+        }
+
+        /** Od dana fromDay nadalje uklanja dodjele s ključem >= fromKey i ponovno računa ostatak dana. */
+        private void truncateDays(int fromDay, long fromKey) {
+            for (int d = fromDay; d < horizon; d++) {
+                int n = dayCount[d];
+                if (n == 0) {
+                    residual[d] = capacity[d];
+                    continue;
+                }
+                long[] keys = dayKeys[d];
+                double[] amounts = dayAmount[d];
+                int keep = lowerBound(keys, n, fromKey);
+                double r = capacity[d];
+                for (int i = 0; i < keep; i++) r -= amounts[i];
+                residual[d] = r;
+                dayCount[d] = keep;
+            }
+        }
+
+        /** Puni narudžbu od dana f; vraća novi frontier. */
+        private int allocate(int id, long k, int f) {
+            allocStart[id] = f;
+            double rem = m2[id];
+            int last = -1;
+            for (int d = f; rem > EPS && d < horizon; d++) {
+                double r = residual[d];
+                if (r <= EPS) continue;
+                double assign = Math.min(rem, Math.min(perOrderCap, r));
+                if (assign <= EPS) continue;
+                residual[d] = r - assign;
+                rem -= assign;
+                addEntry(d, k, assign);
+                last = d;
+            }
+            if (rem <= EPS && last >= 0) {
+                fallback[id] = false;
+                setPlanDay(id, todayDay + last);
+            } else {
+                fallback[id] = true;
+                setPlanDay(id, firstWorkingDayFrom(Math.max(earliest[id], todayDay)));
+            }
+            while (f < horizon && residual[f] <= EPS) f++;
+            return f;
+        }
+
+        private void addEntry(int d, long k, double amount) {
+            int n = dayCount[d];
+            if (dayKeys[d] == null) {
+                dayKeys[d] = new long[4];
+                dayAmount[d] = new double[4];
+            } else if (n == dayKeys[d].length) {
+                dayKeys[d] = Arrays.copyOf(dayKeys[d], n * 2);
+                dayAmount[d] = Arrays.copyOf(dayAmount[d], n * 2);
+            }
+            dayKeys[d][n] = k;
+            dayAmount[d][n] = amount;
+            dayCount[d] = n + 1;
+        }
+
+        private void setPlanDay(int id, long day) {
+            if (planDay[id] == day) return;
+            planDay[id] = day;
+            if (!changedMark[id]) {
+                changedMark[id] = true;
+                if (changedSize == changed.length) changed = Arrays.copyOf(changed, changedSize * 2);
+                changed[changedSize++] = id;
+            }
+        }
+
+        private long firstWorkingDayFrom(long from) {
+            long offset = from - todayDay;
+            for (long d = Math.max(0, offset); d < horizon; d++) {
+                if (capacity[(int) d] > EPS) return todayDay + d;
+            }
+            return firstWorkingDay(calendar, Math.max(from, todayDay + horizon));
+        }
+
+        private long makeKey(int id) {
+            return queueKey(id, priority[id], earliest[id], todayDay);
+        }
+
+        private void ensureId(int id) {
+            if (id < present.length) return;
+            int cap = Math.max(id + 1, Math.max(16, present.length * 2));
+            int old = present.length;
+            present = Arrays.copyOf(present, cap);
+            m2 = Arrays.copyOf(m2, cap);
+            earliest = Arrays.copyOf(earliest, cap);
+            priority = Arrays.copyOf(priority, cap);
+            key = Arrays.copyOf(key, cap);
+            planDay = Arrays.copyOf(planDay, cap);
+            allocStart = Arrays.copyOf(allocStart, cap);
+            fallback = Arrays.copyOf(fallback, cap);
+            changedMark = Arrays.copyOf(changedMark, cap);
+            Arrays.fill(key, old, cap, -1L);
+            Arrays.fill(planDay, old, cap, NO_PLAN);
+        }
+
+        private static int lowerBound(long[] a, int size, long value) {
+            int lo = 0, hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (a[mid] < value) lo = mid + 1; else hi = mid;
+            }
+            return lo;
+        }
+    }
+
+    /**
+     * Redoslijed reda (prioritet, najraniji dan, id) kao jedan long ključ: prioritet se ograničava
+     * na 16 bita, najraniji dan relativno prema danas (prošli dani = danas) na 23 bita, id na 24.
+     */
+    static long queueKey(int id, int priority, long earliestDay, long todayDay) {
+        long prio = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, priority)) - Short.MIN_VALUE;
+        long rel = Math.max(0, Math.min((1L << 23) - 1, earliestDay - todayDay));
+        return (prio << 47) | (rel << 24) | id;
+    }
+
+    /** Indeksi narudžbi (s m2 > 0) redom reda. */
+    static int[] queueOrder(Orders orders, long todayDay) {
+        long[] keys = new long[orders.size()];
+        int q = 0;
+        for (int i = 0; i < orders.size(); i++) {
+            if (orders.m2[i] > 0.0) keys[q++] = queueKey(i, orders.priority[i], orders.earliestDay[i], todayDay);
+        }
+        Arrays.sort(keys, 0, q);
+        int[] out = new int[q];
+        for (int k = 0; k < q; k++) out[k] = (int) (keys[k] & 0xFFFFFF);
+        return out;
+    }
+
+    private static void setPlan(Plan plan, int i, long day) {
+        plan.planDay[i] = day;
+        if (day != NO_PLAN && (plan.lastDay == NO_PLAN || day > plan.lastDay)) plan.lastDay = day;
+    }
+
+    /** Prvi dan >= from s kapacitetom > 0 (ako ga nema u MAX_DAYS_SEARCH dana, from). */
+    static long firstWorkingDay(CapacityCalendar calendar, long from) {
+        for (long d = from; d < from + MAX_DAYS_SEARCH; d++) {
+            if (calendar.capacityM2(d) > EPS) return d;
+        }
+        return from;
+    }
+}
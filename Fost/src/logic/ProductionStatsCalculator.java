@@ -173,8 +173,6 @@ public class ProductionStatsCalculator {
         if (idxM2 == -1) idxM2 = FALLBACK_M2;
         if (idxEndTime == -1) idxEndTime = FALLBACK_ENDTIME;
 
-        Map<LocalDate, Double> m2PoDanuIzradjeno = new HashMap<>();
-
         double totalKom = 0, totalM2 = 0, totalNeto = 0;
         double komIzr = 0, m2Izr = 0, netoIzr = 0;
         double komZai = 0, m2Zai = 0, netoZai = 0;
@@ -191,12 +189,6 @@ public class ProductionStatsCalculator {
 
             if (status.equals("izrađeno") || status.equals("izradeno") || status.equals("završeno") || status.equals("finished")) {
                 komIzr += kom; m2Izr += m2; netoIzr += neto;
-                // datum završetka ako postoji, inače predDatum
-                LocalDate datum = toDate(getModelValue(model, r, idxEndTime));
-                if (datum == null) datum = toDate(getModelValue(model, r, idxPredDatum));
-                if (datum != null && m2 > 0) {
-                    m2PoDanuIzradjeno.merge(datum, m2, Double::sum);
-                }
             } else {
                 // ZA IZRADITI
                 komZai += kom; m2Zai += m2; netoZai += neto;
@@ -219,7 +211,9 @@ public class ProductionStatsCalculator {
         // prosjek m2 po danu (fallback na m2PoSatu * 8h ako nema povijesti)
         final double radniSatiPoDanu = 8.0;
         double fallbackDaily = m2PoSatu * radniSatiPoDanu;
-        double prosjek = m2PoDanuIzradjeno.isEmpty() ? fallbackDaily : (m2Izr / m2PoDanuIzradjeno.size());
+        // izrađeno / broj dana proizvodnje - iz zajedničkog procjenitelja (bez dodatnog prolaza po danima)
+        double poDanuProizvodnje = CapacityEstimator.shared().estimate(model).getPerProductionDay();
+        double prosjek = poDanuProizvodnje > 0 ? poDanuProizvodnje : fallbackDaily;
         result.put(PROSJEK_M2_PO_DANU, prosjek);
 
         if (prosjek > 0) {
@@ -355,66 +349,33 @@ public class ProductionStatsCalculator {
         if (val instanceof LocalDate) return (LocalDate) val;
         String s = val.toString().trim();
         if (s.isEmpty()) return null;
-        DateTimeFormatter[] fmts = {
-                DateTimeFormatter.ofPattern("yyyy-MM-dd"),
-                DateTimeFormatter.ofPattern("dd.MM.yyyy"),
-                DateTimeFormatter.ofPattern("dd.MM.yyyy."),
-                DateTimeFormatter.ofPattern("dd/MM/yyyy"),
-                DateTimeFormatter.ofPattern("dd/MM/yy"),
-                DateTimeFormatter.ofPattern("d.M.yyyy"),
-                DateTimeFormatter.ofPattern("d.M.yyyy."),
-                DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"),
-                DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm"),
-                DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss")
-        };
-        for (DateTimeFormatter fmt : fmts) {
-            try {
-                return LocalDate.parse(s, fmt);
-            } catch (Exception ignored) {}
-        }
+        LocalDate d = DateScanner.parseDate(s);
+        if (d != null) return d;
         // final attempt: try to extract yyyy-MM-dd inside string
         try {
             int i = s.indexOf("20");
             if (i >= 0 && s.length() >= i + 10) {
-                String candidate = s.substring(i, i + 10);
-                return LocalDate.parse(candidate, DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+                return DateScanner.parseDate(s.substring(i, i + 10));
             }
         } catch (Exception ignored) {}
         return null;
     }
 
     // --- radni/dani helperi (zadržano zbog kompatibilnosti) ---
+    // radni dani preko WorkingDayCalendar indeksa (O(1), bez hodanja po kalendaru)
     private static LocalDate dateAfterWorkingDays(double wd) {
         if (wd <= 0) return LocalDate.now();
-        LocalDate today = LocalDate.now(); int total = 0; double work = 0;
-        while (work < wd) {
-            total++; LocalDate d = today.plusDays(total);
-            if (isWorkingDay(d)) work++;
-        }
-        return today.plusDays(total);
+        return WorkingDayCalendar.addWorkingDays(LocalDate.now(), (int) Math.ceil(wd));
     }
 
     private static double countCalendarDaysFromToday(double wd) {
         if (wd <= 0) return 0.0;
-        LocalDate today = LocalDate.now(); int total = 0; double work = 0;
-        while (work < wd) {
-            total++; LocalDate d = today.plusDays(total);
-            if (isWorkingDay(d)) work++;
-        }
-        return total;
+        LocalDate today = LocalDate.now();
+        return dateAfterWorkingDays(wd).toEpochDay() - today.toEpochDay();
     }
 
     public static int countWorkingDaysBetween(LocalDate start, LocalDate end) {
-        if (start == null || end == null || end.isBefore(start))
-            return 0;
-        int workingDays = 0;
-        LocalDate date = start;
-        while (!date.isAfter(end)) {
-            if (isWorkingDay(date))
-                workingDays++;
-            date = date.plusDays(1);
-        }
-        return workingDays;
+        return WorkingDayCalendar.workingDaysBetween(start, end);
     }
 
     public static int countCalendarDaysBetween(LocalDate start, LocalDate end) {
@@ -437,16 +398,7 @@ public class ProductionStatsCalculator {
     public static LocalDate calculatePlannedDeliveryDate(int workingDaysFromToday) {
         if (workingDaysFromToday <= 0)
             return LocalDate.now();
-        LocalDate today = LocalDate.now();
-        int totalDays = 0;
-        int workingDaysCounted = 0;
-        while (workingDaysCounted < workingDaysFromToday) {
-            totalDays++;
-            LocalDate date = today.plusDays(totalDays);
-            if (isWorkingDay(date))
-                workingDaysCounted++;
-        }
-        return today.plusDays(totalDays);
+        return WorkingDayCalendar.addWorkingDays(LocalDate.now(), workingDaysFromToday);
     }
 
     public static String calculateAndFormatPlannedDeliveryDate(DefaultTableModel model, double m2PoSatu) {
@@ -462,8 +414,7 @@ public class ProductionStatsCalculator {
     }
 
     private static boolean isWorkingDay(LocalDate d) {
-        Set<LocalDate> holidays = WorkingTimeCalculator.getHolidaysForYear(d.getYear());
-        return !(d.getDayOfWeek() == DayOfWeek.SATURDAY || d.getDayOfWeek() == DayOfWeek.SUNDAY || holidays.contains(d));
+        return WorkingDayCalendar.isWorkingDay(d);
     }
 
     // --- planiranje u okviru radnog vremena ---
@@ -479,16 +430,14 @@ public class ProductionStatsCalculator {
 
         // Ako nije radni dan -> sljedeći radni dan u 07:00
         if (!isWorkingDay(d)) {
-            d = d.plusDays(1);
-            while (!isWorkingDay(d)) d = d.plusDays(1);
+            d = WorkingDayCalendar.nextWorkingDay(d.plusDays(1));
             t = WORK_START;
             return LocalDateTime.of(d, t);
         }
 
         // Ako je izvan radnog prozora (>= 15:00) -> sljedeći radni dan u 07:00
         if (!t.isBefore(WORK_END)) {
-            d = d.plusDays(1);
-            while (!isWorkingDay(d)) d = d.plusDays(1);
+            d = WorkingDayCalendar.nextWorkingDay(d.plusDays(1));
             t = WORK_START;
             return LocalDateTime.of(d, t);
         }
@@ -496,42 +445,15 @@ public class ProductionStatsCalculator {
         // Pravilo 10:00 — ako je nakon 10:00 (strogo), prvi dan planirane isporuke je idući radni dan 07:00
         // Napomena: točno u 10:00 računa se s istim danom.
         if (t.isAfter(DELIVERY_CUTOFF)) {
-            d = d.plusDays(1);
-            while (!isWorkingDay(d)) d = d.plusDays(1);
+            d = WorkingDayCalendar.nextWorkingDay(d.plusDays(1));
             t = WORK_START;
         }
 
         return LocalDateTime.of(d, t);
     }
 
-    // Dodaje radne minute kroz kalendar (poštuje 07-15, vikende, blagdane)
+    // Dodaje radne minute kroz kalendar (poštuje 07-15, vikende, blagdane) - O(1) preko WorkingDayCalendar
     private static LocalDateTime addWorkingMinutes(LocalDateTime start, long minutes) {
-        LocalDateTime cur = normalizeStartToWorkingWindow(start);
-        long remaining = minutes;
-
-        while (remaining > 0) {
-            LocalDateTime dayEnd = LocalDateTime.of(cur.toLocalDate(), WORK_END);
-            long available = Math.max(0, ChronoUnit.MINUTES.between(cur, dayEnd));
-
-            if (available == 0) {
-                // Prelazak na sljedeći radni dan 07:00
-                LocalDate d = cur.toLocalDate().plusDays(1);
-                while (!isWorkingDay(d)) d = d.plusDays(1);
-                cur = LocalDateTime.of(d, WORK_START);
-                continue;
-            }
-
-            long used = Math.min(available, remaining);
-            cur = cur.plusMinutes(used);
-            remaining -= used;
-
-            if (remaining > 0) {
-                // Preskoči na sljedeći radni dan
-                LocalDate d = cur.toLocalDate().plusDays(1);
-                while (!isWorkingDay(d)) d = d.plusDays(1);
-                cur = LocalDateTime.of(d, WORK_START);
-            }
-        }
-        return cur;
+        return WorkingDayCalendar.addWorkingMinutes(normalizeStartToWorkingWindow(start), minutes);
     }
 }
\ No newline at end of file
@@ -0,0 +1,239 @@
+package logic;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Set;
+
+/**
+ * Indeks radnih dana (vikendi i blagdani iz WorkingTimeCalculator.HrHolidays) za O(1) računanje
+ * s radnim danima i radnim minutama.
+ *
+ * Za svaku godinu raspona [FIRST_YEAR, LAST_YEAR] drži se bitset radnih dana (bit = dan u godini)
+ * i prefiksni zbroj radnih dana do svakog dana; uz zbroj radnih dana prije 1.1. svake godine to
+ * daje rang (broj radnih dana prije datuma) u O(1). Popis svih radnih dana redom daje obrnuto:
+ * N-ti radni dan u O(1). Radni dan ima isto radno vrijeme (07:00-15:00), pa su radne minute
+ * prije datuma rang * DAY_MINUTES.
+ *
+ * Indeks se gradi jednom (lijeno, thread-safe) i nepromjenjiv je. Datumi izvan raspona
+ * računaju se kao prije, hodanjem po kalendaru.
+ */
+public final class WorkingDayCalendar {
+
+    /** Radno vrijeme (WorkingTimeCalculator računa radne minute preko ovog kalendara). */
+    public static final LocalTime WORK_START = LocalTime.of(7, 0);
+    public static final LocalTime WORK_END = LocalTime.of(15, 0);
+    public static final int DAY_MINUTES = 8 * 60;
+
+    static final int FIRST_YEAR = 1970;
+    static final int LAST_YEAR = 2100;
+
+    private static final long FIRST_DAY = LocalDate.of(FIRST_YEAR, 1, 1).toEpochDay();
+    private static final long END_DAY = LocalDate.of(LAST_YEAR + 1, 1, 1).toEpochDay(); // isključivo
+
+    private WorkingDayCalendar() {
+    }
+
+    private static final class Index {
+        static final Index INSTANCE = new Index();
+
+        /** Po godini: bit (dan u godini - 1) = radni dan. */
+        final long[][] yearBits = new long[LAST_YEAR - FIRST_YEAR + 1][];
+        /** Po godini: broj radnih dana u toj godini prije dana (dan u godini - 1). */
+        final short[][] yearPrefix = new short[LAST_YEAR - FIRST_YEAR + 1][];
+        /** Broj radnih dana od FIRST_DAY do 1.1. godine. */
+        final int[] yearFirstRank = new int[LAST_YEAR - FIRST_YEAR + 2];
+        /** Radni dani (epoch dan) redom; workingDays[rank] = rank-ti radni dan. */
+        final int[] workingDays;
+
+        private Index() {
+            int[] all = new int[(int) (END_DAY - FIRST_DAY)];
+            int rank = 0;
+            for (int y = FIRST_YEAR; y <= LAST_YEAR; y++) {
+                int yi = y - FIRST_YEAR;
+                int len = LocalDate.of(y, 1, 1).lengthOfYear();
+                long[] bits = new long[(len + 63) / 64];
+                short[] prefix = new short[len + 1];
+                Set<LocalDate> holidays = WorkingTimeCalculator.HrHolidays.forYear(y);
+                yearFirstRank[yi] = rank;
+                LocalDate d = LocalDate.of(y, 1, 1);
+                int inYear = 0;
+                for (int doy = 0; doy < len; doy++, d = d.plusDays(1)) {
+                    prefix[doy] = (short) inYear;
+                    DayOfWeek dow = d.getDayOfWeek();
+                    if (dow == DayOfWeek.SATURDAY || dow == DayOfWeek.SUNDAY || holidays.contains(d)) continue;
+                    bits[doy >>> 6] |= 1L << doy;
+                    all[rank++] = (int) d.toEpochDay();
+                    inYear++;
+                }
+                prefix[len] = (short) inYear;
+                yearBits[yi] = bits;
+                yearPrefix[yi] = prefix;
+            }
+            yearFirstRank[LAST_YEAR - FIRST_YEAR + 1] = rank;
+            workingDays = java.util.Arrays.copyOf(all, rank);
+        }
+
+        boolean isWorking(LocalDate d) {
+            int doy = d.getDayOfYear() - 1;
+            return (yearBits[d.getYear() - FIRST_YEAR][doy >>> 6] & (1L << doy)) != 0;
+        }
+
+        /** Broj radnih dana prije d (d u rasponu ili točno END_DAY). */
+        int rank(LocalDate d) {
+            int y = d.getYear();
+            if (y > LAST_YEAR) return yearFirstRank[LAST_YEAR - FIRST_YEAR + 1];
+            return yearFirstRank[y - FIRST_YEAR] + yearPrefix[y - FIRST_YEAR][d.getDayOfYear() - 1];
+        }
+    }
+
+    private static boolean inRange(LocalDate d) {
+        long e = d.toEpochDay();
+        return e >= FIRST_DAY && e < END_DAY;
+    }
+
+    // ===== radni dani =====
+
+    public static boolean isWorkingDay(LocalDate d) {
+        if (d == null) return false;
+        if (inRange(d)) return Index.INSTANCE.isWorking(d);
+        DayOfWeek dow = d.getDayOfWeek();
+        if (dow == DayOfWeek.SATURDAY || dow == DayOfWeek.SUNDAY) return false;
+        return !WorkingTimeCalculator.getHolidaysForYear(d.getYear()).contains(d);
+    }
+
+    /** Broj radnih dana u [start, end] (oba uključena); 0 ako je end prije start. */
+    public static int workingDaysBetween(LocalDate start, LocalDate end) {
+        if (start == null || end == null || end.isBefore(start)) return 0;
+        LocalDate endExcl = end.plusDays(1);
+        if (inRange(start) && (inRange(endExcl) || endExcl.toEpochDay() == END_DAY)) {
+            Index ix = Index.INSTANCE;
+            return ix.rank(endExcl) - ix.rank(start);
+        }
+        int n = 0;
+        for (LocalDate d = start; !d.isAfter(end); d = d.plusDays(1)) if (isWorkingDay(d)) n++;
+        return n;
+    }
+
+    /** Prvi radni dan >= d. */
+    public static LocalDate nextWorkingDay(LocalDate d) {
+        if (d == null) return null;
+        if (inRange(d)) {
+            Index ix = Index.INSTANCE;
+            int r = ix.rank(d);
+            if (r < ix.workingDays.length) return LocalDate.ofEpochDay(ix.workingDays[r]);
+        }
+        LocalDate x = d;
+        while (!isWorkingDay(x)) x = x.plusDays(1);
+        return x;
+    }
+
+    /**
+     * n-ti radni dan nakon start (start se ne broji); n <= 0 vraća start.
+     * Npr. addWorkingDays(petak, 1) = ponedjeljak (ako nije blagdan).
+     */
+    public static LocalDate addWorkingDays(LocalDate start, int n) {
+        if (start == null) return null;
+        if (n <= 0) return start;
+        LocalDate next = start.plusDays(1);
+        if (inRange(next)) {
+            Index ix = Index.INSTANCE;
+            long target = (long) ix.rank(next) + n - 1;
+            if (target < ix.workingDays.length) return LocalDate.ofEpochDay(ix.workingDays[(int) target]);
+        }
+        LocalDate d = start;
+        int added = 0;
+        while (added < n) {
+            d = d.plusDays(1);
+            if (isWorkingDay(d)) added++;
+        }
+        return d;
+    }
+
+    /**
+     * n-ti radni dan prije start (start se ne broji); n <= 0 vraća start.
+     * Npr. minusWorkingDays(ponedjeljak, 1) = petak (ako nije blagdan).
+     */
+    public static LocalDate minusWorkingDays(LocalDate start, int n) {
+        if (start == null) return null;
+        if (n <= 0) return start;
+        if (inRange(start) || start.toEpochDay() == END_DAY) {
+            Index ix = Index.INSTANCE;
+            long target = (long) ix.rank(start) - n;
+            if (target >= 0) return LocalDate.ofEpochDay(ix.workingDays[(int) target]);
+        }
+        LocalDate d = start;
+        int removed = 0;
+        while (removed < n) {
+            d = d.minusDays(1);
+            if (isWorkingDay(d)) removed++;
+        }
+        return d;
+    }
+
+    /**
+     * Redni broj radnog dana: broj radnih dana od 1.1.FIRST_YEAR prije d. Za neradni dan isto kao
+     * za prvi idući radni dan. Samo za datume iz raspona indeksa.
+     */
+    public static int ordinal(LocalDate d) {
+        if (!inRange(d)) throw new IllegalArgumentException("Datum izvan raspona kalendara radnih dana: " + d);
+        return Index.INSTANCE.rank(d);
+    }
+
+    /** Radni dan s rednim brojem ordinal (obrnuto od ordinal(LocalDate)). */
+    public static LocalDate workingDayAt(int ordinal) {
+        int[] days = Index.INSTANCE.workingDays;
+        if (ordinal < 0 || ordinal >= days.length) {
+            throw new IllegalArgumentException("Redni broj radnog dana izvan raspona: " + ordinal);
+        }
+        return LocalDate.ofEpochDay(days[ordinal]);
+    }
+
+    // ===== radne minute (07:00-15:00) =====
+
+    /**
+     * Radne minute u [start, end) - isto kao nekadašnja petlja po danima u
+     * WorkingTimeCalculator.calculateWorkingMinutes (minute po danu zaokružene nadolje), ali bez petlje.
+     */
+    public static long workingMinutesBetween(LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null || !end.isAfter(start)) return 0L;
+        LocalDate startDate = start.toLocalDate();
+        LocalDate endDate = end.toLocalDate();
+        int ws = WORK_START.toSecondOfDay(), we = WORK_END.toSecondOfDay();
+        int startSec = start.toLocalTime().toSecondOfDay(), endSec = end.toLocalTime().toSecondOfDay();
+        if (startDate.equals(endDate)) {
+            if (!isWorkingDay(startDate)) return 0L;
+            return Math.max(0, Math.min(endSec, we) - Math.max(startSec, ws)) / 60;
+        }
+        long total = 0L;
+        if (isWorkingDay(startDate)) total += Math.max(0, we - Math.max(startSec, ws)) / 60;
+        if (isWorkingDay(endDate)) total += Math.max(0, Math.min(endSec, we) - ws) / 60;
+        total += (long) workingDaysBetween(startDate.plusDays(1), endDate.minusDays(1)) * DAY_MINUTES;
+        return total;
+    }
+
+    /**
+     * Kraj rada od minutes radnih minuta počevši od start. Start se prvo pomiče u radno vrijeme
+     * (prije 07:00 -> 07:00; neradni dan ili od 15:00 -> idući radni dan 07:00). Posao koji točno
+     * popuni dan završava u 15:00 tog dana; nepotpuna minuta do 15:00 se ne koristi.
+     */
+    public static LocalDateTime addWorkingMinutes(LocalDateTime start, long minutes) {
+        if (start == null) return null;
+        LocalDateTime cur = start;
+        if (cur.toLocalTime().isBefore(WORK_START)) cur = LocalDateTime.of(cur.toLocalDate(), WORK_START);
+        if (!isWorkingDay(cur.toLocalDate()) || !cur.toLocalTime().isBefore(WORK_END)) {
+            cur = LocalDateTime.of(nextWorkingDay(cur.toLocalDate().plusDays(1)), WORK_START);
+        }
+        if (minutes <= 0) return cur;
+
+        long firstDay = (WORK_END.toSecondOfDay() - cur.toLocalTime().toSecondOfDay()) / 60;
+        if (minutes <= firstDay) return cur.plusMinutes(minutes);
+
+        long rest = minutes - firstDay;
+        long fullDays = (rest - 1) / DAY_MINUTES; // potpuno popunjeni dani nakon prvog
+        long intoLast = rest - fullDays * DAY_MINUTES;
+        LocalDate last = addWorkingDays(cur.toLocalDate(), (int) Math.min(Integer.MAX_VALUE, fullDays + 1));
+        return LocalDateTime.of(last, WORK_START).plusMinutes(intoLast);
+    }
+}
@@ -0,0 +1,286 @@
+package model;
+
+import javax.swing.table.DefaultTableModel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Vector;
+
+/**
+ * DefaultTableModel koji prati promjene po redu (za inkrementalno spremanje u bazu).
+ *
+ * - Svaki red učitan iz baze nosi ključ (rowid/id) koji nije vidljiv kao kolona.
+ * - Novi redovi (addRow/insertRow) bez ključa = INSERT.
+ * - Promijenjeni redovi s ključem = UPDATE.
+ * - Obrisani redovi s ključem = DELETE.
+ *
+ * Redovi se prate po identitetu (Vector iz dataVector-a), pa sortiranje/pomicanje
+ * i brisanje drugih redova ne kvare evidenciju.
+ */
+public class DirtyTrackingTableModel extends DefaultTableModel {
+    private static final long serialVersionUID = 1L;
+
+    // NB: DefaultTableModel konstruktor poziva setDataVector/setRowCount prije inicijalizacije polja,
+    // zato su polja lazy (vidi state()).
+    private transient Tracking tracking;
+
+    public DirtyTrackingTableModel(Object[] columnNames, int rowCount) {
+        super(columnNames, rowCount);
+    }
+
+    private static final class Tracking {
+        final Map<Vector<?>, Long> keyByRow = new IdentityHashMap<>();
+        final Set<Vector<?>> inserted = Collections.newSetFromMap(new IdentityHashMap<>());
+        final Set<Vector<?>> updated = Collections.newSetFromMap(new IdentityHashMap<>());
+        final Set<Long> deletedKeys = new LinkedHashSet<>();
+        final Set<Integer> untrackedColumns = new LinkedHashSet<>();
+        boolean suspended = false;
+    }
+
+    private Tracking state() {
+        if (tracking == null) tracking = new Tracking();
+        return tracking;
+    }
+
+    // ===== Učitavanje iz baze =====
+
+    /** Dodaje red koji već postoji u bazi (ne označava se kao promjena). */
+    public void addPersistedRow(Object[] rowData, long key) {
+        Tracking t = state();
+        boolean old = t.suspended;
+        t.suspended = true;
+        try {
+            addRow(rowData);
+        } finally {
+            t.suspended = old;
+        }
+        t.keyByRow.put(rowVector(getRowCount() - 1), key);
+    }
+
+    /**
+     * Dodaje više redova iz baze odjednom - jedan fireTableRowsInserted umjesto događaja po redu.
+     * keys.get(i) je ključ reda rows.get(i).
+     */
+    @SuppressWarnings("unchecked")
+    public void addPersistedRows(List<Object[]> rows, List<Long> keys) {
+        if (rows.isEmpty()) return;
+        Tracking t = state();
+        Vector<Vector<Object>> data = (Vector<Vector<Object>>) (Vector<?>) getDataVector();
+        int first = data.size();
+        int cols = getColumnCount();
+        data.ensureCapacity(first + rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            Object[] src = rows.get(i);
+            Vector<Object> v = new Vector<>(cols);
+            for (int c = 0; c < cols; c++) v.add(c < src.length ? src[c] : null);
+            data.add(v);
+            t.keyByRow.put(v, keys.get(i));
+        }
+        fireTableRowsInserted(first, data.size() - 1);
+    }
+
+    /**
+     * Dodaje više novih redova (INSERT pri spremanju) odjednom - jedan fireTableRowsInserted
+     * za cijeli blok umjesto događaja (i presortiranja) po redu.
+     */
+    @SuppressWarnings("unchecked")
+    public void addRows(List<Object[]> rows) {
+        if (rows.isEmpty()) return;
+        Tracking t = state();
+        Vector<Vector<Object>> data = (Vector<Vector<Object>>) (Vector<?>) getDataVector();
+        int first = data.size();
+        int cols = getColumnCount();
+        data.ensureCapacity(first + rows.size());
+        for (Object[] src : rows) {
+            Vector<Object> v = new Vector<>(cols);
+            for (int col = 0; col < cols; col++) v.add(col < src.length ? src[col] : null);
+            data.add(v);
+            if (!t.suspended) t.inserted.add(v);
+        }
+        fireTableRowsInserted(first, data.size() - 1);
+    }
+
+    /** Briše sve redove bez evidentiranja brisanja (prije ponovnog učitavanja iz baze). */
+    public void clearWithoutTracking() {
+        Tracking t = state();
+        boolean old = t.suspended;
+        t.suspended = true;
+        try {
+            setRowCount(0);
+        } finally {
+            t.suspended = old;
+        }
+        markClean();
+    }
+
+    /** Kolone čije promjene ne treba spremati (npr. izračunate/neperzistirane kolone). */
+    public void setUntrackedColumns(int... modelColumns) {
+        Tracking t = state();
+        t.untrackedColumns.clear();
+        for (int c : modelColumns) t.untrackedColumns.add(c);
+    }
+
+    // ===== Evidencija promjena =====
+
+    @Override
+    public void insertRow(int row, Vector<?> rowData) {
+        super.insertRow(row, rowData);
+        Tracking t = state();
+        if (!t.suspended) t.inserted.add(rowVector(row));
+    }
+
+    @Override
+    public void removeRow(int row) {
+        Vector<?> v = rowVector(row);
+        super.removeRow(row);
+        forget(v);
+    }
+
+    @Override
+    public void setRowCount(int rowCount) {
+        int old = getRowCount();
+        if (rowCount < old) {
+            List<Vector<?>> removed = new ArrayList<>();
+            for (int r = rowCount; r < old; r++) removed.add(rowVector(r));
+            super.setRowCount(rowCount);
+            for (Vector<?> v : removed) forget(v);
+        } else {
+            super.setRowCount(rowCount);
+            Tracking t = state();
+            if (!t.suspended) {
+                for (int r = old; r < rowCount; r++) t.inserted.add(rowVector(r));
+            }
+        }
+    }
+
+    // tip prvog parametra je isti kao u DefaultTableModel (Vector<?> ne bi bio override)
+    @SuppressWarnings("rawtypes")
+    @Override
+    public void setDataVector(Vector<? extends Vector> dataVector, Vector<?> columnIdentifiers) {
+        // potpuna zamjena podataka: svi dosadašnji ključevi se brišu, novi redovi su INSERT
+        Tracking t = state();
+        if (!t.suspended) {
+            t.deletedKeys.addAll(t.keyByRow.values());
+        }
+        t.keyByRow.clear();
+        t.inserted.clear();
+        t.updated.clear();
+        super.setDataVector(dataVector, columnIdentifiers);
+        if (!t.suspended) {
+            for (int r = 0; r < getRowCount(); r++) t.inserted.add(rowVector(r));
+        }
+    }
+
+    @Override
+    public void setValueAt(Object aValue, int row, int column) {
+        Object old = getValueAt(row, column);
+        super.setValueAt(aValue, row, column);
+        Tracking t = state();
+        if (t.suspended || Objects.equals(old, aValue) || t.untrackedColumns.contains(column)) return;
+        Vector<?> v = rowVector(row);
+        if (t.keyByRow.containsKey(v)) t.updated.add(v);
+    }
+
+    /**
+     * Postavlja vrijednosti jedne kolone za više redova odjednom - jedan fireTableRowsUpdated
+     * za raspon umjesto događaja po ćeliji. Redovi su zadani identitetom (element getDataVector()),
+     * pa rezultat izračunat izvan EDT-a ide u prave redove i ako su se redovi u međuvremenu
+     * pomaknuli; redovi kojih više nema se preskaču.
+     *
+     * @return broj postavljenih ćelija
+     */
+    @SuppressWarnings("unchecked")
+    public int setColumnValues(int column, List<?> rows, List<?> values) {
+        if (rows.isEmpty()) return 0;
+        Map<Object, Object> byRow = new IdentityHashMap<>(rows.size() * 2);
+        for (int i = 0; i < rows.size(); i++) byRow.put(rows.get(i), values.get(i));
+
+        Tracking t = state();
+        boolean track = !t.suspended && !t.untrackedColumns.contains(column);
+        Vector<Vector<Object>> data = (Vector<Vector<Object>>) (Vector<?>) getDataVector();
+        int first = -1, last = -1, set = 0;
+        for (int r = 0; r < data.size() && set < byRow.size(); r++) {
+            Vector<Object> v = data.get(r);
+            if (!byRow.containsKey(v)) continue;
+            Object value = byRow.get(v);
+            Object old = v.get(column);
+            set++;
+            if (Objects.equals(old, value)) continue;
+            v.set(column, value);
+            if (track && t.keyByRow.containsKey(v)) t.updated.add(v);
+            if (first < 0) first = r;
+            last = r;
+        }
+        if (first >= 0) fireTableRowsUpdated(first, last);
+        return set;
+    }
+
+    private void forget(Vector<?> v) {
+        Tracking t = state();
+        Long key = t.keyByRow.remove(v);
+        t.inserted.remove(v);
+        t.updated.remove(v);
+        if (key != null && !t.suspended) t.deletedKeys.add(key);
+    }
+
+    private Vector<?> rowVector(int row) {
+        return (Vector<?>) getDataVector().get(row);
+    }
+
+    // ===== API za spremanje =====
+
+    public boolean hasChanges() {
+        Tracking t = state();
+        return !t.inserted.isEmpty() || !t.updated.isEmpty() || !t.deletedKeys.isEmpty();
+    }
+
+    /** Indeksi (model) novih redova, u redoslijedu modela. */
+    public List<Integer> getInsertedRows() {
+        return rowsIn(state().inserted);
+    }
+
+    /** Indeksi (model) promijenjenih redova koji već postoje u bazi. */
+    public List<Integer> getUpdatedRows() {
+        return rowsIn(state().updated);
+    }
+
+    public Set<Long> getDeletedKeys() {
+        return Collections.unmodifiableSet(new LinkedHashSet<>(state().deletedKeys));
+    }
+
+    /** Ključ reda u bazi ili null ako red još nije spremljen. */
+    public Long getRowKey(int row) {
+        return state().keyByRow.get(rowVector(row));
+    }
+
+    /** Postavlja ključ (nakon INSERT-a). Red prestaje biti "novi". */
+    public void assignRowKey(int row, long key) {
+        Tracking t = state();
+        Vector<?> v = rowVector(row);
+        t.keyByRow.put(v, key);
+        t.inserted.remove(v);
+    }
+
+    /** Poziva se nakon uspješnog commit-a: sve promjene su spremljene. */
+    public void markClean() {
+        Tracking t = state();
+        t.inserted.clear();
+        t.updated.clear();
+        t.deletedKeys.clear();
+    }
+
+    private List<Integer> rowsIn(Set<Vector<?>> set) {
+        List<Integer> out = new ArrayList<>();
+        if (set.isEmpty()) return out;
+        Vector<?> data = getDataVector();
+        for (int r = 0; r < data.size(); r++) {
+            if (set.contains(data.get(r))) out.add(r);
+        }
+        return out;
+    }
+}
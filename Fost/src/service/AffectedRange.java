@@ -0,0 +1,72 @@
+package service;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Opseg podataka koje je jedan uvoz promijenio: šifre artikala i (za prodaju) raspon datuma.
+ * Puni ga servis za uvoz dok upisuje, a UI po njemu odlučuje treba li osvježiti prikaz.
+ * Broj preskočenih stavki (skipped > 0) znači da datoteka nije uvezena cijela.
+ * Nije thread-safe - jedan uvoz, jedna instanca.
+ */
+public class AffectedRange {
+
+    private final Set<String> productCodes = new LinkedHashSet<>();
+    private LocalDate from;
+    private LocalDate to;
+    private int skipped;
+
+    public void add(String productCode) {
+        if (productCode != null) productCodes.add(productCode);
+    }
+
+    public void add(String productCode, LocalDate date) {
+        add(productCode);
+        if (date == null) return;
+        if (from == null || date.isBefore(from)) from = date;
+        if (to == null || date.isAfter(to)) to = date;
+    }
+
+    /** Stavke koje uvoz nije upisao (npr. artikl ne postoji) - datoteku treba ponovno uvesti. */
+    public void addSkipped(int count) {
+        skipped += Math.max(0, count);
+    }
+
+    public int getSkipped() { return skipped; }
+
+    public void addAll(AffectedRange other) {
+        if (other == null) return;
+        productCodes.addAll(other.productCodes);
+        skipped += other.skipped;
+        if (other.from != null) add(null, other.from);
+        if (other.to != null) add(null, other.to);
+    }
+
+    public Set<String> getProductCodes() {
+        return Collections.unmodifiableSet(productCodes);
+    }
+
+    /** Najraniji datum (null ako uvoz nije vezan uz datume). */
+    public LocalDate getFrom() { return from; }
+
+    /** Najkasniji datum (null ako uvoz nije vezan uz datume). */
+    public LocalDate getTo() { return to; }
+
+    public boolean isEmpty() {
+        return productCodes.isEmpty() && from == null;
+    }
+
+    /** Presijeca li raspon datuma zadani period; uvoz bez datuma presijeca svaki period. */
+    public boolean overlaps(LocalDate periodFrom, LocalDate periodTo) {
+        if (from == null) return true;
+        return (periodTo == null || !from.isAfter(periodTo)) && (periodFrom == null || !to.isBefore(periodFrom));
+    }
+
+    @Override
+    public String toString() {
+        return "artikala=" + productCodes.size() + (from != null ? ", datumi " + from + " .. " + to : "")
+                + (skipped > 0 ? ", preskočeno=" + skipped : "");
+    }
+}
@@ -0,0 +1,361 @@
+package service;
+
+import excel.ExcelHeaderReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Automatski uvoz Excel datoteka ubačenih u "drop" mape (java.nio.file.WatchService).
+ *
+ * Tijek:
+ *  - watch dretva bilježi CREATE/MODIFY događaje (i datoteke zatečene u mapi pri startu),
+ *  - debounce: datoteka se uvozi tek kad se debounceMillis nije mijenjala, kad su joj veličina i mtime
+ *    isti u dvije provjere i kad se može otvoriti za pisanje (Excel/kopiranje je više ne drži),
+ *  - vrsta datoteke (prodaja / artikli / stanje) se prepoznaje po headeru (ExcelHeaderReader),
+ *  - uvoz radi registrirani FileImporter na ograničenom poolu (threads + queueCapacity),
+ *  - uspješno uvezena datoteka se premješta u <mapa>/arhiva/yyyy-MM/, neuspjela u <mapa>/neuspjelo/;
+ *    datoteka s preskočenim stavkama (AffectedRange.getSkipped() > 0) nije uvezena cijela i ide u
+ *    neuspjelo/, da se nakon ispravka (npr. kreiranja artikala) ponovno ubaci i uveze,
+ *  - Listener dobiva AffectedRange (šifre i datumi) - UI osvježava samo ako se tiče prikaza.
+ *
+ * Listener se poziva iz dretve koja je radila uvoz (UI sam prebacuje na EDT).
+ */
+public class FolderWatchImportService implements AutoCloseable {
+
+    public enum Kind { SALES, PRODUCTS, STOCK }
+
+    /** Uvoz jedne datoteke prepoznate vrste. */
+    @FunctionalInterface
+    public interface FileImporter {
+        List<String> importFile(File file, AffectedRange affected) throws Exception;
+    }
+
+    public interface Listener {
+        void onImported(File archived, Kind kind, AffectedRange affected, List<String> messages);
+        void onFailed(File file, Exception error);
+    }
+
+    private static final DateTimeFormatter ARCHIVE_MONTH = DateTimeFormatter.ofPattern("yyyy-MM");
+    private static final DateTimeFormatter ARCHIVE_SUFFIX = DateTimeFormatter.ofPattern("HHmmss");
+
+    private final List<Path> folders = new ArrayList<>();
+    private final Map<Kind, FileImporter> importers = new EnumMap<>(Kind.class);
+    private String archiveDirName = "arhiva";
+    private String failedDirName = "neuspjelo";
+    private long debounceMillis = 2000;
+    private int threads = 2;
+    private int queueCapacity = 16;
+    private boolean debug = false;
+    private Listener listener;
+
+    // putanja -> stanje čekanja (debounce); pristup samo pod lock-om na pending
+    private final Map<Path, Pending> pending = new HashMap<>();
+    private final Set<Path> inFlight = ConcurrentHashMap.newKeySet();
+
+    private WatchService watcher;
+    private final Map<WatchKey, Path> keys = new HashMap<>();
+    private Thread watchThread;
+    private ScheduledExecutorService scheduler;
+    private ThreadPoolExecutor pool;
+    private volatile boolean running = false;
+
+    private static final class Pending {
+        long lastEvent;
+        long size = -1;
+        long mtime = -1;
+
+        Pending(long now) {
+            this.lastEvent = now;
+        }
+    }
+
+    /* ------------------ Konfiguracija ------------------ */
+
+    public FolderWatchImportService watch(Path folder) {
+        folders.add(folder.toAbsolutePath().normalize());
+        return this;
+    }
+
+    public FolderWatchImportService withImporter(Kind kind, FileImporter importer) {
+        importers.put(kind, importer);
+        return this;
+    }
+
+    public FolderWatchImportService withArchiveDirName(String name) {
+        this.archiveDirName = name;
+        return this;
+    }
+
+    public FolderWatchImportService withFailedDirName(String name) {
+        this.failedDirName = name;
+        return this;
+    }
+
+    public FolderWatchImportService withDebounceMillis(long millis) {
+        this.debounceMillis = Math.max(100, millis);
+        return this;
+    }
+
+    /** Broj dretvi za uvoz i najviše datoteka u redu čekanja (višak čeka u debounce mapi). */
+    public FolderWatchImportService withThreads(int threads, int queueCapacity) {
+        this.threads = Math.max(1, threads);
+        this.queueCapacity = Math.max(1, queueCapacity);
+        return this;
+    }
+
+    public FolderWatchImportService withListener(Listener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    public FolderWatchImportService enableDebug(boolean enable) {
+        this.debug = enable;
+        return this;
+    }
+
+    /* ------------------ Start / stop ------------------ */
+
+    public synchronized void start() throws IOException {
+        if (running) return;
+        if (folders.isEmpty()) throw new IllegalStateException("Nije zadana nijedna mapa za praćenje");
+        watcher = FileSystems.getDefault().newWatchService();
+        for (Path folder : folders) {
+            Files.createDirectories(folder);
+            keys.put(folder.register(watcher, ENTRY_CREATE, ENTRY_MODIFY), folder);
+        }
+        pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemonFactory("folder-import"));
+        scheduler = Executors.newSingleThreadScheduledExecutor(daemonFactory("folder-import-debounce"));
+        running = true;
+
+        // datoteke ubačene dok aplikacija nije radila
+        for (Path folder : folders) rescan(folder);
+
+        long tick = Math.max(100, debounceMillis / 2);
+        scheduler.scheduleWithFixedDelay(this::checkPending, tick, tick, TimeUnit.MILLISECONDS);
+
+        watchThread = new Thread(this::watchLoop, "folder-import-watch");
+        watchThread.setDaemon(true);
+        watchThread.start();
+        System.out.println("FolderWatchImportService: prati " + folders);
+    }
+
+    /**
+     * Zaustavlja praćenje bez čekanja (smije se zvati s EDT-a): nove datoteke se više ne primaju,
+     * a uvozi koji su već u tijeku ili u redu završavaju na svojim (daemon) dretvama.
+     */
+    @Override
+    public synchronized void close() {
+        if (!running) return;
+        running = false;
+        try {
+            watcher.close();
+        } catch (IOException ignored) {
+        }
+        scheduler.shutdownNow();
+        pool.shutdown();
+    }
+
+    /* ------------------ Watch + debounce ------------------ */
+
+    private void watchLoop() {
+        while (running) {
+            WatchKey key;
+            try {
+                key = watcher.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            Path folder = keys.get(key);
+            if (folder != null) {
+                for (WatchEvent<?> ev : key.pollEvents()) {
+                    if (ev.kind() == OVERFLOW) {
+                        rescan(folder);
+                        continue;
+                    }
+                    Path file = folder.resolve((Path) ev.context());
+                    if (isCandidate(file)) touch(file);
+                }
+            }
+            if (!key.reset()) keys.remove(key);
+        }
+    }
+
+    private void rescan(Path folder) {
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(folder)) {
+            for (Path file : ds) {
+                if (isCandidate(file)) touch(file);
+            }
+        } catch (IOException e) {
+            System.out.println("FolderWatchImportService: ne mogu pročitati mapu " + folder + ": " + e.getMessage());
+        }
+    }
+
+    private void touch(Path file) {
+        long now = System.currentTimeMillis();
+        synchronized (pending) {
+            Pending p = pending.get(file);
+            if (p == null) pending.put(file, new Pending(now));
+            else p.lastEvent = now;
+        }
+    }
+
+    private void checkPending() {
+        long now = System.currentTimeMillis();
+        List<Path> ready = new ArrayList<>();
+        synchronized (pending) {
+            for (Iterator<Map.Entry<Path, Pending>> it = pending.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<Path, Pending> e = it.next();
+                Path file = e.getKey();
+                Pending p = e.getValue();
+                if (now - p.lastEvent < debounceMillis) continue;
+                if (!Files.isRegularFile(file)) {
+                    it.remove(); // obrisana ili premještena prije uvoza
+                    continue;
+                }
+                long size, mtime;
+                try {
+                    size = Files.size(file);
+                    mtime = Files.getLastModifiedTime(file).toMillis();
+                } catch (IOException ex) {
+                    continue;
+                }
+                if (size != p.size || mtime != p.mtime || size == 0) {
+                    // još se piše - pričekaj sljedeću provjeru
+                    p.size = size;
+                    p.mtime = mtime;
+                    p.lastEvent = now;
+                    continue;
+                }
+                if (inFlight.contains(file) || !isWritable(file)) continue;
+                ready.add(file);
+            }
+        }
+        for (Path file : ready) {
+            inFlight.add(file);
+            try {
+                pool.execute(() -> process(file));
+            } catch (RejectedExecutionException full) {
+                // pool je pun - datoteka ostaje u pending i pokušava se u sljedećem krugu
+                inFlight.remove(file);
+                continue;
+            }
+            synchronized (pending) {
+                pending.remove(file);
+            }
+        }
+    }
+
+    /** Može li se datoteka zaključati za pisanje (nitko je više ne drži otvorenom). */
+    private static boolean isWritable(Path file) {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileLock lock = ch.tryLock()) {
+            return lock != null;
+        } catch (IOException | OverlappingFileLockException e) {
+            return false;
+        }
+    }
+
+    private boolean isCandidate(Path file) {
+        String name = file.getFileName().toString();
+        String lower = name.toLowerCase(Locale.ROOT);
+        if (name.startsWith("~$") || name.startsWith(".")) return false; // Excel lock / skrivene datoteke
+        if (!(lower.endsWith(".xlsx") || lower.endsWith(".xlsm") || lower.endsWith(".xls"))) return false;
+        return Files.isRegularFile(file);
+    }
+
+    /* ------------------ Uvoz ------------------ */
+
+    private void process(Path file) {
+        try {
+            Kind kind = detectKind(file.toFile());
+            if (kind == null) throw new IllegalStateException("Nepoznata vrsta datoteke (header): " + file.getFileName());
+            FileImporter importer = importers.get(kind);
+            if (importer == null) throw new IllegalStateException("Nema uvoza za vrstu " + kind + ": " + file.getFileName());
+
+            long t0 = System.currentTimeMillis();
+            AffectedRange affected = new AffectedRange();
+            List<String> messages = importer.importFile(file.toFile(), affected);
+            // upisani dio ostaje, ali datoteka nije uvezena cijela - ne arhivira se
+            Path dir = affected.getSkipped() > 0
+                    ? file.getParent().resolve(failedDirName)
+                    : file.getParent().resolve(archiveDirName).resolve(LocalDate.now().format(ARCHIVE_MONTH));
+            Path archived = moveTo(file, dir);
+            if (debug) {
+                System.out.println("FolderWatchImportService: " + kind + " " + file.getFileName() + " -> " + affected
+                        + " (" + (System.currentTimeMillis() - t0) + " ms)");
+            }
+            if (listener != null) listener.onImported(archived.toFile(), kind, affected, messages == null ? List.of() : messages);
+        } catch (Exception ex) {
+            System.out.println("FolderWatchImportService: uvoz nije uspio " + file + ": " + ex.getMessage());
+            ex.printStackTrace();
+            Path failed = file;
+            try {
+                if (Files.exists(file)) failed = moveTo(file, file.getParent().resolve(failedDirName));
+            } catch (IOException moveEx) {
+                moveEx.printStackTrace();
+            }
+            if (listener != null) listener.onFailed(failed.toFile(), ex);
+        } finally {
+            inFlight.remove(file);
+        }
+    }
+
+    /**
+     * Vrsta po headeru prvog sheeta:
+     *  - prodaja: Datum + (Tip dok. / Br. dok. / Neto vrijednost),
+     *  - artikli: Šifra + (Dobavljač / Glavna vrsta / Grupe),
+     *  - stanje:  Šifra + Količina.
+     */
+    public static Kind detectKind(File file) throws Exception {
+        Set<String> h = ExcelHeaderReader.readNormalizedHeader(file);
+        if (h.contains("datum") && (h.contains("tipdok") || h.contains("brdok") || h.contains("netovrijednost"))) {
+            return Kind.SALES;
+        }
+        boolean code = h.contains("sifra") || h.contains("sifraartikla");
+        if (code && (h.contains("dobavljac") || h.contains("glavnavrsta") || h.contains("grupe"))) {
+            return Kind.PRODUCTS;
+        }
+        if (code && (h.contains("kolicina") || h.contains("kol"))) {
+            return Kind.STOCK;
+        }
+        return null;
+    }
+
+    private static Path moveTo(Path file, Path dir) throws IOException {
+        Files.createDirectories(dir);
+        Path target = dir.resolve(file.getFileName());
+        if (Files.exists(target)) {
+            String name = file.getFileName().toString();
+            int dot = name.lastIndexOf('.');
+            String suffix = "_" + LocalTime.now().format(ARCHIVE_SUFFIX);
+            target = dir.resolve(dot > 0 ? name.substring(0, dot) + suffix + name.substring(dot) : name + suffix);
+        }
+        return Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static ThreadFactory daemonFactory(String prefix) {
+        return new ThreadFactory() {
+            private int n = 0;
+
+            @Override
+            public synchronized Thread newThread(Runnable r) {
+                Thread t = new Thread(r, prefix + "-" + (++n));
+                t.setDaemon(true);
+                return t;
+            }
+        };
+    }
+}
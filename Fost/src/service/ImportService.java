@@ -1,11 +1,15 @@
 package service;
 
+import dao.ConnectionProvider;
 import dao.InventoryDao;
 import dao.ProductDao;
 import dao.ProductGroupDao;
 import model.Product;
 
 import java.io.File;
+import java.sql.Connection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -26,19 +30,46 @@ public class ImportService {
     private final ProductDao productDao;
     private final InventoryDao inventoryDao;
     private final ProductGroupDao groupDao;
+    private final ConnectionProvider cp; // null = stari uvoz red po red
+
+    // broj proizvoda (s grupama) odnosno stanja po jednom commit-u u skupnom uvozu
+    private static final int CHUNK_SIZE = 1000;
 
     public ImportService(ProductInventoryReader reader,
                          ProductDao productDao,
                          InventoryDao inventoryDao,
                          ProductGroupDao groupDao) {
+        this(reader, productDao, inventoryDao, groupDao, null);
+    }
+
+    /** Sa ConnectionProvider-om fullImport radi skupni uvoz (batch + commit po blokovima). */
+    public ImportService(ProductInventoryReader reader,
+                         ProductDao productDao,
+                         InventoryDao inventoryDao,
+                         ProductGroupDao groupDao,
+                         ConnectionProvider cp) {
         this.reader = reader;
         this.productDao = productDao;
         this.inventoryDao = inventoryDao;
         this.groupDao = groupDao;
+        this.cp = cp;
     }
 
     public void fullImport(File excel) throws Exception {
+        fullImport(excel, null);
+    }
+
+    /** Kao fullImport(excel); u affected (ako nije null) se bilježe šifre uvezenih proizvoda i stanja. */
+    public void fullImport(File excel, AffectedRange affected) throws Exception {
         ReaderResult rr = reader.parse(excel);
+        if (affected != null) {
+            for (Product p : rr.products()) affected.add(p.getProductCode());
+            for (String code : rr.openingQuantities().keySet()) affected.add(code);
+        }
+        if (cp != null) {
+            bulkImport(rr);
+            return;
+        }
 
         // 1) Proizvodi i grupe
         for (Product p : rr.products()) {
@@ -59,4 +90,67 @@ public class ImportService {
             inventoryDao.upsertQuantity(e.getKey(), e.getValue(), price);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Skupni uvoz: svaka naredba se priprema jednom po bloku, proizvodi + grupe pa početno stanje
+     * idu kroz batch i commit svakih CHUNK_SIZE zapisa. Nabavna cijena za stanje uzima se iz
+     * već parsiranih proizvoda (bez ponovnog čitanja iz baze).
+     */
+    private void bulkImport(ReaderResult rr) throws Exception {
+        long t0 = System.currentTimeMillis();
+        List<Product> products = rr.products();
+        Map<String, List<String>> groups = rr.groupAssignments();
+
+        try (Connection c = cp.get()) {
+            boolean auto = c.getAutoCommit();
+            c.setAutoCommit(false);
+            try {
+                // 1) Proizvodi i grupe
+                for (int from = 0; from < products.size(); from += CHUNK_SIZE) {
+                    List<Product> chunk = products.subList(from, Math.min(products.size(), from + CHUNK_SIZE));
+                    Map<String, List<String>> chunkGroups = new LinkedHashMap<>();
+                    for (Product p : chunk) {
+                        var g = groups.get(p.getProductCode());
+                        if (g != null) chunkGroups.put(p.getProductCode(), g);
+                    }
+                    productDao.upsertAll(c, chunk);
+                    groupDao.assignAll(c, chunkGroups);
+                    c.commit();
+                }
+
+                // 2) Početno stanje
+                Map<String, Double> unitPrices = new HashMap<>();
+                for (Product p : products) {
+                    if (p.getPurchaseUnitPrice() != null) unitPrices.put(p.getProductCode(), p.getPurchaseUnitPrice());
+                }
+                java.util.Set<String> parsedCodes = new java.util.HashSet<>();
+                for (Product p : products) parsedCodes.add(p.getProductCode());
+                for (String code : rr.openingQuantities().keySet()) {
+                    // stanje za proizvod kojeg nema u datoteci - cijena iz baze (rijetko)
+                    if (!parsedCodes.contains(code)) {
+                        productDao.find(code).map(Product::getPurchaseUnitPrice)
+                                .ifPresent(pu -> unitPrices.put(code, pu));
+                    }
+                }
+                Map<String, Double> chunkQty = new LinkedHashMap<>();
+                for (var e : rr.openingQuantities().entrySet()) {
+                    chunkQty.put(e.getKey(), e.getValue());
+                    if (chunkQty.size() >= CHUNK_SIZE) {
+                        inventoryDao.upsertQuantities(c, chunkQty, unitPrices);
+                        c.commit();
+                        chunkQty.clear();
+                    }
+                }
+                inventoryDao.upsertQuantities(c, chunkQty, unitPrices);
+                c.commit();
+            } catch (Exception ex) {
+                c.rollback();
+                throw ex;
+            } finally {
+                c.setAutoCommit(auto);
+            }
+        }
+        System.out.println("[ImportService] skupni uvoz: " + products.size() + " proizvoda, "
+                + rr.openingQuantities().size() + " stanja, " + (System.currentTimeMillis() - t0) + " ms");
+    }
+}
@@ -0,0 +1,118 @@
+package service;
+
+import db.ImportFileStateDatabaseHelper;
+import db.KomitentiDatabaseHelper;
+import excel.ExcelKomitentReader;
+import model.KomitentInfo;
+import util.FileFingerprint;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Uvoz komitenata iz Excela pri pokretanju, samo kad se datoteka promijenila.
+ *
+ * - isti size i mtime kao zadnji put -> ništa (bez čitanja datoteke),
+ * - drugačiji mtime, ali isti SHA-256 -> samo se osvježi spremljeni otisak,
+ * - promijenjen sadržaj -> Excel se čita i u bazu idu samo novi komitenti i oni
+ *   kojima se promijenio trgovački predstavnik (ista pravila kao saveToDatabase/upsert).
+ *
+ * runInBackground(...) radi sve na daemon dretvi, pa ne odgađa prikaz LoginUI-ja.
+ */
+public class KomitentiStartupImport {
+
+    /** Rezultat jednog pokretanja (za ispis u konzolu). */
+    public static final class Result {
+        public final boolean skipped;
+        public final int excelRows;
+        public final int added;
+        public final int changed;
+
+        Result(boolean skipped, int excelRows, int added, int changed) {
+            this.skipped = skipped;
+            this.excelRows = excelRows;
+            this.added = added;
+            this.changed = changed;
+        }
+
+        @Override
+        public String toString() {
+            if (skipped) return "bez promjena u datoteci - uvoz preskočen";
+            return "redova u Excelu=" + excelRows + ", novih=" + added + ", promijenjenih=" + changed;
+        }
+    }
+
+    private final File excelFile;
+
+    public KomitentiStartupImport(File excelFile) {
+        this.excelFile = excelFile;
+    }
+
+    /** Pokreće importIfChanged() na pozadinskoj (daemon) dretvi. */
+    public Thread runInBackground() {
+        Thread t = new Thread(() -> {
+            try {
+                Result r = importIfChanged();
+                System.out.println("KomitentiStartupImport: " + r);
+            } catch (Exception e) {
+                System.err.println("GREŠKA prilikom uvoza komitenata iz Excela: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }, "komitenti-startup-import");
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+
+    public Result importIfChanged() throws Exception {
+        Path path = excelFile.toPath().toAbsolutePath();
+        String key = path.toString();
+        ImportFileStateDatabaseHelper.initializeDatabase();
+
+        FileFingerprint last = ImportFileStateDatabaseHelper.load(key);
+        if (last != null && last.sameSizeAndTime(path)) {
+            return new Result(true, 0, 0, 0);
+        }
+        FileFingerprint current = FileFingerprint.of(path);
+        if (last != null && current.getSha256().equals(last.getSha256())) {
+            // datoteka je samo "dirnuta" (kopirana, spremljena bez izmjena)
+            ImportFileStateDatabaseHelper.save(key, current);
+            return new Result(true, 0, 0, 0);
+        }
+
+        List<KomitentInfo> lista = new ExcelKomitentReader(excelFile.getPath()).readData();
+        Map<String, String> existing = KomitentiDatabaseHelper.loadKomitentPredstavnikMap();
+        List<KomitentInfo> toWrite = new ArrayList<>();
+        int added = 0, changed = 0;
+        for (KomitentInfo k : lista) {
+            String kom = trim(k.getKomitentOpis());
+            String tp = trim(k.getTrgovackiPredstavnik());
+            if (kom.isEmpty()) continue;
+            String old = existing.get(kom);
+            if (old == null) {
+                added++;
+            } else if (!tp.isEmpty() && !tp.equals(old.trim())) {
+                changed++;
+            } else {
+                // upsert ne bi ništa promijenio (isti ili prazan predstavnik)
+                continue;
+            }
+            existing.put(kom, tp);
+            toWrite.add(new KomitentInfo(kom, tp));
+        }
+
+        if (!toWrite.isEmpty() && !KomitentiDatabaseHelper.saveToDatabase(toWrite)) {
+            // otisak se ne sprema, pa se datoteka uvozi ponovno pri sljedećem pokretanju
+            throw new IllegalStateException("Upis komitenata u bazu nije uspio");
+        }
+        ImportFileStateDatabaseHelper.save(key, current);
+        return new Result(false, lista.size(), added, changed);
+    }
+
+    private static String trim(String s) {
+        return s == null ? "" : s.trim();
+    }
+}
@@ -106,16 +106,20 @@ public class ProductService {
 
         List<OrderSuggestion> out = new ArrayList<>();
 
+        // dva skupna upita umjesto dva upita po artiklu
+        Map<String, Double> soldByProduct = salesDao.getSoldQtyByProduct(from, to);
+        if (soldByProduct.isEmpty()) return out;
+        Map<String, ProductSupplier> primaryByProduct = psDao.findAllPrimary();
+
         for (var inv : inventoryDao.findAll()) {
             String code = inv.getProductCode();
-            double salesQty = salesDao.getSoldQtyByRange(code, from, to);
+            double salesQty = soldByProduct.getOrDefault(code, 0.0);
             if (salesQty <= 0) continue;
 
             double dailyDemand = salesQty / days;
 
-            var primaryOpt = psDao.findPrimary(code);
-            if (primaryOpt.isEmpty()) continue;
-            ProductSupplier ps = primaryOpt.get();
+            ProductSupplier ps = primaryByProduct.get(code);
+            if (ps == null) continue;
 
             int lead = ps.getLeadTimeDays() != null ? ps.getLeadTimeDays() : 0;
             Double minOrder = ps.getMinOrderQty();
@@ -3,27 +3,65 @@ package service;
 import dao.ConnectionProvider;
 import dao.ProductDao;
 import dao.SalesDao;
+import dao.SalesImportLedgerDao;
 import excel.ExcelSalesReader;
+import excel.ParallelSheetImport;
 import model.Product;
 import model.SalesRecord;
+import util.FileFingerprint;
 
+import java.io.File;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.sql.Connection;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Uvoz prodaje iz Excela u tablicu sales.
+ *
+ * Tijek: jednom učitaj postojeće šifre proizvoda -> Excel se čita streaming (ExcelSalesReader s consumer-om)
+ * -> stavke se skupljaju u blokove (chunkSize); za svaki blok se nedostajući proizvodi kreiraju jednim
+ * batchom, a stavke upisuju batch upsertom. Sve ide u jednoj transakciji na jednoj konekciji,
+ * pa greška u bilo kojem bloku poništava cijeli uvoz. Memorija ne ovisi o veličini datoteke.
+ *
+ * importSalesBatch: više datoteka / sheetova se parsira paralelno, upis ostaje na jednoj dretvi.
+ *
+ * Inkrementalni uvoz (zadano uključen, SalesImportLedgerDao): datoteka s već uvezenim SHA-256 se
+ * preskače, a u bloku se u sales upisuju samo nove i promijenjene stavke (po hashu sadržaja stavke).
+ * Datoteka u kojoj su stavke preskočene (proizvod ne postoji) ne bilježi se kao uvezena.
  */
 public class SalesImportService {
 
+    /**
+     * Napredak uvoza (poziva se nakon svakog bloka, iz niti koja radi uvoz).
+     * total je -1 dok se datoteka još čita (streaming - ukupan broj redova nije unaprijed poznat).
+     */
+    public interface ProgressListener {
+        void onProgress(int done, int total, double rowsPerSecond);
+    }
+
+    public static final int DEFAULT_CHUNK_SIZE = 2000;
+    // koliko promijenjenih stavki navesti pojedinačno u porukama
+    private static final int MAX_LISTED_CHANGES = 20;
+
     private final ConnectionProvider cp;
     private final ProductDao productDao;
     private final SalesDao salesDao;
     private final ExcelSalesReader reader;
 
     private boolean autoCreateMissingProducts = false;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private boolean dryRun = false;
+    private ProgressListener progressListener;
+    private boolean incremental = true;
+    private SalesImportLedgerDao ledger;
 
     public SalesImportService(ConnectionProvider cp,
                               ProductDao productDao,
@@ -45,51 +83,292 @@ public class SalesImportService {
         return this;
     }
 
+    public SalesImportService withChunkSize(int chunkSize) {
+        this.chunkSize = Math.max(1, chunkSize);
+        return this;
+    }
+
+    /** Dry run: sve se upiše pa se na kraju napravi rollback (provjera bez promjena u bazi). */
+    public SalesImportService enableDryRun(boolean enable) {
+        this.dryRun = enable;
+        return this;
+    }
+
+    public SalesImportService withProgressListener(ProgressListener listener) {
+        this.progressListener = listener;
+        return this;
+    }
+
+    /**
+     * Inkrementalni uvoz (zadano true). S false se datoteka uvozi cijela i kad je već uvezena,
+     * a sve stavke se upisuju; evidencija hashova se i tada ažurira.
+     */
+    public SalesImportService enableIncremental(boolean enable) {
+        this.incremental = enable;
+        return this;
+    }
+
+    private SalesImportLedgerDao ledger() {
+        if (ledger == null) ledger = new SalesImportLedgerDao(cp);
+        return ledger;
+    }
+
     public List<String> importSales(Path excel, LocalDate fallbackDate) throws Exception {
+        return importSales(excel, fallbackDate, null);
+    }
+
+    /** Kao importSales(excel, fallbackDate); u affected (ako nije null) se bilježe upisane šifre i datumi. */
+    public List<String> importSales(Path excel, LocalDate fallbackDate, AffectedRange affected) throws Exception {
         List<String> messages = new ArrayList<>();
+        SalesImportLedgerDao ledger = ledger();
 
-        List<SalesRecord> parsed = reader.parse(excel.toFile(), fallbackDate);
-        if (parsed.isEmpty()) {
-            messages.add("Nema redova (parser vratio prazno).");
+        // ista datoteka (SHA-256) je već uvezena -> ništa za raditi
+        String fileHash = FileFingerprint.sha256(excel);
+        if (incremental && ledger.isFileImported(fileHash)) {
+            messages.add("Datoteka je već uvezena (isti sadržaj) - preskočeno: " + excel.getFileName());
             return messages;
         }
-        messages.add("Parser vratio " + parsed.size() + " redova.");
 
-        int createdProducts = 0;
-        int skipped = 0;
-        int upserted = 0;
+        // stavke se čitaju streaming i upisuju u blokovima, sve u jednoj transakciji
+        ImportRun run = new ImportRun(ledger, affected);
+        try (Connection c = cp.get()) {
+            boolean auto = c.getAutoCommit();
+            c.setAutoCommit(false);
+            run.c = c;
+            try {
+                try {
+                    // kopija readera po pozivu: carry-forward stanje se ne dijeli između istodobnih uvoza
+                    reader.copy().parse(excel.toFile(), fallbackDate, run::accept);
+                    run.flush();
+                } catch (ImportAbortedException ex) {
+                    throw (Exception) ex.getCause();
+                }
 
-        for (SalesRecord r : parsed) {
-            String code = r.getProductCode();
-            Optional<Product> prodOpt = productDao.find(code);
-            if (prodOpt.isEmpty()) {
-                if (autoCreateMissingProducts) {
-                    Product p = new Product(
-                            code,
-                            code,           // name = code
-                            "TRGOVACKA",    // main_type default
-                            null,           // supplier_code
-                            "kom",          // base_unit
-                            null,           // alt_unit
-                            null,           // area_per_piece
-                            null, null, null,
-                            true
-                    );
-                    productDao.upsert(p);
-                    createdProducts++;
+                // datoteka s preskočenim stavkama (proizvod ne postoji) se ne bilježi kao uvezena,
+                // da se nakon kreiranja proizvoda ponovni uvoz ne preskoči
+                if (run.skipped == 0) {
+                    ledger.recordFile(c, fileHash, excel.getFileName().toString(), Files.size(excel), run.parsed);
                 } else {
-                    skipped++;
-                    messages.add("SKIP product ne postoji: " + code);
-                    continue;
+                    messages.add("Datoteka nije označena kao uvezena (ima preskočenih stavki) - ponovni uvoz će ih upisati.");
                 }
+                if (dryRun) c.rollback(); else c.commit();
+            } catch (Exception ex) {
+                c.rollback();
+                messages.add("GREŠKA - uvoz poništen (rollback): " + ex.getMessage());
+                throw ex;
+            } finally {
+                c.setAutoCommit(auto);
             }
-            salesDao.upsert(r);
-            upserted++;
         }
-        messages.add("Upisano (upsert): " + upserted);
-        if (createdProducts > 0) messages.add("Auto-kreirano proizvoda: " + createdProducts);
-        if (skipped > 0) messages.add("Preskočeno (product ne postoji): " + skipped);
+        run.appendSummary(messages);
+        return messages;
+    }
 
+    /**
+     * Uvoz više datoteka (npr. mjesečni izvozi) i/ili svih sheetova u jednom batchu.
+     *
+     * Datoteke/sheetovi se parsiraju paralelno (ParallelSheetImport, pool veličine threads), a upis
+     * radi samo pozivajuća dretva, redom zadanih datoteka, u jednoj transakciji - greška bilo gdje
+     * poništava cijeli batch. Stavka koja se u kasnijem izvoru ponavlja s istim sadržajem izbacuje
+     * se prije upisa; promijenjena stavka iz kasnijeg izvora prepisuje raniju.
+     * Već uvezene datoteke (isti SHA-256) se preskaču kao kod importSales.
+     */
+    public List<String> importSalesBatch(List<Path> files, LocalDate fallbackDate,
+                                         boolean allSheets, int threads, AffectedRange affected) throws Exception {
+        List<String> messages = new ArrayList<>();
+        SalesImportLedgerDao ledger = ledger();
+
+        Map<File, String> hashes = new LinkedHashMap<>();
+        for (Path p : files) {
+            String h = FileFingerprint.sha256(p);
+            if (hashes.containsValue(h) || (incremental && ledger.isFileImported(h))) {
+                messages.add("Datoteka je već uvezena (isti sadržaj) - preskočeno: " + p.getFileName());
+                continue;
+            }
+            hashes.put(p.toFile(), h);
+        }
+        if (hashes.isEmpty()) return messages;
+
+        ParallelSheetImport<SalesRecord> batch = new ParallelSheetImport<SalesRecord>()
+                .withThreads(threads)
+                .enableAllSheets(allSheets)
+                .withKey(r -> r.getProductCode() + '\u0001' + r.getDate() + '\u0001' + r.getDocType() + '\u0001' + r.getDocNo(),
+                        SalesImportLedgerDao::rowHash);
+        List<ParallelSheetImport.Source> sources = batch.sources(new ArrayList<>(hashes.keySet()));
+
+        ImportRun run = new ImportRun(ledger, affected);
+        Map<File, Integer> rowsPerFile = new HashMap<>();
+        Map<File, Integer> skippedPerFile = new HashMap<>();
+        try (Connection c = cp.get()) {
+            boolean auto = c.getAutoCommit();
+            c.setAutoCommit(false);
+            run.c = c;
+            try {
+                batch.run(sources,
+                        // svaka dretva svoju kopiju readera (carry-forward stanje)
+                        (file, sheet, sink) -> reader.copy().parse(file, sheet, fallbackDate, sink),
+                        (src, records) -> {
+                            int skippedBefore = run.skipped;
+                            try {
+                                for (SalesRecord r : records) run.accept(r);
+                                run.flush();
+                            } catch (ImportAbortedException ex) {
+                                throw (Exception) ex.getCause();
+                            }
+                            rowsPerFile.merge(src.file, records.size(), Integer::sum);
+                            skippedPerFile.merge(src.file, run.skipped - skippedBefore, Integer::sum);
+                            if (src.lastOfFile) {
+                                // kao kod importSales: s preskočenim stavkama datoteka se ne bilježi
+                                if (skippedPerFile.getOrDefault(src.file, 0) == 0) {
+                                    ledger.recordFile(c, hashes.get(src.file), src.file.getName(),
+                                            src.file.length(), rowsPerFile.getOrDefault(src.file, 0));
+                                } else {
+                                    messages.add("Datoteka nije označena kao uvezena (ima preskočenih stavki): "
+                                            + src.file.getName());
+                                }
+                            }
+                        });
+                if (dryRun) c.rollback(); else c.commit();
+            } catch (Exception ex) {
+                c.rollback();
+                messages.add("GREŠKA - uvoz poništen (rollback): " + ex.getMessage());
+                throw ex;
+            } finally {
+                c.setAutoCommit(auto);
+            }
+        }
+        messages.add("Datoteka: " + hashes.size() + ", izvora (sheetova): " + sources.size()
+                + ", dretvi: " + Math.min(threads, sources.size()));
+        if (batch.getDuplicates() > 0) {
+            messages.add("Duplikati između datoteka (izbačeni prije upisa): " + batch.getDuplicates());
+        }
+        run.appendSummary(messages);
         return messages;
     }
-}
\ No newline at end of file
+
+    /**
+     * Stanje jednog uvoza: blok stavki, proizvodi za kreiranje i brojači. Stavke se predaju s accept(),
+     * blok se upisuje na konekciji c (u transakciji pozivatelja) kad dosegne chunkSize ili s flush().
+     */
+    private final class ImportRun {
+        final SalesImportLedgerDao ledger;
+        final AffectedRange affected;
+        final Set<String> knownCodes;
+        final Map<String, Integer> skippedByCode = new LinkedHashMap<>();
+        final List<String> changedKeys = new ArrayList<>();
+        final List<SalesRecord> chunk = new ArrayList<>(chunkSize);
+        final Map<String, Product> toCreate = new LinkedHashMap<>();
+        final long t0 = System.nanoTime();
+        Connection c;
+        int parsed, created, upserted, processed, added, changed, unchanged, skipped;
+
+        ImportRun(SalesImportLedgerDao ledger, AffectedRange affected) throws Exception {
+            this.ledger = ledger;
+            this.affected = affected;
+            // postojeće šifre jednim upitom; nedostajuće se kreiraju batchom uz blok u kojem se pojave
+            this.knownCodes = productDao.findAllCodes();
+        }
+
+        void accept(SalesRecord r) {
+            parsed++;
+            String code = r.getProductCode();
+            if (!knownCodes.contains(code) && !toCreate.containsKey(code)) {
+                if (!autoCreateMissingProducts) {
+                    skippedByCode.merge(code, 1, Integer::sum);
+                    skipped++;
+                    if (affected != null) affected.addSkipped(1);
+                    return;
+                }
+                toCreate.put(code, new Product(
+                        code,
+                        code,           // name = code
+                        "TRGOVACKA",    // main_type default
+                        null,           // supplier_code
+                        "kom",          // base_unit
+                        null,           // alt_unit
+                        null,           // area_per_piece
+                        null, null, null,
+                        true
+                ));
+            }
+            chunk.add(r);
+            if (chunk.size() >= chunkSize) flush();
+        }
+
+        void flush() {
+            if (chunk.isEmpty() && toCreate.isEmpty()) return;
+            try {
+                productDao.upsertAll(c, toCreate.values());
+                knownCodes.addAll(toCreate.keySet());
+                created += toCreate.size();
+                toCreate.clear();
+                // nepromijenjene stavke (isti hash u ledgeru) se ne diraju
+                List<SalesRecord> toWrite = chunk;
+                if (incremental) {
+                    SalesImportLedgerDao.Diff diff = ledger.diff(c, chunk);
+                    added += diff.added.size();
+                    changed += diff.changed.size();
+                    unchanged += diff.unchanged;
+                    for (SalesRecord r : diff.changed) {
+                        if (changedKeys.size() >= MAX_LISTED_CHANGES) break;
+                        changedKeys.add(r.getProductCode() + " " + r.getDate() + " " + r.getDocType() + " " + r.getDocNo());
+                    }
+                    toWrite = diff.toWrite();
+                }
+                salesDao.upsertInTransaction(c, toWrite);
+                ledger.recordRows(c, toWrite);
+                upserted += toWrite.size();
+                if (affected != null) {
+                    for (SalesRecord r : toWrite) affected.add(r.getProductCode(), r.getDate());
+                }
+            } catch (Exception ex) {
+                throw new ImportAbortedException(ex);
+            }
+            processed += chunk.size();
+            chunk.clear();
+            if (progressListener != null) {
+                progressListener.onProgress(processed, -1, rowsPerSecond(processed, t0));
+            }
+        }
+
+        void appendSummary(List<String> messages) {
+            long ms = (System.nanoTime() - t0) / 1_000_000;
+            if (parsed == 0) {
+                messages.add("Nema redova (parser vratio prazno).");
+                return;
+            }
+            messages.add("Parser vratio " + parsed + " redova.");
+            messages.add("Upisano (upsert): " + upserted);
+            if (incremental) {
+                messages.add("Nove stavke: " + added + ", promijenjene: " + changed
+                        + ", nepromijenjene (preskočeno): " + unchanged);
+                for (String k : changedKeys) messages.add("PROMJENA: " + k);
+                if (changed > changedKeys.size()) {
+                    messages.add("... i još " + (changed - changedKeys.size()) + " promijenjenih");
+                }
+            }
+            if (created > 0) messages.add("Auto-kreirano proizvoda: " + created);
+            if (!skippedByCode.isEmpty()) {
+                messages.add("Preskočeno (product ne postoji): " + skipped);
+                skippedByCode.forEach((code, n) -> messages.add("SKIP product ne postoji: " + code + " (" + n + ")"));
+            }
+            messages.add(String.format(Locale.ROOT, "Trajanje: %d ms (%.0f redova/s)",
+                    ms, rowsPerSecond(processed, t0)));
+            if (dryRun) messages.add("Dry run: promjene poništene (rollback).");
+        }
+    }
+
+    /** Prenosi grešku upisa iz consumer-a parsera (koji ne smije bacati checked iznimke). */
+    private static final class ImportAbortedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        ImportAbortedException(Exception cause) {
+            super(cause);
+        }
+    }
+
+    private static double rowsPerSecond(int rows, long startNanos) {
+        double sec = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        return sec <= 0 ? 0.0 : rows / sec;
+    }
+}
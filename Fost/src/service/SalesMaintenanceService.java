@@ -20,6 +20,11 @@ public class SalesMaintenanceService {
         salesDao.deleteAll();
     }
 
+    /** Ponovno gradi dnevni sažetak prodaje (sales_daily) iz tablice sales. */
+    public int rebuildSalesRollup() throws Exception {
+        return salesDao.rebuildDailyRollup();
+    }
+
     public void clearAllInventory() throws Exception {
         inventoryDao.deleteAll();
     }
@@ -0,0 +1,77 @@
+package test;
+
+import logic.CapacityScenarios;
+import logic.LineScheduler;
+import logic.ProductionPlanner;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Scenariji kapaciteta na sintetičkim narudžbama: CapacityScenarios.simulate (paralelno na
+ * ForkJoinPool-u) prema istim scenarijima jedan za drugim. Provjerava da su ishodi isti, da +1 smjena
+ * ne završava kasnije a linija manje ne ranije od trenutnog stanja, i ispisuje vremena.
+ *
+ * Pokretanje: java test.CapacityScenariosBenchmarkMain [broj_narudzbi] [broj_linija]
+ */
+public class CapacityScenariosBenchmarkMain {
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int lineCount = args.length > 1 ? Integer.parseInt(args[1]) : 6;
+        LocalDate today = LocalDate.now();
+        LocalDateTime from = LocalDateTime.of(today.plusDays(1), LocalTime.of(7, 0));
+
+        Random rnd = new Random(5);
+        ProductionPlanner.Orders orders = new ProductionPlanner.Orders(n);
+        long[] due = new long[n];
+        for (int i = 0; i < n; i++) {
+            double m2 = rnd.nextInt(20) == 0 ? 0.0 : Math.round(rnd.nextDouble() * 300.0 * 100.0) / 100.0;
+            long orderDay = today.toEpochDay() - 30 + rnd.nextInt(90);
+            orders.add(i, m2, orderDay + ProductionPlanner.DEFAULT_LEAD_DAYS, 0);
+            due[i] = orderDay + 14 + rnd.nextInt(60);
+        }
+        CapacityScenarios.Snapshot snapshot = new CapacityScenarios.Snapshot(orders, due);
+
+        List<LineScheduler.Line> lines = new ArrayList<>();
+        for (int l = 0; l < lineCount; l++) lines.add(new LineScheduler.Line("L" + (l + 1), 25.0 + rnd.nextInt(40)));
+        List<CapacityScenarios.Scenario> scenarios = new ArrayList<>(CapacityScenarios.defaultScenarios(lines));
+        scenarios.add(CapacityScenarios.Scenario.scaled(lines, 0.8));
+        scenarios.add(CapacityScenarios.Scenario.scaled(lines, 1.2));
+
+        CapacityScenarios sim = new CapacityScenarios();
+        List<CapacityScenarios.Outcome> parallel = null;
+        long bestParallel = Long.MAX_VALUE, bestSequential = Long.MAX_VALUE;
+        List<CapacityScenarios.Outcome> sequential = new ArrayList<>();
+        for (int r = 0; r < 5; r++) {
+            long t0 = System.nanoTime();
+            parallel = sim.simulate(snapshot, scenarios, from);
+            bestParallel = Math.min(bestParallel, System.nanoTime() - t0);
+
+            t0 = System.nanoTime();
+            sequential.clear();
+            for (CapacityScenarios.Scenario s : scenarios) sequential.add(CapacityScenarios.evaluate(snapshot, s, from));
+            bestSequential = Math.min(bestSequential, System.nanoTime() - t0);
+        }
+        System.out.printf("%d narudžbi, %d scenarija: paralelno %.1f ms, jedan za drugim %.1f ms (najbolje od 5)%n",
+                n, scenarios.size(), bestParallel / 1e6, bestSequential / 1e6);
+        for (CapacityScenarios.Outcome o : parallel) System.out.println("  " + o);
+
+        int diff = 0;
+        for (int s = 0; s < scenarios.size(); s++) {
+            for (int i = 0; i < snapshot.size(); i++) {
+                if (parallel.get(s).lateDays(i) != sequential.get(s).lateDays(i)
+                        || parallel.get(s).getResult().endMinute(i) != sequential.get(s).getResult().endMinute(i)) diff++;
+            }
+        }
+        LocalDateTime current = parallel.get(0).getPlanEnd();
+        boolean ordered = !parallel.get(1).getPlanEnd().isAfter(current)
+                && (lines.size() < 2 || !parallel.get(2).getPlanEnd().isBefore(current));
+        System.out.println(diff == 0 ? "Paralelni i redni ishodi su isti." : "Razlika: " + diff);
+        System.out.println(ordered ? "Redoslijed krajeva plana je ispravan." : "Redoslijed krajeva plana NIJE ispravan.");
+    }
+}
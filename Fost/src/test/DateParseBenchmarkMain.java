@@ -0,0 +1,175 @@
+package test;
+
+import db.SqliteConnectionPool;
+import logic.DateScanner;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Usporedba starog parsiranja datuma (petlja DateTimeFormatter-a s iznimkama) i DateScanner-a
+ * na stvarnim podacima iz tablice narudzbe (datumi narudžbe/isporuke, start/end vremena, predPlan).
+ * Ako baza nema podataka, koristi se sintetički uzorak u istim zapisima.
+ *
+ * Pokretanje: java test.DateParseBenchmarkMain [putanja_do_baze] [broj_ponavljanja]
+ */
+public class DateParseBenchmarkMain {
+
+    private static final String[] COLUMNS = {
+            "datumNarudzbe", "predDatumIsporuke", "startTime", "endTime", "predPlanIsporuke"
+    };
+
+    // isti redoslijed formata kao nekadašnji WorkingTimeCalculator.tryParseLocalDateTime
+    private static final DateTimeFormatter[] LEGACY_FORMATS = {
+            DateTimeFormatter.ofPattern("dd.MM.yyyy H:mm", Locale.ENGLISH),
+            DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm", Locale.ENGLISH),
+            DateTimeFormatter.ofPattern("d.M.yyyy H:mm", Locale.ENGLISH),
+            DateTimeFormatter.ofPattern("d.M.yyyy HH:mm", Locale.ENGLISH),
+            DateTimeFormatter.ofPattern("dd/MM/yyyy H:mm", Locale.ENGLISH),
+            DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm", Locale.ENGLISH),
+            DateTimeFormatter.ofPattern("d/M/yyyy H:mm", Locale.ENGLISH),
+            DateTimeFormatter.ofPattern("d/M/yyyy HH:mm", Locale.ENGLISH),
+            DateTimeFormatter.ofPattern("yyyy-MM-dd H:mm", Locale.ENGLISH),
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm", Locale.ENGLISH),
+            DateTimeFormatter.ofPattern("dd.MM.yyyy", Locale.ENGLISH),
+            DateTimeFormatter.ofPattern("d.M.yyyy", Locale.ENGLISH),
+            DateTimeFormatter.ofPattern("dd/MM/yyyy", Locale.ENGLISH),
+            DateTimeFormatter.ofPattern("d/M/yyyy", Locale.ENGLISH),
+            DateTimeFormatter.ISO_LOCAL_DATE_TIME,
+            DateTimeFormatter.ISO_LOCAL_DATE
+    };
+
+    public static void main(String[] args) throws Exception {
+        String dbUrl = "jdbc:sqlite:" + (args.length > 0 ? args[0] : "fost.db");
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        List<String> values = loadColumnValues(dbUrl);
+        if (values.isEmpty()) {
+            System.out.println("Nema podataka u narudzbe - koristi se sintetički uzorak.");
+            values = syntheticSample(50_000);
+        }
+        System.out.println("Vrijednosti: " + values.size() + ", ponavljanja: " + rounds);
+
+        // provjera: oba parsera moraju dati isti rezultat
+        int mismatches = 0;
+        int parsed = 0;
+        for (String v : values) {
+            LocalDateTime a = legacyParse(v);
+            LocalDateTime b = DateScanner.parseDateTime(v);
+            if (b != null) parsed++;
+            if (!Objects.equals(a, b)) {
+                if (mismatches < 10) System.out.println("RAZLIKA: '" + v + "' legacy=" + a + " scanner=" + b);
+                mismatches++;
+            }
+        }
+        System.out.println("Prepoznato: " + parsed + ", razlika: " + mismatches);
+
+        // zagrijavanje JIT-a
+        for (int i = 0; i < 3; i++) {
+            runLegacy(values);
+            runScanner(values);
+        }
+
+        long legacyNs = 0, scannerNs = 0;
+        long sink = 0;
+        for (int i = 0; i < rounds; i++) {
+            long t0 = System.nanoTime();
+            sink += runLegacy(values);
+            long t1 = System.nanoTime();
+            sink += runScanner(values);
+            long t2 = System.nanoTime();
+            legacyNs += t1 - t0;
+            scannerNs += t2 - t1;
+        }
+
+        double n = (double) values.size() * rounds;
+        System.out.printf(Locale.ROOT, "Legacy (formatteri + iznimke): %8.1f ns/vrijednost%n", legacyNs / n);
+        System.out.printf(Locale.ROOT, "DateScanner:                   %8.1f ns/vrijednost%n", scannerNs / n);
+        System.out.printf(Locale.ROOT, "Ubrzanje: %.1fx  (kontrolna suma %d)%n", (double) legacyNs / Math.max(1, scannerNs), sink);
+    }
+
+    private static long runLegacy(List<String> values) {
+        long sum = 0;
+        for (String v : values) {
+            LocalDateTime dt = legacyParse(v);
+            if (dt != null) sum += dt.getDayOfYear();
+        }
+        return sum;
+    }
+
+    private static long runScanner(List<String> values) {
+        long sum = 0;
+        for (String v : values) {
+            long sec = DateScanner.scan(v, false);
+            if (sec != DateScanner.NO_MATCH) sum += LocalDate.ofEpochDay(Math.floorDiv(sec, 86_400L)).getDayOfYear();
+        }
+        return sum;
+    }
+
+    private static LocalDateTime legacyParse(String s) {
+        if (s == null) return null;
+        String str = s.trim();
+        if (str.isEmpty()) return null;
+        if (str.endsWith(".")) str = str.substring(0, str.length() - 1).trim();
+        for (DateTimeFormatter fmt : LEGACY_FORMATS) {
+            try {
+                return LocalDateTime.parse(str, fmt);
+            } catch (DateTimeParseException ex) {
+                try {
+                    return LocalDate.parse(str, fmt).atStartOfDay();
+                } catch (DateTimeParseException ignored) {
+                    // sljedeći format
+                }
+            }
+        }
+        return null;
+    }
+
+    private static List<String> loadColumnValues(String dbUrl) {
+        List<String> out = new ArrayList<>();
+        try (Connection conn = SqliteConnectionPool.get(dbUrl);
+             Statement st = conn.createStatement()) {
+            for (String col : COLUMNS) {
+                try (ResultSet rs = st.executeQuery("SELECT " + col + " FROM narudzbe")) {
+                    while (rs.next()) {
+                        String v = rs.getString(1);
+                        if (v != null && !v.isBlank()) out.add(v);
+                    }
+                } catch (Exception ex) {
+                    System.out.println("Kolona " + col + " preskočena: " + ex.getMessage());
+                }
+            }
+        } catch (Exception ex) {
+            System.out.println("Baza nije dostupna: " + ex.getMessage());
+        }
+        return out;
+    }
+
+    private static List<String> syntheticSample(int n) {
+        DateTimeFormatter dots = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+        DateTimeFormatter dotsTime = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
+        DateTimeFormatter slash = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+        List<String> out = new ArrayList<>(n);
+        LocalDateTime base = LocalDateTime.of(2023, 1, 2, 7, 0);
+        for (int i = 0; i < n; i++) {
+            LocalDateTime dt = base.plusMinutes(i * 37L);
+            switch (i % 5) {
+                case 0: out.add(dt.format(dots)); break;
+                case 1: out.add(dt.format(dotsTime)); break;
+                case 2: out.add(dt.format(slash)); break;
+                case 3: out.add(dt.toLocalDate().toString()); break;
+                default: out.add("-"); break;
+            }
+        }
+        return out;
+    }
+}
@@ -6,9 +6,12 @@ import service.SalesImportService;
 
 import javax.swing.*;
 import java.io.File;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 
@@ -18,35 +21,46 @@ import java.util.Locale;
  * - Opcionalni fallback datum (ako stupac Datum prazan)
  * - Opcionalno automatsko kreiranje proizvoda
  * - Opcionalni "dry run" (samo provjera) - pokreni s argumentom --dry-run
+ * - Više datoteka (args ili višestruki odabir) ili mapa -> paralelni batch uvoz (importSalesBatch);
+ *   --all-sheets uvozi sve sheetove svake datoteke
  */
 public class ImportSalesMain {
 
     public static void main(String[] args) throws Exception {
         boolean dryRun = false;
-        String explicitFile = null;
+        boolean allSheets = false;
+        List<File> files = new ArrayList<>();
 
         for (String a : args) {
             if (a.equalsIgnoreCase("--dry-run")) dryRun = true;
-            else explicitFile = a;
+            else if (a.equalsIgnoreCase("--all-sheets")) allSheets = true;
+            else files.add(new File(a));
         }
 
         String dbUrl = "jdbc:sqlite:fost.db";
-        File excel;
 
-        if (explicitFile != null) {
-            excel = new File(explicitFile);
-        } else {
+        if (files.isEmpty()) {
             JFileChooser fc = new JFileChooser();
+            fc.setMultiSelectionEnabled(true);
             if (fc.showOpenDialog(null) != JFileChooser.APPROVE_OPTION) {
                 System.err.println("Prekid.");
                 return;
             }
-            excel = fc.getSelectedFile();
+            files.addAll(Arrays.asList(fc.getSelectedFiles()));
         }
-        if (!excel.exists()) {
-            System.err.println("Ne postoji: " + excel.getAbsolutePath());
+        files = expandFolders(files);
+        for (File f : files) {
+            if (!f.exists()) {
+                System.err.println("Ne postoji: " + f.getAbsolutePath());
+                return;
+            }
+        }
+        if (files.isEmpty()) {
+            System.err.println("Nema Excel datoteka.");
             return;
         }
+        File excel = files.get(0);
+        boolean batch = files.size() > 1 || allSheets;
 
         LocalDate fallbackDate = null;
         String ans = JOptionPane.showInputDialog(null,
@@ -71,12 +85,24 @@ public class ImportSalesMain {
         var productDao = new ProductDao(cp);
 
         SalesImportService svc = new SalesImportService(cp, productDao)
-                .enableAutoCreateMissingProducts(enableAutoCreate);
+                .enableAutoCreateMissingProducts(enableAutoCreate)
+                .withProgressListener((done, total, rps) ->
+                        System.out.printf(Locale.ROOT, "  %d redova (%.0f redova/s)%n", done, rps));
+
+        if (dryRun) svc.enableDryRun(true);
 
         long t0 = System.currentTimeMillis();
-        List<String> messages = dryRun
-                ? simulate(svc, excel, fallbackDate)   // ako želiš kasnije right proper dry-run logic
-                : svc.importSales(Paths.get(excel.getAbsolutePath()), fallbackDate);
+        List<String> messages;
+        if (batch) {
+            List<Path> paths = new ArrayList<>();
+            for (File f : files) paths.add(f.toPath().toAbsolutePath());
+            int threads = Runtime.getRuntime().availableProcessors();
+            System.out.println("Batch uvoz: " + paths.size() + " datoteka, dretvi: " + threads
+                    + (allSheets ? ", svi sheetovi" : ""));
+            messages = svc.importSalesBatch(paths, fallbackDate, allSheets, threads, null);
+        } else {
+            messages = svc.importSales(Paths.get(excel.getAbsolutePath()), fallbackDate);
+        }
         long t1 = System.currentTimeMillis();
 
         if (messages.isEmpty()) {
@@ -91,9 +117,22 @@ public class ImportSalesMain {
         }
     }
 
-    // Simulacija (placeholder) – trenutno samo pozove pravi import i vrati poruke.
-    // Ako želiš pravi dry-run: trebaš dodati transakciju + rollback u SalesImportService
-    private static List<String> simulate(SalesImportService svc, File excel, LocalDate fallback) throws Exception {
-        return svc.importSales(Paths.get(excel.getAbsolutePath()), fallback);
+    // mapa -> sve .xls/.xlsx/.xlsm datoteke u njoj (abecedno, npr. mjesečni izvozi po redu)
+    private static List<File> expandFolders(List<File> in) {
+        List<File> out = new ArrayList<>();
+        for (File f : in) {
+            if (!f.isDirectory()) {
+                out.add(f);
+                continue;
+            }
+            File[] children = f.listFiles((dir, name) -> {
+                String n = name.toLowerCase(Locale.ROOT);
+                return !name.startsWith("~$") && (n.endsWith(".xls") || n.endsWith(".xlsx") || n.endsWith(".xlsm"));
+            });
+            if (children == null) continue;
+            Arrays.sort(children);
+            out.addAll(Arrays.asList(children));
+        }
+        return out;
     }
 }
\ No newline at end of file
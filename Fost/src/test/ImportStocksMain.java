@@ -5,29 +5,46 @@ import excel.ExcelStockStateReader;
 import logic.InventoryImportService;
 
 import javax.swing.*;
+import java.io.File;
 import java.nio.file.Path;
 import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
+/**
+ * Uvoz stanja zaliha iz Excela.
+ * - jedna datoteka (args[0] ili odabir): stanje se zamjenjuje (safeReplaceAll)
+ * - više datoteka ili --all-sheets (npr. sheet po skladištu): paralelni batch uvoz
+ *   (importCurrentStateBatch) - količine po artiklu se zbrajaju preko skladišta i upisuju upsertom
+ */
 public class ImportStocksMain {
     public static void main(String[] args) throws Exception {
-        String excelPath;
-        if (args.length > 0) {
-            excelPath = args[0];
-        } else {
+        boolean allSheets = false;
+        List<File> files = new ArrayList<>();
+        for (String a : args) {
+            if (a.equalsIgnoreCase("--all-sheets")) allSheets = true;
+            else files.add(new File(a));
+        }
+
+        if (files.isEmpty()) {
             JFileChooser fc = new JFileChooser();
             fc.setDialogTitle("Odaberi Excel");
+            fc.setMultiSelectionEnabled(true);
             if (fc.showOpenDialog(null) == JFileChooser.APPROVE_OPTION) {
-                excelPath = fc.getSelectedFile().getAbsolutePath();
+                files.addAll(Arrays.asList(fc.getSelectedFiles()));
             } else {
                 System.err.println("Prekid (nema odabira).");
                 return;
             }
         }
 
-        Path p = Path.of(excelPath);
-        if (!Files.exists(p)) {
-            System.err.println("Ne postoji: " + p.toAbsolutePath());
-            return;
+        for (File f : files) {
+            Path p = f.toPath();
+            if (!Files.exists(p)) {
+                System.err.println("Ne postoji: " + p.toAbsolutePath());
+                return;
+            }
         }
 
         String dbUrl = "jdbc:sqlite:fost.db";
@@ -41,7 +58,15 @@ public class ImportStocksMain {
                 new InventoryStateDatabaseHelper(dbUrl));
 
         System.out.println("Import start...");
-        service.safeReplaceAll(p.toFile());
+        if (files.size() > 1 || allSheets) {
+            int threads = Runtime.getRuntime().availableProcessors();
+            // svaka dretva svoju kopiju readera (autodetekcija stupaca)
+            var list = service.importCurrentStateBatch(files, allSheets, threads,
+                    (file, sheet, sink) -> reader.copy().parse(file, sheet).forEach(sink));
+            System.out.println("Batch: " + files.size() + " datoteka, upisano artikala: " + list.size());
+        } else {
+            service.safeReplaceAll(files.get(0));
+        }
         System.out.println("Import gotov.");
     }
 }
\ No newline at end of file
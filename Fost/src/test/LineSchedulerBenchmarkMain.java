@@ -0,0 +1,169 @@
+package test;
+
+import logic.LineScheduler;
+import logic.ProductionPlanner;
+
+import javax.swing.table.DefaultTableModel;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Raspoređivanje sintetičkih narudžbi na više linija (jedna s dvije smjene) preko LineScheduler-a
+ * i usporedba s jednostavnim prolazom kroz sve linije za svaku narudžbu (bez PriorityQueue).
+ * Provjerava da su početak, kraj i linija isti i ispisuje vremena te opterećenje po liniji.
+ * Na kraju provjerava učinak linija izračunat iz male tablice povijesti.
+ *
+ * Pokretanje: java test.LineSchedulerBenchmarkMain [broj_narudzbi] [broj_linija]
+ */
+public class LineSchedulerBenchmarkMain {
+
+    private static final int CHECK = 2_000;
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int lineCount = args.length > 1 ? Integer.parseInt(args[1]) : 6;
+        LocalDate today = LocalDate.now();
+        LocalDateTime from = LocalDateTime.of(today, LocalTime.of(9, 30));
+
+        Random rnd = new Random(11);
+        ProductionPlanner.Orders orders = new ProductionPlanner.Orders(n);
+        for (int i = 0; i < n; i++) {
+            double m2 = rnd.nextInt(20) == 0 ? 0.0 : Math.round(rnd.nextDouble() * 600.0 * 100.0) / 100.0;
+            orders.add(i, m2, today.toEpochDay() - 30 + rnd.nextInt(90), rnd.nextInt(10) == 0 ? -1 : 0);
+        }
+        List<LineScheduler.Line> lines = new ArrayList<>();
+        for (int l = 0; l < lineCount; l++) {
+            LineScheduler.Line line = new LineScheduler.Line("L" + (l + 1), 25.0 + rnd.nextInt(40));
+            if (l == 0) line = line.withShifts(LocalTime.of(6, 0), LocalTime.of(14, 0), LocalTime.of(14, 30), LocalTime.of(22, 30));
+            lines.add(line);
+        }
+
+        LineScheduler scheduler = new LineScheduler();
+        LineScheduler.Result res = null;
+        long best = Long.MAX_VALUE;
+        for (int r = 0; r < 5; r++) {
+            long t0 = System.nanoTime();
+            res = scheduler.schedule(orders, lines, from);
+            best = Math.min(best, System.nanoTime() - t0);
+        }
+        System.out.printf("LineScheduler: %d narudžbi, %d linija, najbolje od 5: %.2f ms, kraj plana %s%n",
+                n, lineCount, best / 1e6, res.getPlanEnd());
+        for (int l = 0; l < lines.size(); l++) {
+            System.out.printf("  %s: %d narudžbi, %.0f m2, %.1f h, kraj %s%n", lines.get(l), res.getLineOrders(l),
+                    res.getLineM2(l), res.getLineHours(l), res.getLineEnd(l));
+        }
+
+        // usporedba na prvih CHECK narudžbi (prolaz minutu po minutu je spor)
+        int check = Math.min(n, CHECK);
+        ProductionPlanner.Orders sample = new ProductionPlanner.Orders(check);
+        for (int i = 0; i < check; i++) sample.add(i, orders.m2(i), orders.earliestDay(i), orders.priority(i));
+        res = scheduler.schedule(sample, lines, from);
+        long t0 = System.nanoTime();
+        long[][] brute = bruteForce(sample, lines, from);
+        long bruteNanos = System.nanoTime() - t0;
+        int diff = 0;
+        for (int i = 0; i < check; i++) {
+            long s = brute[0][i], e = brute[1][i];
+            if (s != res.startMinute(i) || e != res.endMinute(i) || brute[2][i] != res.line(i)) {
+                if (diff++ < 10) System.out.println("RAZLIKA red " + i + ": " + res.start(i) + "-" + res.end(i) + " " + res.lineName(i)
+                        + " / linija " + brute[2][i]);
+            }
+        }
+        System.out.printf("Prolaz kroz sve linije (%d narudžbi): %.1f ms%n", check, bruteNanos / 1e6);
+        System.out.println(diff == 0 ? "Rasporedi su isti." : "Razlika: " + diff);
+
+        historyCheck();
+    }
+
+    /** Za svaku narudžbu redom: sve linije, najraniji završetak (pa manji indeks linije). */
+    private static long[][] bruteForce(ProductionPlanner.Orders orders, List<LineScheduler.Line> lines, LocalDateTime from) {
+        int n = orders.size();
+        long[][] out = new long[3][n];
+        java.util.Arrays.fill(out[0], LineScheduler.NO_TIME);
+        java.util.Arrays.fill(out[1], LineScheduler.NO_TIME);
+        java.util.Arrays.fill(out[2], -1);
+        LocalDateTime[] free = new LocalDateTime[lines.size()];
+        java.util.Arrays.fill(free, from);
+
+        Integer[] idx = new Integer[n];
+        for (int i = 0; i < n; i++) idx[i] = i;
+        java.util.Arrays.sort(idx, (a, b) -> {
+            int c = Integer.compare(orders.priority(a), orders.priority(b));
+            if (c != 0) return c;
+            long today = from.toLocalDate().toEpochDay();
+            c = Long.compare(Math.max(today, orders.earliestDay(a)), Math.max(today, orders.earliestDay(b)));
+            return c != 0 ? c : Integer.compare(a, b);
+        });
+        for (int i : idx) {
+            if (orders.m2(i) <= 0.0) continue;
+            int bestLine = -1;
+            LocalDateTime bestStart = null, bestEnd = null;
+            for (int l = 0; l < lines.size(); l++) {
+                LineScheduler.Line line = lines.get(l);
+                long minutes = Math.max(1L, (long) Math.ceil(orders.m2(i) / line.getM2PerHour() * 60.0 - 1e-9));
+                LocalDateTime[] se = walk(line, free[l], minutes);
+                if (bestEnd == null || se[1].isBefore(bestEnd)) {
+                    bestLine = l;
+                    bestStart = se[0];
+                    bestEnd = se[1];
+                }
+            }
+            free[bestLine] = bestEnd;
+            out[0][i] = toMinute(bestStart);
+            out[1][i] = toMinute(bestEnd);
+            out[2][i] = bestLine;
+        }
+        return out;
+    }
+
+    /** Hodanje po smjenama minutu po minutu: početak i kraj posla od minutes minuta. */
+    private static LocalDateTime[] walk(LineScheduler.Line line, LocalDateTime from, long minutes) {
+        LocalTime[] shifts = line.getShifts();
+        LocalDateTime start = null, t = from;
+        long left = minutes;
+        while (true) {
+            LocalDate d = t.toLocalDate();
+            boolean inShift = false;
+            if (logic.WorkingDayCalendar.isWorkingDay(d)) {
+                int m = t.getHour() * 60 + t.getMinute();
+                for (int k = 0; k < shifts.length; k += 2) {
+                    int s = shifts[k].toSecondOfDay() / 60, e = shifts[k + 1].toSecondOfDay() / 60;
+                    if (e == 0) e = 24 * 60;
+                    if (m >= s && m < e) inShift = true;
+                }
+            }
+            if (inShift) {
+                if (start == null) start = t;
+                left--;
+                t = t.plusMinutes(1);
+                if (left == 0) return new LocalDateTime[]{start, t};
+            } else {
+                t = t.plusMinutes(1);
+            }
+        }
+    }
+
+    private static long toMinute(LocalDateTime t) {
+        return t.toLocalDate().toEpochDay() * 24 * 60 + t.getHour() * 60L + t.getMinute();
+    }
+
+    private static void historyCheck() {
+        DefaultTableModel model = new DefaultTableModel(
+                new Object[]{"status", "djelatnik", "m2", "startTime", "endTime", "duration"}, 0);
+        model.addRow(new Object[]{"izrađeno", "Ana", 120.0, "", "", "04:00"});
+        model.addRow(new Object[]{"izrađeno", "Ana", 80.0, "", "", "04:00"});
+        model.addRow(new Object[]{"izrađeno", "Marko", 90.0, "06.03.2024 07:00", "06.03.2024 10:00", ""});
+        model.addRow(new Object[]{"izrađeno", "Ivo", 30.0, "", "", "01:00"});
+        model.addRow(new Object[]{"", "Ana", 500.0, "", "", "01:00"});
+        List<LineScheduler.Line> lines = LineScheduler.linesFromHistory(model, LineScheduler.DEFAULT_M2_PER_HOUR);
+        System.out.println("Linije iz povijesti: " + lines);
+        boolean ok = lines.size() == 2                                      // Ivo: 1 h < MIN_HISTORY_HOURS, bez linije
+                && Math.abs(lines.get(0).getM2PerHour() - 25.0) < 1e-9        // Ana: 200 m2 / 8 h
+                && Math.abs(lines.get(1).getM2PerHour() - 30.0) < 1e-9;       // Marko: 90 m2 / 3 h
+        System.out.println(ok ? "Učinak iz povijesti je ispravan." : "Učinak iz povijesti NIJE ispravan.");
+    }
+}
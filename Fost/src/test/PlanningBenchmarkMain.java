@@ -0,0 +1,198 @@
+package test;
+
+import logic.CapacityCalendar;
+import logic.ProductionPlanner;
+import logic.WorkingTimeCalculator;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Usporedba dosadašnjeg planiranja iz UI-a (LocalDate, traženje narudžbe od početka reda za svaki
+ * dio dana) i logic.ProductionPlanner-a na sintetičkim otvorenim narudžbama. Provjerava da su
+ * plan datumi isti i ispisuje vremena.
+ *
+ * Pokretanje: java test.PlanningBenchmarkMain [broj_narudzbi] [ponavljanja]
+ */
+public class PlanningBenchmarkMain {
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        LocalDate today = LocalDate.now();
+
+        Random rnd = new Random(42);
+        double[] m2 = new double[n];
+        LocalDate[] orderDate = new LocalDate[n];
+        for (int i = 0; i < n; i++) {
+            m2[i] = rnd.nextInt(20) == 0 ? 0.0 : Math.round(rnd.nextDouble() * 6000.0 * 100.0) / 100.0;
+            orderDate[i] = today.minusDays(60).plusDays(rnd.nextInt(120));
+        }
+
+        long t0 = System.nanoTime();
+        LocalDate[] legacy = legacyPlan(m2, orderDate, today);
+        long legacyNanos = System.nanoTime() - t0;
+        System.out.printf("Staro planiranje: %d narudžbi, %.1f ms%n", n, legacyNanos / 1e6);
+
+        CapacityCalendar calendar = CapacityCalendar.workingDays(ProductionPlanner.DEFAULT_DAILY_CAPACITY_M2);
+        ProductionPlanner planner = new ProductionPlanner();
+        ProductionPlanner.Plan plan = null;
+        long best = Long.MAX_VALUE;
+        for (int r = 0; r < rounds; r++) {
+            t0 = System.nanoTime();
+            ProductionPlanner.Orders orders = new ProductionPlanner.Orders(n);
+            for (int i = 0; i < n; i++) {
+                orders.add(i, m2[i], orderDate[i].toEpochDay() + ProductionPlanner.DEFAULT_LEAD_DAYS, 0);
+            }
+            plan = planner.plan(orders, calendar, today);
+            best = Math.min(best, System.nanoTime() - t0);
+        }
+        System.out.printf("ProductionPlanner: najbolje od %d: %.2f ms (zadnji dan %s)%n", rounds, best / 1e6, plan.getLastDate());
+
+        int diff = 0;
+        for (int i = 0; i < n; i++) {
+            if (!legacy[i].equals(plan.planDate(i))) {
+                if (diff < 10) System.out.println("RAZLIKA red " + i + ": staro=" + legacy[i] + " novo=" + plan.planDate(i));
+                diff++;
+            }
+        }
+        System.out.println(diff == 0 ? "Plan datumi su isti." : "Razlika: " + diff);
+
+        incrementalCheck(m2, orderDate, today, calendar, planner, Math.min(rounds * 20, 500));
+    }
+
+    /**
+     * Nasumične pojedinačne promjene (m2, prioritet, izrađeno/vraćeno, nova narudžba) preko
+     * ProductionPlanner.Schedule i usporedba s potpunim planiranjem nakon svake promjene.
+     */
+    private static void incrementalCheck(double[] m2Init, LocalDate[] orderDate, LocalDate today,
+                                         CapacityCalendar calendar, ProductionPlanner planner, int edits) {
+        int n = m2Init.length;
+        int cap = n + edits;
+        double[] m2 = java.util.Arrays.copyOf(m2Init, cap);
+        long[] earliest = new long[cap];
+        int[] prio = new int[cap];
+        boolean[] open = new boolean[cap];
+        for (int i = 0; i < n; i++) {
+            earliest[i] = orderDate[i].toEpochDay() + ProductionPlanner.DEFAULT_LEAD_DAYS;
+            open[i] = true;
+        }
+        ProductionPlanner.Schedule schedule = planner.newSchedule(calendar, today);
+        for (int i = 0; i < n; i++) schedule.put(i, m2[i], earliest[i], prio[i]);
+        schedule.replan();
+
+        Random rnd = new Random(7);
+        int size = n;
+        long totalNanos = 0, maxNanos = 0;
+        int mismatches = 0;
+        for (int e = 0; e < edits; e++) {
+            int id = rnd.nextInt(size);
+            long t0 = System.nanoTime();
+            switch (rnd.nextInt(4)) {
+                case 0 -> { m2[id] = Math.round(rnd.nextDouble() * 6000.0 * 100.0) / 100.0; if (open[id]) schedule.put(id, m2[id], earliest[id], prio[id]); }
+                case 1 -> { prio[id] = rnd.nextInt(3) - 1; if (open[id]) schedule.put(id, m2[id], earliest[id], prio[id]); }
+                case 2 -> {
+                    open[id] = !open[id];
+                    if (open[id]) schedule.put(id, m2[id], earliest[id], prio[id]); else schedule.remove(id);
+                }
+                default -> {
+                    id = size++;
+                    m2[id] = Math.round(rnd.nextDouble() * 3000.0 * 100.0) / 100.0;
+                    earliest[id] = today.toEpochDay() + rnd.nextInt(30);
+                    open[id] = true;
+                    schedule.put(id, m2[id], earliest[id], prio[id]);
+                }
+            }
+            schedule.replan();
+            long nanos = System.nanoTime() - t0;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+
+            if (e % 10 == 9 || e == edits - 1) {
+                ProductionPlanner.Orders orders = new ProductionPlanner.Orders(size);
+                for (int i = 0; i < size; i++) {
+                    if (open[i]) orders.add(i, m2[i], earliest[i], prio[i]);
+                }
+                ProductionPlanner.Plan full = planner.plan(orders, calendar, today);
+                for (int i = 0; i < orders.size(); i++) {
+                    if (full.planDay(i) != schedule.planDay(orders.id(i))) mismatches++;
+                }
+            }
+        }
+        System.out.printf("Inkrementalno: %d promjena, prosjek %.3f ms, najviše %.3f ms, razlika prema potpunom planu: %d%n",
+                edits, totalNanos / 1e6 / edits, maxNanos / 1e6, mismatches);
+    }
+
+    /** Dosadašnji algoritam iz UI.computePlanDatumIsporukeForAllRows (bez tablice). */
+    private static LocalDate[] legacyPlan(double[] m2, LocalDate[] orderDate, LocalDate today) {
+        final double cap = ProductionPlanner.DEFAULT_DAILY_CAPACITY_M2;
+        final double perArticle = ProductionPlanner.DEFAULT_PER_ORDER_DAILY_CAP_M2;
+        final double eps = 1e-6;
+        LocalDate[] out = new LocalDate[m2.length];
+
+        class Order {
+            final int row;
+            double remaining;
+            final LocalDate earliest;
+            double assignedToday;
+            Order(int row, double remaining, LocalDate earliest) {
+                this.row = row; this.remaining = remaining; this.earliest = earliest;
+            }
+        }
+        List<Order> queue = new ArrayList<>();
+        for (int r = 0; r < m2.length; r++) {
+            LocalDate earliest = orderDate[r].plusDays(ProductionPlanner.DEFAULT_LEAD_DAYS);
+            if (m2[r] <= 0.0) {
+                out[r] = nextWorkingDay(earliest.isBefore(today) ? today : earliest);
+                continue;
+            }
+            if (earliest.isBefore(today)) earliest = today;
+            queue.add(new Order(r, m2[r], earliest));
+        }
+        queue.sort((a, b) -> {
+            int c = a.earliest.compareTo(b.earliest);
+            return c != 0 ? c : Integer.compare(a.row, b.row);
+        });
+
+        int remainingOrders = queue.size();
+        LocalDate day = nextWorkingDay(today);
+        int safety = 365 * 5;
+        while (remainingOrders > 0 && safety-- > 0) {
+            for (Order o : queue) o.assignedToday = 0.0;
+            double dayRemaining = cap;
+            while (dayRemaining > eps) {
+                Order pick = null;
+                for (Order o : queue) {
+                    if (o.remaining > eps && !day.isBefore(o.earliest) && o.assignedToday + eps < perArticle) { pick = o; break; }
+                }
+                if (pick == null) {
+                    for (Order o : queue) {
+                        if (o.remaining > eps && o.assignedToday + eps < perArticle) { pick = o; break; }
+                    }
+                }
+                if (pick == null) break;
+                double assign = Math.min(pick.remaining, Math.min(perArticle - pick.assignedToday, dayRemaining));
+                if (assign <= eps) break;
+                pick.remaining -= assign;
+                pick.assignedToday += assign;
+                dayRemaining -= assign;
+                if (pick.remaining <= eps) {
+                    out[pick.row] = day;
+                    remainingOrders--;
+                }
+            }
+            day = nextWorkingDay(day.plusDays(1));
+        }
+        for (Order o : queue) {
+            if (out[o.row] == null) out[o.row] = nextWorkingDay(o.earliest);
+        }
+        return out;
+    }
+
+    private static LocalDate nextWorkingDay(LocalDate d) {
+        while (WorkingTimeCalculator.isHolidayOrWeekend(d)) d = d.plusDays(1);
+        return d;
+    }
+}
@@ -0,0 +1,152 @@
+package test;
+
+import logic.WorkingDayCalendar;
+import logic.WorkingTimeCalculator;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Usporedba dosadašnjih petlji po danima (radne minute, radni dani u rasponu, N-ti radni dan,
+ * dodavanje radnih minuta) i WorkingDayCalendar indeksa na nasumičnim intervalima.
+ * Provjerava da su rezultati isti i ispisuje vremena.
+ *
+ * Pokretanje: java test.WorkingCalendarBenchmarkMain [broj_uzoraka]
+ */
+public class WorkingCalendarBenchmarkMain {
+
+    private static final LocalTime WORK_START = LocalTime.of(7, 0);
+    private static final LocalTime WORK_END = LocalTime.of(15, 0);
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        Random rnd = new Random(3);
+        LocalDateTime[] from = new LocalDateTime[n];
+        LocalDateTime[] to = new LocalDateTime[n];
+        int[] counts = new int[n];
+        LocalDateTime base = LocalDateTime.of(2020, 1, 1, 0, 0);
+        for (int i = 0; i < n; i++) {
+            from[i] = base.plusMinutes(rnd.nextInt(60 * 24 * 365 * 8)).plusSeconds(rnd.nextInt(4) == 0 ? rnd.nextInt(60) : 0);
+            to[i] = from[i].plusMinutes(rnd.nextInt(60 * 24 * 400));
+            counts[i] = rnd.nextInt(300);
+        }
+
+        int diff = 0;
+        long tOld = 0, tNew = 0, t0;
+
+        t0 = System.nanoTime();
+        long[] oldMinutes = new long[n];
+        for (int i = 0; i < n; i++) oldMinutes[i] = legacyWorkingMinutes(from[i], to[i]);
+        tOld += System.nanoTime() - t0;
+        t0 = System.nanoTime();
+        long[] newMinutes = new long[n];
+        for (int i = 0; i < n; i++) newMinutes[i] = WorkingTimeCalculator.calculateWorkingMinutes(from[i], to[i]);
+        tNew += System.nanoTime() - t0;
+        for (int i = 0; i < n; i++) {
+            if (oldMinutes[i] != newMinutes[i]) {
+                if (diff++ < 10) System.out.println("RAZLIKA minute " + from[i] + " - " + to[i] + ": " + oldMinutes[i] + " / " + newMinutes[i]);
+            }
+        }
+        report("radne minute", n, tOld, tNew);
+
+        tOld = tNew = 0;
+        for (int i = 0; i < n; i++) {
+            LocalDate a = from[i].toLocalDate(), b = to[i].toLocalDate();
+            t0 = System.nanoTime();
+            int o = legacyWorkingDaysBetween(a, b);
+            LocalDate on = legacyAddWorkingDays(a, counts[i]);
+            tOld += System.nanoTime() - t0;
+            t0 = System.nanoTime();
+            int w = WorkingDayCalendar.workingDaysBetween(a, b);
+            LocalDate wn = WorkingDayCalendar.addWorkingDays(a, counts[i]);
+            tNew += System.nanoTime() - t0;
+            if (o != w || !on.equals(wn)) {
+                if (diff++ < 10) System.out.println("RAZLIKA dani " + a + " - " + b + " +" + counts[i] + ": " + o + "/" + w + " " + on + "/" + wn);
+            }
+        }
+        report("radni dani + N-ti radni dan", n, tOld, tNew);
+
+        tOld = tNew = 0;
+        for (int i = 0; i < n; i++) {
+            long minutes = 1 + rnd.nextInt(60 * 8 * 40);
+            t0 = System.nanoTime();
+            LocalDateTime o = legacyAddWorkingMinutes(from[i], minutes);
+            tOld += System.nanoTime() - t0;
+            t0 = System.nanoTime();
+            LocalDateTime w = WorkingDayCalendar.addWorkingMinutes(from[i], minutes);
+            tNew += System.nanoTime() - t0;
+            if (!o.equals(w)) {
+                if (diff++ < 10) System.out.println("RAZLIKA +minute " + from[i] + " +" + minutes + ": " + o + " / " + w);
+            }
+        }
+        report("dodavanje radnih minuta", n, tOld, tNew);
+
+        System.out.println(diff == 0 ? "Rezultati su isti." : "Razlika: " + diff);
+    }
+
+    private static void report(String what, int n, long oldNanos, long newNanos) {
+        System.out.printf("%s: %d uzoraka, petlja %.1f ms, indeks %.1f ms%n", what, n, oldNanos / 1e6, newNanos / 1e6);
+    }
+
+    // ===== dosadašnje implementacije =====
+
+    private static long legacyWorkingMinutes(LocalDateTime start, LocalDateTime end) {
+        if (!end.isAfter(start)) return 0L;
+        Set<LocalDate> holidays = new HashSet<>();
+        for (int y = start.getYear(); y <= end.getYear(); y++) holidays.addAll(WorkingTimeCalculator.getHolidaysForYear(y));
+        long total = 0;
+        for (LocalDate d = start.toLocalDate(); !d.isAfter(end.toLocalDate()); d = d.plusDays(1)) {
+            DayOfWeek dow = d.getDayOfWeek();
+            if (dow == DayOfWeek.SATURDAY || dow == DayOfWeek.SUNDAY || holidays.contains(d)) continue;
+            LocalDateTime s = LocalDateTime.of(d, WORK_START), e = LocalDateTime.of(d, WORK_END);
+            LocalDateTime segStart = start.isAfter(s) ? start : s;
+            LocalDateTime segEnd = end.isBefore(e) ? end : e;
+            if (segEnd.isAfter(segStart)) total += ChronoUnit.MINUTES.between(segStart, segEnd);
+        }
+        return total;
+    }
+
+    private static boolean legacyIsWorkingDay(LocalDate d) {
+        DayOfWeek dow = d.getDayOfWeek();
+        return !(dow == DayOfWeek.SATURDAY || dow == DayOfWeek.SUNDAY || WorkingTimeCalculator.getHolidaysForYear(d.getYear()).contains(d));
+    }
+
+    private static int legacyWorkingDaysBetween(LocalDate start, LocalDate end) {
+        int n = 0;
+        for (LocalDate d = start; !d.isAfter(end); d = d.plusDays(1)) if (legacyIsWorkingDay(d)) n++;
+        return n;
+    }
+
+    private static LocalDate legacyAddWorkingDays(LocalDate start, int n) {
+        LocalDate d = start;
+        int added = 0;
+        while (added < n) {
+            d = d.plusDays(1);
+            if (legacyIsWorkingDay(d)) added++;
+        }
+        return d;
+    }
+
+    /** Petlja iz ExcelImporter-a (predPlan po redu), s vraćanjem završnog trenutka. */
+    private static LocalDateTime legacyAddWorkingMinutes(LocalDateTime cursor, long remaining) {
+        if (!cursor.toLocalTime().isBefore(WORK_END)) cursor = LocalDateTime.of(cursor.toLocalDate().plusDays(1), WORK_START);
+        LocalDateTime seg = cursor;
+        while (true) {
+            LocalDate d = seg.toLocalDate();
+            if (!legacyIsWorkingDay(d)) { seg = LocalDateTime.of(d.plusDays(1), WORK_START); continue; }
+            LocalDateTime dayStart = LocalDateTime.of(d, WORK_START), dayEnd = LocalDateTime.of(d, WORK_END);
+            LocalDateTime segStart = seg.isAfter(dayStart) ? seg : dayStart;
+            long avail = dayEnd.isAfter(segStart) ? ChronoUnit.MINUTES.between(segStart, dayEnd) : 0;
+            if (avail <= 0) { seg = LocalDateTime.of(d.plusDays(1), WORK_START); continue; }
+            if (remaining <= avail) return segStart.plusMinutes(remaining);
+            remaining -= avail;
+            seg = LocalDateTime.of(d.plusDays(1), WORK_START);
+        }
+    }
+}
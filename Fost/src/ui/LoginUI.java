@@ -151,7 +151,14 @@ public class LoginUI extends JFrame {
     private void openInventoryWindow() throws Exception {
         JFrame f = new JFrame("Production Inventory");
         f.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
-        f.setContentPane(new ProductionInventoryPanel(DB_URL));
+        ProductionInventoryPanel panel = new ProductionInventoryPanel(DB_URL);
+        f.setContentPane(panel);
+        f.addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosed(java.awt.event.WindowEvent e) {
+                panel.stopFolderWatch();
+            }
+        });
         f.setSize(1400, 780);
         f.setLocationRelativeTo(this);
         f.setVisible(true);
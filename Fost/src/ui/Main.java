@@ -2,18 +2,16 @@ package ui;
 
 import javax.swing.SwingUtilities;
 import java.io.File;
-import java.util.List;
 
 import db.KomitentiDatabaseHelper;
 import db.UserDatabaseHelper;
 import db.PredstavniciDatabaseHelper; // Pretpostavljam da je ovo import, ako javlja grešku provjeri package
-import excel.ExcelKomitentReader;
-import model.KomitentInfo;
+import service.KomitentiStartupImport;
 
 /**
  * Glavna klasa aplikacije. 
- * Inicijalizira baze podataka, SIGURNO učitava podatke iz Excela (ako postoji) 
- * i pokreće Login UI.
+ * Inicijalizira baze podataka, pokreće Login UI i u pozadini uvozi komitente iz Excela
+ * (ako postoji i promijenio se od zadnjeg uvoza).
  */
 public class Main {
     public static void main(String[] args) {
@@ -49,28 +47,16 @@ public class Main {
 
         // ... ostatak tvog koda (učitavanje Excela itd.) ...
 
-        // 3. Sigurno čitanje iz Excela
+        // 3. Pokretanje Login UI-ja (ovo se izvršava bez obzira na Excel)
+        SwingUtilities.invokeLater(() -> new LoginUI());
+
+        // 4. Uvoz komitenata iz Excela u pozadini, samo ako se datoteka promijenila od zadnjeg uvoza
         String excelPath = "komitenti i trgpredstavnici.xlsx";
         File excelFile = new File(excelPath);
 
         if (excelFile.exists() && !excelFile.isDirectory()) {
-            System.out.println("Excel datoteka pronađena: " + excelPath);
-            try {
-                // Kreiraj reader i učitaj podatke
-                ExcelKomitentReader reader = new ExcelKomitentReader(excelPath);
-                List<KomitentInfo> lista = reader.readData();
-
-                // Spremi u DB
-                KomitentiDatabaseHelper.saveToDatabase(lista);
-                System.out.println("Podaci iz Excela uspješno spremljeni u bazu.");
-
-                // Ispis za provjeru
-                KomitentiDatabaseHelper.loadAllRows();
-
-            } catch (Exception e) {
-                System.err.println("GREŠKA prilikom čitanja Excela: " + e.getMessage());
-                e.printStackTrace();
-            }
+            System.out.println("Excel datoteka pronađena: " + excelPath + " (provjera promjena u pozadini)");
+            new KomitentiStartupImport(excelFile).runInBackground();
         } else {
             // OVO JE ONAJ DIO KOJI SPRJEČAVA RUŠENJE
             System.out.println("!!! UPOZORENJE !!!");
@@ -78,8 +64,5 @@ public class Main {
             System.out.println("Aplikacija nastavlja s radom bez uvoza novih komitenata.");
             System.out.println("--------------------------------------------------");
         }
-
-        // 4. Pokretanje Login UI-ja (ovo se izvršava bez obzira na Excel)
-        SwingUtilities.invokeLater(() -> new LoginUI());
     }
 }
\ No newline at end of file
@@ -0,0 +1,175 @@
+package ui;
+
+import db.DatabaseHelper;
+
+import javax.swing.SwingWorker;
+import javax.swing.table.AbstractTableModel;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read-only prikaz svih narudžbi (arhiva) koji redove čita iz baze po blokovima.
+ *
+ * - getRowCount() je COUNT(*) (keširan do refresh()).
+ * - Redovi se učitavaju u blokovima od BLOCK_SIZE i drže u LRU cache-u od MAX_BLOCKS blokova,
+ *   pa memorija ne raste s veličinom tablice.
+ * - Sortiranje i filtriranje rade se u SQL-u (setSort / setFilter), ne preko TableRowSorter-a.
+ * - SQL se nikad ne izvodi na EDT-u: broj redova i blokovi učitavaju se u SwingWorker-u, dok
+ *   blok ne stigne redovi su prazni, a po dolasku se osvježi samo taj raspon redova.
+ *   Rezultati učitani prije refresh() (stari filter/sort) se odbacuju.
+ */
+public class PagedOrdersTableModel extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+
+    private static final int BLOCK_SIZE = 200;
+    private static final int MAX_BLOCKS = 20;
+
+    private final String[] columns;
+
+    private final Map<Integer, List<Object[]>> blocks =
+            new LinkedHashMap<>(MAX_BLOCKS * 2, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, List<Object[]>> eldest) {
+                    return size() > MAX_BLOCKS;
+                }
+            };
+    /** Blokovi koji se trenutno učitavaju (da se isti blok ne traži više puta). */
+    private final Set<Integer> loading = new HashSet<>();
+
+    private int rowCount = -1;
+    private boolean countLoading = false;
+    /** Povećava se na refresh(); rezultat starije generacije se ne primjenjuje. */
+    private int generation = 0;
+    private String filterText = "";
+    private String sortColumn = null;
+    private boolean ascending = true;
+
+    public PagedOrdersTableModel(String[] columns) {
+        this.columns = columns.clone();
+    }
+
+    /** Sortiranje po stupcu (model indeks); ponovni klik na isti stupac mijenja smjer. */
+    public void toggleSort(int column) {
+        String col = columns[column];
+        if (col.equals(sortColumn)) {
+            ascending = !ascending;
+        } else {
+            sortColumn = col;
+            ascending = true;
+        }
+        refresh();
+    }
+
+    public void setFilter(String text) {
+        String t = text == null ? "" : text.trim();
+        if (t.equals(filterText)) return;
+        filterText = t;
+        refresh();
+    }
+
+    /** Odbacuje cache i broj redova (npr. nakon spremanja u bazu). */
+    public void refresh() {
+        generation++;
+        blocks.clear();
+        loading.clear();
+        rowCount = -1;
+        countLoading = false;
+        fireTableDataChanged();
+    }
+
+    /** id narudžbe u bazi za zadani red ili null ako blok još nije učitan. */
+    public Long getRowKey(int rowIndex) {
+        Object[] row = row(rowIndex);
+        return row == null || row[0] == null ? null : ((Number) row[0]).longValue();
+    }
+
+    private Object[] row(int rowIndex) {
+        int blockNo = rowIndex / BLOCK_SIZE;
+        List<Object[]> block = blocks.get(blockNo);
+        if (block == null) {
+            loadBlockAsync(blockNo);
+            return null;
+        }
+        int i = rowIndex - blockNo * BLOCK_SIZE;
+        return i < block.size() ? block.get(i) : null;
+    }
+
+    private void loadBlockAsync(int blockNo) {
+        if (!loading.add(blockNo)) return;
+        final int gen = generation;
+        final String filter = filterText;
+        final String sort = sortColumn;
+        final boolean asc = ascending;
+        new SwingWorker<List<Object[]>, Void>() {
+            @Override
+            protected List<Object[]> doInBackground() {
+                return DatabaseHelper.loadOrdersPage(columns, filter, sort, asc, blockNo * BLOCK_SIZE, BLOCK_SIZE);
+            }
+
+            @Override
+            protected void done() {
+                if (gen != generation) return;
+                loading.remove(blockNo);
+                try {
+                    blocks.put(blockNo, get());
+                } catch (Exception ex) {
+                    ex.printStackTrace();
+                    return;
+                }
+                int first = blockNo * BLOCK_SIZE;
+                int last = Math.min(getRowCount(), first + BLOCK_SIZE) - 1;
+                if (last >= first) fireTableRowsUpdated(first, last);
+            }
+        }.execute();
+    }
+
+    private void loadCountAsync() {
+        if (countLoading) return;
+        countLoading = true;
+        final int gen = generation;
+        final String filter = filterText;
+        new SwingWorker<Integer, Void>() {
+            @Override
+            protected Integer doInBackground() {
+                return DatabaseHelper.countOrders(filter);
+            }
+
+            @Override
+            protected void done() {
+                if (gen != generation) return;
+                countLoading = false;
+                try {
+                    rowCount = get();
+                } catch (Exception ex) {
+                    ex.printStackTrace();
+                    rowCount = 0;
+                }
+                fireTableDataChanged();
+            }
+        }.execute();
+    }
+
+    @Override
+    public int getRowCount() {
+        if (rowCount < 0) {
+            loadCountAsync();
+            return 0;
+        }
+        return rowCount;
+    }
+
+    @Override public int getColumnCount() { return columns.length; }
+    @Override public String getColumnName(int column) { return columns[column]; }
+    @Override public boolean isCellEditable(int rowIndex, int columnIndex) { return false; }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        Object[] r = row(rowIndex);
+        return r == null ? null : r[columnIndex + 1];
+    }
+}
@@ -7,8 +7,13 @@ import dao.ProductGroupDao;
 import dao.ProductSupplierDao;
 import dao.SalesDaoImpl;
 import dao.SupplierDao;
+import db.InventoryStateDatabaseHelper;
+import excel.ExcelInventoryStateReader;
 import excel.ExcelProductInventoryReader;
+import logic.InventoryImportService;
 import model.ProductInventoryView;
+import service.AffectedRange;
+import service.FolderWatchImportService;
 import service.ImportService;
 import service.InventoryService;
 import service.ProductService;
@@ -20,6 +25,8 @@ import javax.swing.table.TableCellEditor;
 import javax.swing.table.TableColumn;
 import java.awt.*;
 import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.SQLException;
 import java.text.NumberFormat;
 import java.time.LocalDate;
@@ -71,6 +78,9 @@ public class ProductionInventoryPanel extends JPanel {
     private final SalesImportService salesImportService;
     private final SalesMaintenanceService maintenanceService;
 
+    // automatski uvoz iz drop mapa (null = nije konfiguriran)
+    private FolderWatchImportService folderWatch;
+
     private Predicate<ProductInventoryView> activePredicate = v -> true;
     private String activeGroupFilter = null;
     private String activeSearchText = "";
@@ -108,7 +118,7 @@ public class ProductionInventoryPanel extends JPanel {
         ExcelProductInventoryReader reader = new ExcelProductInventoryReader()
                 .withHeader(true)
                 .enableDebug(false);
-        this.importService = new ImportService(reader, productDao, invDao, groupDao);
+        this.importService = new ImportService(reader, productDao, invDao, groupDao, cp);
 
         var salesDao = new SalesDaoImpl(cp);
         this.productService = new ProductService(invDao, salesDao, productSupplierDao);
@@ -128,6 +138,7 @@ public class ProductionInventoryPanel extends JPanel {
         cmbPeriod.addActionListener(e -> reload());
 
         reload();
+        startFolderWatch(dbUrl);
     }
 
     /* ------------------------------------------------------------------
@@ -157,6 +168,7 @@ public class ProductionInventoryPanel extends JPanel {
 
         JButton btnClrStock  = new JButton("Obriši zalihe");
         JButton btnClrSales  = new JButton("Obriši prodaju");
+        JButton btnRebuildRollup = new JButton("Obnovi sažetak prodaje");
 
         bar.add(btnReload);
         bar.add(btnImport);
@@ -180,6 +192,7 @@ public class ProductionInventoryPanel extends JPanel {
         bar.add(btnAssign);
         bar.add(btnClrStock);
         bar.add(btnClrSales);
+        bar.add(btnRebuildRollup);
 
         // Listeners stare + nove funkcije
         btnReload.addActionListener(e -> reload());
@@ -199,6 +212,7 @@ public class ProductionInventoryPanel extends JPanel {
         btnOrders.addActionListener(e -> generateOrdersForPeriod()); // nova metoda
         btnClrStock.addActionListener(e -> clearAllInventory());
         btnClrSales.addActionListener(e -> clearAllSales());
+        btnRebuildRollup.addActionListener(e -> rebuildSalesRollup());
 
         return bar;
     }
@@ -379,14 +393,112 @@ public class ProductionInventoryPanel extends JPanel {
             showError("Datoteka ne postoji: " + f.getAbsolutePath(), new RuntimeException("Missing file"));
             return;
         }
+        lblStatus.setText("Import prodaje: " + f.getName() + " ...");
+        salesImportService.withProgressListener((done, total, rps) ->
+                SwingUtilities.invokeLater(() -> lblStatus.setText(total > 0
+                        ? String.format("Import prodaje: %d / %d (%.0f redova/s)", done, total, rps)
+                        : String.format("Import prodaje: %d redova (%.0f redova/s)", done, rps))));
+        new SwingWorker<java.util.List<String>, Void>() {
+            @Override
+            protected java.util.List<String> doInBackground() throws Exception {
+                return salesImportService.importSales(f.toPath(), null);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    var messages = get();
+                    reload();
+                    JOptionPane.showMessageDialog(ProductionInventoryPanel.this,
+                            "Import prodaje gotov.\n" + String.join("\n", messages),
+                            "Prodaja", JOptionPane.INFORMATION_MESSAGE);
+                } catch (Exception ex) {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    showError("Import prodaje nije uspio: " + cause.getMessage(), ex);
+                }
+            }
+        }.execute();
+    }
+
+    /* ------------------------------------------------------------------
+       Automatski uvoz iz mapa
+       Mape: -Dfost.uvoz.mape=putanja1;putanja2 ili mapa "uvoz" u radnoj mapi (ako postoji).
+     ------------------------------------------------------------------ */
+    private void startFolderWatch(String dbUrl) {
+        java.util.List<Path> folders = new java.util.ArrayList<>();
+        String cfg = System.getProperty("fost.uvoz.mape");
+        if (cfg != null && !cfg.isBlank()) {
+            for (String part : cfg.split("[;" + File.pathSeparator + "]")) {
+                if (!part.isBlank()) folders.add(Path.of(part.trim()));
+            }
+        } else if (Files.isDirectory(Path.of("uvoz"))) {
+            folders.add(Path.of("uvoz"));
+        }
+        if (folders.isEmpty()) return;
+
+        InventoryImportService stockImport = new InventoryImportService(
+                new ExcelInventoryStateReader().withHeader(true).enableAutoDetect(true)::parse,
+                new InventoryStateDatabaseHelper(dbUrl));
+
+        // auto-uvoz ima svoj servis (bez progress listenera), da ne piše u status ručnog uvoza
+        SalesImportService watchSalesImport = new SalesImportService(cp, new ProductDao(cp))
+                .enableAutoCreateMissingProducts(true);
+
+        folderWatch = new FolderWatchImportService()
+                .withImporter(FolderWatchImportService.Kind.SALES,
+                        (file, affected) -> watchSalesImport.importSales(file.toPath(), null, affected))
+                .withImporter(FolderWatchImportService.Kind.PRODUCTS, (file, affected) -> {
+                    importService.fullImport(file, affected);
+                    return java.util.List.of("Uvezeno artikala: " + affected.getProductCodes().size());
+                })
+                .withImporter(FolderWatchImportService.Kind.STOCK, (file, affected) -> {
+                    var list = stockImport.importCurrentState(file);
+                    for (var ss : list) affected.add(ss.getProductCode());
+                    return java.util.List.of("Uvezeno stanja: " + list.size());
+                })
+                // SQLite ima jednog pisača - uvozi idu jedan za drugim, ostale datoteke čekaju u redu
+                .withThreads(1, 16)
+                .withListener(new FolderWatchImportService.Listener() {
+                    @Override
+                    public void onImported(File archived, FolderWatchImportService.Kind kind,
+                                           AffectedRange affected, java.util.List<String> messages) {
+                        SwingUtilities.invokeLater(() -> onFolderImported(archived, kind, affected));
+                    }
+
+                    @Override
+                    public void onFailed(File file, Exception error) {
+                        SwingUtilities.invokeLater(() ->
+                                updateStatus("Auto-uvoz nije uspio: " + file.getName() + " (" + error.getMessage() + ")"));
+                    }
+                });
+        folders.forEach(folderWatch::watch);
         try {
-            var messages = salesImportService.importSales(f.toPath(), null);
-            reload();
-            JOptionPane.showMessageDialog(this,
-                    "Import prodaje gotov.\n" + String.join("\n", messages),
-                    "Prodaja", JOptionPane.INFORMATION_MESSAGE);
+            folderWatch.start();
         } catch (Exception ex) {
-            showError("Import prodaje nije uspio: " + ex.getMessage(), ex);
+            folderWatch = null;
+            showError("Praćenje mapa za uvoz nije pokrenuto: " + ex.getMessage(), ex);
+        }
+    }
+
+    /** Osvježava prikaz samo ako uvoz dira prikazani period (prodaja) odnosno neki artikl. */
+    private void onFolderImported(File archived, FolderWatchImportService.Kind kind, AffectedRange affected) {
+        String info = "Auto-uvoz " + kind + ": " + archived.getName() + " (" + affected + ")";
+        if (affected.isEmpty() || !affected.overlaps(currentFrom, currentTo)) {
+            updateStatus(info + " - prikaz nije promijenjen");
+            return;
+        }
+        reload();
+        updateStatus(info);
+    }
+
+    /**
+     * Zaustavlja automatski uvoz iz mapa; poziva vlasnik prozora kod zatvaranja (ne removeNotify,
+     * koji se okida i kod premještanja panela u drugi kontejner).
+     */
+    public void stopFolderWatch() {
+        if (folderWatch != null) {
+            folderWatch.close();
+            folderWatch = null;
         }
     }
 
@@ -421,6 +533,16 @@ public class ProductionInventoryPanel extends JPanel {
         }
     }
 
+    private void rebuildSalesRollup() {
+        try {
+            int n = maintenanceService.rebuildSalesRollup();
+            reload();
+            JOptionPane.showMessageDialog(this, "Sažetak prodaje obnovljen (" + n + " redova artikl/dan).");
+        } catch (Exception ex) {
+            showError("Obnova sažetka prodaje nije uspjela: " + ex.getMessage(), ex);
+        }
+    }
+
     /* ------------------------------------------------------------------
        Sort
      ------------------------------------------------------------------ */
@@ -1,11 +1,12 @@
 package ui;
 
+import logic.CapacityScenarios;
+import logic.LineScheduler;
 import logic.ProductionStatsCalculator;
 import logic.ProductionStatsCalculator.StartMode;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 
 import javax.swing.*;
 import javax.swing.table.AbstractTableModel;
@@ -14,6 +15,10 @@ import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.io.FileOutputStream;
 import java.text.DecimalFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
@@ -23,12 +28,14 @@ import java.util.Map;
  * - Stara logika (izrađeno se ne uračunava u preostalo) ostaje u calculate(DefaultTableModel, double)
  * - Novi odabir početka plana (od sada / sutra 07:00) koristi overload s StartMode
  * - Prikaz planStart/planEnd u tablici
+ * - Scenariji kapaciteta (trenutno / +1 smjena / linija ne radi) paralelno preko CapacityScenarios
  */
 public class StatistikaPanel extends JPanel {
     private static final long serialVersionUID = 1L;
 
     private final JButton btnRefresh = new JButton("🔄 Osvježi statistiku");
     private final JButton btnExport = new JButton("📤 Izvezi u Excel");
+    private final JButton btnScenarios = new JButton("🔀 Scenariji kapaciteta");
 
     // Odabir početka plana
     private final JRadioButton rbStartNow = new JRadioButton("Kreni od sada");
@@ -78,6 +85,7 @@ public class StatistikaPanel extends JPanel {
         optionsPanel.add(rbStartTomorrow);
 
         JPanel btnPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 8, 6));
+        btnPanel.add(btnScenarios);
         btnPanel.add(btnRefresh);
         btnPanel.add(btnExport);
 
@@ -88,6 +96,7 @@ public class StatistikaPanel extends JPanel {
 
         btnRefresh.addActionListener(e -> updateStatsAsync());
         btnExport.addActionListener(e -> exportToExcel());
+        btnScenarios.addActionListener(e -> runScenariosAsync());
         rbStartNow.addActionListener(e -> updateStatsAsync());
         rbStartTomorrow.addActionListener(e -> updateStatsAsync());
 
@@ -123,7 +132,8 @@ public class StatistikaPanel extends JPanel {
         JFileChooser fc = new JFileChooser();
         fc.setSelectedFile(new java.io.File("statistika.xlsx"));
         if (fc.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
-            try (Workbook wb = new XSSFWorkbook()) {
+            SXSSFWorkbook wb = new SXSSFWorkbook(100);
+            try {
                 Sheet sheet = wb.createSheet("Statistika");
                 int row = 0;
                 // deterministički redoslijed – LinkedHashMap na izvoru
@@ -143,6 +153,9 @@ public class StatistikaPanel extends JPanel {
                 JOptionPane.showMessageDialog(this, "Podaci su uspješno izvezeni!", "Info", JOptionPane.INFORMATION_MESSAGE);
             } catch (Exception ex) {
                 JOptionPane.showMessageDialog(this, "Greška pri izvozu: " + ex.getMessage(), "Greška", JOptionPane.ERROR_MESSAGE);
+            } finally {
+                wb.dispose();
+                try { wb.close(); } catch (Exception ignored) {}
             }
         }
     }
@@ -182,6 +195,78 @@ public class StatistikaPanel extends JPanel {
         worker.execute();
     }
 
+    /**
+     * Snapshot narudžbi i linije iz povijesti uzimaju se na EDT-u, scenariji se planiraju u pozadini
+     * (paralelno), a rezultat se prikazuje u tablici scenarija.
+     */
+    private void runScenariosAsync() {
+        btnScenarios.setEnabled(false);
+        Cursor old = getCursor();
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+
+        final CapacityScenarios.Snapshot snapshot = CapacityScenarios.Snapshot.fromModel(sourceModel);
+        final List<LineScheduler.Line> lines = LineScheduler.linesFromHistory(sourceModel,
+                m2PoSatu > 0 ? m2PoSatu : LineScheduler.DEFAULT_M2_PER_HOUR);
+        final LocalDateTime from = rbStartNow.isSelected()
+                ? LocalDateTime.now()
+                : LocalDate.now().plusDays(1).atTime(7, 0);
+
+        SwingWorker<List<CapacityScenarios.Outcome>, Void> worker = new SwingWorker<>() {
+            @Override
+            protected List<CapacityScenarios.Outcome> doInBackground() {
+                return new CapacityScenarios().simulate(snapshot, CapacityScenarios.defaultScenarios(lines), from);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    showScenarios(get(), snapshot.size());
+                } catch (Exception ex) {
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(
+                        StatistikaPanel.this,
+                        "Greška pri izračunu scenarija: " + ex.getMessage(),
+                        "Greška",
+                        JOptionPane.ERROR_MESSAGE
+                    );
+                } finally {
+                    btnScenarios.setEnabled(true);
+                    setCursor(old);
+                }
+            }
+        };
+        worker.execute();
+    }
+
+    private void showScenarios(List<CapacityScenarios.Outcome> outcomes, int orders) {
+        DateTimeFormatter dtf = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
+        String[] cols = {"Scenarij", "Linije", "m2/h ukupno", "Kraj plana", "Kasni (kom)", "Najviše kasni (d)", "Ukupno kašnjenje (d)"};
+        DefaultTableModel model = new DefaultTableModel(cols, 0) {
+            private static final long serialVersionUID = 1L;
+            @Override public boolean isCellEditable(int row, int column) { return false; }
+        };
+        for (CapacityScenarios.Outcome o : outcomes) {
+            double rate = 0.0;
+            for (LineScheduler.Line line : o.getScenario().getLines()) rate += line.getM2PerHour();
+            LocalDateTime end = o.getPlanEnd();
+            model.addRow(new Object[]{
+                    o.getScenario().getName(),
+                    o.getScenario().getLines().size(),
+                    fmt2(rate),
+                    end == null ? "-" : dtf.format(end),
+                    fmt0(o.getLateOrders()),
+                    fmt0(o.getMaxLateDays()),
+                    fmt0(o.getTotalLateDays())
+            });
+        }
+        JTable table = new JTable(model);
+        table.setRowHeight(26);
+        JScrollPane scroll = new JScrollPane(table);
+        scroll.setPreferredSize(new Dimension(820, 60 + 26 * Math.max(1, outcomes.size())));
+        JOptionPane.showMessageDialog(this, scroll, "Scenariji kapaciteta (" + fmt0(orders) + " otvorenih narudžbi)",
+                JOptionPane.INFORMATION_MESSAGE);
+    }
+
     // Ako statistika još nije izračunata, izračunaj sinkrono (prema trenutnom StartMode-u)
     private synchronized void ensureStatsAvailable() {
         if (lastStats != null) return;
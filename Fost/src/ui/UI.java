@@ -9,9 +9,16 @@ import db.KomitentiDatabaseHelper;
 import db.UserDatabaseHelper;
 import excel.ExcelExporter;
 import excel.ExcelImporter;
+import excel.ProducedGoodsReader;
+import logic.CapacityCalendar;
+import logic.CapacityEstimator;
+import logic.DateScanner;
 import logic.DateUtils;
+import logic.ProductionPlanner;
+import logic.WorkingDayCalendar;
 import logic.WorkingTimeCalculator;
 import util.ActionLogger;
+import model.DirtyTrackingTableModel;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.awt.*;
@@ -77,6 +84,9 @@ public class UI {
 
     private JTextField searchField; // polje pretrage
 
+    // Glavna tablica drži sve otvorene narudžbe + izrađene iz zadnjih N dana; ostalo je u tabu "Arhiva"
+    private static final int MAIN_GRID_HISTORY_DAYS = 365;
+
     // Konstruktor
     public UI(String korisnik, String uloga) {
         this.prijavljeniKorisnik = korisnik;
@@ -130,7 +140,7 @@ public class UI {
         inactivityTimer.start();
 
         // Model tablice
-        tableModel = new DefaultTableModel(columnNames, 0) {
+        tableModel = new DirtyTrackingTableModel(columnNames, 0) {
             @Override
             public boolean isCellEditable(int modelRow, int modelCol) {
                 if (modelCol == KOMITENT_OPIS_COL) return false; // zabrana tipkanja u komitentOpis
@@ -165,6 +175,11 @@ public class UI {
             }
         };
 
+        // plan isporuke se računa pri svakom pokretanju - ne označava red kao promijenjen
+        ((DirtyTrackingTableModel) tableModel).setUntrackedColumns(PL_COL);
+        // procjena kapaciteta prati promjene u tablici (inkrementalno, bez ponovnog skeniranja)
+        CapacityEstimator.shared().attach(tableModel);
+
         table = new DoubleClickTable(tableModel);
         sorter = new TableRowSorter<>(tableModel);
         table.setRowSorter(sorter);
@@ -199,12 +214,13 @@ public class UI {
         mainPanel.add(new JScrollPane(table), BorderLayout.CENTER);
         tabs.addTab("Podaci", mainPanel);
         tabs.addTab("Statistika", new StatistikaPanel(tableModel, 10.0));
+        tabs.addTab("Arhiva", createArchivePanel());
         frame.add(tabs, BorderLayout.CENTER);
 
         // Učitavanje podataka i postavki
         komitentTPMap = KomitentiDatabaseHelper.loadKomitentPredstavnikMap();
         UserDatabaseHelper.loadUserTableSettings(prijavljeniKorisnik, table);
-        DatabaseHelper.loadFromDatabase(tableModel);
+        DatabaseHelper.loadFromDatabase(tableModel, MAIN_GRID_HISTORY_DAYS);
         debugPrintTableModelInfo();
 
         // GORNJI PANEL (Pretraga + Odjava)
@@ -270,7 +286,8 @@ public class UI {
         JButton btnMarkProduced = new JButton("Označi IZRAĐENO iz Excela");
         btnMarkProduced.addActionListener(e -> handleMarkProducedFromExcel());
         btnImport.addActionListener(e -> {
-            ExcelImporter.importFromExcel(tableModel);
+            // sortiranje se isključuje za vrijeme uvoza, plan isporuke se računa jednom na kraju
+            ExcelImporter.importFromExcel(tableModel, sorter, this::applyPlanChanges);
             ActionLogger.log(prijavljeniKorisnik, "Kliknuo UVEZI iz Excela");
         });
         
@@ -303,7 +320,7 @@ public class UI {
 					} catch (Exception ignored) {
 					}
 			}
-			DatabaseHelper.loadFromDatabase(tableModel);
+			DatabaseHelper.loadFromDatabase(tableModel, MAIN_GRID_HISTORY_DAYS);
 			UserDatabaseHelper.loadUserTableSettings(prijavljeniKorisnik, table);
 			ActionLogger.log(prijavljeniKorisnik, "Učitao iz baze");
 		});
@@ -338,10 +355,9 @@ public class UI {
             );
             if (confirm == JOptionPane.YES_OPTION) {
                 int modelRow = table.convertRowIndexToModel(selectedRow);
-                String datumNarudzbe = (String) tableModel.getValueAt(modelRow, 0);
-                String nazivRobe     = (String) tableModel.getValueAt(modelRow, 3);
-
-                DatabaseHelper.deleteRow(datumNarudzbe, nazivRobe);
+                // brisanje po id-u; red koji još nije spremljen nema id i samo se uklanja iz tablice
+                Long id = ((DirtyTrackingTableModel) tableModel).getRowKey(modelRow);
+                if (id != null) DatabaseHelper.deleteRow(id);
                 ActionLogger.logTableAction(prijavljeniKorisnik, "Obrisao artikal", tableModel, modelRow);
                 tableModel.removeRow(modelRow);
             }
@@ -403,7 +419,7 @@ public class UI {
 
         frame.add(bottom, BorderLayout.SOUTH);
         
-        DatabaseHelper.loadFromDatabase(tableModel);
+        DatabaseHelper.loadFromDatabase(tableModel, MAIN_GRID_HISTORY_DAYS);
         System.out.println("Rows loaded: " + tableModel.getRowCount());
         debugPrintTableModelInfo();
         computePlanDatumIsporukeForAllRows();
@@ -509,45 +525,10 @@ public class UI {
     }
 
     /**
-     * Robustni parser za razne formate datuma/vremena u LocalDateTime.
+     * Robustni parser za razne formate datuma/vremena u LocalDateTime (DateScanner, bez iznimki).
      */
     private LocalDateTime tryParseLocalDateTime(String s) {
-        if (s == null || s.trim().isEmpty()) return null;
-        String str = s.trim();
-        if (str.endsWith(".")) str = str.substring(0, str.length() - 1).trim();
-
-        DateTimeFormatter[] fmts = new DateTimeFormatter[] {
-                DateTimeFormatter.ofPattern("d.M.yyyy H:mm", Locale.ENGLISH),
-                DateTimeFormatter.ofPattern("d.M.yyyy HH:mm", Locale.ENGLISH),
-                DateTimeFormatter.ofPattern("dd.MM.yyyy H:mm", Locale.ENGLISH),
-                DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm", Locale.ENGLISH),
-                DateTimeFormatter.ofPattern("dd.MM.yyyy.HH:mm", Locale.ENGLISH),
-                DateTimeFormatter.ofPattern("yyyy-MM-dd H:mm", Locale.ENGLISH),
-                DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm", Locale.ENGLISH),
-                DateTimeFormatter.ofPattern("dd/MM/yyyy H:mm", Locale.ENGLISH),
-                DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm", Locale.ENGLISH),
-                DateTimeFormatter.ofPattern("d/M/yyyy H:mm", Locale.ENGLISH),
-                DateTimeFormatter.ofPattern("d/M/yyyy HH:mm", Locale.ENGLISH),
-                DateTimeFormatter.ofPattern("d.M.yyyy", Locale.ENGLISH),
-                DateTimeFormatter.ofPattern("dd.MM.yyyy", Locale.ENGLISH),
-                DateTimeFormatter.ofPattern("dd/MM/yyyy", Locale.ENGLISH)
-        };
-
-        for (DateTimeFormatter fmt : fmts) {
-            try {
-                try {
-                    return LocalDateTime.parse(str, fmt);
-                } catch (DateTimeParseException pe) {
-                    try {
-                        java.time.LocalDate d = java.time.LocalDate.parse(str, fmt);
-                        return d.atTime(0,0);
-                    } catch (DateTimeParseException ignored) {
-                        // continue
-                    }
-                }
-            } catch (Exception ignored) {}
-        }
-        return null;
+        return DateScanner.parseDateTime(s);
     }
 
     /**
@@ -658,6 +639,8 @@ public class UI {
                 tableModel.fireTableCellUpdated(row, DURATION_COL);
             }
         });
+        // plan isporuke prati promjene inkrementalno
+        tableModel.addTableModelListener(this::onPlanModelChanged);
     }
     
     
@@ -668,13 +651,6 @@ public class UI {
         int res = fc.showOpenDialog(frame);
         if (res != JFileChooser.APPROVE_OPTION) return;
 
-        // Zaustavi editing ako je aktivan
-        if (table.isEditing()) {
-            try { TableCellEditor ed = table.getCellEditor(); if (ed != null) ed.stopCellEditing(); } catch (Exception ignored) {}
-        }
-
-       
-
         // Mapiranja kolona po nazivu (otpornost na raspored)
         int idxKomitent = safeFindCol("komitentOpis", 2);
         int idxNaziv    = safeFindCol("nazivRobe", 3);
@@ -687,24 +663,84 @@ public class UI {
             return;
         }
 
+        // Excel -> hash indeks (komitentOpis + nazivRobe) u jednom prolazu, izvan EDT-a
+        File file = fc.getSelectedFile();
+        frame.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        new SwingWorker<Map<String, Integer>, Void>() {
+            @Override
+            protected Map<String, Integer> doInBackground() throws Exception {
+                return new ProducedGoodsReader().read(file);
+            }
+
+            @Override
+            protected void done() {
+                frame.setCursor(Cursor.getDefaultCursor());
+                Map<String, Integer> produced;
+                try {
+                    produced = get();
+                } catch (Exception ex) {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    cause.printStackTrace();
+                    JOptionPane.showMessageDialog(frame, "Greška pri čitanju Excela: " + cause.getMessage(), "Greška", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                applyProducedFromExcel(produced, idxKomitent, idxNaziv, idxStatus);
+            }
+        }.execute();
+    }
+
+    /** Označava izrađenim redove koji postoje u Excelu 'proizvedena roba' i sprema promjene (EDT). */
+    private void applyProducedFromExcel(Map<String, Integer> produced, int idxKomitent, int idxNaziv, int idxStatus) {
+        // Zaustavi editing ako je aktivan (korisnik je mogao uređivati dok se Excel čitao)
+        if (table.isEditing()) {
+            try { TableCellEditor ed = table.getCellEditor(); if (ed != null) ed.stopCellEditing(); } catch (Exception ignored) {}
+        }
+
         int marked = 0;
         int already = 0;
         int notMatched = 0;
 
-        // Ključ: podudaranje SAMO po komitentOpis + nazivRobe
-
+        // Ključ: podudaranje SAMO po komitentOpis + nazivRobe - jedan prolaz kroz tablicu, lookup u indeksu
+        Set<String> matchedKeys = new HashSet<>();
+        String now = DateUtils.formatWithoutSeconds(LocalDateTime.now());
+        for (int r = 0; r < tableModel.getRowCount(); r++) {
+            String key = ProducedGoodsReader.key(tableModel.getValueAt(r, idxKomitent), tableModel.getValueAt(r, idxNaziv));
+            if (!produced.containsKey(key)) continue;
+            matchedKeys.add(key);
+            if (CapacityEstimator.isDone(tableModel.getValueAt(r, idxStatus))) {
+                already++;
+                continue;
+            }
+            tableModel.setValueAt("Izrađeno", r, idxStatus);
+            Object existingEnd = tableModel.getValueAt(r, END_TIME_COL);
+            if (existingEnd == null || existingEnd.toString().isBlank()) {
+                tableModel.setValueAt(now, r, END_TIME_COL);
+            }
+            marked++;
+        }
+        for (Map.Entry<String, Integer> e : produced.entrySet()) {
+            if (!matchedKeys.contains(e.getKey())) notMatched += e.getValue();
+        }
 
         // osvježi prikaz
         table.repaint();
 
-        // SPREMI U BAZU (po tvojoj uputi)
-        try {
-            DatabaseHelper.saveToDatabase(tableModel);
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(frame, "Greška pri spremanju u bazu: " + ex.getMessage(), "Greška", JOptionPane.ERROR_MESSAGE);
+        // SPREMI U BAZU - inkrementalno, samo promijenjeni redovi (DirtyTrackingTableModel)
+        if (marked > 0) {
+            try {
+                DatabaseHelper.saveToDatabase(tableModel);
+            } catch (Exception ex) {
+                JOptionPane.showMessageDialog(frame, "Greška pri spremanju u bazu: " + ex.getMessage(), "Greška", JOptionPane.ERROR_MESSAGE);
+            }
+            // plan isporuke: promjene statusa je već preuzeo onPlanModelChanged (samo pogođeni redovi)
         }
 
-     
+        ActionLogger.log(prijavljeniKorisnik, "Označio IZRAĐENO iz Excela: " + marked);
+        JOptionPane.showMessageDialog(frame,
+                "Označeno kao izrađeno: " + marked
+                        + "\nVeć izrađeno: " + already
+                        + "\nNije pronađeno u tablici (redova u Excelu): " + notMatched,
+                "Označi IZRAĐENO", JOptionPane.INFORMATION_MESSAGE);
     }
 
     private int safeFindCol(String name, int fallback) {
@@ -1711,7 +1747,24 @@ public class UI {
 //start orders before their earliest if needed to fill the day (set to false to forbid).
 //import logic.WorkingTimeCalculator; // dodaj na vrh klase ako nije importano
 
-//computePlanDatumIsporukeForAllRows - ista logika kao prethodno, ali dodan DIAG ispisi queue preview (prvih 30)
+//computePlanDatumIsporukeForAllRows - potpuni day-fill izračun preko logic.ProductionPlanner:
+//na EDT-u se samo složi snapshot otvorenih narudžbi (primitivni nizovi), planer radi u SwingWorker-u,
+//a rezultat se upisuje jednim setColumnValues (jedan fireTableRowsUpdated umjesto događaja po redu).
+//Nakon toga se plan održava inkrementalno (onPlanModelChanged): promjena datuma/statusa/m2, novi ili
+//obrisani red preračunavaju samo narudžbe iza promijenjene u redu (ProductionPlanner.Schedule.replan).
+//Kapacitet: -Dfost.plan.kapacitetM2 (zadano 4424.01 m2/dan), -Dfost.plan.maxPoNarudzbiM2 (zadano 2800 m2/dan).
+ private static final DateTimeFormatter PLAN_DATE_FMT = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+ private int planGeneration = 0;
+ private boolean planRunning = false;      // potpuni izračun u tijeku
+ private boolean planStale = false;        // model mijenjan za vrijeme potpunog izračuna
+ private boolean planUpdateQueued = false;
+ private boolean planApplying = false;     // vlastiti upis plana - listener ga ignorira
+ private ProductionPlanner.Schedule planSchedule;
+ // id narudžbe u planSchedule <-> red modela (po identitetu Vector-a iz getDataVector)
+ private final Map<Object, Integer> planIdByRow = new IdentityHashMap<>();
+ private final java.util.List<Object> planRowById = new java.util.ArrayList<>();
+ private final java.util.List<Object> planClearRows = new java.util.ArrayList<>();
+
  private void computePlanDatumIsporukeForAllRows() {
 	    // Ensure on EDT
 	    if (!javax.swing.SwingUtilities.isEventDispatchThread()) {
@@ -1719,16 +1772,10 @@ public class UI {
 	        return;
 	    }
 
-	    System.out.println("Computing Plan Datum Isporuke (day-fill, per-article cap enforced, debug queue preview)...");
-
 	    int idxOrderDate = tableModel.findColumn("datumNarudzbe");
 	    int idxStatus = tableModel.findColumn("status");
 	    int idxM2 = tableModel.findColumn("m2");
-	    int idxDaniZaIsporuku = tableModel.findColumn("daniZaIsporuke");
-	    int idxPlanDatumIsporuke = tableModel.findColumn("planDatumIsporuke");
-	    int idxPred = tableModel.findColumn("predDatumIsporuke");
-
-	    if (idxPlanDatumIsporuke < 0) idxPlanDatumIsporuke = idxPred; // fallback
+	    int idxPlanDatumIsporuke = planColumn();
 
 	    if (idxOrderDate < 0 || idxStatus < 0 || idxM2 < 0 || idxPlanDatumIsporuke < 0) {
 	        System.out.printf("Cannot compute: missing columns order=%d status=%d m2=%d plan/fallback=%d%n",
@@ -1736,319 +1783,265 @@ public class UI {
 	        return;
 	    }
 
-	    final int windowWorkingDays = 30;
-	    final double perArticleDailyCap = 2800.0;
-
-	    // Strict historical average
-	    double avgDailyCapacity = computeAverageDailyCapacityM2_LastNWorkingDays(windowWorkingDays);
-
-	    // >>> FORCED DAILY CAPACITY: change this to your target (e.g. 4424.01 or 4600.0).
-	    // If forcedDailyCapacity <= 0, code will use historical avgDailyCapacity.
-	    final double forcedDailyCapacity = 4424.01; // <- set desired daily throughput here
-
-	    if (avgDailyCapacity <= 0.0) {
-	        System.out.printf("Warning: historical avgDailyCapacity=%.2f (<=0).%n", avgDailyCapacity);
-	    }
-	    System.out.printf("DIAG: Overriding avgDailyCapacity %.2f -> forcedDailyCapacity %.2f m2/day%n",
-		        avgDailyCapacity, forcedDailyCapacity);
-		avgDailyCapacity = forcedDailyCapacity;
-
-	    final java.time.format.DateTimeFormatter outFmt = java.time.format.DateTimeFormatter.ofPattern("dd.MM.yyyy");
-	    final java.time.format.DateTimeFormatter[] parseFmts = new java.time.format.DateTimeFormatter[]{
-	            java.time.format.DateTimeFormatter.ofPattern("dd.MM.yyyy"),
-	            java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy"),
-	            java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd")
-	    };
-
-	    int totalRows = tableModel.getRowCount();
-	    java.time.LocalDate today = java.time.LocalDate.now();
-
-	    // Build queue: row, remaining m2, earliest (normalized), assignedToday
-	    class Order {
-	        final int row;
-	        double remaining;
-	        java.time.LocalDate earliest;
-	        double assignedToday;
-	        Order(int row, double remaining, java.time.LocalDate earliest) {
-	            this.row = row; this.remaining = remaining; this.earliest = earliest; this.assignedToday = 0.0;
-	        }
-	    }
-	    java.util.List<Order> queue = new java.util.ArrayList<>();
-	    double totalRemaining = 0.0;
-
+	    final double dailyCapacity = systemDouble("fost.plan.kapacitetM2", ProductionPlanner.DEFAULT_DAILY_CAPACITY_M2);
+	    final double perOrderDailyCap = systemDouble("fost.plan.maxPoNarudzbiM2", ProductionPlanner.DEFAULT_PER_ORDER_DAILY_CAP_M2);
+	    final int planCol = idxPlanDatumIsporuke;
+	    final LocalDate today = LocalDate.now();
+
+	    // Snapshot: redovi se pamte po identitetu (Vector iz modela), planer dobiva samo brojeve
+	    Vector<?> data = tableModel.getDataVector();
+	    int totalRows = data.size();
+	    ProductionPlanner.Orders orders = new ProductionPlanner.Orders(totalRows);
+	    java.util.List<Object> orderRows = new java.util.ArrayList<>(totalRows);
+	    java.util.List<Object> noDateRows = new java.util.ArrayList<>();
 	    for (int r = 0; r < totalRows; r++) {
-	        String status = safeString(tableModel.getValueAt(r, idxStatus));
-	        if ("izrađeno".equalsIgnoreCase(status) || "izradjeno".equalsIgnoreCase(status)) continue;
-
-	        Object orderObj = tableModel.getValueAt(r, idxOrderDate);
-	        java.time.LocalDate orderDate = parseLocalDateGeneric(orderObj);
-	        if (orderDate == null) orderDate = parseLocalDate(safeString(orderObj), parseFmts);
+	        if (isPlanDone(r, idxStatus)) continue;
+	        LocalDate orderDate = planOrderDate(r, idxOrderDate);
 	        if (orderDate == null) {
-	            tableModel.setValueAt("", r, idxPlanDatumIsporuke);
+	            noDateRows.add(data.get(r));
 	            continue;
 	        }
+	        long earliest = orderDate.toEpochDay() + ProductionPlanner.DEFAULT_LEAD_DAYS;
+	        double m2 = parseDoubleOrZero(tableModel.getValueAt(r, idxM2));
+	        orders.add(orderRows.size(), m2, earliest, 0);
+	        orderRows.add(data.get(r));
+	    }
 
-	        int daniZaIsporuku = 7;
-	        if (idxDaniZaIsporuku >= 0) {
-	            daniZaIsporuku = parseIntOrDefault(tableModel.getValueAt(r, idxPlanDatumIsporuke), 7);
-	            if (daniZaIsporuku < 0) daniZaIsporuku = 0;
+	    final int generation = ++planGeneration;
+	    planRunning = true;
+	    planStale = false;
+	    new SwingWorker<ProductionPlanner.Schedule, Void>() {
+	        long nanos;
+
+	        @Override
+	        protected ProductionPlanner.Schedule doInBackground() {
+	            long t0 = System.nanoTime();
+	            ProductionPlanner.Schedule schedule = new ProductionPlanner()
+	                    .withPerOrderDailyCap(perOrderDailyCap)
+	                    .newSchedule(CapacityCalendar.workingDays(dailyCapacity), today);
+	            for (int i = 0; i < orders.size(); i++) {
+	                schedule.put(orders.id(i), orders.m2(i), orders.earliestDay(i), orders.priority(i));
+	            }
+	            schedule.replan();
+	            nanos = System.nanoTime() - t0;
+	            return schedule;
 	        }
 
-	        java.time.LocalDate earliest = orderDate.plusDays(daniZaIsporuku);
-	        double m2 = parseDoubleOrZero(tableModel.getValueAt(r, idxM2));
-	        if (m2 <= 0.0) {
-	            // set trivial plan on next working day >= earliest or today
-	            java.time.LocalDate candidate = earliest.isBefore(today) ? today : earliest;
-	            java.time.LocalDate plan = nextWorkingDay(candidate);
-	            tableModel.setValueAt(plan.format(outFmt), r, idxPlanDatumIsporuke);
-	            continue;
+	        @Override
+	        protected void done() {
+	            if (generation != planGeneration) return; // u međuvremenu je pokrenut noviji izračun
+	            planRunning = false;
+	            ProductionPlanner.Schedule schedule;
+	            try {
+	                schedule = get();
+	            } catch (Exception ex) {
+	                ex.printStackTrace();
+	                return;
+	            }
+	            planSchedule = schedule;
+	            planIdByRow.clear();
+	            planRowById.clear();
+	            planClearRows.clear();
+
+	            java.util.List<Object> values = new java.util.ArrayList<>(orderRows.size() + noDateRows.size());
+	            long last = ProductionPlanner.NO_PLAN;
+	            int fallback = 0;
+	            for (int id = 0; id < orderRows.size(); id++) {
+	                planRowById.add(orderRows.get(id));
+	                planIdByRow.put(orderRows.get(id), id);
+	                long day = schedule.planDay(id);
+	                values.add(formatPlanDay(day));
+	                if (day != ProductionPlanner.NO_PLAN && day > last) last = day;
+	                if (schedule.isFallback(id)) fallback++;
+	            }
+	            java.util.List<Object> rows = new java.util.ArrayList<>(orderRows);
+	            for (Object row : noDateRows) {
+	                rows.add(row);
+	                values.add("");
+	            }
+	            setPlanValues(planCol, rows, values);
+	            table.repaint();
+
+	            System.out.printf("DIAG: Scheduling complete: orders=%d scheduled=%d fallbackAssigned=%d daysUsed=%d lastScheduled=%s capacity=%.2f m2/day (%.1f ms)%n",
+	                    orderRows.size(), orderRows.size() - fallback, fallback, schedule.getDaysUsed(),
+	                    last == ProductionPlanner.NO_PLAN ? "<none>" : formatPlanDay(last), dailyCapacity, nanos / 1e6);
+
+	            if (planStale) {
+	                // redovi promijenjeni dok je izračun trajao
+	                planStale = false;
+	                dropRemovedPlanRows();
+	                syncPlanRows(0, tableModel.getRowCount() - 1);
+	                applyPlanChanges();
+	            }
 	        }
+	    }.execute();
+	}
 
-	        // normalize earliest: if in past, make it today (eligible immediately)
-	        if (earliest.isBefore(today)) earliest = today;
-
-	        queue.add(new Order(r, m2, earliest));
-	        totalRemaining += m2;
+ /** TableModelListener: promjene relevantne za plan prosljeđuje u planSchedule (replan jednom, na kraju EDT događaja). */
+ private void onPlanModelChanged(TableModelEvent e) {
+	    if (planApplying) return;
+	    if (planRunning) {
+	        planStale = true;
+	        return;
 	    }
-
-	    if (queue.isEmpty()) {
-	        tableModel.fireTableDataChanged();
-	        System.out.println("DIAG: No orders to schedule.");
+	    if (planSchedule == null) return;
+	    if (e.getFirstRow() == TableModelEvent.HEADER_ROW) {
+	        computePlanDatumIsporukeForAllRows();
+	        return;
+	    }
+	    int col = e.getColumn();
+	    if (e.getType() == TableModelEvent.UPDATE && col != TableModelEvent.ALL_COLUMNS
+	            && col != tableModel.findColumn("datumNarudzbe")
+	            && col != tableModel.findColumn("status")
+	            && col != tableModel.findColumn("m2")) {
 	        return;
 	    }
+	    if (e.getType() == TableModelEvent.DELETE) {
+	        dropRemovedPlanRows();
+	    } else if (e.getLastRow() == Integer.MAX_VALUE) {
+	        // fireTableDataChanged - usklađuju se svi redovi (nepromijenjeni ne mijenjaju plan)
+	        dropRemovedPlanRows();
+	        syncPlanRows(0, tableModel.getRowCount() - 1);
+	    } else {
+	        syncPlanRows(e.getFirstRow(), Math.min(e.getLastRow(), tableModel.getRowCount() - 1));
+	    }
+	    if (!planUpdateQueued) {
+	        planUpdateQueued = true;
+	        javax.swing.SwingUtilities.invokeLater(this::applyPlanChanges);
+	    }
+	}
 
-	    // Sort queue by earliest then by row (stable)
-	    queue.sort((a, b) -> {
-	        int c = a.earliest.compareTo(b.earliest);
-	        if (c != 0) return c;
-	        return Integer.compare(a.row, b.row);
-	    });
-
-	    // DIAG: preview first 30 queue items to spot bad earliest/parsing
-	    System.out.println("DIAG: Queue preview (first 30 items):");
-	    int preview = Math.min(queue.size(), 30);
-	    for (int i = 0; i < preview; i++) {
-	        Order o = queue.get(i);
-	        System.out.printf("DIAG: [%d] row=%d remaining=%.2f earliest=%s%n", i, o.row, o.remaining, o.earliest.format(outFmt));
+ /** Preračun promijenjenog sufiksa i upis samo promijenjenih plan datuma (bez plana -> potpuni izračun). */
+ private void applyPlanChanges() {
+	    planUpdateQueued = false;
+	    if (planRunning) return;
+	    if (planSchedule == null || !planSchedule.getToday().equals(LocalDate.now())) {
+	        computePlanDatumIsporukeForAllRows(); // prvi izračun ili novi dan
+	        return;
 	    }
-	    if (queue.size() > preview) System.out.printf("DIAG: ... (+%d more)%n", queue.size() - preview);
-	    System.out.printf("DIAG: totalRemaining=%.2f m2%n", totalRemaining);
-
-	    // Diagnostics
-	    java.time.LocalDate minEarliest = null, maxEarliest = null;
-	    for (Order o : queue) {
-	        if (minEarliest == null || o.earliest.isBefore(minEarliest)) minEarliest = o.earliest;
-	        if (maxEarliest == null || o.earliest.isAfter(maxEarliest)) maxEarliest = o.earliest;
+	    int[] changed = planSchedule.replan();
+	    java.util.List<Object> rows = new java.util.ArrayList<>(changed.length + planClearRows.size());
+	    java.util.List<Object> values = new java.util.ArrayList<>(changed.length + planClearRows.size());
+	    for (int id : changed) {
+	        Object row = planRowById.get(id);
+	        if (row == null || !planSchedule.contains(id)) continue;
+	        rows.add(row);
+	        values.add(formatPlanDay(planSchedule.planDay(id)));
 	    }
-	    double estimatedDays = totalRemaining / avgDailyCapacity;
-	    java.time.LocalDate expectedLast = addWorkingDays(today, Math.max(0, (int)Math.ceil(estimatedDays) - 1));
-	    System.out.printf("DIAG: queueSize=%d totalRemaining=%.2f estimatedDays=%.2f earliestRange=[%s..%s] expectedLast=%s%n",
-	            queue.size(), totalRemaining, estimatedDays,
-	            (minEarliest==null ? "<none>" : minEarliest.format(outFmt)),
-	            (maxEarliest==null ? "<none>" : maxEarliest.format(outFmt)),
-	            (expectedLast==null ? "<none>" : expectedLast.format(outFmt)));
-
-	    // Scheduler policy: allow using orders even if earliest > currentDay to fill the day.
-	    boolean allowStartBeforeEarliest = true;
-
-	    // Scheduling loop: for each working day, keep assigning until day's capacity is (nearly) exhausted.
-	    java.util.List<Integer> updatedRows = new java.util.ArrayList<>();
-	    boolean[] planSet = new boolean[totalRows];
-	    int remainingOrders = 0;
-	    for (Order o : queue) if (o.remaining > 0) remainingOrders++;
-
-	    java.time.LocalDate currentDay = nextWorkingDay(today);
-	    int daysUsed = 0;
-	    int safetyDaysLeft = 365 * 5; // safety guard
-	    final double EPS = 1e-6;
-
-	    while (remainingOrders > 0 && safetyDaysLeft-- > 0) {
-	        // ensure currentDay is working
-	        if (!isWorkingDay(currentDay)) { currentDay = nextWorkingDay(currentDay.plusDays(1)); continue; }
-
-	        // reset per-article assignedToday at start of this day
-	        for (Order o : queue) o.assignedToday = 0.0;
-
-	        // dayRemaining starts as avgDailyCapacity
-	        double dayRemaining = avgDailyCapacity;
-	        boolean anyAssignedThisDay = false;
-
-	        // Try to fill the day completely: loop until dayRemaining ~ 0 or we can't assign anything more this day
-	        while (dayRemaining > EPS) {
-	            // find next order to assign:
-	            // prefer orders with earliest <= currentDay (eligible) in queue order and that still have per-day capacity
-	            Order pick = null;
-	            for (Order o : queue) {
-	                if (o.remaining > EPS && !currentDay.isBefore(o.earliest) && (o.assignedToday + EPS) < perArticleDailyCap) {
-	                    pick = o;
-	                    break;
-	                }
-	            }
-	            // if none eligible and policy allows, pick next available order regardless of earliest, but only if it still has per-day capacity
-	            if (pick == null && allowStartBeforeEarliest) {
-	                for (Order o : queue) {
-	                    if (o.remaining > EPS && (o.assignedToday + EPS) < perArticleDailyCap) {
-	                        pick = o;
-	                        break;
-	                    }
-	                }
-	            }
-	            // if still none, break (no assignable orders left today)
-	            if (pick == null) break;
-
-	            // compute how much this article can still get this day
-	            double canForArticle = Math.max(0.0, perArticleDailyCap - pick.assignedToday);
-	            double assign = Math.min(pick.remaining, Math.min(canForArticle, dayRemaining));
-	            if (assign <= EPS) break;
-
-	            // assign
-	            pick.remaining -= assign;
-	            pick.assignedToday += assign;
-	            dayRemaining -= assign;
-	            anyAssignedThisDay = true;
-
-	            // if finished, set plan to currentDay
-	            if (pick.remaining <= EPS) {
-	                tableModel.setValueAt(currentDay.format(outFmt), pick.row, idxPlanDatumIsporuke);
-	                planSet[pick.row] = true;
-	                updatedRows.add(pick.row);
-	                remainingOrders--;
-	            }
-	            // else residual remains for next days
-	        } // end filling day
-
-	        if (anyAssignedThisDay) daysUsed++;
-
-	        // If we couldn't assign anything this day, jump to next earliest remaining order's earliest (if any)
-	        if (!anyAssignedThisDay) {
-	            java.time.LocalDate nextEarliest = null;
-	            for (Order o : queue) {
-	                if (o.remaining > EPS) {
-	                    if (nextEarliest == null || o.earliest.isBefore(nextEarliest)) nextEarliest = o.earliest;
-	                }
-	            }
-	            if (nextEarliest == null) break; // nothing left
-	            currentDay = nextWorkingDay(nextEarliest);
-	        } else {
-	            // move to next working day
-	            currentDay = nextWorkingDay(currentDay.plusDays(1));
+	    for (Object row : planClearRows) {
+	        rows.add(row);
+	        values.add("");
+	    }
+	    planClearRows.clear();
+	    if (rows.isEmpty()) return;
+	    setPlanValues(planColumn(), rows, values);
+	}
+
+ private void syncPlanRows(int first, int last) {
+	    int idxOrderDate = tableModel.findColumn("datumNarudzbe");
+	    int idxStatus = tableModel.findColumn("status");
+	    int idxM2 = tableModel.findColumn("m2");
+	    Vector<?> data = tableModel.getDataVector();
+	    for (int r = Math.max(0, first); r <= last; r++) {
+	        Object row = data.get(r);
+	        Integer id = planIdByRow.get(row);
+	        if (isPlanDone(r, idxStatus)) {
+	            if (id != null) planSchedule.remove(id); // izrađeno: plan ostaje kakav je bio
+	            continue;
+	        }
+	        LocalDate orderDate = planOrderDate(r, idxOrderDate);
+	        if (orderDate == null) {
+	            if (id != null) planSchedule.remove(id);
+	            planClearRows.add(row);
+	            continue;
 	        }
-	    } // end scheduling loop
-
-	    // Fallback: any remaining orders -> set to next working day >= earliest or today
-	    int fallbackAssigned = 0;
-	    for (Order o : queue) {
-	        if (planSet[o.row]) continue;
-	        if (o.remaining <= EPS) continue;
-	        java.time.LocalDate candidate = o.earliest.isBefore(today) ? today : o.earliest;
-	        java.time.LocalDate plan = nextWorkingDay(candidate);
-	        tableModel.setValueAt(plan.format(outFmt), o.row, idxPlanDatumIsporuke);
-	        fallbackAssigned++;
-	        updatedRows.add(o.row);
+	        if (id == null) {
+	            id = planRowById.size();
+	            planRowById.add(row);
+	            planIdByRow.put(row, id);
+	        }
+	        planSchedule.put(id, parseDoubleOrZero(tableModel.getValueAt(r, idxM2)),
+	                orderDate.toEpochDay() + ProductionPlanner.DEFAULT_LEAD_DAYS, 0);
 	    }
+	}
 
-	    // Fire updates for changed rows
-	    for (int rr : updatedRows) {
-	        try { tableModel.fireTableRowsUpdated(rr, rr); } catch (Exception ignored) {}
+ /** Obrisani redovi (više nisu u modelu) izlaze iz plana. */
+ private void dropRemovedPlanRows() {
+	    Set<Object> alive = Collections.newSetFromMap(new IdentityHashMap<>());
+	    alive.addAll(tableModel.getDataVector());
+	    Iterator<Map.Entry<Object, Integer>> it = planIdByRow.entrySet().iterator();
+	    while (it.hasNext()) {
+	        Map.Entry<Object, Integer> en = it.next();
+	        if (alive.contains(en.getKey())) continue;
+	        planSchedule.remove(en.getValue());
+	        planRowById.set(en.getValue(), null);
+	        it.remove();
 	    }
-	    table.repaint();
-
-	    // determine last scheduled date (max over all plan dates we wrote)
-	    java.time.LocalDate lastScheduled = null;
-	    for (int r : updatedRows) {
-	        String s = safeString(tableModel.getValueAt(r, idxPlanDatumIsporuke));
-	        java.time.LocalDate d = parseLocalDateGeneric(s);
-	        if (d == null) d = parseLocalDate(s, parseFmts);
-	        if (d != null) {
-	            if (lastScheduled == null || d.isAfter(lastScheduled)) lastScheduled = d;
-	        }
+	    planClearRows.removeIf(row -> !alive.contains(row));
+	}
+
+ private void setPlanValues(int planCol, java.util.List<Object> rows, java.util.List<Object> values) {
+	    planApplying = true;
+	    try {
+	        ((DirtyTrackingTableModel) tableModel).setColumnValues(planCol, rows, values);
+	    } finally {
+	        planApplying = false;
 	    }
+	}
 
-	    System.out.printf("DIAG: Scheduling complete: queueSize=%d scheduled=%d fallbackAssigned=%d daysUsed=%d lastScheduled=%s%n",
-	            queue.size(), updatedRows.size(), fallbackAssigned, daysUsed, (lastScheduled == null ? "<none>" : lastScheduled.format(outFmt)));
+ private int planColumn() {
+	    int idx = tableModel.findColumn("planDatumIsporuke");
+	    return idx >= 0 ? idx : tableModel.findColumn("predDatumIsporuke"); // fallback
+	}
+
+ private boolean isPlanDone(int row, int idxStatus) {
+	    return CapacityEstimator.isDone(tableModel.getValueAt(row, idxStatus));
+	}
+
+ private LocalDate planOrderDate(int row, int idxOrderDate) {
+	    Object orderObj = tableModel.getValueAt(row, idxOrderDate);
+	    LocalDate orderDate = parseLocalDateGeneric(orderObj);
+	    if (orderDate == null) orderDate = parseLocalDate(safeString(orderObj));
+	    return orderDate;
+	}
+
+ private static String formatPlanDay(long epochDay) {
+	    return epochDay == ProductionPlanner.NO_PLAN ? "" : LocalDate.ofEpochDay(epochDay).format(PLAN_DATE_FMT);
+	}
+
+ private static double systemDouble(String property, double defaultValue) {
+	    String v = System.getProperty(property);
+	    if (v == null || v.isBlank()) return defaultValue;
+	    try {
+	        return Double.parseDouble(v.trim().replace(',', '.'));
+	    } catch (NumberFormatException ex) {
+	        System.out.println("Neispravna vrijednost " + property + "=" + v + ", koristi se " + defaultValue);
+	        return defaultValue;
+	    }
 	}
 
 //--- helper methods using WorkingTimeCalculator (paste these into the same class if not present) ---
 
 private boolean isWorkingDay(java.time.LocalDate day) {
-  if (day == null) return false;
-  // working day = NOT (weekend OR holiday)
-  return !WorkingTimeCalculator.isHolidayOrWeekend(day);
+  // working day = NOT (weekend OR holiday), O(1) preko indeksa radnih dana
+  return WorkingDayCalendar.isWorkingDay(day);
 }
 
 private java.time.LocalDate nextWorkingDay(java.time.LocalDate day) {
-  if (day == null) return null;
-  java.time.LocalDate d = day;
-  while (!isWorkingDay(d)) d = d.plusDays(1);
-  return d;
+  return WorkingDayCalendar.nextWorkingDay(day);
 }
 
 //Helper: addWorkingDays(start, workDays)
 //Moves forward from 'start' by 'workDays' working days (skips weekends and holidays).
 //If workDays == 0 returns start.
 private java.time.LocalDate addWorkingDays(java.time.LocalDate start, int workDays) {
-  if (start == null) return null;
-  if (workDays <= 0) return start;
-  java.time.LocalDate d = start;
-  int added = 0;
-  int safety = 0;
-  while (added < workDays && safety++ < 365*10) {
-      d = d.plusDays(1);
-      if (isWorkingDay(d)) {
-          added++;
-      }
-  }
-  return d;
+  return WorkingDayCalendar.addWorkingDays(start, workDays);
 }
 
 //computeAverageDailyCapacityM2_LastNWorkingDays: strict historical average
+//(izrađeno u zadnjih lastN radnih dana / lastN) - iz zajedničkog CapacityEstimator-a
 private double computeAverageDailyCapacityM2_LastNWorkingDays(int lastN) {
-  int idxStatus = tableModel.findColumn("status");
-  int idxM2 = tableModel.findColumn("m2");
-  int idxEnd = tableModel.findColumn("endTime");
-  int idxPred = tableModel.findColumn("predDatumIsporuke");
-  int idxNar = tableModel.findColumn("datumNarudzbe");
-
-  if (idxStatus < 0 || idxM2 < 0) return 0.0;
-
-  java.time.LocalDate today = java.time.LocalDate.now();
-
-  // find startInclusive by walking back calendar days until we've counted lastN working days
-  int counted = 0;
-  java.time.LocalDate cursor = today;
-  java.time.LocalDate startInclusive = today;
-  while (counted < lastN) {
-      if (isWorkingDay(cursor)) counted++;
-      if (counted >= lastN) { startInclusive = cursor; break; }
-      cursor = cursor.minusDays(1);
-  }
-
-  double total = 0.0;
-  for (int r = 0; r < tableModel.getRowCount(); r++) {
-      String status = safeString(tableModel.getValueAt(r, idxStatus));
-      if (!"izrađeno".equalsIgnoreCase(status) && !"izradjeno".equalsIgnoreCase(status)) continue;
-      double m2 = parseDoubleOrZero(tableModel.getValueAt(r, idxM2));
-      if (m2 <= 0.0) continue;
-      java.time.LocalDate doneDay = null;
-      if (idxEnd >= 0) doneDay = parseLocalDateFromDateTime(safeString(tableModel.getValueAt(r, idxEnd)));
-      if (doneDay == null && idxPred >= 0) doneDay = parseLocalDate(safeString(tableModel.getValueAt(r, idxPred)),
-              new java.time.format.DateTimeFormatter[]{
-                      java.time.format.DateTimeFormatter.ofPattern("dd.MM.yyyy"),
-                      java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy"),
-                      java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd")
-              });
-      if (doneDay == null && idxNar >= 0) doneDay = parseLocalDate(safeString(tableModel.getValueAt(r, idxNar)),
-              new java.time.format.DateTimeFormatter[]{
-                      java.time.format.DateTimeFormatter.ofPattern("dd.MM.yyyy"),
-                      java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy"),
-                      java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd")
-              });
-      if (doneDay == null) continue;
-      if ((!doneDay.isBefore(startInclusive)) && (!doneDay.isAfter(today))) {
-          total += m2;
-      }
-  }
-  return total / Math.max(1, lastN);
+  return CapacityEstimator.shared().estimate(tableModel, lastN).getRollingWorkingDayAvg();
 }
 
 //Helpers: working day checks and parsers
@@ -2056,9 +2049,9 @@ private double computeAverageDailyCapacityM2_LastNWorkingDays(int lastN) {
 
 private static String safeString(Object o) { return o == null ? "" : o.toString().trim(); }
 
-private static java.time.LocalDate parseLocalDate(String s, java.time.format.DateTimeFormatter[] fmts) { if (s == null || s.isBlank()) return null; for (java.time.format.DateTimeFormatter f : fmts) try { return java.time.LocalDate.parse(s.trim(), f); } catch (Exception ignored) {} return null; }
-private static java.time.LocalDate parseLocalDateFromDateTime(String s) { if (s == null || s.isBlank()) return null; String t = s.trim(); java.time.format.DateTimeFormatter[] fmts = new java.time.format.DateTimeFormatter[]{ java.time.format.DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm"), java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm"), java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"), java.time.format.DateTimeFormatter.ofPattern("dd.MM.yyyy") }; for (java.time.format.DateTimeFormatter f : fmts) try { java.time.temporal.TemporalAccessor ta = f.parse(t); if (ta.query(java.time.temporal.TemporalQueries.localDate()) != null) return java.time.LocalDate.from(ta); } catch (Exception ignored) {} return parseLocalDate(t, new java.time.format.DateTimeFormatter[]{ java.time.format.DateTimeFormatter.ofPattern("dd.MM.yyyy"), java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy"), java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd") }); }
-private static java.time.LocalDate parseLocalDateGeneric(Object o) { if (o == null) return null; if (o instanceof java.time.LocalDate) return (java.time.LocalDate) o; if (o instanceof java.sql.Date) return ((java.sql.Date) o).toLocalDate(); if (o instanceof java.util.Date) { java.util.Date d = (java.util.Date) o; return d.toInstant().atZone(java.time.ZoneId.systemDefault()).toLocalDate(); } if (o instanceof Number) { long v = ((Number) o).longValue(); try { return java.time.Instant.ofEpochMilli(v).atZone(java.time.ZoneId.systemDefault()).toLocalDate(); } catch (Exception ignored) {} } String s = o.toString().trim(); if (s.isEmpty()) return null; java.time.format.DateTimeFormatter[] fmts = new java.time.format.DateTimeFormatter[]{ java.time.format.DateTimeFormatter.ofPattern("dd.MM.yyyy"), java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy"), java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd"), java.time.format.DateTimeFormatter.ISO_LOCAL_DATE }; return parseLocalDate(s, fmts); }
+private static java.time.LocalDate parseLocalDate(String s) { return DateScanner.parseDate(s); }
+private static java.time.LocalDate parseLocalDateFromDateTime(String s) { return DateScanner.parseDate(s); }
+private static java.time.LocalDate parseLocalDateGeneric(Object o) { if (o == null) return null; if (o instanceof java.time.LocalDate) return (java.time.LocalDate) o; if (o instanceof java.sql.Date) return ((java.sql.Date) o).toLocalDate(); if (o instanceof java.util.Date) { java.util.Date d = (java.util.Date) o; return d.toInstant().atZone(java.time.ZoneId.systemDefault()).toLocalDate(); } if (o instanceof Number) { long v = ((Number) o).longValue(); try { return java.time.Instant.ofEpochMilli(v).atZone(java.time.ZoneId.systemDefault()).toLocalDate(); } catch (Exception ignored) {} } String s = o.toString().trim(); if (s.isEmpty()) return null; return parseLocalDate(s); }
 
 //computeAverageDailyCapacityM2_LastNWorkingDays: strict historical average
 
@@ -2081,53 +2074,7 @@ private static java.time.LocalDate parseLocalDateGeneric(Object o) { if (o == nu
 
  // Helper: compute average daily capacity m2 from last N days (calendar days).
  private double computeAverageDailyCapacityM2FromModel(int lastNDays) {
-     int idxStatus = tableModel.findColumn("status");
-     int idxM2 = tableModel.findColumn("m2");
-     int idxEnd = tableModel.findColumn("endTime");
-     int idxPred = tableModel.findColumn("predDatumIsporuke");
-     int idxNar = tableModel.findColumn("datumNarudzbe");
-
-     if (idxStatus < 0 || idxM2 < 0) return 0.0;
-
-     LocalDate today = LocalDate.now();
-     LocalDate start = today.minusDays(Math.max(1, lastNDays) - 1);
-
-     double total = 0.0;
-     for (int r = 0; r < tableModel.getRowCount(); r++) {
-         String status = safeString(tableModel.getValueAt(r, idxStatus));
-         if (!"izrađeno".equalsIgnoreCase(status) && !"izradjeno".equalsIgnoreCase(status)) continue;
-
-         double m2 = parseDoubleOrZero(tableModel.getValueAt(r, idxM2));
-         if (m2 <= 0.0) continue;
-
-         LocalDate doneDay = null;
-         if (idxEnd >= 0) {
-             doneDay = parseLocalDateFromDateTime(safeString(tableModel.getValueAt(r, idxEnd)));
-         }
-         if (doneDay == null && idxPred >= 0) {
-             doneDay = parseLocalDate(safeString(tableModel.getValueAt(r, idxPred)),
-                     new java.time.format.DateTimeFormatter[] {
-                             java.time.format.DateTimeFormatter.ofPattern("dd.MM.yyyy"),
-                             java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy"),
-                             java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd")
-                     });
-         }
-         if (doneDay == null && idxNar >= 0) {
-             doneDay = parseLocalDate(safeString(tableModel.getValueAt(r, idxNar)),
-                     new java.time.format.DateTimeFormatter[] {
-                             java.time.format.DateTimeFormatter.ofPattern("dd.MM.yyyy"),
-                             java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy"),
-                             java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd")
-                     });
-         }
-         if (doneDay == null) continue;
-
-         if (!doneDay.isBefore(start) && !doneDay.isAfter(today)) {
-             total += m2;
-         }
-     }
-
-     return total / Math.max(1, lastNDays);
+     return CapacityEstimator.shared().estimate(tableModel, Math.max(1, lastNDays)).getCompletedPerCalendarDay();
  }
 
  // ===== utility helpers =====
@@ -2166,6 +2113,47 @@ private static java.time.LocalDate parseLocalDateGeneric(Object o) { if (o == nu
  // Parses "dd.MM.yyyy HH:mm" or similar; returns only the date part.
 
 
+/**
+ * Tab "Arhiva": sve narudžbe iz baze, straničeno (PagedOrdersTableModel).
+ * Klik na zaglavlje sortira u SQL-u, pretraga filtrira u SQL-u.
+ */
+private JPanel createArchivePanel() {
+    String[] archiveCols = Arrays.stream(columnNames)
+            .filter(c -> !"planDatumIsporuke".equals(c))
+            .toArray(String[]::new);
+    PagedOrdersTableModel archiveModel = new PagedOrdersTableModel(archiveCols);
+    JTable archiveTable = new JTable(archiveModel);
+    archiveTable.setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
+    archiveTable.getTableHeader().addMouseListener(new MouseAdapter() {
+        @Override
+        public void mouseClicked(MouseEvent e) {
+            int viewCol = archiveTable.columnAtPoint(e.getPoint());
+            if (viewCol >= 0) archiveModel.toggleSort(archiveTable.convertColumnIndexToModel(viewCol));
+        }
+    });
+
+    JTextField archiveSearch = new JTextField(20);
+    javax.swing.Timer debounce = new javax.swing.Timer(300, e -> archiveModel.setFilter(archiveSearch.getText()));
+    debounce.setRepeats(false);
+    archiveSearch.getDocument().addDocumentListener(new DocumentListener() {
+        public void insertUpdate(DocumentEvent e) { debounce.restart(); }
+        public void removeUpdate(DocumentEvent e) { debounce.restart(); }
+        public void changedUpdate(DocumentEvent e) { debounce.restart(); }
+    });
+    JButton btnArchiveRefresh = new JButton("Osvježi");
+    btnArchiveRefresh.addActionListener(e -> archiveModel.refresh());
+
+    JPanel top = new JPanel(new FlowLayout(FlowLayout.LEFT));
+    top.add(new JLabel("Pretraga arhive:"));
+    top.add(archiveSearch);
+    top.add(btnArchiveRefresh);
+
+    JPanel panel = new JPanel(new BorderLayout());
+    panel.add(top, BorderLayout.NORTH);
+    panel.add(new JScrollPane(archiveTable), BorderLayout.CENTER);
+    return panel;
+}
+
 //DIJAGNOSTIKA: ispisi zaglavlja modela i mapping na view
 private void debugPrintTableModelInfo() {
   System.out.println("DEBUG: tableModel rowCount=" + tableModel.getRowCount() + " colCount=" + tableModel.getColumnCount());
@@ -0,0 +1,68 @@
+package util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Otisak datoteke za prepoznavanje već uvezenih datoteka: veličina, vrijeme zadnje izmjene
+ * i SHA-256 sadržaja (hex). Veličina i mtime su jeftini za provjeru, hash se računa samo kad treba.
+ */
+public final class FileFingerprint {
+
+    private final long size;
+    private final long lastModified;
+    private final String sha256;
+
+    private FileFingerprint(long size, long lastModified, String sha256) {
+        this.size = size;
+        this.lastModified = lastModified;
+        this.sha256 = sha256;
+    }
+
+    /** Veličina, mtime i SHA-256 sadržaja. */
+    public static FileFingerprint of(Path file) throws IOException {
+        return new FileFingerprint(Files.size(file), Files.getLastModifiedTime(file).toMillis(), sha256(file));
+    }
+
+    public static FileFingerprint of(long size, long lastModified, String sha256) {
+        return new FileFingerprint(size, lastModified, sha256);
+    }
+
+    public long getSize() { return size; }
+    public long getLastModified() { return lastModified; }
+    public String getSha256() { return sha256; }
+
+    /** Isti size i mtime - datoteka (vrlo vjerojatno) nije mijenjana, hash ne treba računati. */
+    public boolean sameSizeAndTime(Path file) throws IOException {
+        return Files.size(file) == size && Files.getLastModifiedTime(file).toMillis() == lastModified;
+    }
+
+    /** SHA-256 sadržaja datoteke kao hex string (čita se u blokovima, bez učitavanja cijele datoteke). */
+    public static String sha256(Path file) throws IOException {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buf = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            int n;
+            while ((n = in.read(buf)) > 0) md.update(buf, 0, n);
+        }
+        StringBuilder sb = new StringBuilder(64);
+        for (byte b : md.digest()) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "FileFingerprint{size=" + size + ", mtime=" + lastModified + ", sha256=" + sha256 + "}";
+    }
+}